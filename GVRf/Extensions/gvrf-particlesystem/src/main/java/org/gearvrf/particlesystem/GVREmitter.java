@@ -15,8 +15,6 @@
 
 package org.gearvrf.particlesystem;
 
-import android.util.Pair;
-
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRSceneObject;
 import org.gearvrf.GVRTexture;
@@ -24,21 +22,21 @@ import org.gearvrf.GVRTransform;
 import org.joml.Vector3f;
 import org.joml.Vector4f;
 
-import java.util.ArrayList;
-
 
 /**
  * The base emitter class from which shape-specific emitter classes inherit.
  * This class is used to set up the the behaviour of the particle system in general.
  * Also, this is used to set the specific particle properties.
  *
- * Every emitter has a set of scene objects as its children. These scene
- * objects each have a mesh attached to them, with the number of vertices in the mesh
- * being equal to the emit rate of the emitter, i.e., every second a new scene object with a mesh
- * having an emitRate number of vertices is added to the emitter as a child.
- * These vertices act as the particles of the system. Consequently, all those
- * children objects which have exceeded their age limits are deleted every second.
- *
+ * Every emitter has a single child scene object with a mesh whose vertices act
+ * as the particles of the system. The mesh is a ring of spawn slots large enough
+ * for all the particles that can be alive at once: every second emitRate particles
+ * overwrite the oldest slots in place, so an emitter is one draw call and does not
+ * allocate anything while it runs. The pool is only rebuilt when the emit rate or
+ * the particle age grows beyond its capacity.
+ * <p>
+ * The particle properties (age, size, color, ...) are shared by all the particles
+ * of an emitter, so changing them also affects the particles already emitted.
  */
 
 class GVREmitter extends GVRSceneObject {
@@ -50,9 +48,8 @@ class GVREmitter extends GVRSceneObject {
     protected GVRContext mGVRContext = null;
 
 
-    //list of active scene objects containing particle meshes,
-    // and their corresponding spawn times.
-    protected ArrayList<Pair<GVRSceneObject, Float>> meshInfo = null;
+    //pool of particles rendered by this emitter, created on the first emission.
+    private volatile Particles mParticles = null;
 
 
     //particle properties
@@ -75,52 +72,30 @@ class GVREmitter extends GVRSceneObject {
     protected boolean burstMode = false;
     private boolean executeOnce = true;
 
-    //values corresponding to the particles which degine the bounding volume of the system.
-    private float[] particleBoundingVolume;
-    private float[] BVSpawnTimes;
-    private float[] BVVelocities;
+    //positions of the particles which define the bounding volume of the system.
+    private final float[] particleBoundingVolume = new float[Particles.BOUNDING_VERTICES * 3];
 
-    private float currTime = 0;
-    ArrayList<Integer> idxsToDelete;
-    
     public GVREmitter(GVRContext gvrContext)
     {
         super(gvrContext);
         mGVRContext = gvrContext;
-        meshInfo = new ArrayList<Pair<GVRSceneObject, Float>>();
-        idxsToDelete = new ArrayList<Integer>();
         mEnvironmentAcceleration = new Vector3f(0.0f,0.0f,0.0f);
         mColor = new Vector4f(1.0f, 1.0f, 1.0f, 1.0f);
         setParticleVolume(100,100,100);
     }
 
     /**
-     * Iterate over the active meshes and delete the ones whose every particle
-     * has exceeded the maximum age limit.
-     * <p>
-     * Particle meshes are generated for upto one second in the future.
-     * Therefore the maximum time particle mesh should be allowed to remain
-     * in the scene is (maxAge of the particles + one second).
-     * <p>
+     * Make sure the arrays the particle attributes are generated into can hold
+     * emitRate particles. They are only reallocated when the emit rate changes.
      */
-
-    protected void onDrawFrame() {
-
-        int numActiveMeshes = meshInfo.size();
-        for (int i = 0; i < numActiveMeshes; i++)
+    protected void ensureParticleArrays()
+    {
+        if ((mParticlePositions == null) || (mParticlePositions.length != mEmitRate * 3))
         {
-            float currMeshSpawnTime = meshInfo.get(i).second;
-            if (currTime - currMeshSpawnTime > mMaxAge + 1) {
-                GVRSceneObject toDelete = meshInfo.get(i).first;
-                GVREmitter.this.removeChildObject(toDelete);
-                idxsToDelete.add(i);
-            }
+            mParticlePositions = new float[mEmitRate * 3];
+            mParticleVelocities = new float[mEmitRate * 3];
+            mParticleGenTimes = new float[mEmitRate * 2];
         }
-        for( int i = idxsToDelete.size() - 1; i >=0; i -- ) {
-            meshInfo.remove((int)idxsToDelete.get(i));
-        }
-
-        idxsToDelete.clear();
     }
 
     /**
@@ -150,9 +125,11 @@ class GVREmitter extends GVRSceneObject {
     }
 
     /**
-     * Append the bounding volume particle positions, times and velocities to the existing mesh
-     * before creating a new scene object with this mesh attached to it.
-     * Also, append every created scene object and its creation time to corresponding array lists.
+     * Write the new particles over the oldest slots of the particle pool.
+     * Particles are generated for upto one second in the future and live
+     * for maxAge seconds, so the pool needs room for (maxAge + 1) seconds
+     * worth of particles. It is created, or replaced if it became too small,
+     * before the particles are written.
      *
      * @param particlePositions
      * @param particleVelocities
@@ -162,30 +139,33 @@ class GVREmitter extends GVRSceneObject {
     private void emit(float[] particlePositions, float[] particleVelocities,
                       float[] particleTimeStamps)
     {
-        float[] allParticlePositions = new float[particlePositions.length + particleBoundingVolume.length];
-        System.arraycopy(particlePositions, 0, allParticlePositions, 0, particlePositions.length);
-        System.arraycopy(particleBoundingVolume, 0, allParticlePositions,
-                        particlePositions.length, particleBoundingVolume.length);
-
-        float[] allSpawnTimes = new float[particleTimeStamps.length + BVSpawnTimes.length];
-        System.arraycopy(particleTimeStamps, 0, allSpawnTimes, 0, particleTimeStamps.length);
-        System.arraycopy(BVSpawnTimes, 0, allSpawnTimes, particleTimeStamps.length, BVSpawnTimes.length);
-
-        float[] allParticleVelocities = new float[particleVelocities.length + BVVelocities.length];
-        System.arraycopy(particleVelocities, 0, allParticleVelocities, 0, particleVelocities.length);
-        System.arraycopy(BVVelocities, 0, allParticleVelocities, particleVelocities.length, BVVelocities.length);
-
-
-        Particles particleMesh = new Particles(mGVRContext, mMaxAge,
-                mParticleSize, mEnvironmentAcceleration, mParticleSizeRate, mFadeWithAge,
-                mParticleTexture, mColor, mNoiseFactor);
-
+        int capacity = mEmitRate * ((int) Math.ceil(mMaxAge) + 2);
+        Particles particles = mParticles;
 
-        GVRSceneObject particleObject = particleMesh.makeParticleMesh(allParticlePositions,
-                allParticleVelocities, allSpawnTimes);
+        if ((particles == null) || (particles.getCapacity() < capacity))
+        {
+            if (particles != null)
+            {
+                removeChildObject(particles.getSceneObject());
+            }
+            particles = new Particles(mGVRContext, capacity);
+            particles.setBoundingVolume(particleBoundingVolume);
+            mParticles = particles;
+            updateProperties();
+            addChildObject(particles.getSceneObject());
+        }
+        particles.emit(particlePositions, particleVelocities, particleTimeStamps,
+                particleTimeStamps.length / 2);
+    }
 
-        this.addChildObject(particleObject);
-        meshInfo.add(Pair.create(particleObject, currTime));
+    private void updateProperties()
+    {
+        Particles particles = mParticles;
+        if (particles != null)
+        {
+            particles.setProperties(mMaxAge, mParticleSize, mEnvironmentAcceleration,
+                    mParticleSizeRate, mFadeWithAge, mParticleTexture, mColor, mNoiseFactor);
+        }
     }
 
 
@@ -211,24 +191,18 @@ class GVREmitter extends GVRSceneObject {
                 public void run() {Vector3f center = new Vector3f(thisTransform.getPositionX(),
                         thisTransform.getPositionY(), thisTransform.getPositionZ());
 
-                    particleBoundingVolume = new float[]{center.x - width/2, center.y - height/2, center.z - depth/2,
-                            center.x - width/2, center.y - height/2, center.z + depth/2,
-                            center.x + width/2, center.y - height/2, center.z + depth/2,
-                            center.x + width/2, center.y - height/2, center.z - depth/2,
-
-                            center.x - width/2, center.y + height/2, center.z - depth/2,
-                            center.x - width/2, center.y + height/2, center.z + depth/2,
-                            center.x + width/2, center.y + height/2, center.z + depth/2,
-                            center.x - width/2, center.y + height/2, center.z - depth/2};
-
-                    BVSpawnTimes = new float[]{Float.MAX_VALUE, 0, Float.MAX_VALUE, 0, Float.MAX_VALUE,
-                            0, Float.MAX_VALUE, 0, Float.MAX_VALUE, 0, Float.MAX_VALUE, 0,
-                            Float.MAX_VALUE, 0, Float.MAX_VALUE, 0};
-
-                    BVVelocities = new float[24];
-                    for ( int i = 0; i < 24; i ++ )
-                        BVVelocities[i] = 0;
-
+                    // corners of the volume, with the spawn time of the pool's
+                    // unused slots they are never drawn
+                    for (int i = 0; i < Particles.BOUNDING_VERTICES; i++) {
+                        particleBoundingVolume[i * 3] = center.x + ((i & 1) == 0 ? -width/2 : width/2);
+                        particleBoundingVolume[i * 3 + 1] = center.y + ((i & 2) == 0 ? -height/2 : height/2);
+                        particleBoundingVolume[i * 3 + 2] = center.z + ((i & 4) == 0 ? -depth/2 : depth/2);
+                    }
+
+                    Particles particles = mParticles;
+                    if (particles != null) {
+                        particles.setBoundingVolume(particleBoundingVolume);
+                    }
                 }
             });
         }
@@ -238,12 +212,10 @@ class GVREmitter extends GVRSceneObject {
 
     protected void tickClock(float time)
     {
-        currTime = time;
-
-        for (int i = 0; i < meshInfo.size(); i ++)
+        Particles particles = mParticles;
+        if (particles != null)
         {
-            GVRSceneObject obj = meshInfo.get(i).first;
-            obj.getRenderData().getMaterial().setFloat("u_time", time);
+            particles.setTime(time);
         }
     }
 
@@ -276,6 +248,7 @@ class GVREmitter extends GVRSceneObject {
     public void setParticleAge ( float age )
     {
         mMaxAge = age;
+        updateProperties();
     }
 
     /**
@@ -284,6 +257,7 @@ class GVREmitter extends GVRSceneObject {
     public void setParticleSize ( float size )
     {
         mParticleSize = size;
+        updateProperties();
     }
 
     /**
@@ -312,6 +286,7 @@ class GVREmitter extends GVRSceneObject {
     public void setEnvironmentAcceleration( Vector3f acceleration )
     {
         mEnvironmentAcceleration = acceleration;
+        updateProperties();
     }
 
     /**
@@ -324,6 +299,7 @@ class GVREmitter extends GVRSceneObject {
     public void setParticleSizeChangeRate( float rate )
     {
         mParticleSizeRate = rate;
+        updateProperties();
     }
 
     /**
@@ -333,6 +309,7 @@ class GVREmitter extends GVRSceneObject {
     public void setFadeWithAge ( boolean fade )
     {
         mFadeWithAge = fade;
+        updateProperties();
     }
 
     /**
@@ -350,6 +327,7 @@ class GVREmitter extends GVRSceneObject {
     public void setParticleTexture(GVRTexture tex)
     {
         mParticleTexture = tex;
+        updateProperties();
     }
 
     /**
@@ -359,6 +337,7 @@ class GVREmitter extends GVRSceneObject {
     public void  setColorMultiplier( Vector4f color )
     {
         mColor = color;
+        updateProperties();
     }
 
     /**
@@ -373,6 +352,7 @@ class GVREmitter extends GVRSceneObject {
             noise = 1;
 
         mNoiseFactor = noise;
+        updateProperties();
     }
 
     /**
@@ -385,6 +365,7 @@ class GVREmitter extends GVRSceneObject {
         {
             this.removeChildObject(this.getChildByIndex(0));
         }
+        mParticles = null;
     }
 
 }
@@ -17,9 +17,6 @@ package org.gearvrf.particlesystem;
 
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRDrawFrameListener;
-import org.gearvrf.scene_objects.GVRTextViewSceneObject;
-import org.gearvrf.utility.Log;
-import org.joml.Vector3f;
 
 import java.lang.ref.WeakReference;
 import java.util.Random;
@@ -45,55 +42,34 @@ public class GVRPlaneEmitter extends GVREmitter {
         mGVRContext.registerDrawFrameListener(mFrameListener);
     }
 
-    private Vector3f getNextPosition() {
-
-        float x = mRandom.nextFloat() * mWidth - mWidth/2;
-        float z = mRandom.nextFloat() * mHeight - mHeight/2;
-        return new Vector3f(x, 0, z);
-    }
+    /**
+     * generate random positions on the plane
+     */
 
-    private float[] generateParticlePositions()
+    private void generateParticlePositions()
     {
-        float[] positions = new float[mEmitRate * 3];
+        float[] positions = mParticlePositions;
         for ( int i = 0; i < mEmitRate * 3; i += 3 ) {
 
-            Vector3f nextPos = getNextPosition();
-            positions[i] = nextPos.x;
-            positions[i+1] = nextPos.y;
-            positions[i+2] = nextPos.z;
+            positions[i] = mRandom.nextFloat() * mWidth - mWidth/2;
+            positions[i+1] = 0;
+            positions[i+2] = mRandom.nextFloat() * mHeight - mHeight/2;
         }
-
-        return positions;
-    }
-
-    private Vector3f getNextVelocity() {
-        float velocityx = minVelocity.x;
-        float velocityy = minVelocity.y;
-        float velocityz = minVelocity.z;
-
-        velocityx += mRandom.nextFloat() * (maxVelocity.x - minVelocity.x);
-        velocityy += mRandom.nextFloat() * (maxVelocity.y - minVelocity.y);
-        velocityz += mRandom.nextFloat() * (maxVelocity.z - minVelocity.z);
-
-        return new Vector3f(velocityx, velocityy, velocityz);
     }
 
     /**
      * generate random velocities in the given range
-     * @return
      */
 
-    private float[] generateParticleVelocities()
+    private void generateParticleVelocities()
     {
-        float velocities[] = new float[mEmitRate * 3];
+        float velocities[] = mParticleVelocities;
         for ( int i = 0; i < mEmitRate * 3; i +=3 )
         {
-            Vector3f nexVel = getNextVelocity();
-            velocities[i] = nexVel.x;
-            velocities[i+1] = nexVel.y;
-            velocities[i+2] = nexVel.z;
+            velocities[i] = minVelocity.x + mRandom.nextFloat() * (maxVelocity.x - minVelocity.x);
+            velocities[i+1] = minVelocity.y + mRandom.nextFloat() * (maxVelocity.y - minVelocity.y);
+            velocities[i+2] = minVelocity.z + mRandom.nextFloat() * (maxVelocity.z - minVelocity.z);
         }
-        return velocities;
     }
 
     /**
@@ -102,17 +78,15 @@ public class GVRPlaneEmitter extends GVREmitter {
      *  with every pair passed.
      *
      * @param totalTime
-     * @return
      */
-    private float[] generateParticleTimeStamps(float totalTime)
+    private void generateParticleTimeStamps(float totalTime)
     {
-        float timeStamps[] = new float[mEmitRate * 2];
+        float timeStamps[] = mParticleGenTimes;
         for ( int i = 0; i < mEmitRate * 2; i +=2 )
         {
             timeStamps[i] = totalTime + mRandom.nextFloat();
             timeStamps[i + 1] = 0;
         }
-        return timeStamps;
     }
 
 
@@ -148,14 +122,13 @@ public class GVRPlaneEmitter extends GVREmitter {
                     if (mElapsedTime > 1.0f) {
                         mElapsedTime = 0;
 
-                        emitter.mParticlePositions = emitter.generateParticlePositions();
-                        emitter.mParticleVelocities = emitter.generateParticleVelocities();
-                        emitter.mParticleGenTimes = emitter.generateParticleTimeStamps(totalTime);
+                        emitter.ensureParticleArrays();
+                        emitter.generateParticlePositions();
+                        emitter.generateParticleVelocities();
+                        emitter.generateParticleTimeStamps(totalTime);
 
                         emitter.emitWithBurstCheck(emitter.mParticlePositions, emitter.mParticleVelocities,
                                 emitter.mParticleGenTimes);
-
-                        emitter.onDrawFrame();
                     }
                 }
             }
@@ -22,91 +22,72 @@ import org.gearvrf.GVRRenderData;
 import org.gearvrf.GVRSceneObject;
 import org.gearvrf.GVRShaderId;
 import org.gearvrf.GVRTexture;
+import org.gearvrf.GVRVertexBuffer;
 import org.joml.Vector3f;
 import org.joml.Vector4f;
 
 import static android.opengl.GLES20.GL_POINTS;
 
 /**
- *  This class is responsible for instancing meshes, with vertices that act as
- *  the actual particles when rendered using GL_POINTS.
+ *  This class owns the single mesh an emitter renders with GL_POINTS.
+ *  The vertices act as the actual particles and are used as a ring of
+ *  spawn slots: every emission overwrites the oldest slots in place,
+ *  so an emitter costs one draw call and allocates nothing once the
+ *  pool has been created.
+ *  <p>
+ *  The last eight vertices hold the bounding volume of the system,
+ *  see {@link GVREmitter#setParticleVolume(float, float, float)}.
  */
 
 class Particles {
 
-    private  GVRContext mGVRContext;
-    private GVRMaterial material;
-    private GVRMesh mParticleMesh;
-    private float mAge;
-    private float mSize;
-    private Vector3f mAcceleration;
-    private float mParticleSizeRate;
-    private float mFadeWithAge;
-    private GVRTexture mTexture;
-    private Vector4f mColorMultiplier;
-    private float mNoiseFactor;
-
-    private GVRShaderId particleID;
-
-    Particles(GVRContext gvrContext, float age, float particleSize,
-                     Vector3f acceleration, float particleSizeRate, boolean fadeWithAge,
-                     GVRTexture tex, Vector4f color, float noiseFactor) {
-
-        mGVRContext = gvrContext;
-        mAge = age;
-        mSize = particleSize;
-        mAcceleration = acceleration;
-        mParticleSizeRate = particleSizeRate;
-        mColorMultiplier = color;
-        if (fadeWithAge)
-            mFadeWithAge = 1.0f;
-        else
-            mFadeWithAge = 0.0f;
-        mTexture = tex;
-        mNoiseFactor = noiseFactor;
-    }
+    static final int BOUNDING_VERTICES = 8;
+
+    private static final String KEY_POSITION = "a_position";
+    private static final String KEY_VELOCITY = "a_normal";
+    private static final String KEY_SPAWN_TIME = "a_texcoord";
+
+    private final GVRMaterial material;
+    private final GVRVertexBuffer mVertices;
+    private final GVRSceneObject mParticleObject;
+    private final int mCapacity;
+    private int mNextSlot = 0;
 
     /**
-     * Creates and returns a GVRSceneObject with the specified mesh attributes.
-     *
-     * @param vertices the vertex positions of that make up the mesh. (x1, y1, z1, x2, y2, z2, ...)
-     * @param velocities the velocity attributes for each vertex. (vx1, vy1, vz1, vx2, vy2, vz2...)
-     * @param particleTimeStamps the spawning times of each vertex. (t1, 0,  t2, 0,  t3, 0 ..)
+     * Creates the particle mesh with room for the given number of particles.
+     * All of the slots start out unused, with a spawn time that is never reached.
      *
-     * @return The GVRSceneObject with this mesh.
+     * @param gvrContext the context of the app
+     * @param capacity   number of particles that can be alive at the same time
      */
+    Particles(GVRContext gvrContext, int capacity) {
 
-    GVRSceneObject makeParticleMesh(float[] vertices, float[] velocities,
-                                           float[] particleTimeStamps )
-    {
-        mParticleMesh = new GVRMesh(mGVRContext);
+        mCapacity = capacity;
+        int numVerts = capacity + BOUNDING_VERTICES;
 
         //pass the particle positions as vertices, velocities as normals, and
         //spawning times as texture coordinates.
-        mParticleMesh.setVertices(vertices);
-        mParticleMesh.setNormals(velocities);
-        mParticleMesh.setTexCoords(particleTimeStamps);
-
-        particleID = new GVRShaderId(ParticleShader.class);
-        material = new GVRMaterial(mGVRContext, particleID);
-
-        material.setVec4("u_color", mColorMultiplier.x, mColorMultiplier.y,
-                mColorMultiplier.z, mColorMultiplier.w);
-        material.setFloat("u_particle_age", mAge);
-        material.setVec3("u_acceleration", mAcceleration.x, mAcceleration.y, mAcceleration.z);
-        material.setFloat("u_particle_size", mSize);
-        material.setFloat("u_size_change_rate", mParticleSizeRate);
-        material.setFloat("u_fade", mFadeWithAge);
-        material.setFloat("u_noise_factor", mNoiseFactor);
-
-        GVRRenderData renderData = new GVRRenderData(mGVRContext);
+        float[] spawnTimes = new float[numVerts * 2];
+        for (int i = 0; i < spawnTimes.length; i += 2) {
+            spawnTimes[i] = Float.MAX_VALUE;
+        }
+        float[] zeros = new float[numVerts * 3];
+        mVertices = new GVRVertexBuffer(gvrContext,
+                "float3 " + KEY_POSITION + " float2 " + KEY_SPAWN_TIME + " float3 " + KEY_VELOCITY,
+                numVerts);
+        mVertices.setFloatArray(KEY_POSITION, zeros);
+        mVertices.setFloatArray(KEY_VELOCITY, zeros);
+        mVertices.setFloatArray(KEY_SPAWN_TIME, spawnTimes);
+
+        GVRShaderId particleID = new GVRShaderId(ParticleShader.class);
+        material = new GVRMaterial(gvrContext, particleID);
+
+        GVRRenderData renderData = new GVRRenderData(gvrContext);
         renderData.setMaterial(material);
-        renderData.setMesh(mParticleMesh);
-        material.setMainTexture(mTexture);
+        renderData.setMesh(new GVRMesh(mVertices, null));
 
-        GVRSceneObject meshObject = new GVRSceneObject(mGVRContext);
-        meshObject.attachRenderData(renderData);
-        meshObject.getRenderData().setMaterial(material);
+        mParticleObject = new GVRSceneObject(gvrContext);
+        mParticleObject.attachRenderData(renderData);
 
         // Set the draw mode to GL_POINTS, disable writing to depth buffer, enable depth testing
         // and set the rendering order to transparent.
@@ -114,11 +95,81 @@ class Particles {
         // and keeping the depth test on along with rendering them
         // after the geometry queue makes sure they occlude, and are occluded, correctly.
 
-        meshObject.getRenderData().setDrawMode(GL_POINTS);
-        meshObject.getRenderData().setDepthTest(true);
-        meshObject.getRenderData().setDepthMask(false);
-        meshObject.getRenderData().setRenderingOrder(GVRRenderData.GVRRenderingOrder.TRANSPARENT);
+        renderData.setDrawMode(GL_POINTS);
+        renderData.setDepthTest(true);
+        renderData.setDepthMask(false);
+        renderData.setRenderingOrder(GVRRenderData.GVRRenderingOrder.TRANSPARENT);
+    }
+
+    /**
+     * @return The GVRSceneObject that renders the particles.
+     */
+    GVRSceneObject getSceneObject() {
+        return mParticleObject;
+    }
+
+    /**
+     * @return number of particle slots in the pool
+     */
+    int getCapacity() {
+        return mCapacity;
+    }
+
+    /**
+     * Update the particle properties shared by all the particles of the pool.
+     */
+    void setProperties(float age, float particleSize, Vector3f acceleration,
+                       float particleSizeRate, boolean fadeWithAge,
+                       GVRTexture tex, Vector4f color, float noiseFactor) {
+
+        material.setVec4("u_color", color.x, color.y, color.z, color.w);
+        material.setFloat("u_particle_age", age);
+        material.setVec3("u_acceleration", acceleration.x, acceleration.y, acceleration.z);
+        material.setFloat("u_particle_size", particleSize);
+        material.setFloat("u_size_change_rate", particleSizeRate);
+        material.setFloat("u_fade", fadeWithAge ? 1.0f : 0.0f);
+        material.setFloat("u_noise_factor", noiseFactor);
+        material.setMainTexture(tex);
+    }
+
+    void setTime(float time) {
+        material.setFloat("u_time", time);
+    }
+
+    /**
+     * Replace the vertices which define the bounding volume of the system.
+     *
+     * @param positions positions of the eight corners (x1, y1, z1, x2, y2, z2, ...)
+     */
+    void setBoundingVolume(float[] positions) {
+        mVertices.setFloatArrayRange(KEY_POSITION, positions, 0, mCapacity, BOUNDING_VERTICES);
+    }
+
+    /**
+     * Write a batch of particles over the oldest slots of the pool.
+     *
+     * @param positions the particle positions. (x1, y1, z1, x2, y2, z2, ...)
+     * @param velocities the velocity of each particle. (vx1, vy1, vz1, vx2, vy2, vz2...)
+     * @param particleTimeStamps the spawning times of each particle. (t1, 0,  t2, 0,  t3, 0 ..)
+     * @param count number of particles in the arrays
+     */
+    void emit(float[] positions, float[] velocities, float[] particleTimeStamps, int count) {
+
+        count = Math.min(count, mCapacity);
+        int first = mNextSlot;
+        int tail = Math.min(count, mCapacity - first);
+
+        writeSlots(positions, velocities, particleTimeStamps, 0, first, tail);
+        if (count > tail) {
+            writeSlots(positions, velocities, particleTimeStamps, tail, 0, count - tail);
+        }
+        mNextSlot = (first + count) % mCapacity;
+    }
 
-        return meshObject;
+    private void writeSlots(float[] positions, float[] velocities, float[] particleTimeStamps,
+                            int srcIndex, int firstSlot, int count) {
+        mVertices.setFloatArrayRange(KEY_POSITION, positions, srcIndex * 3, firstSlot, count);
+        mVertices.setFloatArrayRange(KEY_VELOCITY, velocities, srcIndex * 3, firstSlot, count);
+        mVertices.setFloatArrayRange(KEY_SPAWN_TIME, particleTimeStamps, srcIndex * 2, firstSlot, count);
     }
 }
@@ -0,0 +1,175 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.physics;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The collision events of one physics step, as typed records in a direct
+ * {@link ByteBuffer} that is filled by native code and reused from step to
+ * step. Reading events does not allocate anything.
+ * <p>
+ * A stream is only valid inside
+ * {@link ICollisionStreamListener#onCollisions(GVRWorld, GVRCollisionStream)};
+ * it is overwritten by the next step.
+ */
+public final class GVRCollisionStream {
+    /** The two bodies started touching in this step. */
+    public static final int ENTER = 0;
+    /** The two bodies were already touching and still are. */
+    public static final int STAY = 1;
+    /** The two bodies stopped touching in this step. */
+    public static final int EXIT = 2;
+
+    /*
+     * Record layout, must match CollisionRecord in physics_world.h
+     */
+    static final int RECORD_SIZE = 40;
+    private static final int BODY_A = 0;
+    private static final int BODY_B = 8;
+    private static final int TYPE = 16;
+    private static final int NORMAL = 20;
+    private static final int DISTANCE = 32;
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final GVRWorld mWorld;
+    private ByteBuffer mBuffer;
+    private int mCount;
+
+    GVRCollisionStream(GVRWorld world) {
+        mWorld = world;
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        mBuffer = ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    ByteBuffer getBuffer() {
+        return mBuffer;
+    }
+
+    int getCapacity() {
+        return mBuffer.capacity() / RECORD_SIZE;
+    }
+
+    void ensureCapacity(int count) {
+        int capacity = getCapacity();
+        if (count > capacity) {
+            while (capacity < count) {
+                capacity *= 2;
+            }
+            allocate(capacity);
+        }
+    }
+
+    void setCount(int count) {
+        mCount = count;
+    }
+
+    /**
+     * @return the number of collision events in this step.
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * @param index event index, from 0 to {@link #getCount()} - 1
+     * @return {@link #ENTER}, {@link #STAY} or {@link #EXIT}
+     */
+    public int getType(int index) {
+        return mBuffer.getInt(offset(index) + TYPE);
+    }
+
+    /**
+     * @param index event index, from 0 to {@link #getCount()} - 1
+     * @return the first body of the colliding pair, or {@code null} if it
+     *         has been removed from the world.
+     */
+    public GVRRigidBody getBodyA(int index) {
+        return mWorld.findBody(getNativeBodyA(index));
+    }
+
+    /**
+     * @param index event index, from 0 to {@link #getCount()} - 1
+     * @return the second body of the colliding pair, or {@code null} if it
+     *         has been removed from the world.
+     */
+    public GVRRigidBody getBodyB(int index) {
+        return mWorld.findBody(getNativeBodyB(index));
+    }
+
+    /**
+     * @param index event index, from 0 to {@link #getCount()} - 1
+     * @return native pointer of the first body, as returned by
+     *         {@link GVRRigidBody#getNative()}.
+     */
+    public long getNativeBodyA(int index) {
+        return mBuffer.getLong(offset(index) + BODY_A);
+    }
+
+    /**
+     * @param index event index, from 0 to {@link #getCount()} - 1
+     * @return native pointer of the second body, as returned by
+     *         {@link GVRRigidBody#getNative()}.
+     */
+    public long getNativeBodyB(int index) {
+        return mBuffer.getLong(offset(index) + BODY_B);
+    }
+
+    /**
+     * @param index event index, from 0 to {@link #getCount()} - 1
+     * @return distance between the objects (usually zero)
+     */
+    public float getDistance(int index) {
+        return mBuffer.getFloat(offset(index) + DISTANCE);
+    }
+
+    public float getNormalX(int index) {
+        return mBuffer.getFloat(offset(index) + NORMAL);
+    }
+
+    public float getNormalY(int index) {
+        return mBuffer.getFloat(offset(index) + NORMAL + 4);
+    }
+
+    public float getNormalZ(int index) {
+        return mBuffer.getFloat(offset(index) + NORMAL + 8);
+    }
+
+    /**
+     * Copy the contact normal of an event.
+     *
+     * @param index event index, from 0 to {@link #getCount()} - 1
+     * @param normal array of at least 3 floats that receives the normal
+     */
+    public void getNormal(int index, float[] normal) {
+        final int offset = offset(index) + NORMAL;
+        normal[0] = mBuffer.getFloat(offset);
+        normal[1] = mBuffer.getFloat(offset + 4);
+        normal[2] = mBuffer.getFloat(offset + 8);
+    }
+
+    private int offset(int index) {
+        if (index < 0 || index >= mCount) {
+            throw new IndexOutOfBoundsException("Invalid collision index " + index);
+        }
+        return index * RECORD_SIZE;
+    }
+}
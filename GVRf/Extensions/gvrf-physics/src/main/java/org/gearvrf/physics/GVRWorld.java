@@ -21,13 +21,19 @@ import android.util.LongSparseArray;
 import org.gearvrf.GVRComponent;
 import org.gearvrf.GVRComponentGroup;
 import org.gearvrf.GVRContext;
+import org.gearvrf.GVRDrawFrameListener;
 import org.gearvrf.GVRSceneObject;
 import org.gearvrf.GVRSceneObject.ComponentVisitor;
 import org.gearvrf.GVRTransform;
 import org.gearvrf.ISceneObjectEvents;
+import org.gearvrf.debug.GVRFrameProfiler;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Represents a physics world where all {@link GVRSceneObject} with {@link GVRRigidBody} component
  * attached to are simulated.
@@ -39,6 +45,11 @@ public class GVRWorld extends GVRComponent {
     private final GVRPhysicsContext mPhysicsContext;
     private GVRWorldTask mWorldTask;
     private static final long DEFAULT_INTERVAL = 15;
+    private static final int DEFAULT_MAX_SUBSTEPS = 4;
+
+    private volatile float mFixedTimeStep = 0.0f;
+    private volatile int mMaxSubSteps = DEFAULT_MAX_SUBSTEPS;
+    private boolean mInterpolating = false;
 
     private long mNativeLoader;
 
@@ -49,9 +60,81 @@ public class GVRWorld extends GVRComponent {
     private final LongSparseArray<GVRPhysicsWorldObject> mPhysicsObject = new LongSparseArray<GVRPhysicsWorldObject>();
     private final GVRCollisionMatrix mCollisionMatrix;
 
+    private final GVRCollisionStream mCollisionStream = new GVRCollisionStream(this);
+    private final List<ICollisionStreamListener> mCollisionListeners = new ArrayList<ICollisionStreamListener>();
+    private volatile ICollisionStreamListener[] mCollisionListenerArray = new ICollisionStreamListener[0];
+    private volatile boolean mSendCollisionEvents = true;
+
     private final PhysicsDragger mPhysicsDragger;
     private GVRRigidBody mRigidBodyDragMe = null;
 
+    /**
+     * Dynamic AABB tree broadphase. Good general purpose choice, handles
+     * unbounded worlds and many moving bodies.
+     */
+    public static final int BROADPHASE_DBVT = 0;
+
+    /**
+     * Sweep and prune broadphase. Requires the world bounds to be known in advance
+     * and performs best when most bodies are static or slow moving.
+     */
+    public static final int BROADPHASE_SAP = 1;
+
+    /**
+     * Settings of the native physics world. They must be chosen before the
+     * world is created and are passed to
+     * {@link GVRWorld#GVRWorld(GVRContext, GVRCollisionMatrix, long, Settings)}.
+     */
+    public static class Settings {
+        private int mNumThreads = 1;
+        private int mBroadphase = BROADPHASE_DBVT;
+        private final float[] mWorldMin = { -1000.0f, -1000.0f, -1000.0f };
+        private final float[] mWorldMax = { 1000.0f, 1000.0f, 1000.0f };
+
+        /**
+         * Sets the number of threads used to run the collision detection and the
+         * constraint solver. One (the default) keeps the simulation single threaded.
+         *
+         * @param numThreads number of threads, including the physics thread.
+         * @return this settings object
+         */
+        public Settings setNumThreads(int numThreads) {
+            if (numThreads < 1) {
+                throw new IllegalArgumentException("numThreads must be at least 1");
+            }
+            mNumThreads = numThreads;
+            return this;
+        }
+
+        /**
+         * Selects the broadphase algorithm.
+         *
+         * @param broadphase {@link #BROADPHASE_DBVT} (default) or {@link #BROADPHASE_SAP}
+         * @return this settings object
+         */
+        public Settings setBroadphase(int broadphase) {
+            if (broadphase != BROADPHASE_DBVT && broadphase != BROADPHASE_SAP) {
+                throw new IllegalArgumentException("Unknown broadphase " + broadphase);
+            }
+            mBroadphase = broadphase;
+            return this;
+        }
+
+        /**
+         * Sets the bounds of the world, only used by {@link #BROADPHASE_SAP}.
+         * Bodies outside of these bounds are not tested for collisions.
+         *
+         * @param worldMin minimum corner of the world
+         * @param worldMax maximum corner of the world
+         * @return this settings object
+         */
+        public Settings setWorldBounds(Vector3f worldMin, Vector3f worldMax) {
+            worldMin.get(mWorldMin);
+            worldMax.get(mWorldMax);
+            return this;
+        }
+    }
+
     /**
      * Constructs new instance to simulate the Physics World of the Scene.
      *
@@ -90,7 +173,23 @@ public class GVRWorld extends GVRComponent {
      * @param interval interval (in milliseconds) at which the collisions will be updated.
      */
     public GVRWorld(GVRContext gvrContext, GVRCollisionMatrix collisionMatrix, long interval) {
-        super(gvrContext, NativePhysics3DWorld.ctor());
+        this(gvrContext, collisionMatrix, interval, null);
+    }
+
+    /**
+     * Constructs new instance to simulate the Physics World of the Scene using the given
+     * native world settings (solver threads, broadphase algorithm and world bounds).
+     *
+     * @param gvrContext The context of the app.
+     * @param collisionMatrix a matrix that represents the collision relations of the bodies on the scene
+     * @param interval interval (in milliseconds) at which the collisions will be updated.
+     * @param settings settings of the native world, or null to use the defaults.
+     */
+    public GVRWorld(GVRContext gvrContext, GVRCollisionMatrix collisionMatrix, long interval,
+                    Settings settings) {
+        super(gvrContext, settings == null ? NativePhysics3DWorld.ctor()
+                : NativePhysics3DWorld.ctorWithSettings(settings.mNumThreads, settings.mBroadphase,
+                        settings.mWorldMin, settings.mWorldMax));
         mPhysicsDragger = new PhysicsDragger(gvrContext);
         mInitialized = false;
         mCollisionMatrix = collisionMatrix;
@@ -252,41 +351,185 @@ public class GVRWorld extends GVRComponent {
         });
     }
 
+    /**
+     * Step the simulation with a fixed time step instead of the time elapsed
+     * since the previous step.
+     * <p>
+     * In this mode the poses of all moving rigid bodies are copied into one
+     * native buffer after each step, and every frame the GL thread sets the
+     * scene object transforms in a single pass, interpolating between the
+     * last two physics steps. This gives smooth motion independent of the
+     * physics update interval. Dynamic bodies should then be moved through
+     * the {@link GVRRigidBody} API rather than through their transform.
+     *
+     * @param timeStep fixed step in seconds (1/60 is typical), or 0 to go
+     *                 back to variable time steps.
+     * @param maxSubSteps maximum number of fixed steps taken per update, to
+     *                    keep the simulation from spiraling when it falls behind.
+     */
+    public void setFixedTimeStep(final float timeStep, final int maxSubSteps) {
+        if (timeStep < 0 || maxSubSteps < 1) {
+            throw new IllegalArgumentException("Invalid fixed time step");
+        }
+        mFixedTimeStep = timeStep;
+        mMaxSubSteps = maxSubSteps;
+
+        mPhysicsContext.runOnPhysicsThread(new Runnable() {
+            @Override
+            public void run() {
+                NativePhysics3DWorld.setFixedTimeStep(getNative(), timeStep);
+            }
+        });
+        updateInterpolation(mWorldTask.isRunning());
+    }
+
+    /**
+     * @return the fixed time step in seconds, or 0 if the simulation is
+     *         stepped with the elapsed time.
+     */
+    public float getFixedTimeStep() {
+        return mFixedTimeStep;
+    }
+
+    private synchronized void updateInterpolation(boolean running) {
+        final boolean interpolate = running && mFixedTimeStep > 0.0f;
+        if (interpolate == mInterpolating) {
+            return;
+        }
+        mInterpolating = interpolate;
+        if (interpolate) {
+            getGVRContext().registerDrawFrameListener(mInterpolator);
+        } else {
+            getGVRContext().unregisterDrawFrameListener(mInterpolator);
+        }
+    }
+
+    private final GVRDrawFrameListener mInterpolator = new GVRDrawFrameListener() {
+        @Override
+        public void onDrawFrame(float frameTime) {
+            final long start = GVRFrameProfiler.begin();
+            NativePhysics3DWorld.applyInterpolatedTransforms(getNative());
+            GVRFrameProfiler.end(GVRFrameProfiler.PHASE_PHYSICS_SYNC, start);
+        }
+    };
+
     private void startSimulation() {
         mWorldTask.start();
+        updateInterpolation(true);
     }
 
     private void stopSimulation() {
         mWorldTask.stop();
+        updateInterpolation(false);
     }
 
-    private void generateCollisionEvents() {
-        GVRCollisionInfo collisionInfos[] = NativePhysics3DWorld.listCollisions(getNative());
-
-        String onEnter = "onEnter";
-        String onExit = "onExit";
-
-        for (GVRCollisionInfo info : collisionInfos) {
-            if (info.isHit) {
-                sendCollisionEvent(info, onEnter);
-            } else if (mPhysicsObject.get(info.bodyA) != null
-                    && mPhysicsObject.get(info.bodyB) != null) {
-                // If both bodies are in the scene.
-                sendCollisionEvent(info, onExit);
+    /**
+     * Add a listener that receives all collision events of each physics step
+     * on the physics thread, read in place from a reused buffer.
+     *
+     * @param listener the listener to add
+     * @see #setSendCollisionEvents(boolean)
+     */
+    public void addCollisionListener(ICollisionStreamListener listener) {
+        synchronized (mCollisionListeners) {
+            if (!mCollisionListeners.contains(listener)) {
+                mCollisionListeners.add(listener);
+                mCollisionListenerArray = mCollisionListeners.toArray(new ICollisionStreamListener[0]);
+            }
+        }
+    }
+
+    /**
+     * Remove a listener added with {@link #addCollisionListener(ICollisionStreamListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeCollisionListener(ICollisionStreamListener listener) {
+        synchronized (mCollisionListeners) {
+            if (mCollisionListeners.remove(listener)) {
+                mCollisionListenerArray = mCollisionListeners.toArray(new ICollisionStreamListener[0]);
             }
         }
+    }
 
+    /**
+     * Enable or disable sending {@link ICollisionEvents} to the colliding
+     * scene objects through the event manager. Apps that only use
+     * {@link ICollisionStreamListener} can disable them to save the cost of
+     * dispatching every event twice by reflection. Enabled by default.
+     *
+     * @param enable true to send {@link ICollisionEvents}
+     */
+    public void setSendCollisionEvents(boolean enable) {
+        mSendCollisionEvents = enable;
     }
 
-    private void sendCollisionEvent(GVRCollisionInfo info, String eventName) {
-        GVRSceneObject bodyA = mPhysicsObject.get(info.bodyA).getOwnerObject();
-        GVRSceneObject bodyB = mPhysicsObject.get(info.bodyB).getOwnerObject();
+    /**
+     * Find a rigid body of this world by its native pointer. Only call this on
+     * the physics thread, for instance from an {@link ICollisionStreamListener}.
+     *
+     * @param nativePointer native pointer of the body
+     * @return the rigid body, or {@code null} if it is not in this world.
+     */
+    GVRRigidBody findBody(long nativePointer) {
+        GVRPhysicsWorldObject object = mPhysicsObject.get(nativePointer);
+        return (object instanceof GVRRigidBody) ? (GVRRigidBody) object : null;
+    }
 
+    private void generateCollisionEvents() {
+        final ICollisionStreamListener[] listeners = mCollisionListenerArray;
+        final GVRCollisionStream stream = mCollisionStream;
+
+        int count = NativePhysics3DWorld.updateCollisions(getNative(), stream.getBuffer(), listeners.length > 0);
+        if (count > stream.getCapacity()) {
+            stream.ensureCapacity(count);
+            NativePhysics3DWorld.getCollisions(getNative(), stream.getBuffer());
+        }
+        stream.setCount(count);
+
+        for (ICollisionStreamListener listener : listeners) {
+            listener.onCollisions(this, stream);
+        }
+
+        if (!mSendCollisionEvents) {
+            return;
+        }
+        for (int i = 0; i < count; ++i) {
+            switch (stream.getType(i)) {
+                case GVRCollisionStream.ENTER:
+                    sendCollisionEvent(stream, i, "onEnter");
+                    break;
+
+                case GVRCollisionStream.EXIT:
+                    // Only if both bodies are still in the scene.
+                    if (stream.getBodyA(i) != null && stream.getBodyB(i) != null) {
+                        sendCollisionEvent(stream, i, "onExit");
+                    }
+                    break;
+
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void sendCollisionEvent(GVRCollisionStream stream, int index, String eventName) {
+        GVRRigidBody rigidBodyA = stream.getBodyA(index);
+        GVRRigidBody rigidBodyB = stream.getBodyB(index);
+        if (rigidBodyA == null || rigidBodyB == null) {
+            return;
+        }
+        GVRSceneObject bodyA = rigidBodyA.getOwnerObject();
+        GVRSceneObject bodyB = rigidBodyB.getOwnerObject();
+        float[] normal = new float[3];
+        float distance = stream.getDistance(index);
+
+        stream.getNormal(index, normal);
         getGVRContext().getEventManager().sendEvent(bodyA, ICollisionEvents.class, eventName,
-                bodyA, bodyB, info.normal, info.distance);
+                bodyA, bodyB, normal, distance);
 
         getGVRContext().getEventManager().sendEvent(bodyB, ICollisionEvents.class, eventName,
-                bodyB, bodyA, info.normal, info.distance);
+                bodyB, bodyA, normal, distance);
     }
 
     private void doPhysicsAttach(GVRSceneObject rootSceneObject) {
@@ -361,7 +604,7 @@ public class GVRWorld extends GVRComponent {
     }
 
     private class GVRWorldTask implements Runnable {
-        private boolean running = false;
+        private volatile boolean running = false;
         private final long intervalMillis;
         private float timeStep;
         private int maxSubSteps;
@@ -387,8 +630,13 @@ public class GVRWorld extends GVRComponent {
                 Log.v("GVRPhysicsWorld", "onStep " + timeStep + "ms" + ", subSteps " + maxSubSteps);
             }*/
 
-            timeStep  = simulationTime - lastSimulTime;
-            maxSubSteps = (int) (timeStep * 60) / 1000 + 1;
+            if (mFixedTimeStep > 0.0f) {
+                timeStep = (simulationTime - lastSimulTime) / 1000.0f;
+                maxSubSteps = mMaxSubSteps;
+            } else {
+                timeStep = simulationTime - lastSimulTime;
+                maxSubSteps = (int) (timeStep * 60) / 1000 + 1;
+            }
 
             NativePhysics3DWorld.step(getNative(), timeStep, maxSubSteps);
 
@@ -408,6 +656,10 @@ public class GVRWorld extends GVRComponent {
 
         }
 
+        public boolean isRunning() {
+            return running;
+        }
+
         public void start() {
             // To avoid concurrency
             mPhysicsContext.runOnPhysicsThread(new Runnable() {
@@ -511,6 +763,9 @@ public class GVRWorld extends GVRComponent {
 class NativePhysics3DWorld {
     static native long ctor();
 
+    static native long ctorWithSettings(int numThreads, int broadphase,
+                                        float[] worldMin, float[] worldMax);
+
     static native long getComponentType();
 
     static native boolean addConstraint(long jphysics_world, long jconstraint);
@@ -530,9 +785,15 @@ class NativePhysics3DWorld {
 
     static native void step(long jphysics_world, float jtime_step, int maxSubSteps);
 
+    static native void setFixedTimeStep(long jphysics_world, float jtime_step);
+
+    static native void applyInterpolatedTransforms(long jphysics_world);
+
     static native void getGravity(long jworld, float[] array);
 
     static native void setGravity(long jworld, float x, float y, float z);
 
-    static native GVRCollisionInfo[] listCollisions(long jphysics_world);
+    static native int updateCollisions(long jphysics_world, ByteBuffer buffer, boolean includeStay);
+
+    static native int getCollisions(long jphysics_world, ByteBuffer buffer);
 }
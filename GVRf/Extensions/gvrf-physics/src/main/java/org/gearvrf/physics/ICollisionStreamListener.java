@@ -0,0 +1,36 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.physics;
+
+/**
+ * Receives all collision events of a physics step at once.
+ * <p>
+ * Unlike {@link ICollisionEvents}, which is dispatched through the event
+ * manager for every event, this is called once per step on the physics thread
+ * with a {@link GVRCollisionStream} that is read in place. It also reports
+ * {@link GVRCollisionStream#STAY} events for contacts that persist.
+ *
+ * @see GVRWorld#addCollisionListener(ICollisionStreamListener)
+ */
+public interface ICollisionStreamListener {
+    /**
+     * Called on the physics thread after every step.
+     *
+     * @param world  the world that was stepped
+     * @param stream the collision events of the step; only valid during this call
+     */
+    void onCollisions(GVRWorld world, GVRCollisionStream stream);
+}
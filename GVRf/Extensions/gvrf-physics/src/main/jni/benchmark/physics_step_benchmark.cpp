@@ -0,0 +1,117 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Headless benchmark of the Bullet world setups used by BulletWorld.
+ * Steps piles of boxes for several body and thread counts and prints
+ * the average cost of one simulation step. Build with
+ * -DPHYSICS_BENCHMARK=ON and run the executable on the device with adb.
+ ***************************************************************************/
+
+#include "../engine/bullet/bullet_world_setup.h"
+
+#include <BulletCollision/CollisionShapes/btBoxShape.h>
+#include <BulletDynamics/Dynamics/btDiscreteDynamicsWorld.h>
+#include <BulletDynamics/Dynamics/btRigidBody.h>
+#include <LinearMath/btDefaultMotionState.h>
+
+#include <chrono>
+#include <cstdio>
+#include <cstdlib>
+#include <vector>
+
+using namespace gvr;
+
+static const float TIME_STEP = 1.0f / 60.0f;
+static const int WARMUP_STEPS = 60;
+static const int MEASURED_STEPS = 300;
+
+static double runPile(const BulletWorldConfig& config, int numBodies) {
+    BulletWorldSetup setup;
+    createBulletWorld(config, setup);
+    setup.world->setGravity(btVector3(0, -10, 0));
+
+    btBoxShape groundShape(btVector3(100, 1, 100));
+    btBoxShape boxShape(btVector3(0.5f, 0.5f, 0.5f));
+    std::vector<btRigidBody*> bodies;
+    std::vector<btMotionState*> states;
+
+    btDefaultMotionState* groundState = new btDefaultMotionState(
+            btTransform(btQuaternion::getIdentity(), btVector3(0, -1, 0)));
+    btRigidBody* ground = new btRigidBody(0, groundState, &groundShape);
+    setup.world->addRigidBody(ground);
+    bodies.push_back(ground);
+    states.push_back(groundState);
+
+    // Columns of 10 boxes laid out on a square grid, slightly apart so
+    // that they settle into many independent islands.
+    btVector3 inertia;
+    boxShape.calculateLocalInertia(1.0f, inertia);
+    int columns = (numBodies + 9) / 10;
+    int side = 1;
+    while (side * side < columns) {
+        ++side;
+    }
+    for (int i = 0; i < numBodies; ++i) {
+        int column = i / 10;
+        btVector3 position(1.5f * (column % side - side / 2), 0.5f + 1.01f * (i % 10),
+                           1.5f * (column / side - side / 2));
+        btDefaultMotionState* state = new btDefaultMotionState(
+                btTransform(btQuaternion::getIdentity(), position));
+        btRigidBody* body = new btRigidBody(1.0f, state, &boxShape, inertia);
+        setup.world->addRigidBody(body);
+        bodies.push_back(body);
+        states.push_back(state);
+    }
+
+    for (int i = 0; i < WARMUP_STEPS; ++i) {
+        setup.world->stepSimulation(TIME_STEP, 0);
+    }
+    auto start = std::chrono::steady_clock::now();
+    for (int i = 0; i < MEASURED_STEPS; ++i) {
+        setup.world->stepSimulation(TIME_STEP, 0);
+    }
+    std::chrono::duration<double, std::milli> elapsed = std::chrono::steady_clock::now() - start;
+
+    for (size_t i = 0; i < bodies.size(); ++i) {
+        setup.world->removeRigidBody(bodies[i]);
+        delete bodies[i];
+        delete states[i];
+    }
+    destroyBulletWorld(setup);
+    return elapsed.count() / MEASURED_STEPS;
+}
+
+int main(int argc, char** argv) {
+    static const int bodyCounts[] = { 100, 250, 500, 1000, 2000 };
+    static const int threadCounts[] = { 1, 2, 4 };
+    static const char* broadphaseNames[] = { "dbvt", "sap" };
+
+    printf("%-6s %8s %8s %12s\n", "broad", "bodies", "threads", "ms/step");
+    for (int broadphase = BulletWorldConfig::BROADPHASE_DBVT;
+         broadphase <= BulletWorldConfig::BROADPHASE_SAP; ++broadphase) {
+        for (int bodies : bodyCounts) {
+            for (int threads : threadCounts) {
+                BulletWorldConfig config;
+                config.broadphase = broadphase;
+                config.numThreads = threads;
+                double ms = runPile(config, bodies);
+                printf("%-6s %8d %8d %12.3f\n", broadphaseNames[broadphase], bodies, threads, ms);
+                fflush(stdout);
+            }
+        }
+    }
+    return EXIT_SUCCESS;
+}
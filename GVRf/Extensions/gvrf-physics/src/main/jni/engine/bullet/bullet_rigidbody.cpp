@@ -32,7 +32,9 @@ BulletRigidBody::BulletRigidBody()
           mRigidBody(new btRigidBody(mConstructionInfo)),
           m_centerOfMassOffset(btTransform::getIdentity()),
           mScale(1.0f, 1.0f, 1.0f),
-          mSimType(SimulationType::DYNAMIC)
+          mSimType(SimulationType::DYNAMIC),
+          mSyncDeferred(false),
+          mPoseSlot(-1)
 {
     mRigidBody->setUserPointer(this);
 }
@@ -42,7 +44,9 @@ BulletRigidBody::BulletRigidBody(btRigidBody *rigidBody)
           mRigidBody(rigidBody),
           m_centerOfMassOffset(btTransform::getIdentity()),
           mScale(1.0f, 1.0f, 1.0f),
-          mSimType(SimulationType::DYNAMIC)
+          mSimType(SimulationType::DYNAMIC),
+          mSyncDeferred(false),
+          mPoseSlot(-1)
 {
     mRigidBody->setUserPointer(this);
     mConstructionInfo.m_mass = rigidBody->isStaticObject() ? 0.f : 1.f / rigidBody->getInvMass();
@@ -187,6 +191,9 @@ void BulletRigidBody::getWorldTransform(btTransform &centerOfMassWorldTrans) con
 }
 
 void BulletRigidBody::setWorldTransform(const btTransform &centerOfMassWorldTrans) {
+    if (mSyncDeferred) {
+        return;
+    }
     Transform* trans = owner_object()->transform();
     btTransform aux; getWorldTransform(aux);
 
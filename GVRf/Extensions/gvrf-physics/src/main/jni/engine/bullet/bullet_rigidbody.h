@@ -150,6 +150,27 @@ class BulletRigidBody : public PhysicsRigidBody,
 
     void updateConstructionInfo();
 
+    /**
+     * In fixed time step mode the world copies the body poses into a shared
+     * buffer after each step, instead of every body writing its own
+     * transform from the physics thread.
+     */
+    void setSyncDeferred(bool deferred) {
+        mSyncDeferred = deferred;
+    }
+
+    int getPoseSlot() const {
+        return mPoseSlot;
+    }
+
+    void setPoseSlot(int slot) {
+        mPoseSlot = slot;
+    }
+
+    btTransform getPhysicsTransform() const {
+        return mRigidBody->getWorldTransform() * m_centerOfMassOffset;
+    }
+
 private:
 
     void finalize();
@@ -164,6 +185,8 @@ private:
     btTransform prevPos;
     btVector3 mScale;
     SimulationType mSimType;
+    bool mSyncDeferred;
+    int mPoseSlot;
 };
 
 }
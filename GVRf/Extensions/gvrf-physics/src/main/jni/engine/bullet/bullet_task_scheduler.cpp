@@ -0,0 +1,128 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "bullet_task_scheduler.h"
+
+#include <algorithm>
+
+namespace gvr {
+
+BulletTaskScheduler* BulletTaskScheduler::getInstance() {
+    static BulletTaskScheduler* instance = new BulletTaskScheduler();
+    return instance;
+}
+
+BulletTaskScheduler::BulletTaskScheduler()
+        : btITaskScheduler("GVRThreadPool"),
+          mNumThreads(1),
+          mBody(nullptr),
+          mNext(0),
+          mEnd(0),
+          mGrainSize(1),
+          mBusyWorkers(0),
+          mGeneration(0),
+          mQuit(false)
+{
+    int cores = (int) std::thread::hardware_concurrency();
+    mMaxThreads = std::max(1, std::min(cores, (int) BT_MAX_THREAD_COUNT));
+}
+
+BulletTaskScheduler::~BulletTaskScheduler() {
+    {
+        std::lock_guard<std::mutex> lock(mLock);
+        mQuit = true;
+    }
+    mWakeup.notify_all();
+    for (auto& worker : mWorkers) {
+        worker.join();
+    }
+}
+
+int BulletTaskScheduler::getMaxNumThreads() const {
+    return mMaxThreads;
+}
+
+int BulletTaskScheduler::getNumThreads() const {
+    return mNumThreads;
+}
+
+void BulletTaskScheduler::setNumThreads(int numThreads) {
+    std::lock_guard<std::mutex> lock(mLock);
+    mNumThreads = std::max(1, std::min(numThreads, mMaxThreads));
+
+    // Workers are only ever added; extra ones just sit out the loops
+    while ((int) mWorkers.size() < mNumThreads - 1) {
+        mWorkers.emplace_back(&BulletTaskScheduler::workerLoop, this, (int) mWorkers.size());
+    }
+}
+
+void BulletTaskScheduler::parallelFor(int iBegin, int iEnd, int grainSize,
+                                      const btIParallelForBody& body) {
+    grainSize = std::max(1, grainSize);
+    if (mNumThreads <= 1 || (iEnd - iBegin) <= grainSize) {
+        body.forLoop(iBegin, iEnd);
+        return;
+    }
+
+    std::unique_lock<std::mutex> lock(mLock);
+    mBody = &body;
+    mNext = iBegin;
+    mEnd = iEnd;
+    mGrainSize = grainSize;
+    mBusyWorkers = mNumThreads - 1;
+    ++mGeneration;
+    lock.unlock();
+    mWakeup.notify_all();
+
+    runChunks();
+
+    lock.lock();
+    mDone.wait(lock, [this] { return mBusyWorkers == 0; });
+    mBody = nullptr;
+}
+
+void BulletTaskScheduler::runChunks() {
+    while (true) {
+        int begin = mNext.fetch_add(mGrainSize);
+        if (begin >= mEnd) {
+            break;
+        }
+        mBody->forLoop(begin, std::min(begin + mGrainSize, mEnd));
+    }
+}
+
+void BulletTaskScheduler::workerLoop(int index) {
+    unsigned int seen = 0;
+    std::unique_lock<std::mutex> lock(mLock);
+
+    while (true) {
+        mWakeup.wait(lock, [this, seen] { return mQuit || mGeneration != seen; });
+        if (mQuit) {
+            return;
+        }
+        seen = mGeneration;
+        if (index >= mNumThreads - 1) {
+            continue;
+        }
+        lock.unlock();
+        runChunks();
+        lock.lock();
+        if (--mBusyWorkers == 0) {
+            mDone.notify_one();
+        }
+    }
+}
+
+}
@@ -0,0 +1,83 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Thread pool task scheduler for the multi-threaded Bullet world
+ ***************************************************************************/
+
+#ifndef BULLET_TASK_SCHEDULER_H_
+#define BULLET_TASK_SCHEDULER_H_
+
+#include <LinearMath/btThreads.h>
+
+#include <atomic>
+#include <condition_variable>
+#include <mutex>
+#include <thread>
+#include <vector>
+
+namespace gvr {
+
+/**
+ * Bullet only ships OpenMP, TBB and PPL schedulers, none of which are
+ * available on Android, so this one runs btParallelFor loops on a pool of
+ * std::threads. The calling thread takes part in every loop, so N threads
+ * means N - 1 workers.
+ *
+ * The scheduler is process-wide (Bullet has a single global scheduler);
+ * use getInstance() and setNumThreads().
+ */
+class BulletTaskScheduler : public btITaskScheduler {
+ public:
+    static BulletTaskScheduler* getInstance();
+
+    virtual ~BulletTaskScheduler();
+
+    virtual int getMaxNumThreads() const;
+
+    virtual int getNumThreads() const;
+
+    virtual void setNumThreads(int numThreads);
+
+    virtual void parallelFor(int iBegin, int iEnd, int grainSize, const btIParallelForBody& body);
+
+ private:
+    BulletTaskScheduler();
+
+    void workerLoop(int index);
+
+    void runChunks();
+
+ private:
+    std::vector<std::thread> mWorkers;
+    std::mutex mLock;
+    std::condition_variable mWakeup;
+    std::condition_variable mDone;
+    int mMaxThreads;
+    int mNumThreads;
+
+    // current loop, guarded by mLock except for the atomic cursor
+    const btIParallelForBody* mBody;
+    std::atomic<int> mNext;
+    int mEnd;
+    int mGrainSize;
+    int mBusyWorkers;
+    unsigned int mGeneration;
+    bool mQuit;
+};
+
+}
+
+#endif /* BULLET_TASK_SCHEDULER_H_ */
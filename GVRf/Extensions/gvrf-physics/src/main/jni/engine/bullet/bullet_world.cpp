@@ -16,44 +16,36 @@
 #include "bullet_world.h"
 #include "bullet_rigidbody.h"
 
-#include <BulletCollision/CollisionDispatch/btDefaultCollisionConfiguration.h>
-#include <BulletCollision/BroadphaseCollision/btDbvtBroadphase.h>
 #include <BulletDynamics/Dynamics/btDiscreteDynamicsWorld.h>
 
-#include <BulletDynamics/Dynamics/btDynamicsWorld.h>
-#include <BulletDynamics/ConstraintSolver/btSequentialImpulseConstraintSolver.h>
-
 #include <android/log.h>
+#include <cstring>
 
 namespace gvr {
 
 BulletWorld::BulletWorld() {
-    initialize();
+    initialize(BulletWorldConfig());
+}
+
+BulletWorld::BulletWorld(const BulletWorldConfig& config) {
+    initialize(config);
 }
 
 BulletWorld::~BulletWorld() {
     finalize();
 }
 
-void BulletWorld::initialize() {
-    // Default setup for memory, collision setup.
-    mCollisionConfiguration = new btDefaultCollisionConfiguration();
-
-    /// Default collision dispatcher.
-    mDispatcher = new btCollisionDispatcher(mCollisionConfiguration);
-
-    ///btDbvtBroadphase is a good general purpose broadphase. You can also try out btAxis3Sweep.
-    mOverlappingPairCache = new btDbvtBroadphase();
-
-    ///the default constraint solver. For parallel processing you can use a different solver (see Extras/BulletMultiThreaded)
-    mSolver = new btSequentialImpulseConstraintSolver;
-
-    mPhysicsWorld = new btDiscreteDynamicsWorld(mDispatcher, mOverlappingPairCache, mSolver,
-                                                mCollisionConfiguration);
+void BulletWorld::initialize(const BulletWorldConfig& config) {
+    createBulletWorld(config, mSetup);
+    mPhysicsWorld = mSetup.world;
 
     mPhysicsWorld->setGravity(btVector3(0, -10, 0));
 
     mDraggingConstraint = nullptr;
+    mFixedTimeStep = 0.0f;
+    mTimeRemainder = 0.0f;
+    mInterpolation = 1.0f;
+    mCollisionFrame = 0;
 }
 
 void BulletWorld::finalize() {
@@ -70,19 +62,9 @@ void BulletWorld::finalize() {
         delete mDraggingConstraint;
     }
 
-    //delete dynamics world
-    delete mPhysicsWorld;
-
-    //delete solver
-    delete mSolver;
-
-    //delete broadphase
-    delete mOverlappingPairCache;
-
-    //delete dispatcher
-    delete mDispatcher;
-
-    delete mCollisionConfiguration;
+    // delete dynamics world, solver, broadphase, dispatcher
+    destroyBulletWorld(mSetup);
+    mPhysicsWorld = nullptr;
 }
 
 void BulletWorld::addConstraint(PhysicsConstraint *constraint) {
@@ -122,17 +104,31 @@ void BulletWorld::stopDrag() {
 void BulletWorld::addRigidBody(PhysicsRigidBody *body) {
     btRigidBody *b = (static_cast<BulletRigidBody *>(body))->getRigidBody();
     body->updateConstructionInfo();
+    static_cast<BulletRigidBody *>(body)->setSyncDeferred(mFixedTimeStep > 0.0f);
     mPhysicsWorld->addRigidBody(b);
 }
 
 void BulletWorld::addRigidBody(PhysicsRigidBody *body, int collisiontype, int collidesWith) {
     body->updateConstructionInfo();
+    static_cast<BulletRigidBody *>(body)->setSyncDeferred(mFixedTimeStep > 0.0f);
     mPhysicsWorld->addRigidBody((static_cast<BulletRigidBody *>(body))->getRigidBody(),
                                 collidesWith, collisiontype);
 }
 
 void BulletWorld::removeRigidBody(PhysicsRigidBody *body) {
-    mPhysicsWorld->removeRigidBody((static_cast<BulletRigidBody *>(body))->getRigidBody());
+    BulletRigidBody* rb = static_cast<BulletRigidBody *>(body);
+    rb->setSyncDeferred(false);
+    {
+        // the GL thread must not write to the owner once the body is gone,
+        // the next snapshot compacts the slot away
+        std::lock_guard<std::mutex> lock(mPoseLock);
+        int slot = rb->getPoseSlot();
+        if ((slot >= 0) && ((size_t) slot < mPoseOwners.size())) {
+            mPoseOwners[slot] = nullptr;
+        }
+        rb->setPoseSlot(-1);
+    }
+    mPhysicsWorld->removeRigidBody(rb->getRigidBody());
 }
 
 void BulletWorld::step(float timeStep, int maxSubSteps) {
@@ -142,70 +138,193 @@ void BulletWorld::step(float timeStep, int maxSubSteps) {
         mDraggingConstraint->setPivotB(btVector3(matrixB[3][0], matrixB[3][1], matrixB[3][2]));
     }
 
-    mPhysicsWorld->stepSimulation(timeStep, maxSubSteps);
+    if (mFixedTimeStep > 0.0f)
+    {
+        // Bullet keeps the remainder of the accumulated time between calls,
+        // mTimeRemainder follows it to know how far past the last step we are
+        int numSteps = mPhysicsWorld->stepSimulation(timeStep, maxSubSteps, mFixedTimeStep);
+        mTimeRemainder += timeStep - numSteps * mFixedTimeStep;
+        mTimeRemainder = std::min(mFixedTimeStep, std::max(0.0f, mTimeRemainder));
+        if (numSteps > 0) {
+            snapshotPoses();
+        }
+        std::lock_guard<std::mutex> lock(mPoseLock);
+        mInterpolation = mTimeRemainder / mFixedTimeStep;
+    }
+    else
+    {
+        mPhysicsWorld->stepSimulation(timeStep, maxSubSteps);
+    }
+}
+
+void BulletWorld::setFixedTimeStep(float timeStep) {
+    mFixedTimeStep = timeStep;
+    mTimeRemainder = 0.0f;
+
+    btCollisionObjectArray& objects = mPhysicsWorld->getCollisionObjectArray();
+    for (int i = 0; i < objects.size(); ++i) {
+        btRigidBody* rb = btRigidBody::upcast(objects[i]);
+        if (rb != nullptr && rb->getUserPointer() != nullptr) {
+            BulletRigidBody* body = static_cast<BulletRigidBody*>(rb->getUserPointer());
+            body->setSyncDeferred(timeStep > 0.0f);
+            body->setPoseSlot(-1);
+        }
+    }
+
+    std::lock_guard<std::mutex> lock(mPoseLock);
+    mPoses.clear();
+    mPoseOwners.clear();
+    mInterpolation = 1.0f;
 }
 
 /**
- * Returns by reference the list of new and ceased collisions
- *  that will be the objects of ONENTER and ONEXIT events.
+ * Called on the physics thread after an update which took at least one
+ * step in fixed time step mode:
+ * keeps the previous pose of every moving body and records the new one.
  */
-void BulletWorld::listCollisions(std::list <ContactPoint> &contactPoints) {
+void BulletWorld::snapshotPoses() {
+    std::lock_guard<std::mutex> lock(mPoseLock);
+    btCollisionObjectArray& objects = mPhysicsWorld->getCollisionObjectArray();
+    size_t numBodies = 0;
+
+    for (int i = 0; i < objects.size(); ++i) {
+        btRigidBody* rb = btRigidBody::upcast(objects[i]);
+        if (rb == nullptr || rb->isStaticOrKinematicObject() || rb->getUserPointer() == nullptr) {
+            continue;
+        }
+        BulletRigidBody* body = static_cast<BulletRigidBody*>(rb->getUserPointer());
+        SceneObject* owner = body->owner_object();
+        if (owner == nullptr) {
+            continue;
+        }
+        body->setSyncDeferred(true);
 
-/*
- * Creates a list of all the current collisions on the World
- * */
-    std::map<std::pair<long,long>, ContactPoint> currCollisions;
-    int numManifolds = mPhysicsWorld->getDispatcher()->getNumManifolds();
-    btPersistentManifold *contactManifold;
+        if (numBodies >= mPoseOwners.size()) {
+            mPoseOwners.push_back(nullptr);
+            mPoses.resize(mPoseOwners.size() * POSE_STRIDE);
+        }
+        float* prev = &mPoses[numBodies * POSE_STRIDE];
+        float* curr = prev + POSE_SIZE;
+        bool sameSlot = (body->getPoseSlot() == (int) numBodies) && (mPoseOwners[numBodies] == owner);
 
-    for (int i = 0; i < numManifolds; i++) {
-        ContactPoint contactPt;
-
-        contactManifold = mPhysicsWorld->getDispatcher()->
-                getManifoldByIndexInternal(i);
-
-        contactPt.body0 = (BulletRigidBody *) (contactManifold->getBody0()->getUserPointer());
-        contactPt.body1 = (BulletRigidBody *) (contactManifold->getBody1()->getUserPointer());
-        contactPt.normal[0] = contactManifold->getContactPoint(0).m_normalWorldOnB.getX();
-        contactPt.normal[1] = contactManifold->getContactPoint(0).m_normalWorldOnB.getY();
-        contactPt.normal[2] = contactManifold->getContactPoint(0).m_normalWorldOnB.getZ();
-        contactPt.distance = contactManifold->getContactPoint(0).getDistance();
-        contactPt.isHit = true;
-
-        std::pair<long, long> collisionPair((long)contactPt.body0, (long)contactPt.body1);
-        std::pair<std::pair<long, long>, ContactPoint> newPair(collisionPair, contactPt);
-        currCollisions.insert(newPair);
-
-        /*
-         * If one of these current collisions is not on the list with all the previous
-         * collision, then it should be on the return list, because it is an onEnter event
-         * */
-        auto it = prevCollisions.find(collisionPair);
-        if ( it == prevCollisions.end()) {
-            contactPoints.push_front(contactPt);
-        } 
-        contactManifold = 0;
+        if (sameSlot) {
+            memcpy(prev, curr, POSE_SIZE * sizeof(float));
+        }
+        btTransform t = body->getPhysicsTransform();
+        btVector3 pos = t.getOrigin();
+        btQuaternion rot = t.getRotation();
+        curr[0] = pos.getX();
+        curr[1] = pos.getY();
+        curr[2] = pos.getZ();
+        curr[3] = rot.getW();
+        curr[4] = rot.getX();
+        curr[5] = rot.getY();
+        curr[6] = rot.getZ();
+        if (!sameSlot) {
+            // new body, or bodies were added / removed: nothing to interpolate from
+            memcpy(prev, curr, POSE_SIZE * sizeof(float));
+        }
+        mPoseOwners[numBodies] = owner;
+        body->setPoseSlot(numBodies);
+        ++numBodies;
     }
+    mPoseOwners.resize(numBodies);
+    mPoses.resize(numBodies * POSE_STRIDE);
+}
 
-    /*
-     * After going through all the current list, go through all the previous collisions list,
-     * if one of its collisions is not on the current collision list, then it should be
-     * on the return list, because it is an onExit event
-     * */
-    for (auto it = prevCollisions.begin(); it != prevCollisions.end(); ++it) {
-        if (currCollisions.find(it->first) == currCollisions.end()) {
-            ContactPoint cp = it->second;
-            cp.isHit = false;
-            contactPoints.push_front(cp);
+/**
+ * Called on the GL thread once per frame in fixed time step mode: sets the
+ * transform of every moving body to its pose interpolated between the last
+ * two physics steps, in one pass over the shared pose buffer. The blend
+ * factor is the time accumulated since the last step over the fixed step.
+ */
+void BulletWorld::applyInterpolatedTransforms() {
+    std::lock_guard<std::mutex> lock(mPoseLock);
+    if (mPoseOwners.empty()) {
+        return;
+    }
+
+    float alpha = mInterpolation;
+
+    for (size_t i = 0; i < mPoseOwners.size(); ++i) {
+        SceneObject* owner = mPoseOwners[i];
+        Transform* trans = (owner != nullptr) ? owner->transform() : nullptr;
+        if (trans == nullptr) {
+            // removed since the last step, or no longer has a transform
+            continue;
         }
+        const float* prev = &mPoses[i * POSE_STRIDE];
+        const float* curr = prev + POSE_SIZE;
+
+        glm::vec3 pos = glm::mix(glm::vec3(prev[0], prev[1], prev[2]),
+                                 glm::vec3(curr[0], curr[1], curr[2]), alpha);
+        glm::quat rot = glm::slerp(glm::quat(prev[3], prev[4], prev[5], prev[6]),
+                                   glm::quat(curr[3], curr[4], curr[5], curr[6]), alpha);
+        trans->set_position(pos.x, pos.y, pos.z);
+        trans->set_rotation(rot.w, rot.x, rot.y, rot.z);
     }
+}
 
-/*
- * Save all the current collisions on the previous collisions list for the next iteration
- * */
-    prevCollisions.clear();
-    prevCollisions.swap(currCollisions);
+/**
+ * Diffs the current contact manifolds against the persistent contact set:
+ * new pairs produce ONENTER events, pairs that are no longer touching produce
+ * ONEXIT events and, if asked for, ongoing pairs produce ONSTAY events.
+ * Nothing is allocated once the contact set and record vector have grown
+ * to the size of the scene.
+ */
+const std::vector<CollisionRecord>& BulletWorld::updateCollisions(bool includeStay) {
+    btDispatcher* dispatcher = mPhysicsWorld->getDispatcher();
+    int numManifolds = dispatcher->getNumManifolds();
 
+    mCollisionRecords.clear();
+    ++mCollisionFrame;
+
+    for (int i = 0; i < numManifolds; i++) {
+        btPersistentManifold* contactManifold = dispatcher->getManifoldByIndexInternal(i);
+
+        if (contactManifold->getNumContacts() <= 0) {
+            continue;
+        }
+
+        const btManifoldPoint& point = contactManifold->getContactPoint(0);
+        BulletRigidBody* body0 = (BulletRigidBody*) contactManifold->getBody0()->getUserPointer();
+        BulletRigidBody* body1 = (BulletRigidBody*) contactManifold->getBody1()->getUserPointer();
+        PhysicsRigidBody* rb0 = body0;
+        PhysicsRigidBody* rb1 = body1;
+        BodyPair key(rb0, rb1);
+
+        auto it = mContacts.find(key);
+        bool entered = (it == mContacts.end());
+        if (entered) {
+            it = mContacts.emplace(key, ContactState()).first;
+        }
+
+        CollisionRecord& record = it->second.record;
+        record.body0 = reinterpret_cast<int64_t>(rb0);
+        record.body1 = reinterpret_cast<int64_t>(rb1);
+        record.type = entered ? COLLISION_ENTER : COLLISION_STAY;
+        record.normal[0] = point.m_normalWorldOnB.getX();
+        record.normal[1] = point.m_normalWorldOnB.getY();
+        record.normal[2] = point.m_normalWorldOnB.getZ();
+        record.distance = point.getDistance();
+        record.reserved = 0;
+        it->second.frame = mCollisionFrame;
+
+        if (entered || includeStay) {
+            mCollisionRecords.push_back(record);
+        }
+    }
+
+    for (auto it = mContacts.begin(); it != mContacts.end(); ) {
+        if (it->second.frame != mCollisionFrame) {
+            mCollisionRecords.push_back(it->second.record);
+            mCollisionRecords.back().type = COLLISION_EXIT;
+            it = mContacts.erase(it);
+        } else {
+            ++it;
+        }
+    }
+    return mCollisionRecords;
 }
 
 
@@ -22,16 +22,15 @@
 
 #include "../physics_common.h"
 #include "../physics_world.h"
+#include "bullet_world_setup.h"
 
+#include <mutex>
 #include <utility>
-#include <map>
+#include <unordered_map>
+#include <vector>
 #include <BulletDynamics/ConstraintSolver/btPoint2PointConstraint.h>
 
-class btDynamicsWorld;
-class btCollisionConfiguration;
-class btCollisionDispatcher;
-class btSequentialImpulseConstraintSolver;
-class btBroadphaseInterface;
+class btDiscreteDynamicsWorld;
 
 namespace gvr {
 
@@ -42,6 +41,8 @@ class BulletWorld : public PhysicsWorld {
  public:
     BulletWorld();
 
+    explicit BulletWorld(const BulletWorldConfig& config);
+
     virtual ~BulletWorld();
 
     void addConstraint(PhysicsConstraint *constraint);
@@ -61,7 +62,15 @@ class BulletWorld : public PhysicsWorld {
 
     void step(float timeStep, int maxSubSteps);
 
-    void listCollisions(std::list <ContactPoint> &contactPoints);
+    void setFixedTimeStep(float timeStep);
+
+    void applyInterpolatedTransforms();
+
+    const std::vector<CollisionRecord>& updateCollisions(bool includeStay);
+
+    const std::vector<CollisionRecord>& getCollisionRecords() const {
+        return mCollisionRecords;
+    }
 
     void setGravity(float x, float y, float z);
 
@@ -70,17 +79,51 @@ class BulletWorld : public PhysicsWorld {
     PhysicsVec3 getGravity() const;
 
  private:
-    void initialize();
+    void initialize(const BulletWorldConfig& config);
 
     void finalize();
 
+    void snapshotPoses();
+
  private:
-    std::map<std::pair <long,long>, ContactPoint> prevCollisions;
-    btDynamicsWorld *mPhysicsWorld;
-    btCollisionConfiguration *mCollisionConfiguration;
-    btCollisionDispatcher *mDispatcher;
-    btSequentialImpulseConstraintSolver *mSolver;
-    btBroadphaseInterface *mOverlappingPairCache;
+    /*
+     * Fixed time step mode: the pose of every non-static body after each
+     * step is recorded in mPoses (previous and current pose per body,
+     * position then rotation) and the GL thread interpolates between them
+     * in applyInterpolatedTransforms(), by the time left over after the
+     * last step as a fraction of the fixed step.
+     */
+    static const int POSE_SIZE = 7;
+    static const int POSE_STRIDE = 2 * POSE_SIZE;
+
+    float mFixedTimeStep;
+    std::mutex mPoseLock;
+    std::vector<float> mPoses;
+    std::vector<SceneObject*> mPoseOwners;
+    float mTimeRemainder;
+    float mInterpolation;
+
+    typedef std::pair<const void*, const void*> BodyPair;
+
+    struct BodyPairHash {
+        size_t operator()(const BodyPair& pair) const {
+            size_t h0 = std::hash<const void*>()(pair.first);
+            size_t h1 = std::hash<const void*>()(pair.second);
+            return h0 ^ (h1 + 0x9e3779b9 + (h0 << 6) + (h0 >> 2));
+        }
+    };
+
+    struct ContactState {
+        CollisionRecord record;
+        unsigned int frame;
+    };
+
+    // Contacts persist across steps; only pairs that start or stop touching are inserted / erased
+    std::unordered_map<BodyPair, ContactState, BodyPairHash> mContacts;
+    std::vector<CollisionRecord> mCollisionRecords;
+    unsigned int mCollisionFrame;
+    BulletWorldSetup mSetup;
+    btDiscreteDynamicsWorld *mPhysicsWorld;
 
     btPoint2PointConstraint *mDraggingConstraint;
     SceneObject *mPivotObject;
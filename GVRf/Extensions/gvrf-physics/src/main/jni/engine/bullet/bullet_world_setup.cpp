@@ -0,0 +1,73 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "bullet_world_setup.h"
+#include "bullet_task_scheduler.h"
+
+#include <BulletCollision/BroadphaseCollision/btAxisSweep3.h>
+#include <BulletCollision/BroadphaseCollision/btDbvtBroadphase.h>
+#include <BulletCollision/CollisionDispatch/btCollisionDispatcherMt.h>
+#include <BulletCollision/CollisionDispatch/btDefaultCollisionConfiguration.h>
+#include <BulletDynamics/ConstraintSolver/btSequentialImpulseConstraintSolver.h>
+#include <BulletDynamics/Dynamics/btDiscreteDynamicsWorld.h>
+#include <BulletDynamics/Dynamics/btDiscreteDynamicsWorldMt.h>
+
+namespace gvr {
+
+void createBulletWorld(const BulletWorldConfig& config, BulletWorldSetup& setup) {
+    // Default setup for memory, collision setup.
+    setup.collisionConfiguration = new btDefaultCollisionConfiguration();
+
+    if (config.broadphase == BulletWorldConfig::BROADPHASE_SAP) {
+        btVector3 worldMin(config.worldMin[0], config.worldMin[1], config.worldMin[2]);
+        btVector3 worldMax(config.worldMax[0], config.worldMax[1], config.worldMax[2]);
+        setup.broadphase = new bt32BitAxisSweep3(worldMin, worldMax);
+    } else {
+        ///btDbvtBroadphase is a good general purpose broadphase.
+        setup.broadphase = new btDbvtBroadphase();
+    }
+
+    if (config.numThreads > 1) {
+        // The scheduler must be in place before any of the Mt classes are created
+        BulletTaskScheduler* scheduler = BulletTaskScheduler::getInstance();
+        scheduler->setNumThreads(config.numThreads);
+        btSetTaskScheduler(scheduler);
+
+        int numThreads = scheduler->getNumThreads();
+        btConstraintSolverPoolMt* solverPool = new btConstraintSolverPoolMt(numThreads);
+
+        setup.dispatcher = new btCollisionDispatcherMt(setup.collisionConfiguration);
+        setup.solver = solverPool;
+        setup.world = new btDiscreteDynamicsWorldMt(setup.dispatcher, setup.broadphase,
+                                                    solverPool, setup.collisionConfiguration);
+    } else {
+        /// Default collision dispatcher and constraint solver.
+        setup.dispatcher = new btCollisionDispatcher(setup.collisionConfiguration);
+        setup.solver = new btSequentialImpulseConstraintSolver;
+        setup.world = new btDiscreteDynamicsWorld(setup.dispatcher, setup.broadphase,
+                                                  setup.solver, setup.collisionConfiguration);
+    }
+}
+
+void destroyBulletWorld(BulletWorldSetup& setup) {
+    delete setup.world;
+    delete setup.solver;
+    delete setup.broadphase;
+    delete setup.dispatcher;
+    delete setup.collisionConfiguration;
+    setup = BulletWorldSetup();
+}
+
+}
@@ -0,0 +1,71 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Creation of the Bullet dynamics world and its helpers, independent of
+ * the GVRf scene graph so that it can be benchmarked headless.
+ ***************************************************************************/
+
+#ifndef BULLET_WORLD_SETUP_H_
+#define BULLET_WORLD_SETUP_H_
+
+class btBroadphaseInterface;
+class btCollisionConfiguration;
+class btCollisionDispatcher;
+class btConstraintSolver;
+class btDiscreteDynamicsWorld;
+
+namespace gvr {
+
+struct BulletWorldConfig {
+    enum Broadphase {
+        /** Dynamic AABB tree: good general purpose choice, handles unbounded and very dynamic worlds */
+        BROADPHASE_DBVT = 0,
+        /** Sweep and prune: faster for mostly static scenes that fit in known bounds */
+        BROADPHASE_SAP = 1
+    };
+
+    /** 1 for the single-threaded world, more to solve islands on a thread pool */
+    int numThreads = 1;
+    int broadphase = BROADPHASE_DBVT;
+    /** World bounds, only used by the sweep and prune broadphase */
+    float worldMin[3] = { -1000.0f, -1000.0f, -1000.0f };
+    float worldMax[3] = { 1000.0f, 1000.0f, 1000.0f };
+};
+
+struct BulletWorldSetup {
+    btCollisionConfiguration* collisionConfiguration = nullptr;
+    btCollisionDispatcher* dispatcher = nullptr;
+    btBroadphaseInterface* broadphase = nullptr;
+    btConstraintSolver* solver = nullptr;
+    btDiscreteDynamicsWorld* world = nullptr;
+};
+
+/**
+ * Create a dynamics world as described by the configuration. With more
+ * than one thread this sets up the process-wide task scheduler and uses
+ * btDiscreteDynamicsWorldMt with a pool of solvers.
+ */
+void createBulletWorld(const BulletWorldConfig& config, BulletWorldSetup& setup);
+
+/**
+ * Delete the world and its helpers, in reverse order of creation. The
+ * collision objects must already have been removed.
+ */
+void destroyBulletWorld(BulletWorldSetup& setup);
+
+}
+
+#endif /* BULLET_WORLD_SETUP_H_ */
@@ -24,18 +24,32 @@
 #include "physics_rigidbody.h"
 #include "physics_constraint.h"
 #include "../objects/scene_object.h"
-#include <list>
+#include <cstdint>
+#include <vector>
 
 namespace gvr {
 
-struct ContactPoint {
-	PhysicsRigidBody* body0 = 0;
-	PhysicsRigidBody* body1 = 0;
-	float normal[3] = {0.0f, 0.0f, 0.0f};
-	float distance = 0.0f;
-	bool isHit = true;
+enum CollisionEventType {
+    COLLISION_ENTER = 0,
+    COLLISION_STAY = 1,
+    COLLISION_EXIT = 2
 };
 
+/*
+ * One collision event, as read by GVRCollisionStream on the Java side.
+ * The layout must match GVRCollisionStream.RECORD_SIZE and its offsets.
+ */
+struct CollisionRecord {
+    int64_t body0;
+    int64_t body1;
+    int32_t type;
+    float normal[3];
+    float distance;
+    int32_t reserved;
+};
+
+static_assert(sizeof(CollisionRecord) == 40, "CollisionRecord layout must match GVRCollisionStream");
+
 class PhysicsWorld : public Component {
 public:
     PhysicsWorld() : Component(PhysicsWorld::getComponentType()){}
@@ -63,7 +77,21 @@ public:
 
     virtual void step(float timeStep, int maxSubSteps) = 0;
 
-    virtual void listCollisions(std::list<ContactPoint>& contactPoints) = 0;
+    virtual void setFixedTimeStep(float timeStep) = 0;
+
+    virtual void applyInterpolatedTransforms() = 0;
+
+    /**
+     * Compare the current contacts with those of the previous call and
+     * return the enter / exit (and optionally stay) events. The returned
+     * vector is owned by the world and reused by the next call.
+     */
+    virtual const std::vector<CollisionRecord>& updateCollisions(bool includeStay) = 0;
+
+    /**
+     * The events returned by the last call to updateCollisions().
+     */
+    virtual const std::vector<CollisionRecord>& getCollisionRecords() const = 0;
 
     virtual void setGravity(float gx, float gy, float gz) = 0;
 
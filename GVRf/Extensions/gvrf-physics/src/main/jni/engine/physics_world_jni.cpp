@@ -27,6 +27,9 @@
 
 #include "util/gvr_jni.h"
 
+#include <algorithm>
+#include <cstring>
+
 static char tag[] = "PhysWorldJNI";
 
 namespace gvr {
@@ -35,6 +38,10 @@ extern "C" {
     JNIEXPORT jlong JNICALL
     Java_org_gearvrf_physics_NativePhysics3DWorld_ctor(JNIEnv * env, jobject obj);
 
+    JNIEXPORT jlong JNICALL
+    Java_org_gearvrf_physics_NativePhysics3DWorld_ctorWithSettings(JNIEnv * env, jobject obj,
+            jint numThreads, jint broadphase, jfloatArray worldMin, jfloatArray worldMax);
+
     JNIEXPORT jlong JNICALL
     Java_org_gearvrf_physics_NativePhysics3DWorld_getComponentType(JNIEnv * env, jobject obj);
 
@@ -71,9 +78,21 @@ extern "C" {
     Java_org_gearvrf_physics_NativePhysics3DWorld_step(JNIEnv * env, jobject obj,
             jlong jworld, jfloat jtime_step, int maxSubSteps);
 
-    JNIEXPORT jobjectArray JNICALL
-    Java_org_gearvrf_physics_NativePhysics3DWorld_listCollisions(JNIEnv * env, jobject obj,
-                                                                    jlong jworld);
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_physics_NativePhysics3DWorld_setFixedTimeStep(JNIEnv * env, jobject obj,
+            jlong jworld, jfloat jtime_step);
+
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_physics_NativePhysics3DWorld_applyInterpolatedTransforms(JNIEnv * env,
+            jobject obj, jlong jworld);
+
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_physics_NativePhysics3DWorld_updateCollisions(JNIEnv * env, jobject obj,
+            jlong jworld, jobject jbuffer, jboolean jinclude_stay);
+
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_physics_NativePhysics3DWorld_getCollisions(JNIEnv * env, jobject obj,
+            jlong jworld, jobject jbuffer);
 
     JNIEXPORT void JNICALL
     Java_org_gearvrf_physics_NativePhysics3DWorld_setGravity(JNIEnv* env, jobject obj,
@@ -89,6 +108,18 @@ Java_org_gearvrf_physics_NativePhysics3DWorld_ctor(JNIEnv * env, jobject obj) {
     return reinterpret_cast<jlong>(new BulletWorld());
 }
 
+JNIEXPORT jlong JNICALL
+Java_org_gearvrf_physics_NativePhysics3DWorld_ctorWithSettings(JNIEnv * env, jobject obj,
+        jint numThreads, jint broadphase, jfloatArray worldMin, jfloatArray worldMax) {
+    BulletWorldConfig config;
+
+    config.numThreads = numThreads;
+    config.broadphase = broadphase;
+    env->GetFloatArrayRegion(worldMin, 0, 3, config.worldMin);
+    env->GetFloatArrayRegion(worldMax, 0, 3, config.worldMax);
+    return reinterpret_cast<jlong>(new BulletWorld(config));
+}
+
 JNIEXPORT jlong JNICALL
 Java_org_gearvrf_physics_NativePhysics3DWorld_getComponentType(JNIEnv * env, jobject obj) {
     return PhysicsWorld::getComponentType();
@@ -166,39 +197,52 @@ Java_org_gearvrf_physics_NativePhysics3DWorld_step(JNIEnv * env, jobject obj,
     world->step((float)jtime_step, maxSubSteps);
 }
 
-JNIEXPORT jobjectArray JNICALL
-Java_org_gearvrf_physics_NativePhysics3DWorld_listCollisions(JNIEnv * env, jobject obj, jlong jworld) {
+JNIEXPORT void JNICALL
+Java_org_gearvrf_physics_NativePhysics3DWorld_setFixedTimeStep(JNIEnv * env, jobject obj,
+        jlong jworld, jfloat jtime_step) {
+    PhysicsWorld *world = reinterpret_cast<PhysicsWorld*>(jworld);
 
-    jclass collisionInfoClass = env->FindClass("org/gearvrf/physics/GVRCollisionInfo");
-    jmethodID collisionInfoConstructor = env->GetMethodID(collisionInfoClass, "<init>", "(JJ[FFZ)V");
+    world->setFixedTimeStep((float)jtime_step);
+}
 
-    PhysicsWorld *world = reinterpret_cast <PhysicsWorld*> (jworld);
-    std::list <ContactPoint> contactPoints;
+JNIEXPORT void JNICALL
+Java_org_gearvrf_physics_NativePhysics3DWorld_applyInterpolatedTransforms(JNIEnv * env,
+        jobject obj, jlong jworld) {
+    PhysicsWorld *world = reinterpret_cast<PhysicsWorld*>(jworld);
 
-    world->listCollisions(contactPoints);
+    world->applyInterpolatedTransforms();
+}
 
-    int size = contactPoints.size();
-    jobjectArray jNewList = env->NewObjectArray(size, collisionInfoClass, NULL);
+static jint copyCollisions(JNIEnv * env, const std::vector<CollisionRecord>& records, jobject jbuffer) {
+    void* dst = env->GetDirectBufferAddress(jbuffer);
+    jlong capacity = env->GetDirectBufferCapacity(jbuffer) / sizeof(CollisionRecord);
+    size_t count = std::min((size_t) capacity, records.size());
 
-    int i = 0;
-    for (auto it = contactPoints.begin(); it != contactPoints.end(); ++it) {
-        const ContactPoint& data = *it;
+    if (dst != nullptr && count > 0) {
+        memcpy(dst, records.data(), count * sizeof(CollisionRecord));
+    }
+    return (jint) records.size();
+}
 
-        jfloatArray normal = env->NewFloatArray(3);
-        env->SetFloatArrayRegion(normal, 0, 3, data.normal);
+/*
+ * Copies the collision events of the last step into a direct ByteBuffer.
+ * Returns the total number of events: if it is larger than the buffer can
+ * hold, the caller grows the buffer and calls getCollisions().
+ */
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_physics_NativePhysics3DWorld_updateCollisions(JNIEnv * env, jobject obj,
+        jlong jworld, jobject jbuffer, jboolean jinclude_stay) {
+    PhysicsWorld *world = reinterpret_cast <PhysicsWorld*> (jworld);
 
-        jobject contactObject = env->NewObject(collisionInfoClass, collisionInfoConstructor,
-                                               (jlong)data.body0, (jlong)data.body1,
-                                               (jfloatArray)normal, (jfloat)data.distance,
-                                               (jboolean)data.isHit);
+    return copyCollisions(env, world->updateCollisions(jinclude_stay), jbuffer);
+}
 
-        env->SetObjectArrayElement(jNewList, i++, contactObject);
-        env->DeleteLocalRef(contactObject);
-        env->DeleteLocalRef(normal);
-    }
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_physics_NativePhysics3DWorld_getCollisions(JNIEnv * env, jobject obj,
+        jlong jworld, jobject jbuffer) {
+    PhysicsWorld *world = reinterpret_cast <PhysicsWorld*> (jworld);
 
-    env->DeleteLocalRef(collisionInfoClass);
-    return jNewList;
+    return copyCollisions(env, world->getCollisionRecords(), jbuffer);
 }
 
 JNIEXPORT void JNICALL
@@ -10,7 +10,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 
-class OvrControllerReader extends GVRGearCursorController.ControllerReaderStubs {
+class OvrControllerReader extends GVRGearCursorController.ControllerReaderStubs
+        implements GVRGearCursorController.LateLatchReader {
 
     private FloatBuffer readbackBuffer;
     private final long mPtr;
@@ -48,6 +49,36 @@ class OvrControllerReader extends GVRGearCursorController.ControllerReaderStubs
                 readbackBuffer.get(INDEX_POSITION + 2));
     }
 
+    @Override
+    public void updateAngularVelocity(Vector3f vec, int id) {
+        vec.set(readbackBuffer.get(INDEX_ANGULAR_VELOCITY),
+                readbackBuffer.get(INDEX_ANGULAR_VELOCITY + 1),
+                readbackBuffer.get(INDEX_ANGULAR_VELOCITY + 2));
+    }
+
+    @Override
+    public void updateAngularAcceleration(Vector3f vec, int id) {
+        vec.set(readbackBuffer.get(INDEX_ANGULAR_ACCELERATION),
+                readbackBuffer.get(INDEX_ANGULAR_ACCELERATION + 1),
+                readbackBuffer.get(INDEX_ANGULAR_ACCELERATION + 2));
+    }
+
+    @Override
+    public void setLateLatchTarget(GVRSceneObject pivot, int id) {
+        OvrNativeGearController.setLateLatchTarget(mPtr, (pivot != null) ? pivot.getNative() : 0);
+    }
+
+    @Override
+    public void onPoseApplied(Quaternionf rotation, int id) {
+        // the late latch swaps out the rotation in the pivot, not the sampled one
+        readbackBuffer.put(INDEX_APPLIED_ROTATION, rotation.w);
+        readbackBuffer.put(INDEX_APPLIED_ROTATION + 1, rotation.x);
+        readbackBuffer.put(INDEX_APPLIED_ROTATION + 2, rotation.y);
+        readbackBuffer.put(INDEX_APPLIED_ROTATION + 3, rotation.z);
+        // the pose of this frame is in use, the native side may latch a newer one
+        readbackBuffer.put(INDEX_POSE_USED, 1.0f);
+    }
+
     @Override
     public int getKey(int id) {
         return (int) readbackBuffer.get(INDEX_BUTTON);
@@ -79,8 +110,12 @@ class OvrControllerReader extends GVRGearCursorController.ControllerReaderStubs
     private static final int INDEX_ROTATION = 6;
     private static final int INDEX_BUTTON = 10;
     private static final int INDEX_TOUCHPAD = 11;
+    private static final int INDEX_ANGULAR_VELOCITY = 13;
+    private static final int INDEX_ANGULAR_ACCELERATION = 16;
+    private static final int INDEX_POSE_USED = 19;
+    private static final int INDEX_APPLIED_ROTATION = 20;
 
-    private static final int DATA_SIZE = 13;
+    private static final int DATA_SIZE = 24;
     private static final int BYTE_TO_FLOAT = 4;
 }
 
@@ -90,4 +125,6 @@ class OvrNativeGearController {
     static native void delete(long jConfigurationManager);
 
     static native void nativeInitializeGearController(long ptr, long controllerPtr);
+
+    static native void setLateLatchTarget(long controllerPtr, long sceneObjectPtr);
 }
\ No newline at end of file
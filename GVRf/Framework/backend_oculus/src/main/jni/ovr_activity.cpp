@@ -302,7 +302,18 @@ void GVRActivity::onDrawFrame(jobject jViewManager) {
     if (!sensoredSceneUpdated_) {
         sensoredSceneUpdated_ = updateSensoredScene(jViewManager);
     }
+    // check if the controller is available
+    const bool controllerConnected = gearController != nullptr
+                                     && gearController->findConnectedGearController();
+    if (controllerConnected) {
+        // collect the controller input for this frame before Java reads it
+        gearController->onFrame(predictedDisplayTime);
+    }
     oculusJavaGlThread_.Env->CallVoidMethod(jViewManager, onBeforeDrawEyesMethodId);
+    if (controllerConnected) {
+        // move the cursor to a newer pose now that picking is done
+        gearController->lateLatch(predictedDisplayTime);
+    }
 
     // Render the eye images.
     for (int eye = 0; eye < (use_multiview ? 1 : VRAPI_FRAME_LAYER_EYE_MAX); eye++) {
@@ -318,12 +329,6 @@ void GVRActivity::onDrawFrame(jobject jViewManager) {
         }
     }
 
-    // check if the controller is available
-    if (gearController != nullptr && gearController->findConnectedGearController()) {
-        // collect the controller input if available
-        gearController->onFrame(predictedDisplayTime);
-    }
-
     vrapi_SubmitFrame(oculusMobile_, &parms);
 }
 
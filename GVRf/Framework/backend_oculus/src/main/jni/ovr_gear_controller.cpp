@@ -74,18 +74,32 @@ namespace gvr {
     }
 
 
+    bool GearController::getPose(double predictedDisplayTime, ovrTracking &tracking,
+                                 glm::quat &rotation, glm::vec3 &position) {
+        ovrResult result = vrapi_GetInputTrackingState(ovrMobile_, RemoteDeviceID,
+                                                       predictedDisplayTime, &tracking);
+        if (result != ovrSuccess) {
+            return false;
+        }
+        ovrQuatf orientation = tracking.HeadPose.Pose.Orientation;
+        const glm::quat tmp(orientation.w, orientation.x, orientation.y, orientation.z);
+        rotation = glm::conjugate(glm::inverse(tmp));
+
+        ovrVector3f pos = tracking.HeadPose.Pose.Position;
+        position = glm::vec3(pos.x, pos.y, pos.z);
+        return true;
+    }
+
     void GearController::onFrame(double predictedDisplayTime) {
         ovrTracking tracking;
+        orientationTrackingReadbackBuffer[INDEX_POSE_USED] = 0;
         if (RemoteDeviceID != ovrDeviceIdType_Invalid) {
             orientationTrackingReadbackBuffer[0] = CONNECTED;
 
             orientationTrackingReadbackBuffer[1] = handedness;
-            ovrResult result = vrapi_GetInputTrackingState(ovrMobile_, RemoteDeviceID,
-                                                           predictedDisplayTime, &tracking);
+            getPose(predictedDisplayTime, tracking, sampledRotation_, sampledPosition_);
 
-            ovrQuatf orientation = tracking.HeadPose.Pose.Orientation;
-            const glm::quat tmp(orientation.w, orientation.x, orientation.y, orientation.z);
-            const glm::quat quat = glm::conjugate(glm::inverse(tmp));
+            const glm::quat &quat = sampledRotation_;
             orientationTrackingReadbackBuffer[6] = quat.w;
             orientationTrackingReadbackBuffer[7] = quat.x;
             orientationTrackingReadbackBuffer[8] = quat.y;
@@ -101,14 +115,49 @@ namespace gvr {
             orientationTrackingReadbackBuffer[11] = state.TrackpadPosition.x;
             orientationTrackingReadbackBuffer[12] = state.TrackpadPosition.y;
 
-            ovrVector3f position = tracking.HeadPose.Pose.Position;
-            orientationTrackingReadbackBuffer[3] = position.x;
-            orientationTrackingReadbackBuffer[4] = position.y;
-            orientationTrackingReadbackBuffer[5] = position.z;
+            orientationTrackingReadbackBuffer[3] = sampledPosition_.x;
+            orientationTrackingReadbackBuffer[4] = sampledPosition_.y;
+            orientationTrackingReadbackBuffer[5] = sampledPosition_.z;
+
+            const ovrVector3f &velocity = tracking.HeadPose.AngularVelocity;
+            orientationTrackingReadbackBuffer[13] = velocity.x;
+            orientationTrackingReadbackBuffer[14] = velocity.y;
+            orientationTrackingReadbackBuffer[15] = velocity.z;
+
+            const ovrVector3f &acceleration = tracking.HeadPose.AngularAcceleration;
+            orientationTrackingReadbackBuffer[16] = acceleration.x;
+            orientationTrackingReadbackBuffer[17] = acceleration.y;
+            orientationTrackingReadbackBuffer[18] = acceleration.z;
 
         } else {
             // set disconnected
             orientationTrackingReadbackBuffer[0] = DISCONNECTED;
         }
     }
-}
\ No newline at end of file
+
+    void GearController::lateLatch(double predictedDisplayTime) {
+        // only when Java placed the target with this frame's pose
+        if (latchTarget_ == nullptr || RemoteDeviceID == ovrDeviceIdType_Invalid
+            || orientationTrackingReadbackBuffer[INDEX_POSE_USED] == 0) {
+            return;
+        }
+        orientationTrackingReadbackBuffer[INDEX_POSE_USED] = 0;
+
+        ovrTracking tracking;
+        glm::quat rotation;
+        glm::vec3 position;
+        Transform *transform = latchTarget_->transform();
+        if (transform == nullptr
+            || !getPose(predictedDisplayTime, tracking, rotation, position)) {
+            return;
+        }
+
+        // the target holds camera * the rotation Java applied, which is the
+        // predicted one when prediction is on: swap in the new pose
+        const float *applied = orientationTrackingReadbackBuffer + INDEX_APPLIED_ROTATION;
+        const glm::quat appliedRotation(applied[0], applied[1], applied[2], applied[3]);
+        const glm::quat camera = transform->rotation() * glm::inverse(appliedRotation);
+        transform->set_position(transform->position() + camera * (position - sampledPosition_));
+        transform->set_rotation(glm::normalize(camera * rotation));
+    }
+}
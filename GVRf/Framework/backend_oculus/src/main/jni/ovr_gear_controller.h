@@ -21,6 +21,7 @@
 #include "glm/glm.hpp"
 #include "glm/gtx/quaternion.hpp"
 #include "util/gvr_log.h"
+#include "objects/scene_object.h"
 
 namespace gvr {
     class GearController {
@@ -31,6 +32,15 @@ namespace gvr {
         float *orientationTrackingReadbackBuffer;
         static const int CONNECTED = 1;
         static const int DISCONNECTED = 0;
+        static const int INDEX_POSE_USED = 19;
+        static const int INDEX_APPLIED_ROTATION = 20;
+
+        SceneObject *latchTarget_ = nullptr;
+        glm::quat sampledRotation_;
+        glm::vec3 sampledPosition_;
+
+        bool getPose(double predictedDisplayTime, ovrTracking &tracking, glm::quat &rotation,
+                     glm::vec3 &position);
 
     public :
 
@@ -51,6 +61,18 @@ namespace gvr {
 
         void onFrame(double predictedDisplayTime);
 
+        /*
+         * Sample the controller again and move the late latch target
+         * from the pose Java used this frame to the newer one.
+         * Call it after the frame has been updated, just before the
+         * eyes are rendered.
+         */
+        void lateLatch(double predictedDisplayTime);
+
+        void setLateLatchTarget(SceneObject *target) {
+            latchTarget_ = target;
+        }
+
         int handedness;
 
     };
@@ -34,6 +34,11 @@ extern "C" {
                                                                            jclass clazz,
                                                                            jlong jController);
 
+    JNIEXPORT void JNICALL Java_org_gearvrf_OvrNativeGearController_setLateLatchTarget(JNIEnv *env,
+                                                                                       jclass clazz,
+                                                                                       jlong jController,
+                                                                                       jlong jSceneObject);
+
     JNIEXPORT jlong JNICALL Java_org_gearvrf_OvrNativeGearController_ctor(JNIEnv *env,
                                                                           jclass clazz, jobject
                                                                           jreadback_buffer) {
@@ -54,5 +59,13 @@ extern "C" {
         activity->setGearController(gearController);
     }
 
+    JNIEXPORT void JNICALL Java_org_gearvrf_OvrNativeGearController_setLateLatchTarget(JNIEnv *env,
+                                                                                       jclass clazz,
+                                                                                       jlong jController,
+                                                                                       jlong jSceneObject) {
+        GearController *gearController = reinterpret_cast<GearController *>(jController);
+        gearController->setLateLatchTarget(reinterpret_cast<SceneObject *>(jSceneObject));
+    }
+
 }
 }
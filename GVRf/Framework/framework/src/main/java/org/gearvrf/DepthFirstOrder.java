@@ -0,0 +1,101 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sorts nodes of a tree in the order a depth-first walk visits them: a
+ * parent before its children, siblings in child order.
+ * <p>
+ * Each node gets its path from the root, as child indices, once per sort,
+ * and the paths are compared. The children of a node on the way are
+ * numbered once per sort too, so a sort costs at most the size of the
+ * tree, plus the usual n log n comparisons of short arrays.
+ */
+abstract class DepthFirstOrder<T> {
+    /**
+     * @return parent of a node, null for the root
+     */
+    protected abstract T getParent(T node);
+
+    /**
+     * @return children of a node, in order
+     */
+    protected abstract List<T> getChildren(T node);
+
+    /**
+     * Sort nodes of the same tree. The tree must not change meanwhile.
+     */
+    void sort(List<T> nodes) {
+        if (nodes.size() < 2) {
+            return;
+        }
+        final Map<T, Map<T, Integer>> childIndices = new IdentityHashMap<T, Map<T, Integer>>();
+        final Map<T, int[]> paths = new IdentityHashMap<T, int[]>(nodes.size());
+        for (T node : nodes) {
+            paths.put(node, pathFromRoot(node, childIndices));
+        }
+        Collections.sort(nodes, new Comparator<T>() {
+            @Override
+            public int compare(T a, T b) {
+                return comparePaths(paths.get(a), paths.get(b));
+            }
+        });
+    }
+
+    /*
+     * Index of each child of each node on the path, root first.
+     */
+    private int[] pathFromRoot(T node, Map<T, Map<T, Integer>> childIndices) {
+        int depth = 0;
+        for (T n = getParent(node); n != null; n = getParent(n)) {
+            ++depth;
+        }
+        final int[] path = new int[depth];
+        T child = node;
+        for (int i = depth - 1; i >= 0; --i) {
+            final T parent = getParent(child);
+            Map<T, Integer> indices = childIndices.get(parent);
+            if (indices == null) {
+                final List<T> children = getChildren(parent);
+                indices = new IdentityHashMap<T, Integer>(children.size());
+                for (int j = 0; j < children.size(); ++j) {
+                    indices.put(children.get(j), j);
+                }
+                childIndices.put(parent, indices);
+            }
+            final Integer index = indices.get(child);
+            path[i] = (index != null) ? index : -1;
+            child = parent;
+        }
+        return path;
+    }
+
+    private static int comparePaths(int[] a, int[] b) {
+        final int common = Math.min(a.length, b.length);
+        for (int i = 0; i < common; ++i) {
+            if (a[i] != b[i]) {
+                return (a[i] < b[i]) ? -1 : 1;
+            }
+        }
+        return a.length - b.length;
+    }
+}
@@ -22,6 +22,7 @@ import android.util.TypedValue;
 
 import org.gearvrf.asynchronous.CompressedTexture;
 import org.gearvrf.asynchronous.GVRCompressedTextureLoader;
+import org.gearvrf.utility.FileNameUtils;
 import org.gearvrf.utility.Log;
 import org.gearvrf.utility.MarkingFileInputStream;
 
@@ -73,6 +74,8 @@ public class GVRAndroidResource {
     // For hint to Assimp
     private String resourceFilePath;
     private final URL url;
+    // Normalized url, so that hashing and comparing never resolve the host
+    private final String urlKey;
     private boolean enableUrlLocalCache = false;
     
     private Context context;
@@ -96,6 +99,7 @@ public class GVRAndroidResource {
         assetPath = null;
         resourceFilePath = null;
         url = null;
+        urlKey = null;
         resourceType = ResourceType.LINUX_FILESYSTEM;
     }
 
@@ -141,6 +145,7 @@ public class GVRAndroidResource {
         this.resourceId = resourceId;
         assetPath = null;
         url = null;
+        urlKey = null;
         TypedValue value = new TypedValue();
         resources.getValue(resourceId, value, true);
         resourceFilePath = value.string.toString();
@@ -183,6 +188,7 @@ public class GVRAndroidResource {
         assetPath = assetRelativeFilename;
         resourceFilePath = null;
         url = null;
+        urlKey = null;
         resourceType = ResourceType.ANDROID_ASSETS;
     }
 
@@ -215,6 +221,7 @@ public class GVRAndroidResource {
         assetPath = null;
         resourceFilePath = null;
         url = null;
+        urlKey = null;
         resourceType = ResourceType.INPUT_STREAM;
     }
 
@@ -293,6 +300,7 @@ public class GVRAndroidResource {
         assetPath = null;
         resourceFilePath = null;
         this.url = url;
+        urlKey = FileNameUtils.normalizeUrl(url);
         resourceType = ResourceType.NETWORK;
         this.context = context.getContext().getApplicationContext();
     }
@@ -387,9 +395,7 @@ public class GVRAndroidResource {
             } else {
                 Log.d(TAG,
                         "Allow local caching, download the resource to local cache");
-                File file = GVRAssetLoader.downloadFile(context,
-                        url.toString());
-                stream = new MarkingFileInputStream(file);
+                stream = GVRAssetLoader.openDownload(context, url);
                 streamState = StreamStates.OPEN;
             }
             break;
@@ -501,7 +507,7 @@ public class GVRAndroidResource {
         result = prime * result
                 + ((filePath == null) ? 0 : filePath.hashCode());
         result = prime * result
-                + ((url == null) ? 0 : url.hashCode());
+                + ((urlKey == null) ? 0 : urlKey.hashCode());
         result = prime * result
                 + ((inputStreamName == null) ? 0 : inputStreamName.hashCode());
         result = prime * result + resourceId;
@@ -532,7 +538,7 @@ public class GVRAndroidResource {
             return filePath.equals(other.filePath);
 
         case NETWORK:
-            return url.equals(other.url);
+            return urlKey.equals(other.urlKey);
 
         case INPUT_STREAM:
             return inputStreamName.equals(other.inputStreamName);
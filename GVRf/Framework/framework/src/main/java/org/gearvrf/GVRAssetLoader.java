@@ -31,19 +31,17 @@ import org.gearvrf.jassimp.Jassimp;
 import org.gearvrf.scene_objects.GVRModelSceneObject;
 import org.gearvrf.utility.FileNameUtils;
 import org.gearvrf.utility.GVRByteArray;
+import org.gearvrf.utility.HttpFetcher;
 import org.gearvrf.utility.Log;
 import org.gearvrf.utility.ResourceCache;
 import org.gearvrf.utility.ResourceCacheBase;
 import org.gearvrf.utility.Threads;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
@@ -53,7 +51,6 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * {@link GVRAssetLoader} provides methods for importing 3D models and textures.
@@ -1830,6 +1827,20 @@ public final class GVRAssetLoader {
         }
     }
 
+    /**
+     * Download a URL into the application cache, unless it is already
+     * there. Downloads share a cache with a size limit; files are
+     * revalidated with the server when they get old, and resumed when a
+     * download is interrupted.
+     * <p>
+     * The file is not pinned in the cache: open it right away, as it can
+     * be deleted once it has not been used for a few seconds. Use
+     * {@link #openDownload(Context, URL)} to avoid that.
+     * @param context Android context, for the cache directory
+     * @param urlString the URL
+     * @return the cached file, or null if the URL cannot be downloaded
+     * @see HttpFetcher
+     */
     public static File downloadFile(Context context, String urlString) {
         URL url = null;
         try {
@@ -1839,54 +1850,36 @@ public final class GVRAssetLoader {
             return null;
         }
 
-        String directoryPath = context.getCacheDir().getAbsolutePath();
-        // add a uuid value for the url to prevent aliasing from files sharing
-        // same name inside one given app
-        String outputFilename = directoryPath + File.separator
-                + UUID.nameUUIDFromBytes(urlString.getBytes()).toString()
-                + FileNameUtils.getURLFilename(urlString);
-
-        Log.d(TAG, "URL filename: %s", outputFilename);
-
-        File localCopy = new File(outputFilename);
-        if (localCopy.exists()) {
-            return localCopy;
-        }
-
-        InputStream input = null;
-        // Output stream to write file
-        OutputStream output = null;
-
+        HttpFetcher fetcher = getHttpFetcher(context);
         try {
-            input = new BufferedInputStream(url.openStream(), 8192);
-            output = new FileOutputStream(outputFilename);
-
-            byte data[] = new byte[1024];
-            int count;
-            while ((count = input.read(data)) != -1) {
-                // writing data to file
-                output.write(data, 0, count);
-            }
+            File file = fetcher.fetchNow(url);
+            fetcher.release(url);
+            return file;
         } catch (IOException e) {
-            Log.e(TAG, "Failed to download: ", urlString);
+            Log.e(TAG, "Failed to download %s: %s", urlString, e);
             return null;
-        } finally {
-            if (input != null) {
-                try {
-                    input.close();
-                } catch (IOException e) {
-                }
-            }
-
-            if (output != null) {
-                try {
-                    output.close();
-                } catch (IOException e) {
-                }
-            }
         }
+    }
+
+    /**
+     * Download a URL into the application cache, unless it is already
+     * there, and open it.
+     * @param context Android context, for the cache directory
+     * @param url the URL
+     * @return a stream of the cached file, which supports mark and reset
+     * @throws IOException if the URL cannot be downloaded
+     * @see #downloadFile(Context, String)
+     */
+    public static InputStream openDownload(Context context, URL url) throws IOException {
+        return getHttpFetcher(context).openNow(url);
+    }
 
-        return new File(outputFilename);
+    private static synchronized HttpFetcher getHttpFetcher(Context context) {
+        if (sHttpFetcher == null) {
+            sHttpFetcher = new HttpFetcher(new File(context.getCacheDir(), HTTP_CACHE_DIR),
+                                           HTTP_CACHE_BYTES, HTTP_CONCURRENT_DOWNLOADS);
+        }
+        return sHttpFetcher;
     }
 
     public GVRTextureParameters getDefaultTextureParameters() {
@@ -1895,4 +1888,9 @@ public final class GVRAssetLoader {
 
     private final static String TAG = "GVRAssetLoader";
 
+    private final static String HTTP_CACHE_DIR = "http";
+    private final static long HTTP_CACHE_BYTES = 256L * 1024 * 1024;
+    private final static int HTTP_CONCURRENT_DOWNLOADS = 4;
+    private static HttpFetcher sHttpFetcher;
+
 }
@@ -25,6 +25,7 @@ import org.gearvrf.utility.Log;
 
 import java.io.IOException;
 import java.nio.Buffer;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 
@@ -257,9 +258,11 @@ class NativeBitmapImage {
     static native long constructor(int type, int format);
     static native void setFileName(long pointer, String fname);
     static native String getFileName(long pointer);
+    static native int getOpacity(long pointer);
     static native void updateFromMemory(long pointer, int width, int height, byte[] data);
     static native void updateFromBitmap(long pointer, Bitmap bitmap, boolean hasAlpha, String format);
     static native void updateFromBuffer(long pointer, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels);
     static native void updateCompressed(long pointer, int width, int height, int imageSize, byte[] data, int levels, int[] offsets);
+    static native void updateCompressedLevel(long pointer, int width, int height, int levels, int level, int imageSize, ByteBuffer data);
 
 }
\ No newline at end of file
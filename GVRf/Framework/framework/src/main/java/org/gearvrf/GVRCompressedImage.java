@@ -17,6 +17,8 @@ package org.gearvrf;
 
 import org.gearvrf.utility.Log;
 
+import java.nio.ByteBuffer;
+
 /**
  * Describes a compressed bitmap texture.
  * <p>
@@ -67,6 +69,47 @@ public class GVRCompressedImage extends GVRImage
         mImageSize = imageSize;
     }
 
+    /**
+     * Create a compressed texture whose mip-map levels are supplied one at a
+     * time with {@link #updateLevel(int, ByteBuffer)}.
+     * <p>
+     * The texture can be rendered as soon as one level has been supplied.
+     * Until level 0 arrives the GPU samples the largest level it has.
+     * @param gvrContext    GVRContext to use for texture.
+     * @param width         pixel width of level 0.
+     * @param height        pixel height of level 0.
+     * @param format        compressed GL format
+     * @param levels        number of mip-map levels
+     * @param quality       compression quality
+     */
+    public GVRCompressedImage(GVRContext gvrContext, int width, int height, int format, int levels, int quality)
+    {
+        this(gvrContext, width, height, 0, format, null, levels, quality);
+    }
+
+    /**
+     * Supply the data of one mip-map level. Levels may be supplied in any
+     * order, from any thread; each one replaces the previous data for that
+     * level. The buffer is read on the GL thread, so it must not be changed
+     * afterwards.
+     * @param level mip-map level, 0 is the largest
+     * @param data  direct buffer holding the compressed level between its
+     *              position and limit
+     */
+    public void updateLevel(int level, ByteBuffer data)
+    {
+        if (!data.isDirect())
+        {
+            throw new IllegalArgumentException("Mip-map level data must be in a direct buffer");
+        }
+        if ((level < 0) || (level >= mLevels))
+        {
+            throw new IllegalArgumentException("No mip-map level " + level + " in " + mLevels);
+        }
+        NativeBitmapImage.updateCompressedLevel(getNative(), mWidth, mHeight, mLevels, level,
+                                                data.remaining(), data.slice());
+    }
+
     /**
      * Set the offsets in the compressed data area for each mip-map level.
      * @param offsets array of offsets
@@ -37,10 +37,14 @@ import org.gearvrf.utility.Threads;
 
 import java.lang.ref.PhantomReference;
 import java.lang.ref.ReferenceQueue;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Like the Android {@link Context} class, {@code GVRContext} provides core
@@ -425,6 +429,35 @@ public abstract class GVRContext implements IEventReceiver {
      */
     public abstract void runOnGlThread(Runnable runnable);
 
+    /**
+     * Enqueues a callback to be run in the GL thread with a priority.
+     *
+     * High priority callbacks run before the others. Normal and low priority
+     * callbacks may be left for a later frame once the
+     * {@linkplain GVRGLTaskQueue#setFrameBudget(long) frame budget} of the
+     * queue is spent.
+     *
+     * @param priority
+     *            {@link GVRGLTaskQueue#PRIORITY_HIGH},
+     *            {@link GVRGLTaskQueue#PRIORITY_NORMAL} or
+     *            {@link GVRGLTaskQueue#PRIORITY_LOW}
+     * @param runnable
+     *            A bit of code that must run on the GL thread
+     */
+    public void runOnGlThread(int priority, Runnable runnable) {
+        runOnGlThread(runnable);
+    }
+
+    /**
+     * Get the queue behind {@link #runOnGlThread(Runnable)}, to set its
+     * per-frame time budget or read its statistics.
+     *
+     * @return GL thread task queue, null if this context does not render
+     */
+    public GVRGLTaskQueue getGlTaskQueue() {
+        return null;
+    }
+
     /**
      * Enqueues a callback to be run in the GL thread after rendering a frame.
      *
@@ -771,14 +804,229 @@ public abstract class GVRContext implements IEventReceiver {
      * We need hard references to {@linkplain GVRReference our references} -
      * otherwise, the references get garbage collected (usually before their
      * objects) and never get enqueued.
+     *
+     * Keyed by native pointer, so that explicitly released objects can find
+     * their reference without a scan. A {@link ConcurrentHashMap} keeps
+     * loader threads creating objects from contending with the GL thread
+     * reclaiming them.
+     *
+     * Holds the reference of the first Java object to wrap each native
+     * object. The references of other Java objects wrapping the same native
+     * object share its ownership, and are only kept by their objects.
      */
-    private Set<GVRReference> mReferenceSet = new HashSet<GVRReference>();
+    private ConcurrentMap<Long, GVRReference> mReferenceMap = new ConcurrentHashMap<Long, GVRReference>();
 
+    /**
+     * Number of native pointers handed to a single
+     * {@link NativeHybridObject#deleteArray(long[], int)} call.
+     */
+    private static final int RECLAIM_BATCH_SIZE = 64;
+
+    /** Default per-frame time budget for native reclamation, in nanoseconds. */
+    private static final long DEFAULT_RECLAIM_BUDGET_NANOS = 2 * 1000 * 1000;
+
+    /** Finalized references whose native objects have not been deleted yet. */
+    private final ArrayDeque<GVRReference> mPendingReferences = new ArrayDeque<GVRReference>();
+    private final long[] mReclaimBatch = new long[RECLAIM_BATCH_SIZE];
+    private volatile long mReclaimBudgetNanos = DEFAULT_RECLAIM_BUDGET_NANOS;
+
+    private volatile int mReclaimQueueDepth;
+    private volatile long mLastReclaimNanos;
+    private final AtomicLong mReclaimedCount = new AtomicLong();
+    private final AtomicLong mReleasedCount = new AtomicLong();
+    private final AtomicLong mNativeBytes = new AtomicLong();
+    private final AtomicLong mUnreachableNativeBytes = new AtomicLong();
+
+    /** Innermost open {@link GVRNativeScope} of each thread */
+    private final ThreadLocal<GVRNativeScope> mNativeScope = new ThreadLocal<GVRNativeScope>();
+    private final AtomicInteger mOpenNativeScopes = new AtomicInteger();
+
+    /**
+     * Delete the native objects of unreachable {@link GVRHybridObject}s.
+     *
+     * Called once per frame on the GL thread. Native objects that don't own
+     * GL resources are handed to a background thread; the others are deleted
+     * in batches until the {@linkplain #setReclaimBudget(float) time budget}
+     * is spent. Whatever is left over is picked up in the next frame.
+     */
     protected final void finalizeUnreachableObjects() {
+        final long start = System.nanoTime();
+        List<GVRReference> background = null;
         GVRReference reference;
+
         while (null != (reference = (GVRReference)mReferenceQueue.poll())) {
-            reference.close(mReferenceSet);
+            mUnreachableNativeBytes.addAndGet(reference.mNativeSize);
+            if (reference.mGLIndependent) {
+                if (null == background) {
+                    background = new ArrayList<GVRReference>();
+                }
+                background.add(reference);
+            } else {
+                mPendingReferences.add(reference);
+            }
+        }
+        if (null != background) {
+            reclaimInBackground(background);
+        }
+
+        final long deadline = start + mReclaimBudgetNanos;
+        int count = 0;
+        while (null != (reference = mPendingReferences.poll())) {
+            final long nativePointer = reclaim(reference);
+            if (0 != nativePointer) {
+                mReclaimBatch[count++] = nativePointer;
+            }
+            if (RECLAIM_BATCH_SIZE == count) {
+                NativeHybridObject.deleteArray(mReclaimBatch, count);
+                mReclaimedCount.addAndGet(count);
+                count = 0;
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+            }
         }
+        if (0 < count) {
+            NativeHybridObject.deleteArray(mReclaimBatch, count);
+            mReclaimedCount.addAndGet(count);
+        }
+
+        mReclaimQueueDepth = mPendingReferences.size();
+        mLastReclaimNanos = System.nanoTime() - start;
+    }
+
+    private void reclaimInBackground(final List<GVRReference> references) {
+        Threads.spawnLow(new Runnable() {
+            @Override
+            public void run() {
+                final long[] batch = new long[references.size()];
+                int count = 0;
+                for (GVRReference reference : references) {
+                    final long nativePointer = reclaim(reference);
+                    if (0 != nativePointer) {
+                        batch[count++] = nativePointer;
+                    }
+                }
+                if (0 < count) {
+                    NativeHybridObject.deleteArray(batch, count);
+                    mReclaimedCount.addAndGet(count);
+                }
+            }
+        });
+    }
+
+    /**
+     * Deregister a reference that came off the reference queue.
+     *
+     * @return the native pointer to delete, or 0 if there is nothing to do
+     */
+    private long reclaim(GVRReference reference) {
+        final long nativeSize = reference.mNativeSize;
+        mUnreachableNativeBytes.addAndGet(-nativeSize);
+        final long nativePointer = reference.release(mReferenceMap);
+        if (0 != nativePointer) {
+            mNativeBytes.addAndGet(-reference.mOwner.mNativeSize);
+        }
+        return nativePointer;
+    }
+
+    /**
+     * Set how much time the GL thread may spend each frame deleting the native
+     * objects of garbage collected {@link GVRHybridObject}s. Objects that don't
+     * fit into the budget are deleted in later frames.
+     *
+     * @param milliseconds time budget per frame, in milliseconds
+     */
+    public void setReclaimBudget(float milliseconds) {
+        if (milliseconds <= 0) {
+            throw new IllegalArgumentException("reclaim budget must be positive");
+        }
+        mReclaimBudgetNanos = (long) (milliseconds * 1000000.0f);
+    }
+
+    /**
+     * @return the number of garbage collected objects whose native
+     *         objects are still waiting to be deleted on the GL thread
+     */
+    public int getReclaimQueueDepth() {
+        return mReclaimQueueDepth;
+    }
+
+    /**
+     * @return the time the GL thread spent reclaiming native objects in the
+     *         last frame, in nanoseconds
+     */
+    public long getLastReclaimTime() {
+        return mLastReclaimNanos;
+    }
+
+    /**
+     * @return the total number of native objects deleted after their Java
+     *         owners were garbage collected
+     */
+    public long getReclaimedObjectCount() {
+        return mReclaimedCount.get();
+    }
+
+    /**
+     * @return the total number of native objects deleted through
+     *         {@link GVRHybridObject#releaseNative()} or a
+     *         {@link GVRNativeScope}
+     */
+    public long getReleasedObjectCount() {
+        return mReleasedCount.get();
+    }
+
+    /**
+     * Native memory held by all registered {@link GVRHybridObject}s that
+     * {@linkplain GVRHybridObject#setNativeSize(long) report their size}.
+     *
+     * @return native size, in bytes
+     */
+    public long getNativeBytes() {
+        return mNativeBytes.get();
+    }
+
+    /**
+     * Native memory whose Java owners have been garbage collected but
+     * which has not been freed yet.
+     *
+     * @return native size, in bytes
+     */
+    public long getUnreachableNativeBytes() {
+        return mUnreachableNativeBytes.get();
+    }
+
+    /**
+     * Open a {@link GVRNativeScope} on the calling thread. Every
+     * {@link GVRHybridObject} this thread creates until the scope is closed
+     * has its native object released when the scope is closed.
+     * <p>
+     * Use it with {@code try}-with-resources:
+     * <pre>
+     * try (GVRNativeScope scope = gvrContext.openNativeScope()) {
+     *     // create transient meshes, textures ...
+     * }
+     * </pre>
+     *
+     * @return the new scope, nested in the current one (if any)
+     */
+    public GVRNativeScope openNativeScope() {
+        final GVRNativeScope scope = new GVRNativeScope(this, mNativeScope.get());
+        mNativeScope.set(scope);
+        mOpenNativeScopes.incrementAndGet();
+        return scope;
+    }
+
+    /**
+     * Called by {@link GVRNativeScope#close()} after it has released its
+     * objects.
+     */
+    final void closeNativeScope(GVRNativeScope scope) {
+        if (mNativeScope.get() != scope) {
+            throw new IllegalStateException("native scopes must be closed in reverse order, on the thread that opened them");
+        }
+        mNativeScope.set(scope.getParent());
+        mOpenNativeScopes.decrementAndGet();
     }
 
     /**
@@ -791,26 +1039,27 @@ public abstract class GVRContext implements IEventReceiver {
 
     final static class UndertakerThread extends Thread {
         private final ReferenceQueue<GVRHybridObject> referenceQueue;
-        private final Set<GVRReference> referenceSet;
+        private final ConcurrentMap<Long, GVRReference> referenceMap;
+        private final List<GVRReference> pendingReferences;
 
-        UndertakerThread(final ReferenceQueue<GVRHybridObject> referenceQueue, final Set<GVRReference> referenceSet, final String threadName) {
+        UndertakerThread(final ReferenceQueue<GVRHybridObject> referenceQueue, final ConcurrentMap<Long, GVRReference> referenceMap,
+                         final List<GVRReference> pendingReferences, final String threadName) {
             super(threadName);
             this.referenceQueue = referenceQueue;
-            this.referenceSet = referenceSet;
+            this.referenceMap = referenceMap;
+            this.pendingReferences = pendingReferences;
         }
 
         @Override
         public void run() {
-            while (true) {
+            for (GVRReference reference : pendingReferences) {
+                reference.close(referenceMap);
+            }
+
+            while (!referenceMap.isEmpty()) {
                 try {
                     GVRReference reference = (GVRReference)referenceQueue.remove();
-                    reference.close(referenceSet);
-
-                    synchronized (referenceSet) {
-                        if (0 == referenceSet.size()) {
-                            break;
-                        }
-                    }
+                    reference.close(referenceMap);
                 } catch (InterruptedException e) {
                     //ignore; nobody has a handle to this thread, nobody can and is supposed to interrupt it
                 }
@@ -824,65 +1073,190 @@ public abstract class GVRContext implements IEventReceiver {
         }
 
         final String threadName = "Undertaker-" + Integer.toHexString(hashCode());
-        new UndertakerThread(mReferenceQueue, mReferenceSet, threadName).start();
+        final List<GVRReference> pending = new ArrayList<GVRReference>(mPendingReferences);
+        mPendingReferences.clear();
+        new UndertakerThread(mReferenceQueue, mReferenceMap, pending, threadName).start();
 
         mReferenceQueue = null;
-        mReferenceSet = null;
+        mReferenceMap = null;
     }
 
     static final class GVRReference extends PhantomReference<GVRHybridObject> {
-        private long mNativePointer;
+        private final long mNativePointer;
         private final List<NativeCleanupHandler> mCleanupHandlers;
-
-        private GVRReference(GVRHybridObject object, long nativePointer, List<NativeCleanupHandler> cleanupHandlers, final ReferenceQueue<GVRHybridObject> referenceQueue) {
+        private final boolean mGLIndependent;
+        private volatile long mNativeSize;
+        /**
+         * The registered reference of the native object: this one, unless
+         * another Java object wrapped the native object first.
+         */
+        private final GVRReference mOwner;
+        /** Owner only: number of Java objects still holding the native object */
+        private final AtomicInteger mHolders;
+        /**
+         * Owner only: the references sharing the native object, which would
+         * otherwise be garbage collected before their objects. Guarded by
+         * the owner.
+         */
+        private List<GVRReference> mSharers;
+        private final AtomicBoolean mDropped = new AtomicBoolean();
+
+        private GVRReference(GVRHybridObject object, long nativePointer, List<NativeCleanupHandler> cleanupHandlers,
+                             boolean glIndependent, GVRReference owner, final ReferenceQueue<GVRHybridObject> referenceQueue) {
             super(object, referenceQueue);
 
             mNativePointer = nativePointer;
             mCleanupHandlers = cleanupHandlers;
+            mGLIndependent = glIndependent;
+            mOwner = (null != owner) ? owner : this;
+            mHolders = (null != owner) ? null : new AtomicInteger(1);
         }
 
-        private void close(final Set<GVRReference> referenceSet) {
-            close(referenceSet, true);
-        }
-
-        private void close(final Set<GVRReference> referenceSet, boolean removeFromSet) {
-            synchronized (referenceSet) {
-                if (mNativePointer != 0) {
-                    if (mCleanupHandlers != null) {
-                        for (NativeCleanupHandler handler : mCleanupHandlers) {
-                            handler.nativeCleanup(mNativePointer);
-                        }
+        /**
+         * Add a holder to the native object of this owner.
+         *
+         * @return false if the last holder already let go of it, and it is
+         *         about to be deleted
+         */
+        private synchronized boolean share(GVRReference sharer) {
+            for (int holders = mHolders.get(); 0 < holders; holders = mHolders.get()) {
+                if (mHolders.compareAndSet(holders, holders + 1)) {
+                    if (null == mSharers) {
+                        mSharers = new ArrayList<GVRReference>(1);
                     }
-                    NativeHybridObject.delete(mNativePointer);
-                    mNativePointer = 0;
+                    mSharers.add(sharer);
+                    return true;
                 }
+            }
+            return false;
+        }
+
+        private synchronized void unshare(GVRReference sharer) {
+            mSharers.remove(sharer);
+        }
 
-                if (removeFromSet) {
-                    referenceSet.remove(this);
+        private void close(final ConcurrentMap<Long, GVRReference> referenceMap) {
+            final long nativePointer = release(referenceMap);
+            if (nativePointer != 0) {
+                NativeHybridObject.delete(nativePointer);
+            }
+        }
+
+        /**
+         * Let go of the native object, once. When the last holder lets go,
+         * this deregisters the owner and runs its cleanup handlers, and only
+         * that caller gets the native pointer back; the native object is
+         * then theirs to delete.
+         *
+         * @return the native pointer to delete, or 0 if there is nothing to do
+         */
+        private long release(final ConcurrentMap<Long, GVRReference> referenceMap) {
+            if (!mDropped.compareAndSet(false, true)) {
+                return 0;
+            }
+            if (this != mOwner) {
+                mOwner.unshare(this);
+            }
+            if (0 != mOwner.mHolders.decrementAndGet()) {
+                return 0;
+            }
+            final long nativePointer = mNativePointer;
+            referenceMap.remove(nativePointer, mOwner);
+            if (mOwner.mCleanupHandlers != null) {
+                for (NativeCleanupHandler handler : mOwner.mCleanupHandlers) {
+                    handler.nativeCleanup(nativePointer);
                 }
             }
+            return nativePointer;
+        }
+    }
+
+    /**
+     * Register a Java object, so that its native object is deleted when it
+     * is garbage collected or released.
+     * <p>
+     * When another live Java object already wraps the same native object,
+     * the two share it: the native object is deleted once both are gone,
+     * and only the cleanup handlers of the first one run.
+     *
+     * @return the reference of {@code gvrHybridObject}, for
+     *         {@link #release(GVRReference)}, or null if there is no
+     *         native object
+     * @throws IllegalStateException if the native object is being deleted
+     */
+    final GVRReference registerHybridObject(GVRHybridObject gvrHybridObject, long nativePointer, List<NativeCleanupHandler> cleanupHandlers) {
+        if (nativePointer == 0) {
+            return null;
+        }
+        final boolean glIndependent = gvrHybridObject.isGLIndependent();
+        GVRReference reference = new GVRReference(gvrHybridObject, nativePointer, cleanupHandlers,
+                                                  glIndependent, null, mReferenceQueue);
+        final GVRReference owner = mReferenceMap.putIfAbsent(nativePointer, reference);
+        if (null != owner) {
+            reference.clear();
+            reference = new GVRReference(gvrHybridObject, nativePointer, null, glIndependent, owner, mReferenceQueue);
+            if (!owner.share(reference)) {
+                reference.clear();
+                throw new IllegalStateException("native object 0x" + Long.toHexString(nativePointer)
+                        + " is being deleted, it cannot be wrapped again");
+            }
+            Log.w(TAG, "native object 0x%x is wrapped by more than one Java object", nativePointer);
         }
+
+        if (0 < mOpenNativeScopes.get()) {
+            final GVRNativeScope scope = mNativeScope.get();
+            if (null != scope) {
+                scope.add(reference);
+            }
+        }
+        return reference;
     }
 
-    final void registerHybridObject(GVRHybridObject gvrHybridObject, long nativePointer, List<NativeCleanupHandler> cleanupHandlers) {
-        synchronized (mReferenceSet) {
-            mReferenceSet.add(new GVRReference(gvrHybridObject, nativePointer, cleanupHandlers, mReferenceQueue));
+    /**
+     * Record how much native memory an object holds, for
+     * {@link #getNativeBytes()} and {@link #getUnreachableNativeBytes()}.
+     */
+    final void setNativeSize(long nativePointer, long bytes) {
+        final GVRReference reference = findReference(nativePointer);
+        if (null != reference) {
+            mNativeBytes.addAndGet(bytes - reference.mNativeSize);
+            reference.mNativeSize = bytes;
         }
     }
 
     /**
-     * Explicitly close()ing an object is going to be relatively rare - most
-     * native memory will be freed when the owner-objects are garbage collected.
-     * Doing a lookup in these rare cases means that we can avoid giving every @link
-     * {@link GVRHybridObject} a hard reference to its {@link GVRReference}.
+     * Free a native object right away, instead of when its Java owner is
+     * garbage collected. Native objects that own GL resources are deleted
+     * on the GL thread. A native object shared by several Java objects is
+     * only freed once all of them have been released or collected.
      */
-    final GVRReference findReference(long nativePointer) {
-        for (GVRReference reference : mReferenceSet) {
-            if (reference.mNativePointer == nativePointer) {
-                return reference;
-            }
+    final void release(final GVRReference reference) {
+        reference.clear();
+        final boolean glIndependent = reference.mGLIndependent;
+        final long nativePointer = reference.release(mReferenceMap);
+        if (0 == nativePointer) {
+            return;
         }
-        return null;
+        mNativeBytes.addAndGet(-reference.mOwner.mNativeSize);
+        mReleasedCount.incrementAndGet();
+
+        if (glIndependent || isCurrentThreadGLThread()) {
+            NativeHybridObject.delete(nativePointer);
+        } else {
+            runOnGlThread(new Runnable() {
+                @Override
+                public void run() {
+                    NativeHybridObject.delete(nativePointer);
+                }
+            });
+        }
+    }
+
+    /**
+     * Find the reference of a live object, by native pointer.
+     */
+    final GVRReference findReference(long nativePointer) {
+        return mReferenceMap.get(nativePointer);
     }
 
 }
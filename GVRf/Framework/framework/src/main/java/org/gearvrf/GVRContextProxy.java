@@ -99,10 +99,18 @@ public final class GVRContextProxy extends GVRContext {
         mContext.get().runOnGlThread(runnable);
     }
 
+    public void runOnGlThread(int priority, Runnable runnable) {
+        mContext.get().runOnGlThread(priority, runnable);
+    }
+
     public void runOnGlThreadPostRender(int delayFrames, Runnable runnable) {
         mContext.get().runOnGlThreadPostRender(delayFrames, runnable);
     }
 
+    public GVRGLTaskQueue getGlTaskQueue() {
+        return mContext.get().getGlTaskQueue();
+    }
+
     public void registerDrawFrameListener(GVRDrawFrameListener frameListener) {
         mContext.get().registerDrawFrameListener(frameListener);
     }
@@ -0,0 +1,352 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gearvrf;
+
+import org.gearvrf.utility.Log;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The queues of tasks the GL thread runs for
+ * {@link GVRContext#runOnGlThread(Runnable)} and
+ * {@link GVRContext#runOnGlThreadPostRender(int, Runnable)}.
+ * <p>
+ * Tasks may be queued from any thread without taking a lock; only the GL
+ * thread takes them off. Each {@linkplain #PRIORITY_HIGH priority} has its
+ * own first-in first-out lane, so tasks queued with the same priority run
+ * in the order they were queued.
+ * <p>
+ * A per-frame time budget can be set with {@link #setFrameBudget(long)}.
+ * Once a frame has spent its budget on tasks, the remaining normal and low
+ * priority tasks wait for the next frame instead of delaying this one. High
+ * priority tasks always run, and every lane makes progress by at least one
+ * task per frame. By default the budget is unlimited and the whole queue is
+ * run every frame.
+ * <p>
+ * Post-render tasks are kept on a wheel of frame slots, so each frame only
+ * looks at the tasks due in that frame.
+ */
+public final class GVRGLTaskQueue {
+    private static final String TAG = Log.tag(GVRGLTaskQueue.class);
+
+    /** Runs before other tasks and ignores the frame budget. */
+    public static final int PRIORITY_HIGH = 0;
+    /** Priority of {@link GVRContext#runOnGlThread(Runnable)}. */
+    public static final int PRIORITY_NORMAL = 1;
+    /** Runs after normal tasks, when the budget allows. */
+    public static final int PRIORITY_LOW = 2;
+
+    private static final int NUM_PRIORITIES = 3;
+    private static final int WHEEL_SIZE = 64;
+
+    private final Lane[] mLanes = new Lane[NUM_PRIORITIES];
+    private final Lane mIncomingPostRender = new Lane();
+    private final ArrayList<Task>[] mWheel;
+    private int mWheelCursor;
+
+    private volatile long mFrameBudgetNanos;
+    private final AtomicInteger mPending = new AtomicInteger();
+    private volatile int mMaxPending;
+    private volatile long mExecuted;
+    private volatile long mDeferredFrames;
+    private volatile long mTotalLatencyNanos;
+    private volatile long mMaxLatencyNanos;
+
+    @SuppressWarnings("unchecked")
+    GVRGLTaskQueue() {
+        for (int i = 0; i < NUM_PRIORITIES; ++i) {
+            mLanes[i] = new Lane();
+        }
+        mWheel = new ArrayList[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; ++i) {
+            mWheel[i] = new ArrayList<Task>();
+        }
+    }
+
+    /**
+     * Set how long the tasks queued for the GL thread may run each frame.
+     * @param nanos time budget in nanoseconds, 0 for no limit
+     */
+    public void setFrameBudget(long nanos) {
+        mFrameBudgetNanos = (nanos < 0) ? 0 : nanos;
+    }
+
+    /**
+     * @return per-frame time budget in nanoseconds, 0 if there is no limit
+     */
+    public long getFrameBudget() {
+        return mFrameBudgetNanos;
+    }
+
+    /**
+     * @return number of tasks waiting to run on the GL thread
+     */
+    public int getPendingCount() {
+        return mPending.get();
+    }
+
+    /**
+     * @return largest number of tasks seen waiting at once
+     */
+    public int getMaxPendingCount() {
+        return mMaxPending;
+    }
+
+    /**
+     * @return number of tasks run since the statistics were reset
+     */
+    public long getExecutedCount() {
+        return mExecuted;
+    }
+
+    /**
+     * @return number of frames which left tasks for later because the
+     * budget ran out
+     */
+    public long getDeferredFrameCount() {
+        return mDeferredFrames;
+    }
+
+    /**
+     * @return average time between queueing a task and running it, in nanoseconds
+     */
+    public long getAverageLatencyNanos() {
+        final long executed = mExecuted;
+        return (executed > 0) ? (mTotalLatencyNanos / executed) : 0;
+    }
+
+    /**
+     * @return longest time between queueing a task and running it, in nanoseconds
+     */
+    public long getMaxLatencyNanos() {
+        return mMaxLatencyNanos;
+    }
+
+    /**
+     * Reset the counters. The pending count is not affected.
+     */
+    public void resetStatistics() {
+        mMaxPending = mPending.get();
+        mExecuted = 0;
+        mDeferredFrames = 0;
+        mTotalLatencyNanos = 0;
+        mMaxLatencyNanos = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "pending=" + getPendingCount() + " maxPending=" + mMaxPending
+                + " executed=" + mExecuted + " deferredFrames=" + mDeferredFrames
+                + " avgLatencyUs=" + (getAverageLatencyNanos() / 1000)
+                + " maxLatencyUs=" + (mMaxLatencyNanos / 1000);
+    }
+
+    /**
+     * Queue a task for the GL thread. May be called from any thread.
+     * @param priority one of {@link #PRIORITY_HIGH}, {@link #PRIORITY_NORMAL}
+     *                 or {@link #PRIORITY_LOW}
+     * @param runnable task to run
+     */
+    void add(int priority, Runnable runnable) {
+        if (priority < PRIORITY_HIGH) {
+            priority = PRIORITY_HIGH;
+        } else if (priority > PRIORITY_LOW) {
+            priority = PRIORITY_LOW;
+        }
+        mLanes[priority].offer(new Task(runnable, 0));
+        final int pending = mPending.incrementAndGet();
+        if (pending > mMaxPending) {
+            mMaxPending = pending;
+        }
+    }
+
+    /**
+     * Queue a task to run after a frame has been rendered. May be called
+     * from any thread.
+     * @param delayFrames number of frames to wait, 0 for the current frame
+     * @param runnable task to run
+     */
+    void addPostRender(int delayFrames, Runnable runnable) {
+        mIncomingPostRender.offer(new Task(runnable, (delayFrames < 0) ? 0 : delayFrames));
+    }
+
+    /**
+     * Run the queued tasks within the frame budget. GL thread only.
+     */
+    void runTasks() {
+        final long budget = mFrameBudgetNanos;
+        final long start = System.nanoTime();
+        final long deadline = start + budget;
+        boolean deferred = false;
+
+        runLane(mLanes[PRIORITY_HIGH], Long.MAX_VALUE);
+        for (int i = PRIORITY_NORMAL; i < NUM_PRIORITIES; ++i) {
+            final Lane lane = mLanes[i];
+            if (budget == 0) {
+                runLane(lane, Long.MAX_VALUE);
+            } else {
+                // at least one task per lane so nothing starves
+                if (runOne(lane)) {
+                    runLane(lane, deadline);
+                }
+                deferred |= !lane.isEmpty();
+            }
+        }
+        if (deferred) {
+            ++mDeferredFrames;
+        }
+    }
+
+    /**
+     * Run every queued task, ignoring the budget. GL thread only.
+     */
+    void runAllTasks() {
+        for (int i = 0; i < NUM_PRIORITIES; ++i) {
+            runLane(mLanes[i], Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Run the post-render tasks due this frame. GL thread only.
+     */
+    void runPostRenderTasks() {
+        Task task;
+        while ((task = mIncomingPostRender.poll()) != null) {
+            final int delay = task.delay;
+            task.delay = delay / WHEEL_SIZE;
+            mWheel[(mWheelCursor + delay % WHEEL_SIZE) % WHEEL_SIZE].add(task);
+        }
+
+        final ArrayList<Task> slot = mWheel[mWheelCursor];
+        final int count = slot.size();
+        int kept = 0;
+        for (int i = 0; i < count; ++i) {
+            task = slot.get(i);
+            if (task.delay > 0) {
+                // due on a later turn of the wheel
+                --task.delay;
+                slot.set(kept++, task);
+                continue;
+            }
+            try {
+                task.runnable.run();
+            } catch (final Exception exc) {
+                Log.e(TAG, "Runnable-post-render %s threw %s", task.runnable, exc.toString());
+                exc.printStackTrace();
+            }
+        }
+        for (int i = count - 1; i >= kept; --i) {
+            slot.remove(i);
+        }
+        mWheelCursor = (mWheelCursor + 1) % WHEEL_SIZE;
+    }
+
+    /**
+     * Drop all queued tasks without running them.
+     */
+    void clear() {
+        for (int i = 0; i < NUM_PRIORITIES; ++i) {
+            while (mLanes[i].poll() != null) {
+                mPending.decrementAndGet();
+            }
+        }
+        while (mIncomingPostRender.poll() != null) {
+        }
+        for (int i = 0; i < WHEEL_SIZE; ++i) {
+            mWheel[i].clear();
+        }
+    }
+
+    private void runLane(Lane lane, long deadline) {
+        while (((deadline == Long.MAX_VALUE) || (System.nanoTime() < deadline)) && runOne(lane)) {
+        }
+    }
+
+    private boolean runOne(Lane lane) {
+        final Task task = lane.poll();
+        if (task == null) {
+            return false;
+        }
+        mPending.decrementAndGet();
+
+        final Runnable runnable = task.runnable;
+        final long latency = System.nanoTime() - task.queuedNanos;
+        mTotalLatencyNanos += latency;
+        if (latency > mMaxLatencyNanos) {
+            mMaxLatencyNanos = latency;
+        }
+        ++mExecuted;
+
+        // the task stays behind as the stub of its lane
+        task.runnable = null;
+        try {
+            runnable.run();
+        } catch (final Exception exc) {
+            Log.e(TAG, "Runnable-on-GL %s threw %s", runnable, exc.toString());
+            exc.printStackTrace();
+        }
+        return true;
+    }
+
+    private static final class Task {
+        Runnable runnable;
+        final long queuedNanos;
+        int delay;
+        volatile Task next;
+
+        Task(Runnable runnable, int delay) {
+            this.runnable = runnable;
+            this.delay = delay;
+            this.queuedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Multiple producer, single consumer linked queue. Producers swap
+     * themselves in as the tail and then link the previous tail to them;
+     * the consumer follows the links from a stub node.
+     */
+    private static final class Lane {
+        private final AtomicReference<Task> mTail;
+        private Task mHead;
+
+        Lane() {
+            mHead = new Task(null, 0);
+            mTail = new AtomicReference<Task>(mHead);
+        }
+
+        void offer(Task task) {
+            final Task previous = mTail.getAndSet(task);
+            previous.next = task;
+        }
+
+        Task poll() {
+            final Task next = mHead.next;
+            if (next == null) {
+                return null;
+            }
+            // the task becomes the new stub, drop the old one
+            mHead.next = null;
+            mHead = next;
+            return next;
+        }
+
+        boolean isEmpty() {
+            return mHead.next == null;
+        }
+    }
+}
@@ -45,6 +45,11 @@ public abstract class GVRHybridObject {
      * called multiple times.
      */
     private long mNativePointer;
+    /**
+     * Registration of this object with its {@link GVRContext}; several
+     * objects wrapping the same native object each have their own.
+     */
+    private GVRContext.GVRReference mReference;
 
     /*
      * Constructors
@@ -89,7 +94,7 @@ public abstract class GVRHybridObject {
         mGVRContext = gvrContext;
         mNativePointer = nativePointer;
 
-        gvrContext.registerHybridObject(this,nativePointer, cleanupHandlers);
+        mReference = gvrContext.registerHybridObject(this, nativePointer, cleanupHandlers);
     }
 
     /*
@@ -120,10 +125,58 @@ public abstract class GVRHybridObject {
         if (mNativePointer == 0)
         {
             mNativePointer = nativePtr;
-            getGVRContext().registerHybridObject(this, mNativePointer, null);
+            mReference = getGVRContext().registerHybridObject(this, mNativePointer, null);
         }
     }
 
+    /**
+     * Free the native object right away, instead of waiting for this object
+     * to be garbage collected. Native objects that own GL resources are
+     * deleted on the GL thread.
+     * <p>
+     * This object must not be used afterwards, and nothing else in the scene
+     * graph may still refer to it - remove components and scene objects from
+     * their owners first.
+     *
+     * @see GVRNativeScope
+     */
+    public void releaseNative() {
+        final GVRContext.GVRReference reference = mReference;
+        if (reference != null) {
+            mNativePointer = 0;
+            mReference = null;
+            mGVRContext.release(reference);
+        }
+    }
+
+    /**
+     * Descendants that own a significant amount of native memory report it
+     * here, so that it shows up in {@link GVRContext#getNativeBytes()} and
+     * {@link GVRContext#getUnreachableNativeBytes()}.
+     *
+     * @param bytes size of the native data, in bytes
+     */
+    protected final void setNativeSize(long bytes) {
+        if (mNativePointer != 0) {
+            mGVRContext.setNativeSize(mNativePointer, bytes);
+        }
+    }
+
+    /**
+     * Descendants whose native object owns no GL resources (and whose
+     * destructor doesn't touch other native objects) can override this to
+     * return {@code true}: their native memory is then freed on a background
+     * thread after they are garbage collected, instead of on the GL thread.
+     *
+     * This is called from the constructor, so it must not depend on instance
+     * state.
+     *
+     * @return {@code true} if the native object can be deleted on any thread
+     */
+    protected boolean isGLIndependent() {
+        return false;
+    }
+
     /*package*/ static long[] getNativePtrArray(Collection<? extends GVRHybridObject> objects) {
         long[] ptrs = new long[objects.size()];
 
@@ -245,4 +298,6 @@ public abstract class GVRHybridObject {
 
 class NativeHybridObject {
     static native void delete(long nativePointer);
+
+    static native void deleteArray(long[] nativePointers, int count);
 }
@@ -49,6 +49,24 @@ public class GVRImage extends GVRHybridObject
         super(gvrContext, 0);
     }
 
+    /**
+     * Every pixel is fully opaque.
+     * @see #getOpacity()
+     */
+    public static final int OPACITY_OPAQUE = 0;
+
+    /**
+     * Every pixel is either fully opaque or fully transparent.
+     * @see #getOpacity()
+     */
+    public static final int OPACITY_ALPHA_TESTED = 1;
+
+    /**
+     * At least one pixel is translucent.
+     * @see #getOpacity()
+     */
+    public static final int OPACITY_BLENDED = 2;
+
     protected static final String TAG = "GVRImage";
 
     public String getFileName()
@@ -60,4 +78,16 @@ public class GVRImage extends GVRHybridObject
     {
         NativeBitmapImage.setFileName(getNative(), fname);
     }
+
+    /**
+     * Get how the image uses its alpha channel. The pixels are
+     * classified once, when the image data is set, and the result
+     * is kept with the image.
+     * @return {@link #OPACITY_OPAQUE}, {@link #OPACITY_ALPHA_TESTED}
+     *         or {@link #OPACITY_BLENDED}
+     */
+    public int getOpacity()
+    {
+        return NativeBitmapImage.getOpacity(getNative());
+    }
 }
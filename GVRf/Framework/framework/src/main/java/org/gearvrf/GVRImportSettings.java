@@ -103,7 +103,15 @@ public enum GVRImportSettings {
     /**
      * Do not include textures and omit texture coordinates from meshes
      */
-    NO_TEXTURING(0x8000000);
+    NO_TEXTURING(0x8000000),
+
+    /**
+     * Compress animation keys: drop keys interpolation can reproduce
+     * and quantize rotations. The animations take less memory and
+     * are faster to sample but their keys cannot be changed.
+     * @see org.gearvrf.animation.keyframe.GVRAnimationChannel#compress()
+     */
+    COMPRESS_ANIMATIONS(0x10000000);
 
     
     private int mValue;
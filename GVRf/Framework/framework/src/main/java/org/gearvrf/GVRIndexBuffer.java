@@ -45,6 +45,7 @@ public class GVRIndexBuffer extends GVRHybridObject implements PrettyPrint
     public GVRIndexBuffer(GVRContext gvrContext, int bytesPerIndex, int indexCount)
     {
         super(gvrContext, NativeIndexBuffer.ctor(bytesPerIndex, indexCount));
+        setNativeSize((long) bytesPerIndex * indexCount);
     }
 
     /**
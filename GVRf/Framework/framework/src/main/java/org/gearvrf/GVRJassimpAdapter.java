@@ -437,12 +437,24 @@ class   GVRJassimpAdapter {
     }
 
     public GVRKeyFrameAnimation createAnimation(AiAnimation aiAnim, GVRSceneObject target) {
+        return createAnimation(aiAnim, target, false);
+    }
+
+    /**
+     * Convert an assimp animation.
+     * @param compress true to compress the keys of the animation channels,
+     *                 see {@link GVRAnimationChannel#compress()}
+     */
+    public GVRKeyFrameAnimation createAnimation(AiAnimation aiAnim, GVRSceneObject target, boolean compress) {
         GVRKeyFrameAnimation anim = new GVRKeyFrameAnimation(aiAnim.getName(), target,
                 (float)aiAnim.getDuration(), (float)aiAnim.getTicksPerSecond());
 
         // Convert node anims
         for (AiNodeAnim aiNodeAnim : aiAnim.getChannels()) {
             GVRAnimationChannel channel = createAnimChannel(aiNodeAnim);
+            if (compress) {
+                channel.compress();
+            }
             anim.addChannel(channel);
         }
 
@@ -577,10 +589,11 @@ class   GVRJassimpAdapter {
             if (animations.size() > 0)
             {
                 GVRAnimator animator = new GVRAnimator(mContext, startAnimations);
+                boolean compress = settings.contains(GVRImportSettings.COMPRESS_ANIMATIONS);
                 model.attachComponent(animator);
                 for (AiAnimation aiAnim : scene.getAnimations())
                 {
-                    GVRAnimation animation = createAnimation(aiAnim, model);
+                    GVRAnimation animation = createAnimation(aiAnim, model, compress);
                     GVRModelSceneObject modelRoot = null;
                     if (GVRModelSceneObject.class.isAssignableFrom(model.getClass()))
                     {
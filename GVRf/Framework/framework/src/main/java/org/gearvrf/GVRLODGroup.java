@@ -15,9 +15,6 @@
 
 package org.gearvrf;
 
-import org.gearvrf.utility.Log;
-import org.joml.Vector4f;
-
 import java.util.LinkedList;
 
 
@@ -38,25 +35,24 @@ import java.util.LinkedList;
  * </pre>
  */
 public final class GVRLODGroup extends GVRBehavior {
-    static private long TYPE_LODGROUP = newComponentType(GVRLODGroup.class);
-
     public GVRLODGroup(GVRContext gvrContext) {
-        super(gvrContext, 0);
-        mType = getComponentType();
+        super(gvrContext, NativeLODGroup.ctor());
     }
 
     static public long getComponentType() {
-        return TYPE_LODGROUP;
+        return NativeLODGroup.getComponentType();
     }
 
-    private final Vector4f mCenter = new Vector4f();
-    private final Vector4f mVector = new Vector4f();
     private final LinkedList<Object[]> mRanges = new LinkedList<>();
 
     /**
      * Add a range to this LOD group. Specify the scene object that should be displayed in this
      * range. Add the LOG group as a component to the parent scene object. The scene objects
      * associated with each range will automatically be added as children to the parent.
+     * <p>
+     * The level is selected by the renderer while culling, using the distance from the
+     * main camera rig to the owner's bounding volume. The selected level is enabled and
+     * the other levels are disabled, so they are not picked or collided with either.
      * @param range show the scene object if the camera distance is greater than this value
      * @param sceneObject scene object that should be rendered when in this range
      * @throws IllegalArgumentException if range is negative or sceneObject null
@@ -86,6 +82,7 @@ public final class GVRLODGroup extends GVRBehavior {
         if (mRanges.size() == size) {
             mRanges.add(newElement);
         }
+        NativeLODGroup.addRange(getNative(), range, sceneObject.getNative());
 
         final GVRSceneObject owner = getOwnerObject();
         if (null != owner) {
@@ -94,44 +91,14 @@ public final class GVRLODGroup extends GVRBehavior {
     }
 
     /**
-     * Do not call directly.
-     * @deprecated
+     * Set the width of the band around each range boundary inside which the
+     * current level is kept, as a fraction of the range. This stops the level
+     * from flickering when the camera hovers near a boundary. The default is 0.05.
+     * @param hysteresis fraction of the range, zero to switch exactly at the boundary
      */
-    public void onDrawFrame(float frameTime) {
-        final GVRSceneObject owner = getOwnerObject();
-        if (owner == null) {
-            return;
-        }
-
-        final int size = mRanges.size();
-        final GVRTransform t = getGVRContext().getMainScene().getMainCameraRig().getCenterCamera().getTransform();
-
-        for (final Object[] range : mRanges) {
-            ((GVRSceneObject)range[1]).setEnable(false);
-        }
-
-        for (int i = size - 1; i >= 0; --i) {
-            final Object[] range = mRanges.get(i);
-            final GVRSceneObject child = (GVRSceneObject) range[1];
-            if (child.getParent() != owner) {
-                Log.w(TAG, "the scene object for distance greater than " + range[0] + " is not a child of the owner; skipping it");
-                continue;
-            }
-
-            final float[] values = child.getBoundingVolumeRawValues();
-            mCenter.set(values[0], values[1], values[2], 1.0f);
-            mVector.set(t.getPositionX(), t.getPositionY(), t.getPositionZ(), 1.0f);
-
-            mVector.sub(mCenter);
-            mVector.negate();
-
-            float distance = mVector.dot(mVector);
-
-            if (distance >= (Float) range[0]) {
-                child.setEnable(true);
-                break;
-            }
-        }
+    public void setHysteresis(float hysteresis)
+    {
+        NativeLODGroup.setHysteresis(getNative(), hysteresis);
     }
 
     @Override
@@ -151,6 +118,11 @@ public final class GVRLODGroup extends GVRBehavior {
             oldOwner.removeChildObject((GVRSceneObject)el[1]);
         }
     }
-
-    private static final String TAG = "GVRLODGroup";
-}
\ No newline at end of file
+}
+
+class NativeLODGroup {
+    static native long ctor();
+    static native long getComponentType();
+    static native void addRange(long lodGroup, float range, long sceneObject);
+    static native void setHysteresis(long lodGroup, float hysteresis);
+}
@@ -117,6 +117,15 @@ public class GVRMesh extends GVRHybridObject implements PrettyPrint {
         this(new GVRVertexBuffer(gvrContext, vertexDescriptor, 0), null);
     }
 
+    /**
+     * The native mesh only refers to its vertex and index buffers, which are
+     * separate objects, so it can be deleted off the GL thread.
+     */
+    @Override
+    protected boolean isGLIndependent() {
+        return true;
+    }
+
     /**
      * Get the 3D vertices of the mesh. Each vertex is represented as a packed
      * {@code float} triplet:
@@ -30,10 +30,26 @@ import static android.opengl.GLES30.GL_RGB32F;
  * Attaches a morph to a scene object with a base mesh and sets the blend shapes.
  * <p>
  * When a morph is constructed, number of blend shapes is passed to set for base shape.
- * The differences are determined between base shape and blend shapes vertex descriptors and are assigned to texture.
+ * The differences are determined between base shape and blend shapes vertex descriptors.
  * Usually base shape vertex descriptor contains positions. They might also have normals, tangents, bitangents, bone weights and indices.
  * The blend shapes descriptor contain positions. They might also contain normals, tangents, bitangents.
  *</p>
+ * <p>
+ * Each blend shape only keeps the vertices it moves, as a list of vertex indices
+ * and their differences from the base shape. Weights at or below the
+ * {@link #setWeightThreshold(float) weight threshold} are skipped. When few blend shapes
+ * are active, or the shader cannot morph, the morphed vertices are computed on the CPU
+ * and only the range of vertices the blend shapes touch is updated in the vertex buffer.
+ * When more than the {@link #setCpuShapeLimit(int) CPU shape limit} are active, the shader
+ * morphs the mesh from a texture holding the packed differences, made by {@link #update()}.
+ * Weights are only sent again when they change.
+ * </p>
+ * <p>
+ * The CPU path writes the morphed vertices into the vertex buffer of the mesh
+ * itself, so every scene object sharing that mesh shows the same morph. Give
+ * each morphed object its own mesh to morph them independently. The base shape
+ * is put back in the vertex buffer when the morph is detached.
+ * </p>
  *@see GVRVertexBuffer
  */
 
@@ -42,16 +58,39 @@ public class GVRMeshMorph extends GVRBehavior
     static private long TYPE_MESHMORPH = newComponentType(GVRMeshMorph.class);
     static final int HAS_NORMAL = 1;
     static final int HAS_TANGENT = 2;
+
+    /**
+     * Most blend shapes the shaders can morph, the size of their u_blendweights array.
+     */
+    public static final int MAX_GPU_BLEND_SHAPES = 75;
+
+    /**
+     * Differences from the base shape at or below this size are not stored.
+     */
+    static final float MIN_DELTA = 0.000001f;
+
+    /*
+     * Width of the morph texture in texels. Its height grows with the
+     * number of differences.
+     */
+    static final int MORPH_TEXTURE_WIDTH = 1024;
     protected int mDescriptorFlags = 0;
 
     final protected int mNumBlendShapes;
     //final protected boolean mMorphNormals;
     protected int mFloatsPerVertex;
-    protected int mTexWidth;
     protected int mNumVerts;
     protected boolean desc;
     protected float[] mWeights;
-    protected float[] mBlendShapeDiffs;
+    protected float[] mAppliedWeights;
+    protected int[][] mShapeIndices;
+    protected float[][] mShapeDeltas;
+    protected int mFirstMorphed;
+    protected int mLastMorphed;
+    protected float mWeightThreshold = 0.001f;
+    protected int mCpuShapeLimit = 8;
+    protected boolean mGpuMorph;
+    protected boolean mMorphOnCpu;
     protected String[] descriptors = new String[2];
     protected float[] mBaseBlendShape;
     protected GVRVertexBuffer mbaseShape;
@@ -75,8 +114,6 @@ public class GVRMeshMorph extends GVRBehavior
             throw new IllegalArgumentException("Number of blend shapes must be positive");
         }
         mFloatsPerVertex = 0;
-        mTexWidth = 0; // 3 floats for position
-
     }
 
 
@@ -86,11 +123,12 @@ public class GVRMeshMorph extends GVRBehavior
 
 
     /**
-     * Attaches a morph to scene object with a base mesh
+     * Attaches a morph to scene object with a base mesh.
+     * If the material is missing, its shader does not support morphing or there are more than
+     * {@link #MAX_GPU_BLEND_SHAPES} blend shapes, the mesh is always morphed on the CPU.
      * @param sceneObj is the base mesh.
      * @throws IllegalStateException if component is null
      * @throws IllegalStateException if mesh is null
-     * @throws IllegalStateException if material is null
      */
 
 
@@ -112,21 +150,28 @@ public class GVRMeshMorph extends GVRBehavior
         }
         GVRShaderData mtl = getMaterial();
 
-        if ((mtl == null) ||
-                !mtl.getTextureDescriptor().contains("blendshapeTexture"))
+        mGpuMorph = (mtl != null) &&
+                mtl.getTextureDescriptor().contains("blendshapeTexture") &&
+                (mNumBlendShapes <= MAX_GPU_BLEND_SHAPES);
+        mMorphOnCpu = false;
+        copyBaseShape(mesh.getVertexBuffer());
+        if (mGpuMorph)
         {
-
-            throw new IllegalStateException("Scene object shader does not support morphing");
+            mtl.setInt("u_numblendshapes", mNumBlendShapes);
+            mtl.setFloatArray("u_blendweights", mAppliedWeights);
         }
-
-        copyBaseShape(mesh.getVertexBuffer());
-        mtl.setInt("u_numblendshapes", mNumBlendShapes);
-        mtl.setFloatArray("u_blendweights", mWeights);
     }
 
     public void onDetach(GVRSceneObject sceneObj)
     {
-        mBlendShapeDiffs = null;
+        if (mMorphOnCpu && (mBaseBlendShape != null))
+        {
+            // no weight is above the largest float, this puts back the base shape
+            morphOnCpu(Float.MAX_VALUE);
+        }
+        mMorphOnCpu = false;
+        mShapeIndices = null;
+        mShapeDeltas = null;
         mBaseBlendShape = null;
         mNumVerts = 0;
     }
@@ -159,10 +204,13 @@ public class GVRMeshMorph extends GVRBehavior
         {
             throw new IllegalArgumentException("Base shape has no vertices");
         }
-        mTexWidth = mFloatsPerVertex*mNumBlendShapes;
         mBaseBlendShape = new float[mFloatsPerVertex * mNumVerts];
         mWeights = new float[mNumBlendShapes];
-        mBlendShapeDiffs = new float[mTexWidth * mNumVerts];
+        mAppliedWeights = new float[mNumBlendShapes];
+        mShapeIndices = new int[mNumBlendShapes][];
+        mShapeDeltas = new float[mNumBlendShapes][];
+        mFirstMorphed = mNumVerts;
+        mLastMorphed = -1;
 
 
         copyBaseAttribute(baseShape, "a_position", 0);
@@ -191,7 +239,7 @@ public class GVRMeshMorph extends GVRBehavior
         }
     }
 
-    protected void copyBlendShape(int shapeofs, int baseofs, float[] vec3data)
+    protected void copyBlendShape(float[] diffs, int baseofs, float[] vec3data)
     {
         if (mBaseBlendShape == null)
         {
@@ -207,13 +255,59 @@ public class GVRMeshMorph extends GVRBehavior
         for (int i = 0; i < mNumVerts; ++i)
         {
             int b = i * mFloatsPerVertex + baseofs;
-            int s = i * mTexWidth + shapeofs;
-            mBlendShapeDiffs[s] = (vec3data[i * 3] - mBaseBlendShape[b]);
-            mBlendShapeDiffs[s + 1] = (vec3data[i * 3 + 1] - mBaseBlendShape[b + 1]);
-            mBlendShapeDiffs[s + 2] = (vec3data[i * 3 + 2] - mBaseBlendShape[b + 2]);
+            diffs[b] = (vec3data[i * 3] - mBaseBlendShape[b]);
+            diffs[b + 1] = (vec3data[i * 3 + 1] - mBaseBlendShape[b + 1]);
+            diffs[b + 2] = (vec3data[i * 3 + 2] - mBaseBlendShape[b + 2]);
         }
     }
 
+    /*
+     * Keep only the vertices a blend shape moves: their indices and
+     * their differences from the base shape.
+     */
+    protected void setSparseShape(int index, float[] diffs)
+    {
+        int count = 0;
+        for (int i = 0; i < mNumVerts; ++i)
+        {
+            if (isMoved(diffs, i))
+            {
+                ++count;
+            }
+        }
+        int[] indices = new int[count];
+        float[] deltas = new float[count * mFloatsPerVertex];
+        int n = 0;
+        for (int i = 0; i < mNumVerts; ++i)
+        {
+            if (isMoved(diffs, i))
+            {
+                System.arraycopy(diffs, i * mFloatsPerVertex, deltas, n * mFloatsPerVertex, mFloatsPerVertex);
+                indices[n++] = i;
+            }
+        }
+        if (count > 0)
+        {
+            mFirstMorphed = Math.min(mFirstMorphed, indices[0]);
+            mLastMorphed = Math.max(mLastMorphed, indices[count - 1]);
+        }
+        mShapeIndices[index] = indices;
+        mShapeDeltas[index] = deltas;
+    }
+
+    private boolean isMoved(float[] diffs, int vertex)
+    {
+        int ofs = vertex * mFloatsPerVertex;
+        for (int j = 0; j < mFloatsPerVertex; ++j)
+        {
+            if (Math.abs(diffs[ofs + j]) > MIN_DELTA)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public float getWeight(int index)
     {
         return mWeights[index];
@@ -226,11 +320,132 @@ public class GVRMeshMorph extends GVRBehavior
 
     public void setWeights(float[] weights)
     {
-        GVRMaterial mtl = getMaterial();
         System.arraycopy(weights, 0, mWeights, 0, mWeights.length);
-        if (mtl != null)
+        applyWeights(false);
+    }
+
+    /**
+     * Weights at or below the threshold, in absolute value, are treated as zero
+     * and their blend shapes are skipped.
+     * @param threshold smallest weight applied. The default is 0.001.
+     */
+    public void setWeightThreshold(float threshold)
+    {
+        mWeightThreshold = threshold;
+    }
+
+    public float getWeightThreshold()
+    {
+        return mWeightThreshold;
+    }
+
+    /**
+     * Set how many blend shapes may be active at once for the mesh to be morphed on the CPU.
+     * With more active blend shapes the shader morphs the mesh, if it can.
+     * @param numShapes most blend shapes applied on the CPU. The default is 8.
+     */
+    public void setCpuShapeLimit(int numShapes)
+    {
+        mCpuShapeLimit = numShapes;
+    }
+
+    public int getCpuShapeLimit()
+    {
+        return mCpuShapeLimit;
+    }
+
+    /**
+     * Returns true if the blend shapes are currently applied on the CPU.
+     */
+    public boolean isMorphingOnCpu()
+    {
+        return mMorphOnCpu;
+    }
+
+    /**
+     * Returns the number of bytes taken by the differences of all the blend shapes.
+     */
+    public int getDeltaDataSize()
+    {
+        int size = 0;
+        if (mShapeIndices != null)
         {
-            mtl.setFloatArray("u_blendweights", mWeights);
+            for (int i = 0; i < mNumBlendShapes; ++i)
+            {
+                if (mShapeIndices[i] != null)
+                {
+                    size += (mShapeIndices[i].length + mShapeDeltas[i].length) * 4;
+                }
+            }
+        }
+        return size;
+    }
+
+    /*
+     * Send the weights above the threshold to the CPU or the shader,
+     * whichever fits the number of active blend shapes, unless they
+     * have not changed since the last time.
+     */
+    protected void applyWeights(boolean force)
+    {
+        if (mAppliedWeights == null)
+        {
+            return;
+        }
+        boolean changed = force;
+        int numActive = 0;
+
+        for (int i = 0; i < mNumBlendShapes; ++i)
+        {
+            float w = (Math.abs(mWeights[i]) > mWeightThreshold) ? mWeights[i] : 0.0f;
+            if (w != 0.0f)
+            {
+                ++numActive;
+            }
+            if (w != mAppliedWeights[i])
+            {
+                mAppliedWeights[i] = w;
+                changed = true;
+            }
+        }
+        if (!changed)
+        {
+            return;
+        }
+        boolean onCpu = !mGpuMorph || (numActive <= mCpuShapeLimit);
+        GVRMaterial mtl = getMaterial();
+
+        if (onCpu)
+        {
+            if (!mMorphOnCpu && mGpuMorph && (mtl != null))
+            {
+                mtl.setInt("u_numblendshapes", 0);
+            }
+            morphOnCpu(0.0f);
+        }
+        else
+        {
+            if (mMorphOnCpu)
+            {
+                // no weight is above the largest float, this puts back the base shape
+                morphOnCpu(Float.MAX_VALUE);
+            }
+            if (mtl != null)
+            {
+                mtl.setInt("u_numblendshapes", mNumBlendShapes);
+                mtl.setFloatArray("u_blendweights", mAppliedWeights);
+            }
+        }
+        mMorphOnCpu = onCpu;
+    }
+
+    private void morphOnCpu(float threshold)
+    {
+        if (mLastMorphed >= mFirstMorphed)
+        {
+            NativeMeshMorph.applySparse(mbaseShape.getNative(), mBaseBlendShape, mFloatsPerVertex,
+                                        mFirstMorphed, mLastMorphed - mFirstMorphed + 1,
+                                        mShapeIndices, mShapeDeltas, mAppliedWeights, threshold);
         }
     }
 
@@ -255,10 +470,9 @@ public class GVRMeshMorph extends GVRBehavior
 
         int shapeDescriptorFlags = 0;
         String shapeDescriptor = vbuf.getDescriptor();
+        float[] diffs = new float[mFloatsPerVertex * mNumVerts];
 
-
-
-        copyBlendShape(index * mFloatsPerVertex, 0, vbuf.getFloatArray("a_position"));
+        copyBlendShape(diffs, 0, vbuf.getFloatArray("a_position"));
 
         if (shapeDescriptor.contains("a_normal"))
         {
@@ -274,13 +488,14 @@ public class GVRMeshMorph extends GVRBehavior
         }
         if ((shapeDescriptorFlags & HAS_NORMAL) != 0)
         {
-            copyBlendShape(index * mFloatsPerVertex + 3, 3, vbuf.getFloatArray("a_normal"));
+            copyBlendShape(diffs, 3, vbuf.getFloatArray("a_normal"));
         }
         if ((shapeDescriptorFlags & HAS_TANGENT) != 0)
         {
-            copyBlendShape(index * mFloatsPerVertex + 6, 6, vbuf.getFloatArray("a_tangent"));
-            copyBlendShape(index * mFloatsPerVertex + 9, 9, vbuf.getFloatArray("a_bitangent"));
+            copyBlendShape(diffs, 6, vbuf.getFloatArray("a_tangent"));
+            copyBlendShape(diffs, 9, vbuf.getFloatArray("a_bitangent"));
         }
+        setSparseShape(index, diffs);
     }
 
 
@@ -302,47 +517,106 @@ public class GVRMeshMorph extends GVRBehavior
         return mNumBlendShapes;
     }
 
+    /**
+     * Make the morph texture for the shader from the blend shapes set and apply the
+     * current weights. Call it after setting the blend shapes.
+     * <p>
+     * The texture starts with a texel for each vertex holding where its entries begin
+     * and how many there are. Each entry is a texel with the blend shape index followed
+     * by the differences of the position, then the normal, tangent and bitangent if the
+     * mesh has them.
+     * </p>
+     * @return false if the morph is not attached
+     */
     public boolean update()
     {
         GVRTexture blendshapeTex;
         GVRFloatImage blendshapeImage;
         GVRMaterial mtl = getMaterial();
 
-        if ((mBlendShapeDiffs == null) || (mtl == null))
+        if ((mShapeIndices == null) || (mtl == null))
         {
             return false;
         }
-        if (mtl.hasTexture("blendshapeTexture"))
-        {
-            blendshapeTex = mtl.getTexture("blendshapeTexture");
-            blendshapeImage = (GVRFloatImage) blendshapeTex.getImage();
-        }
-        else
+        if (mGpuMorph)
         {
-            GVRTextureParameters texparams = new GVRTextureParameters(getGVRContext());
-            texparams.setMinFilterType(GVRTextureParameters.TextureFilterType.GL_NEAREST);
-            texparams.setMagFilterType(GVRTextureParameters.TextureFilterType.GL_NEAREST);
-            blendshapeImage = new GVRFloatImage(getGVRContext(), GL_RGB);
-            blendshapeTex = new GVRTexture(getGVRContext(), texparams);
-            blendshapeTex.setImage(blendshapeImage);
-            mtl.setTexture("blendshapeTexture", blendshapeTex);
+            float[] texels = packShapes();
+            if (mtl.hasTexture("blendshapeTexture"))
+            {
+                blendshapeTex = mtl.getTexture("blendshapeTexture");
+                blendshapeImage = (GVRFloatImage) blendshapeTex.getImage();
+            }
+            else
+            {
+                GVRTextureParameters texparams = new GVRTextureParameters(getGVRContext());
+                texparams.setMinFilterType(GVRTextureParameters.TextureFilterType.GL_NEAREST);
+                texparams.setMagFilterType(GVRTextureParameters.TextureFilterType.GL_NEAREST);
+                blendshapeImage = new GVRFloatImage(getGVRContext(), GL_RGB);
+                blendshapeTex = new GVRTexture(getGVRContext(), texparams);
+                blendshapeTex.setImage(blendshapeImage);
+                mtl.setTexture("blendshapeTexture", blendshapeTex);
+            }
+            blendshapeImage.update(MORPH_TEXTURE_WIDTH, texels.length / (3 * MORPH_TEXTURE_WIDTH), texels);
         }
-        blendshapeImage.update(mTexWidth / 3, mNumVerts, mBlendShapeDiffs);
+        applyWeights(true);
         return true;
     }
 
-    private String dumpDiffs(int numVerts)
+    /*
+     * Pack the vertex headers and entries for the shader, in rows of
+     * MORPH_TEXTURE_WIDTH RGB texels.
+     */
+    protected float[] packShapes()
     {
-        String s = "";
-        for (int i = 0; i < numVerts; ++i)
+        int texelsPerEntry = 1 + mFloatsPerVertex / 3;
+        int[] vertexEntries = new int[mNumVerts];
+        int numTexels = mNumVerts;
+
+        for (int s = 0; s < mNumBlendShapes; ++s)
         {
-            for (int j = 0; j < mTexWidth; ++j)
+            if (mShapeIndices[s] != null)
             {
-                Float f = mBlendShapeDiffs[i * mTexWidth + j];
-                s += " " + f.toString();
+                for (int v : mShapeIndices[s])
+                {
+                    ++vertexEntries[v];
+                }
+                numTexels += mShapeIndices[s].length * texelsPerEntry;
             }
-            s += "\n";
         }
-        return s;
+        int height = (numTexels + MORPH_TEXTURE_WIDTH - 1) / MORPH_TEXTURE_WIDTH;
+        float[] texels = new float[height * MORPH_TEXTURE_WIDTH * 3];
+        int[] nextEntry = new int[mNumVerts];
+        int texel = mNumVerts;
+
+        for (int v = 0; v < mNumVerts; ++v)
+        {
+            texels[v * 3] = texel;
+            texels[v * 3 + 1] = vertexEntries[v];
+            nextEntry[v] = texel;
+            texel += vertexEntries[v] * texelsPerEntry;
+        }
+        for (int s = 0; s < mNumBlendShapes; ++s)
+        {
+            int[] indices = mShapeIndices[s];
+            if (indices == null)
+            {
+                continue;
+            }
+            for (int i = 0; i < indices.length; ++i)
+            {
+                int t = nextEntry[indices[i]];
+                texels[t * 3] = s;
+                System.arraycopy(mShapeDeltas[s], i * mFloatsPerVertex, texels, (t + 1) * 3, mFloatsPerVertex);
+                nextEntry[indices[i]] = t + texelsPerEntry;
+            }
+        }
+        return texels;
     }
-}
\ No newline at end of file
+}
+
+class NativeMeshMorph
+{
+    static native int applySparse(long vbuf, float[] baseShape, int floatsPerVertex,
+                                  int firstVertex, int numVerts, int[][] indices,
+                                  float[][] deltas, float[] weights, float threshold);
+}
@@ -0,0 +1,79 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import org.gearvrf.GVRContext.GVRReference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Releases the native objects of every {@link GVRHybridObject} created
+ * on a thread while the scope is open, all at once, when it is closed.
+ * <p>
+ * This is meant for transient objects - text panels, particles, meshes
+ * rebuilt every frame - that would otherwise hold on to their native memory
+ * until the garbage collector gets around to them. Objects created in a
+ * scope must not be used after it is closed; detach them from the scene
+ * graph first.
+ *
+ * @see GVRContext#openNativeScope()
+ * @see GVRHybridObject#releaseNative()
+ */
+public final class GVRNativeScope implements AutoCloseable {
+    private final GVRContext mContext;
+    private final GVRNativeScope mParent;
+    private final List<GVRReference> mReferences = new ArrayList<GVRReference>();
+    private boolean mClosed;
+
+    GVRNativeScope(GVRContext context, GVRNativeScope parent) {
+        mContext = context;
+        mParent = parent;
+    }
+
+    GVRNativeScope getParent() {
+        return mParent;
+    }
+
+    void add(GVRReference reference) {
+        mReferences.add(reference);
+    }
+
+    /**
+     * @return the number of objects created in this scope
+     */
+    public int size() {
+        return mReferences.size();
+    }
+
+    /**
+     * Release the native objects of everything created in this scope, most
+     * recent first. Must be called on the thread that opened the scope.
+     */
+    @Override
+    public void close() {
+        if (mClosed) {
+            return;
+        }
+        mClosed = true;
+
+        for (int i = mReferences.size() - 1; i >= 0; --i) {
+            mContext.release(mReferences.get(i));
+        }
+        mReferences.clear();
+        mContext.closeNativeScope(this);
+    }
+}
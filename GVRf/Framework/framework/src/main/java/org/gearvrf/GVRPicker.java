@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.gearvrf.debug.GVRFrameProfiler;
 import org.gearvrf.io.GVRCursorController;
 import org.gearvrf.utility.Log;
 import org.joml.Matrix4f;
@@ -489,6 +490,7 @@ public class GVRPicker extends GVRBehavior implements IEventReceiver {
         if (isEnabled() && (mScene != null) && mPickEventLock.tryLock())
         {
             // Don't call if we are in the middle of processing another pick
+            final long start = GVRFrameProfiler.begin();
             try
             {
                 doPick();
@@ -496,6 +498,7 @@ public class GVRPicker extends GVRBehavior implements IEventReceiver {
             finally
             {
                 mPickEventLock.unlock();
+                GVRFrameProfiler.end(GVRFrameProfiler.PHASE_PICKING, start);
             }
         }
     }
@@ -43,6 +43,13 @@ public final class GVRRenderData extends GVRComponent implements IRenderable, Pr
     private ArrayList<GVRRenderPass> mRenderPassList;
     private boolean mLightMapEnabled;
     private boolean isLightEnabled;
+    private boolean mInstancing;
+
+    /**
+     * Maximum number of render datas drawn by one instanced call.
+     * Larger groups are split.
+     */
+    static public final int MAX_INSTANCES = 128;
 
     /**
      * Rendering hints.
@@ -796,6 +803,37 @@ public final class GVRRenderData extends GVRComponent implements IRenderable, Pr
         return this;
     }
 
+    /**
+     * Enable instanced rendering for this render data.
+     * <p>
+     * The renderer groups instanced render datas which share the same mesh,
+     * material, shader and render state and draws each group with a single
+     * call, taking the model matrices from an instance buffer. This cuts the
+     * draw calls for scenes with many copies of the same object.
+     * <p>
+     * Instancing needs a shader built from one of the standard vertex templates and
+     * applies to render datas with a single pass and no bones; anything else
+     * is drawn on its own. Normals are transformed by the model matrix,
+     * so instances should be scaled uniformly.
+     * @param instancing true to draw this render data instanced
+     * @return this render data, for chaining
+     * @see #isInstancing()
+     */
+    public GVRRenderData setInstancing(boolean instancing) {
+        mInstancing = instancing;
+        NativeRenderData.setInstancing(getNative(), instancing);
+        return this;
+    }
+
+    /**
+     * Check whether this render data is drawn instanced.
+     * @return true if instancing is enabled
+     * @see #setInstancing(boolean)
+     */
+    public boolean isInstancing() {
+        return mInstancing;
+    }
+
     @Override
     public void prettyPrint(StringBuffer sb, int indent) {
         if (mMesh != null) {
@@ -925,6 +963,8 @@ class NativeRenderData {
 
     static native boolean getCastShadows(long renderData);
 
+    static native void setInstancing(long renderData, boolean instancing);
+
     static native void setStencilFunc(long renderData, int func, int ref, int mask);
 
     static native void setStencilOp(long renderData, int fail, int zfail, int zpass);
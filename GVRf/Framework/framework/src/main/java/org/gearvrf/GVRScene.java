@@ -27,7 +27,9 @@ import org.gearvrf.utility.Log;
 import java.io.File;
 import java.io.FileInputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -62,6 +64,9 @@ public class GVRScene extends GVRHybridObject implements PrettyPrint, IScriptabl
     private StringBuilder mStatMessage = new StringBuilder();
     private GVREventReceiver mEventReceiver = new GVREventReceiver(this);
     private GVRSceneObject mSceneRoot;
+    private final ObjectIndex mObjectIndex = new ObjectIndex();
+    private final Object mQueryLock = new Object();
+    private long[] mQueryPointers = new long[0];
     /**
      * Constructs a scene with a camera rig holding left & right cameras in it.
      * 
@@ -73,6 +78,7 @@ public class GVRScene extends GVRHybridObject implements PrettyPrint, IScriptabl
 
         mSceneRoot = new GVRSceneObject(gvrContext);
         NativeScene.setSceneRoot(getNative(), mSceneRoot.getNative());
+        mObjectIndex.add(mSceneRoot);
 
         NativeScene.setJava(getNative(), this);
 
@@ -264,7 +270,8 @@ public class GVRScene extends GVRHybridObject implements PrettyPrint, IScriptabl
     }
 
     /**
-     * Performs case-sensitive search
+     * Performs case-sensitive search. The scene keeps an index of its
+     * objects by name, so this does not walk the scene graph.
      * 
      * @param name
      * @return null if nothing was found or name was null/empty
@@ -290,6 +297,161 @@ public class GVRScene extends GVRHybridObject implements PrettyPrint, IScriptabl
         return mSceneRoot.getSceneObjectByName(name);
     }
 
+    /**
+     * Get the objects of the scene whose {@linkplain GVRSceneObject#getTag()
+     * tag} equals {@code tag}. The scene keeps an index of its objects by
+     * tag, so this does not walk the scene graph.
+     *
+     * @param tag tag to look for
+     * @return matches in depth-first order; null if nothing was found or
+     * tag was null
+     */
+    public GVRSceneObject[] getSceneObjectsByTag(final Object tag) {
+        if (null == tag) {
+            return null;
+        }
+        final List<GVRSceneObject> matches = mObjectIndex.findByTag(tag, mSceneRoot);
+        return 0 != matches.size() ? matches.toArray(new GVRSceneObject[matches.size()]) : null;
+    }
+
+    /**
+     * Find the objects within a distance of a point.
+     * <p>
+     * The scene keeps its objects in a spatial index, by the world space
+     * bounds of their own mesh, or by their position if they have none.
+     * Children are not included in the bounds of their parent. The index
+     * is updated as objects are added, removed and moved, for the main
+     * scene, as the picker's collider list is. A scene which is not the
+     * main scene finds nothing.
+     * <p>
+     * Objects which have no Java object are left out of the results.
+     *
+     * @param x       X coordinate of the point, in world space
+     * @param y       Y coordinate of the point
+     * @param z       Z coordinate of the point
+     * @param radius  distance from the point
+     * @param results array to fill with the objects found, in no
+     *                particular order
+     * @return number of objects found, which can be more than
+     * {@code results} holds
+     */
+    public int findObjectsInSphere(float x, float y, float z, float radius,
+                                   GVRSceneObject[] results) {
+        synchronized (mQueryLock) {
+            long[] pointers = getQueryPointers(results.length);
+            int found = NativeScene.findInSphere(getNative(), x, y, z, radius, pointers);
+            return toSceneObjects(pointers, found, results, null);
+        }
+    }
+
+    /**
+     * Find the objects whose bounds overlap a box.
+     *
+     * @param minX    smallest X coordinate of the box, in world space
+     * @param minY    smallest Y coordinate of the box
+     * @param minZ    smallest Z coordinate of the box
+     * @param maxX    largest X coordinate of the box
+     * @param maxY    largest Y coordinate of the box
+     * @param maxZ    largest Z coordinate of the box
+     * @param results array to fill with the objects found, in no
+     *                particular order
+     * @return number of objects found, which can be more than
+     * {@code results} holds
+     * @see #findObjectsInSphere(float, float, float, float, GVRSceneObject[])
+     */
+    public int findObjectsInBox(float minX, float minY, float minZ,
+                                float maxX, float maxY, float maxZ,
+                                GVRSceneObject[] results) {
+        synchronized (mQueryLock) {
+            long[] pointers = getQueryPointers(results.length);
+            int found = NativeScene.findInBox(getNative(), minX, minY, minZ, maxX, maxY, maxZ,
+                                              pointers);
+            return toSceneObjects(pointers, found, results, null);
+        }
+    }
+
+    /**
+     * Find the objects whose bounds are at least partly inside a view
+     * frustum.
+     *
+     * @param viewProjection column major view projection matrix of the
+     *                       frustum, 16 floats
+     * @param results        array to fill with the objects found, in no
+     *                       particular order
+     * @return number of objects found, which can be more than
+     * {@code results} holds
+     * @see #findObjectsInSphere(float, float, float, float, GVRSceneObject[])
+     */
+    public int findObjectsInFrustum(float[] viewProjection, GVRSceneObject[] results) {
+        if (viewProjection.length < 16) {
+            throw new IllegalArgumentException("view projection matrix needs 16 floats");
+        }
+        synchronized (mQueryLock) {
+            long[] pointers = getQueryPointers(results.length);
+            int found = NativeScene.findInFrustum(getNative(), viewProjection, pointers);
+            return toSceneObjects(pointers, found, results, null);
+        }
+    }
+
+    /**
+     * Find the objects closest to a point, as many as {@code results}
+     * holds.
+     *
+     * @param x         X coordinate of the point, in world space
+     * @param y         Y coordinate of the point
+     * @param z         Z coordinate of the point
+     * @param results   array to fill with the objects found, closest first
+     * @param distances array to fill with the distance from the point to
+     *                  the bounds of each object, 0 inside them; may be null
+     * @return number of objects found, less than {@code results.length}
+     * only if the scene has fewer objects, or some have no Java object
+     * @see #findObjectsInSphere(float, float, float, float, GVRSceneObject[])
+     */
+    public int findNearestObjects(float x, float y, float z, GVRSceneObject[] results,
+                                  float[] distances) {
+        if ((distances != null) && (distances.length < results.length)) {
+            throw new IllegalArgumentException("distances must be as long as results");
+        }
+        synchronized (mQueryLock) {
+            long[] pointers = getQueryPointers(results.length);
+            int found = NativeScene.findNearest(getNative(), x, y, z, pointers, distances,
+                                                results.length);
+            return toSceneObjects(pointers, found, results, distances);
+        }
+    }
+
+    private long[] getQueryPointers(int length) {
+        if (mQueryPointers.length < length) {
+            mQueryPointers = new long[length];
+        }
+        return mQueryPointers;
+    }
+
+    /*
+     * Look up the Java objects of the native pointers a query filled in,
+     * leaving out those which have none. The count returned drops by the
+     * number left out, so the first entries of results are never null.
+     * Distances, if any, are moved along with their objects.
+     */
+    private int toSceneObjects(long[] pointers, int found, GVRSceneObject[] results,
+                               float[] distances) {
+        final int count = Math.min(found, results.length);
+        int resolved = 0;
+        for (int i = 0; i < count; ++i) {
+            GVRSceneObject object = mObjectIndex.findByNative(pointers[i]);
+            if (object != null) {
+                if (distances != null) {
+                    distances[resolved] = distances[i];
+                }
+                results[resolved++] = object;
+            }
+        }
+        for (int i = resolved; i < count; ++i) {
+            results[i] = null;
+        }
+        return found - (count - resolved);
+    }
+
     /**
      * Enable / disable picking of visible objects.
      * Picking only visible objects is enabled by default.
@@ -621,6 +783,166 @@ public class GVRScene extends GVRHybridObject implements PrettyPrint, IScriptabl
         }
         return cameraRigType;
     }
+
+    /**
+     * Scene objects by name, by tag and by native pointer, for every
+     * object in a scene.
+     * Kept up to date by {@link GVRSceneObject} when objects are added,
+     * removed, renamed or retagged, so lookups neither walk the graph nor
+     * cross JNI.
+     * <p>
+     * A key maps to the object itself while it is unique, and to a list of
+     * objects once it is shared. Lookups return matches in depth-first
+     * order, like a walk of the graph would.
+     */
+    static final class ObjectIndex {
+        private final Map<String, Object> mByName = new HashMap<String, Object>();
+        private final Map<Object, Object> mByTag = new HashMap<Object, Object>();
+        private final Map<Long, GVRSceneObject> mByNative = new HashMap<Long, GVRSceneObject>();
+
+        /**
+         * Index an object and all its descendants.
+         */
+        synchronized void add(GVRSceneObject root) {
+            final ArrayList<GVRSceneObject> pending = new ArrayList<GVRSceneObject>();
+            pending.add(root);
+            while (!pending.isEmpty()) {
+                final GVRSceneObject object = pending.remove(pending.size() - 1);
+                object.mObjectIndex = this;
+                mByNative.put(object.getNative(), object);
+                put(mByName, object.getName(), object);
+                put(mByTag, object.getTag(), object);
+                pending.addAll(object.rawGetChildren());
+            }
+        }
+
+        /**
+         * Remove an object and all its descendants from the index.
+         */
+        synchronized void remove(GVRSceneObject root) {
+            final ArrayList<GVRSceneObject> pending = new ArrayList<GVRSceneObject>();
+            pending.add(root);
+            while (!pending.isEmpty()) {
+                final GVRSceneObject object = pending.remove(pending.size() - 1);
+                object.mObjectIndex = null;
+                mByNative.remove(object.getNative());
+                take(mByName, object.getName(), object);
+                take(mByTag, object.getTag(), object);
+                pending.addAll(object.rawGetChildren());
+            }
+        }
+
+        synchronized void rename(GVRSceneObject object, String oldName, String newName) {
+            take(mByName, oldName, object);
+            put(mByName, newName, object);
+        }
+
+        synchronized void retag(GVRSceneObject object, Object oldTag, Object newTag) {
+            take(mByTag, oldTag, object);
+            put(mByTag, newTag, object);
+        }
+
+        /**
+         * @return the object of the scene with a native pointer, null
+         * if it is not in the scene
+         */
+        synchronized GVRSceneObject findByNative(long nativePointer) {
+            return mByNative.get(nativePointer);
+        }
+
+        /**
+         * @return objects with a name under {@code subtree}, in depth-first
+         * order; empty if there are none
+         */
+        List<GVRSceneObject> findByName(String name, GVRSceneObject subtree) {
+            return find(mByName, name, subtree);
+        }
+
+        /**
+         * @return objects with a tag under {@code subtree}, in depth-first
+         * order; empty if there are none
+         */
+        List<GVRSceneObject> findByTag(Object tag, GVRSceneObject subtree) {
+            return find(mByTag, tag, subtree);
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<GVRSceneObject> find(Map<?, Object> map, Object key, GVRSceneObject subtree) {
+            final List<GVRSceneObject> matches = new ArrayList<GVRSceneObject>();
+            synchronized (this) {
+                final Object value = map.get(key);
+                if (value instanceof GVRSceneObject) {
+                    matches.add((GVRSceneObject) value);
+                } else if (value != null) {
+                    matches.addAll((List<GVRSceneObject>) value);
+                }
+            }
+            for (int i = matches.size() - 1; i >= 0; --i) {
+                if (!isInSubtree(matches.get(i), subtree)) {
+                    matches.remove(i);
+                }
+            }
+            DEPTH_FIRST.sort(matches);
+            return matches;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <K> void put(Map<K, Object> map, K key, GVRSceneObject object) {
+            if ((key == null) || "".equals(key)) {
+                return;
+            }
+            final Object value = map.get(key);
+            if (value == null) {
+                map.put(key, object);
+            } else if (value instanceof GVRSceneObject) {
+                final List<GVRSceneObject> list = new ArrayList<GVRSceneObject>(2);
+                list.add((GVRSceneObject) value);
+                list.add(object);
+                map.put(key, list);
+            } else {
+                ((List<GVRSceneObject>) value).add(object);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <K> void take(Map<K, Object> map, K key, GVRSceneObject object) {
+            if ((key == null) || "".equals(key)) {
+                return;
+            }
+            final Object value = map.get(key);
+            if (value == object) {
+                map.remove(key);
+            } else if (value instanceof List) {
+                final List<GVRSceneObject> list = (List<GVRSceneObject>) value;
+                list.remove(object);
+                if (list.size() == 1) {
+                    map.put(key, list.get(0));
+                }
+            }
+        }
+
+        private static boolean isInSubtree(GVRSceneObject object, GVRSceneObject subtree) {
+            for (GVRSceneObject o = object; o != null; o = o.getParent()) {
+                if (o == subtree) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static final DepthFirstOrder<GVRSceneObject> DEPTH_FIRST =
+                new DepthFirstOrder<GVRSceneObject>() {
+            @Override
+            protected GVRSceneObject getParent(GVRSceneObject object) {
+                return object.getParent();
+            }
+
+            @Override
+            protected List<GVRSceneObject> getChildren(GVRSceneObject object) {
+                return object.rawGetChildren();
+            }
+        };
+    }
 }
 
 class NativeScene {
@@ -631,6 +953,17 @@ class NativeScene {
 
     static native void removeAllSceneObjects(long scene);
 
+    static native int findInSphere(long scene, float x, float y, float z, float radius,
+                                   long[] results);
+
+    static native int findInBox(long scene, float minX, float minY, float minZ,
+                                float maxX, float maxY, float maxZ, long[] results);
+
+    static native int findInFrustum(long scene, float[] viewProjection, long[] results);
+
+    static native int findNearest(long scene, float x, float y, float z, long[] results,
+                                  float[] distances, int k);
+
     static native void deleteLightsAndDepthTextureOnRenderThread(long scene);
 
     public static native void setFrustumCulling(long scene, boolean flag);
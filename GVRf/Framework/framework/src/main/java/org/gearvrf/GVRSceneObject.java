@@ -62,6 +62,9 @@ public class GVRSceneObject extends GVRHybridObject implements PrettyPrint, IScr
     private final Map<Long, GVRComponent> mComponents = new HashMap<Long, GVRComponent>();
     private GVRSceneObject mParent;
     private Object mTag;
+    private String mName = "";
+    /** Index of the scene this object is in, null while it is in none. */
+    GVRScene.ObjectIndex mObjectIndex;
     private final List<GVRSceneObject> mChildren = new CopyOnWriteArrayList<GVRSceneObject>();
     private final GVREventReceiver mEventReceiver = new GVREventReceiver(this);
 
@@ -289,7 +292,7 @@ public class GVRSceneObject extends GVRHybridObject implements PrettyPrint, IScr
      *         returned string will be empty.
      */
     public String getName() {
-        return NativeSceneObject.getName(getNative());
+        return mName;
     }
 
     /**
@@ -303,6 +306,12 @@ public class GVRSceneObject extends GVRHybridObject implements PrettyPrint, IScr
      */
     public void setName(String name) {
         NativeSceneObject.setName(getNative(), name);
+        final String oldName = mName;
+        mName = name;
+        final GVRScene.ObjectIndex index = mObjectIndex;
+        if (index != null) {
+            index.rename(this, oldName, name);
+        }
     }
 
     /**
@@ -316,7 +325,12 @@ public class GVRSceneObject extends GVRHybridObject implements PrettyPrint, IScr
      * @see #getTag()
      */
     public void setTag(Object tag) {
+        final Object oldTag = mTag;
         mTag = tag;
+        final GVRScene.ObjectIndex index = mObjectIndex;
+        if (index != null) {
+            index.retag(this, oldTag, tag);
+        }
     }
 
     /**
@@ -682,6 +696,9 @@ public class GVRSceneObject extends GVRHybridObject implements PrettyPrint, IScr
         mChildren.add(child);
         child.mParent = this;
         NativeSceneObject.addChildObject(getNative(), child.getNative());
+        if (mObjectIndex != null) {
+            mObjectIndex.add(child);
+        }
         child.onNewParentObject(this);
         return true;
     }
@@ -696,6 +713,9 @@ public class GVRSceneObject extends GVRHybridObject implements PrettyPrint, IScr
     public void removeChildObject(GVRSceneObject child) {
         synchronized (mChildren) {
             NativeSceneObject.removeChildObject(getNative(), child.getNative());
+            if (child.mObjectIndex != null) {
+                child.mObjectIndex.remove(child);
+            }
 
             child.mParent = null;
             child.onRemoveParentObject(this);
@@ -928,7 +948,8 @@ public class GVRSceneObject extends GVRHybridObject implements PrettyPrint, IScr
     }
 
     /**
-     * Performs case-sensitive search
+     * Performs case-sensitive search. Objects in a {@link GVRScene} are
+     * found through the scene's index instead of walking the graph.
      *
      * @param name name of scene object to look for.
      * @return null if nothing was found or name was null/empty
@@ -938,8 +959,14 @@ public class GVRSceneObject extends GVRHybridObject implements PrettyPrint, IScr
             return null;
         }
 
-        final List<GVRSceneObject> matches = new ArrayList<GVRSceneObject>();
-        getSceneObjectsByName(name, matches);
+        final GVRScene.ObjectIndex index = mObjectIndex;
+        final List<GVRSceneObject> matches;
+        if (index != null) {
+            matches = index.findByName(name, this);
+        } else {
+            matches = new ArrayList<GVRSceneObject>();
+            getSceneObjectsByName(name, matches);
+        }
         return 0 != matches.size() ? matches.toArray(new GVRSceneObject[matches.size()]) : null;
     }
 
@@ -954,6 +981,11 @@ public class GVRSceneObject extends GVRHybridObject implements PrettyPrint, IScr
         if (null == name || name.isEmpty()) {
             return null;
         }
+        final GVRScene.ObjectIndex index = mObjectIndex;
+        if (index != null) {
+            final List<GVRSceneObject> matches = index.findByName(name, this);
+            return matches.isEmpty() ? null : matches.get(0);
+        }
         if (getName().equals(name)) {
             return this;
         }
@@ -61,6 +61,7 @@ public class GVRShader
     protected String mTextureDescriptor;
     protected Map<String, String> mShaderSegments;
     protected static String sBonesDescriptor = "mat4 u_bone_matrix[" + GVRMesh.MAX_BONES + "]";
+    protected static String sInstanceDescriptor = "mat4 u_instance_model[" + GVRRenderData.MAX_INSTANCES + "]";
 
     protected static String sTransformUBOCode = "layout (std140) uniform Transform_ubo\n{\n"
             + " #ifdef HAS_MULTIVIEW\n"
@@ -274,6 +275,7 @@ public class GVRShader
             fshader = fshader.replace("@MATERIAL_UNIFORMS", mtlLayout);
         }
         vshader = vshader.replace("@BONES_UNIFORMS", GVRShaderManager.makeLayout(sBonesDescriptor, "Bones_ubo", true));
+        vshader = vshader.replace("@INSTANCE_UNIFORMS", GVRShaderManager.makeLayout(sInstanceDescriptor, "Instance_ubo", true));
         vertexShaderSource.append(vshader);
         fragmentShaderSource.append(fshader);
         String frag =  fragmentShaderSource.toString();
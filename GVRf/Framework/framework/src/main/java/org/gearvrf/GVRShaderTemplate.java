@@ -371,6 +371,7 @@ public class GVRShaderTemplate extends GVRShader
         combinedSource = combinedSource.replace("@LIGHTSOURCES", lightShaderSource);
         combinedSource = combinedSource.replace("@MATERIAL_UNIFORMS", material.makeShaderLayout());
         combinedSource = combinedSource.replace("@BONES_UNIFORMS", GVRShaderManager.makeLayout(sBonesDescriptor, "Bones_ubo", true));
+        combinedSource = combinedSource.replace("@INSTANCE_UNIFORMS", GVRShaderManager.makeLayout(sInstanceDescriptor, "Instance_ubo", true));
         if (type.equals("Vertex"))
         {
             String texcoordSource = assignTexcoords(material);
@@ -556,6 +557,11 @@ public class GVRShaderTemplate extends GVRShader
         {
             defines.put("MULTIVIEW", 1);
         }
+        if ((renderable instanceof GVRRenderData) && ((GVRRenderData) renderable).isInstancing()
+            && !isVulkanInstance())
+        {
+            defines.put("INSTANCING", 1);
+        }
         if ((lights == null) || (lights.length == 0) || !renderable.isLightEnabled())
         {
             defines.put("LIGHTSOURCES", 0);
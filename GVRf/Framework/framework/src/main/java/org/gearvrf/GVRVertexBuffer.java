@@ -59,6 +59,7 @@ public class GVRVertexBuffer extends GVRHybridObject implements PrettyPrint
 {
     private static final String TAG = GVRVertexBuffer.class.getSimpleName();
     private String mDescriptor;
+    private boolean mNativeSizeKnown;
 
     /**
      * Construct a vertex buffer with the specified vertex layout.
@@ -80,6 +81,7 @@ public class GVRVertexBuffer extends GVRHybridObject implements PrettyPrint
     {
         super(gvrContext, NativeVertexBuffer.ctor(descriptor, vertexCount));
         mDescriptor = descriptor;
+        updateNativeSize();
     }
 
     /**
@@ -130,6 +132,23 @@ public class GVRVertexBuffer extends GVRHybridObject implements PrettyPrint
         }
     }
 
+    /**
+     * The vertex count is fixed once the first attribute has been set,
+     * so the native size only needs to be reported once.
+     */
+    private void updateNativeSize()
+    {
+        if (!mNativeSizeKnown)
+        {
+            final int size = NativeVertexBuffer.getDataSize(getNative());
+            if (size > 0)
+            {
+                setNativeSize(size);
+                mNativeSizeKnown = true;
+            }
+        }
+    }
+
     /**
      * Check if a vertex attribute is present in this buffer'
      * and has data.
@@ -258,6 +277,7 @@ public class GVRVertexBuffer extends GVRHybridObject implements PrettyPrint
         {
             throw new IllegalArgumentException("Attribute name " + attributeName + " cannot be updated");
         }
+        updateNativeSize();
     }
 
     /**
@@ -289,6 +309,7 @@ public class GVRVertexBuffer extends GVRHybridObject implements PrettyPrint
         {
             throw new IllegalArgumentException("Attribute name " + attributeName + " cannot be updated");
         }
+        updateNativeSize();
     }
 
     /**
@@ -318,6 +339,7 @@ public class GVRVertexBuffer extends GVRHybridObject implements PrettyPrint
         {
             throw new IllegalArgumentException("Attribute name " + attributeName + " cannot be updated");
         }
+        updateNativeSize();
     }
 
     /**
@@ -349,6 +371,34 @@ public class GVRVertexBuffer extends GVRHybridObject implements PrettyPrint
         {
             throw new IllegalArgumentException("Attribute name " + attributeName + " cannot be updated");
         }
+        updateNativeSize();
+    }
+
+    /**
+     * Updates a range of vertices of a float vertex attribute.
+     * Unlike {@link #setFloatArray(String, float[])} this never changes
+     * the number of vertices and only the updated vertices are
+     * uploaded to the GPU, which makes it suitable for buffers that
+     * are rewritten a little at a time every frame.
+     * The source data is closely packed, with one attribute after another.
+     * @param attributeName name of the attribute to update
+     * @param data          float array containing the new values
+     * @param srcOffset     index in the array of the first float to copy
+     * @param firstVertex   index of the first vertex to update
+     * @param vertexCount   number of vertices to update
+     * @throws IllegalArgumentException if attribute name not in descriptor or
+     *         the range is outside of the vertex buffer or the source array
+     */
+    public void setFloatArrayRange(String attributeName, float[] data, int srcOffset,
+                                   int firstVertex, int vertexCount)
+    {
+        int attrSize = getAttributeSize(attributeName);
+        if ((srcOffset < 0) || (srcOffset + attrSize * vertexCount > data.length) ||
+            !NativeVertexBuffer.setFloatArrayRange(getNative(), attributeName, data, srcOffset,
+                                                   firstVertex, vertexCount))
+        {
+            throw new IllegalArgumentException("Attribute name " + attributeName + " cannot be updated");
+        }
     }
 
     /**
@@ -392,6 +442,7 @@ public class GVRVertexBuffer extends GVRHybridObject implements PrettyPrint
         {
             throw new UnsupportedOperationException("FloatBuffer type not supported. must be direct or have backing array");
         }
+        updateNativeSize();
     }
 
     /**
@@ -437,6 +488,7 @@ public class GVRVertexBuffer extends GVRHybridObject implements PrettyPrint
         {
             throw new UnsupportedOperationException("FloatBuffer type not supported. must be direct or have backing array");
         }
+        updateNativeSize();
     }
 
     /**
@@ -466,6 +518,7 @@ public class GVRVertexBuffer extends GVRHybridObject implements PrettyPrint
         {
             throw new IllegalArgumentException("Attribute name " + attributeName + " cannot be updated");
         }
+        updateNativeSize();
     }
 
     /**
@@ -497,6 +550,7 @@ public class GVRVertexBuffer extends GVRHybridObject implements PrettyPrint
         {
             throw new IllegalArgumentException("Attribute name " + attributeName + " cannot be updated");
         }
+        updateNativeSize();
     }
 
     /**
@@ -594,6 +648,8 @@ class NativeVertexBuffer {
 
     static native int getVertexCount(long vbuf);
 
+    static native int getDataSize(long vbuf);
+
     static native boolean isSet(long vbuf, String name);
 
     static native boolean getIntVec(long vbuf, String name, IntBuffer data, int stride, int offset);
@@ -612,6 +668,9 @@ class NativeVertexBuffer {
 
     static native boolean setFloatArray(long vbuf, String name, float[] data, int stride, int offset);
 
+    static native boolean setFloatArrayRange(long vbuf, String name, float[] data, int srcOffset,
+                                             int firstVertex, int vertexCount);
+
     static native int  getAttributeSize(long vbuf, String name);
 
     static native int getBoundingVolume(long vbuf, float[] bv);
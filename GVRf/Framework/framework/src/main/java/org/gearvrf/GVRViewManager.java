@@ -23,6 +23,7 @@ import org.gearvrf.animation.GVRAnimation;
 import org.gearvrf.animation.GVROnFinish;
 import org.gearvrf.animation.GVROpacityAnimation;
 import org.gearvrf.asynchronous.GVRAsynchronousResourceLoader;
+import org.gearvrf.debug.GVRFrameProfiler;
 import org.gearvrf.io.GVRGearCursorController;
 import org.gearvrf.io.GVRInputManager;
 import org.gearvrf.script.IScriptManager;
@@ -35,13 +36,8 @@ import org.gearvrf.utility.VrAppSettings.EyeBufferParams.DepthFormat;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.locks.ReentrantLock;
 
 abstract class GVRViewManager extends GVRContext {
@@ -87,8 +83,7 @@ abstract class GVRViewManager extends GVRContext {
         }
 
         mFrameListeners.clear();
-        mRunnables.clear();
-        mRunnablesPostRender.clear();
+        mGlTasks.clear();
         super.onDestroy();
     }
 
@@ -264,16 +259,11 @@ abstract class GVRViewManager extends GVRContext {
          * Without the sensor data, can't draw a scene properly.
          */
         if (!(mSensoredScene == null || !mMainScene.equals(mSensoredScene))) {
-            Runnable runnable;
-            while ((runnable = mRunnables.poll()) != null) {
-                try {
-                    runnable.run();
-                } catch (final Exception exc) {
-                    Log.e(TAG, "Runnable-on-GL %s threw %s", runnable, exc.toString());
-                    exc.printStackTrace();
-                }
-            }
+            long start = GVRFrameProfiler.begin();
+            mGlTasks.runTasks();
+            GVRFrameProfiler.end(GVRFrameProfiler.PHASE_GL_TASKS, start);
 
+            start = GVRFrameProfiler.begin();
             final List<GVRDrawFrameListener> frameListeners = mFrameListeners;
             for (GVRDrawFrameListener listener : frameListeners) {
                 try {
@@ -283,6 +273,7 @@ abstract class GVRViewManager extends GVRContext {
                     exc.printStackTrace();
                 }
             }
+            GVRFrameProfiler.end(GVRFrameProfiler.PHASE_FRAME_LISTENERS, start);
         }
 
         return currentTime;
@@ -332,17 +323,7 @@ abstract class GVRViewManager extends GVRContext {
             // execute pending runnables now so any necessary gl calls
             // are done before onInit().  As an example the request to
             // get the GL_MAX_TEXTURE_SIZE needs to be fulfilled.
-            synchronized (mRunnables) {
-                Runnable runnable = null;
-                while ((runnable = mRunnables.poll()) != null) {
-                    try {
-                        runnable.run();
-                    } catch (final Exception exc) {
-                        Log.e(TAG, "Runnable-on-GL %s threw %s", runnable, exc.toString());
-                        exc.printStackTrace();
-                    }
-                }
-            }
+            mGlTasks.runAllTasks();
 
             runOnTheFrameworkThread(new Runnable() {
                 @Override
@@ -454,21 +435,14 @@ abstract class GVRViewManager extends GVRContext {
             mMainScene.resetStats();
             doMemoryManagementAndPerFrameCallbacks();
 
-            runOnTheFrameworkThread(new Runnable() {
-                public void run() {
-                    try {
-                        mMain.onStep();
-                    } catch (final Exception exc) {
-                        Log.e(TAG, "Exception from onStep: %s", exc.toString());
-                        exc.printStackTrace();
-                    }
-                }
-            });
+            runOnTheFrameworkThread(mOnStep);
 
             if (null != mControllerReader) {
                 mControllerReader.updatePosData();
             }
+            final long start = GVRFrameProfiler.begin();
             getInputManager().updateGearControllers();
+            GVRFrameProfiler.end(GVRFrameProfiler.PHASE_CONTROLLERS, start);
         }
 
         @Override
@@ -477,6 +451,19 @@ abstract class GVRViewManager extends GVRContext {
         }
     };
 
+    private final Runnable mOnStep = new Runnable() {
+        public void run() {
+            final long start = GVRFrameProfiler.begin();
+            try {
+                mMain.onStep();
+            } catch (final Exception exc) {
+                Log.e(TAG, "Exception from onStep: %s", exc.toString());
+                exc.printStackTrace();
+            }
+            GVRFrameProfiler.end(GVRFrameProfiler.PHASE_ON_STEP, start);
+        }
+    };
+
 
     // Send onInit and onAfterInit events to main scene when it is ready.
     // When there is a splash screen, it is called after the splash screen has
@@ -498,21 +485,30 @@ abstract class GVRViewManager extends GVRContext {
 
     @Override
     public void runOnGlThread(Runnable runnable) {
+        runOnGlThread(GVRGLTaskQueue.PRIORITY_NORMAL, runnable);
+    }
+
+    @Override
+    public void runOnGlThread(int priority, Runnable runnable) {
         if (mGLThreadID == Thread.currentThread().getId()) {
             runnable.run();
         } else {
-            mRunnables.add(runnable);
+            mGlTasks.add(priority, runnable);
         }
     }
 
     @Override
     public void runOnGlThreadPostRender(int delayFrames, Runnable runnable) {
-        synchronized (mRunnablesPostRender) {
-            mRunnablesPostRender.put(runnable, delayFrames);
-        }
+        mGlTasks.addPostRender(delayFrames, runnable);
+    }
+
+    @Override
+    public GVRGLTaskQueue getGlTaskQueue() {
+        return mGlTasks;
     }
 
     protected void beforeDrawEyes() {
+        GVRFrameProfiler.beginFrame();
         GVRNotifications.notifyBeforeStep();
         mFrameHandler.beforeDrawEyes();
         makeShadowMaps(mMainScene.getNative(), getMainScene(), mRenderBundle.getShaderManager().getNative(),
@@ -522,22 +518,12 @@ abstract class GVRViewManager extends GVRContext {
     protected void afterDrawEyes() {
         // Execute post-rendering tasks (after drawing eyes, but
         // before afterDrawEyes handlers)
-        synchronized (mRunnablesPostRender) {
-            for (Iterator<Map.Entry<Runnable, Integer>> it = mRunnablesPostRender.entrySet().iterator(); it
-                    .hasNext();) {
-                Map.Entry<Runnable, Integer> entry = it.next();
-                if (entry.getValue() <= 0) {
-                    entry.getKey().run();
-                    it.remove();
-                } else {
-                    entry.setValue(entry.getValue() - 1);
-                }
-            }
-        }
+        mGlTasks.runPostRenderTasks();
 
         mFrameHandler.afterDrawEyes();
         finalizeUnreachableObjects();
         GVRNotifications.notifyAfterStep();
+        GVRFrameProfiler.endFrame();
     }
 
     void cullAndRender(GVRRenderTarget renderTarget, GVRScene scene)
@@ -833,8 +819,7 @@ abstract class GVRViewManager extends GVRContext {
     protected FrameHandler mFrameHandler = firstFrame;
 
     protected List<GVRDrawFrameListener> mFrameListeners = new CopyOnWriteArrayList<GVRDrawFrameListener>();
-    protected final Queue<Runnable> mRunnables = new LinkedBlockingQueue<Runnable>();
-    protected final Map<Runnable, Integer> mRunnablesPostRender = new HashMap<Runnable, Integer>();
+    protected final GVRGLTaskQueue mGlTasks = new GVRGLTaskQueue();
 
     protected GVRScene mMainScene;
     protected GVRScene mPendingMainScene;
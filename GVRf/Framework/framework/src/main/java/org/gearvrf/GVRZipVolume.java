@@ -0,0 +1,360 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import android.content.Context;
+
+import org.gearvrf.utility.Log;
+
+/**
+ * A {@link GVRResourceVolume} whose files are the entries of a zip archive.
+ * <p>
+ * The archive is opened through its central directory with
+ * {@link ZipFile}, so opening a resource only looks the entry up: nothing
+ * is read or inflated until the resource stream is read, and only that
+ * entry is. Resources can be read from several threads at once, and can
+ * be read again after their stream is closed.
+ * <p>
+ * Zip files in the assets folder are copied to the application cache
+ * once, because {@link ZipFile} needs a file. The archive is closed by
+ * {@link #close()}, by {@link #closeWhenRead()} once every resource has
+ * been read, or when the volume and all its resources have been garbage
+ * collected.
+ */
+public class GVRZipVolume extends GVRResourceVolume
+{
+    private static final String TAG = Log.tag(GVRZipVolume.class);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final ZipFile mZipFile;
+    private final Object mLock = new Object();
+    private int mUnread;
+    private boolean mCloseWhenRead;
+
+    /**
+     * Open a zip archive on the file system.
+     * @param gvrContext  the GVR context
+     * @param zipFile     the archive
+     * @param defaultPath directory in the archive that relative paths start
+     *                    from, {@code null} for its root
+     * @throws IOException if the file is not a zip archive
+     */
+    public GVRZipVolume(GVRContext gvrContext, File zipFile, String defaultPath) throws IOException
+    {
+        super(gvrContext, VolumeType.ZIP_FILE, defaultPath);
+        mZipFile = new ZipFile(zipFile);
+        fileName = zipFile.getName();
+    }
+
+    /**
+     * Open a zip archive in the assets folder.
+     * @param gvrContext the GVR context
+     * @param assetName  path of the archive in the assets folder
+     * @throws IOException if the asset cannot be read or is not a zip archive
+     */
+    public static GVRZipVolume openAsset(GVRContext gvrContext, String assetName) throws IOException
+    {
+        return new GVRZipVolume(gvrContext, copyAsset(gvrContext.getContext(), assetName), null);
+    }
+
+    /**
+     * @return paths of all the files in the archive, in archive order.
+     * Directories are not included.
+     */
+    public List<String> getEntryNames()
+    {
+        List<String> names = new ArrayList<String>(mZipFile.size());
+        Enumeration<? extends ZipEntry> entries = mZipFile.entries();
+        while (entries.hasMoreElements())
+        {
+            ZipEntry entry = entries.nextElement();
+            if (!entry.isDirectory())
+            {
+                names.add(entry.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Opens a file from the archive. The file path is relative to the
+     * default path of the volume; ".." and "." are resolved.
+     * @throws FileNotFoundException if the archive has no such file
+     */
+    @Override
+    public GVRAndroidResource openResource(String filePath) throws IOException
+    {
+        if (filePath.startsWith(File.separator))
+        {
+            filePath = filePath.substring(File.separator.length());
+        }
+        String path = normalize(getFullPath(defaultPath, adaptFilePath(filePath)));
+        ZipEntry entry = mZipFile.getEntry(path);
+
+        if ((entry == null) || entry.isDirectory())
+        {
+            throw new FileNotFoundException(path + " not found in " + fileName);
+        }
+        EntryInputStream stream = new EntryInputStream(entry);
+        GVRAndroidResource resource = new GVRAndroidResource(path, stream);
+        GVRAndroidResource added = addResource(resource);
+        if (added == resource)
+        {
+            // a resource opened before is shared, and only counted once
+            stream.pin();
+        }
+        return added;
+    }
+
+    /**
+     * Close the archive. Resources of this volume can no longer be read.
+     */
+    public void close() throws IOException
+    {
+        mZipFile.close();
+    }
+
+    /**
+     * Close the archive as soon as every resource opened so far has been
+     * read and its stream closed, which is right away if there are none
+     * left. Use it when resources are handed to loaders which read them
+     * later, on other threads. A resource which is never read keeps the
+     * archive open until it is garbage collected.
+     */
+    public void closeWhenRead() throws IOException
+    {
+        synchronized (mLock)
+        {
+            mCloseWhenRead = true;
+            if (mUnread > 0)
+            {
+                return;
+            }
+        }
+        close();
+    }
+
+    private void onEntryRead()
+    {
+        synchronized (mLock)
+        {
+            if ((--mUnread > 0) || !mCloseWhenRead)
+            {
+                return;
+            }
+        }
+        try
+        {
+            close();
+        }
+        catch (IOException e)
+        {
+            Log.w(TAG, "cannot close %s: %s", fileName, e);
+        }
+    }
+
+    /*
+     * Resolve "." and ".." without touching the file system.
+     */
+    private static String normalize(String path)
+    {
+        List<String> parts = new ArrayList<String>();
+        for (String part : path.split("/"))
+        {
+            if (part.isEmpty() || part.equals("."))
+            {
+                continue;
+            }
+            if (part.equals(".."))
+            {
+                if (!parts.isEmpty())
+                {
+                    parts.remove(parts.size() - 1);
+                }
+                continue;
+            }
+            parts.add(part);
+        }
+        StringBuilder sb = new StringBuilder(path.length());
+        for (String part : parts)
+        {
+            if (sb.length() > 0)
+            {
+                sb.append('/');
+            }
+            sb.append(part);
+        }
+        return sb.toString();
+    }
+
+    /*
+     * Copy an asset to the cache directory, unless an up to date copy is
+     * already there. The copy is stale when the APK is newer.
+     */
+    private static File copyAsset(Context context, String assetName) throws IOException
+    {
+        File copy = new File(context.getCacheDir(), "zipvolume-" + assetName.replace('/', '_'));
+        File apk = new File(context.getApplicationInfo().sourceDir);
+
+        if (copy.exists() && (copy.lastModified() >= apk.lastModified()))
+        {
+            return copy;
+        }
+        File partial = new File(copy.getPath() + ".tmp");
+        InputStream in = context.getAssets().open(assetName);
+        try
+        {
+            OutputStream out = new FileOutputStream(partial);
+            try
+            {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                int count;
+                while ((count = in.read(buffer)) != -1)
+                {
+                    out.write(buffer, 0, count);
+                }
+            }
+            finally
+            {
+                out.close();
+            }
+        }
+        finally
+        {
+            in.close();
+        }
+        if (!partial.renameTo(copy))
+        {
+            throw new IOException("Cannot create " + copy);
+        }
+        Log.d(TAG, "copied asset %s to %s", assetName, copy);
+        return copy;
+    }
+
+    /*
+     * Stream of one entry, opened on first use. Closing it releases the
+     * inflater; reading it again starts over from the beginning of the
+     * entry. Supports mark and reset, which GVRAndroidResource needs to
+     * sniff file formats. A pinned stream counts as unread until it is
+     * closed after being read.
+     */
+    private final class EntryInputStream extends InputStream
+    {
+        private final ZipEntry mEntry;
+        private InputStream mStream;
+        private boolean mPinned;
+
+        EntryInputStream(ZipEntry entry)
+        {
+            mEntry = entry;
+        }
+
+        synchronized void pin()
+        {
+            synchronized (mLock)
+            {
+                ++mUnread;
+            }
+            mPinned = true;
+        }
+
+        private InputStream stream() throws IOException
+        {
+            if (mStream == null)
+            {
+                mStream = new BufferedInputStream(mZipFile.getInputStream(mEntry));
+            }
+            return mStream;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            return stream().read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException
+        {
+            return stream().read(buffer, offset, count);
+        }
+
+        @Override
+        public long skip(long count) throws IOException
+        {
+            return stream().skip(count);
+        }
+
+        @Override
+        public int available() throws IOException
+        {
+            return (mStream != null) ? mStream.available() : (int) Math.max(0, mEntry.getSize());
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int limit)
+        {
+            try
+            {
+                stream().mark(limit);
+            }
+            catch (IOException e)
+            {
+                // reset() will fail
+            }
+        }
+
+        @Override
+        public synchronized void reset() throws IOException
+        {
+            stream().reset();
+        }
+
+        @Override
+        public synchronized void close() throws IOException
+        {
+            if (mStream != null)
+            {
+                mStream.close();
+                mStream = null;
+                if (mPinned)
+                {
+                    mPinned = false;
+                    onEntryRead();
+                }
+            }
+        }
+    }
+}
@@ -15,24 +15,24 @@
 
 package org.gearvrf;
 
-import android.content.Context;
+import org.gearvrf.utility.Log;
+import org.gearvrf.utility.Threads;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This is a small convenience class that makes it easy to unzip a file and load entries as
  * {@link GVRAndroidResource}s into the GVRf framework.
  *
  * For cases where the number of files in an applications gets too large to handle, consider
- * zipping them and using the {@link ZipLoader} to process them one at a time.
+ * zipping them and using the {@link ZipLoader} to process them.
  *
  * The class is flexible enough to allow all types of {@link GVRAndroidResource}s to be loaded.
  *
@@ -67,6 +67,17 @@ public abstract class ZipLoader {
      * {@link ZipLoader} and apply the {@link ZipEntryProcessor} to each entry. The result is a
      * list of all processed entries obtained from the zip file.
      *
+     * The zip file is opened as a {@link GVRZipVolume}: entries are only read when their
+     * resource stream is read, and several entries are processed at the same time on the
+     * background thread pool, so {@link ZipEntryProcessor#getItem(GVRContext, GVRAndroidResource)}
+     * must be thread safe. The result is in archive order all the same.
+     *
+     * The archive is closed once every resource has been read and its stream closed, which
+     * can be after this call returns if the processor hands resources to a loader which reads
+     * them later, as {@link GVRContext#loadFutureTexture(GVRAndroidResource, int)} does. A
+     * resource can only be read once, and one which is never read keeps the archive open until
+     * it is garbage collected.
+     *
      * @param gvrContext  the GVRf context
      * @param zipFileName the name of the zip file. This must be a file in the assets folder.
      * @param processor   the {@link ZipEntryProcessor} to be applied to each zip entry in the file.
@@ -74,36 +85,74 @@ public abstract class ZipLoader {
      * @throws IOException this function returns an {@link IOException} if there are issues
      *                     processing the provided zip file.
      */
-    public static <T> List<T> load(GVRContext gvrContext, String zipFileName, ZipEntryProcessor<T>
-            processor) throws IOException {
-        Context context = gvrContext.getContext();
-        InputStream inputStream = context.getAssets().open(zipFileName);
-        ZipInputStream zipInputStream = new ZipInputStream(inputStream);
-        List<T> result = new ArrayList<T>();
+    public static <T> List<T> load(final GVRContext gvrContext, String zipFileName,
+            final ZipEntryProcessor<T> processor) throws IOException {
+        return load(gvrContext, GVRZipVolume.openAsset(gvrContext, zipFileName), zipFileName,
+                processor);
+    }
 
+    /*
+     * Process the entries of an open volume, and close it once they have
+     * all been read.
+     */
+    static <T> List<T> load(final GVRContext gvrContext, final GVRZipVolume volume,
+            String zipFileName, final ZipEntryProcessor<T> processor) throws IOException {
         try {
-            ZipEntry zipEntry;
-
-            while ((zipEntry = zipInputStream.getNextEntry()) != null) {
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                byte[] buffer = new byte[1024];
-                int count;
-                while ((count = zipInputStream.read(buffer)) != -1) {
-                    baos.write(buffer, 0, count);
-                }
-
-                byte[] bytes = baos.toByteArray();
+            return process(gvrContext, volume, zipFileName, processor);
+        } finally {
+            volume.closeWhenRead();
+        }
+    }
 
-                InputStream resourceInputStream = new ByteArrayInputStream(bytes);
+    private static <T> List<T> process(final GVRContext gvrContext, final GVRZipVolume volume,
+            String zipFileName, final ZipEntryProcessor<T> processor) throws IOException {
+        final List<String> names = volume.getEntryNames();
+        final List<T> result = new ArrayList<T>(Collections.<T>nCopies(names.size(), null));
+        final AtomicInteger next = new AtomicInteger();
+        final int workers = Math.min(names.size(), Runtime.getRuntime().availableProcessors());
+        List<Future<?>> pending = new ArrayList<Future<?>>(workers);
 
-                GVRAndroidResource androidResource = new GVRAndroidResource(zipEntry.getName(),
-                        resourceInputStream);
-                T item = processor.getItem(gvrContext, androidResource);
-                result.add(item);
+        for (int i = 0; i < workers; ++i) {
+            pending.add(Threads.spawn(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    for (int index = next.getAndIncrement(); index < names.size();
+                            index = next.getAndIncrement()) {
+                        GVRAndroidResource resource = volume.openResource(names.get(index));
+                        result.set(index, processor.getItem(gvrContext, resource));
+                    }
+                    return null;
+                }
+            }));
+        }
+        // wait for all the workers, even if one fails: none may open an
+        // entry once the volume is closing
+        Throwable error = null;
+        boolean interrupted = false;
+        for (Future<?> worker : pending) {
+            while (true) {
+                try {
+                    worker.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause();
+                    }
+                    break;
+                }
             }
-        } finally {
-            zipInputStream.close();
         }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        } else if (error != null) {
+            throw new IOException("Error loading " + zipFileName, error);
+        }
+        Log.d(TAG, "loaded %d entries of %s", names.size(), zipFileName);
         return result;
     }
 }
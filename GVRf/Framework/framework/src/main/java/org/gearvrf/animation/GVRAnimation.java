@@ -118,6 +118,12 @@ public abstract class GVRAnimation {
 
     protected boolean isFinished = false;
 
+    // Level of detail state, see GVRAnimationLOD
+    private int mUpdateInterval = 1;
+    private boolean mInterpolateUpdates = false;
+    private int mFramesSinceUpdate = 0;
+    private float mTimeSinceUpdate = 0f;
+
     /**
      * Base constructor.
      * 
@@ -379,6 +385,87 @@ public abstract class GVRAnimation {
         return stillRunning;
     }
 
+    /*
+     * onDrawFrame() with a level of detail policy, which may be null: only
+     * every mUpdateInterval-th frame updates the animation, with the time
+     * of all the frames since the last update. A frame which reaches the
+     * end of a cycle always updates, so repeat and finish callbacks are
+     * never late.
+     */
+    final boolean onDrawFrame(float frameTime, GVRAnimationLOD lod) {
+        if ((lod == null) && (mUpdateInterval == 1)) {
+            return onDrawFrame(frameTime);
+        }
+        mTimeSinceUpdate += frameTime;
+        if ((++mFramesSinceUpdate < mUpdateInterval) && !endsCycle(mTimeSinceUpdate)) {
+            if (mInterpolateUpdates) {
+                animateBetweenUpdates((mFramesSinceUpdate + 1f) / mUpdateInterval);
+            }
+            return true;
+        }
+        final float elapsed = mTimeSinceUpdate;
+
+        mTimeSinceUpdate = 0f;
+        mFramesSinceUpdate = 0;
+        if (lod != null) {
+            lod.schedule(this);
+        } else {
+            setUpdateInterval(1, false);
+        }
+        final boolean stillRunning = onDrawFrame(elapsed);
+
+        if (mInterpolateUpdates) {
+            animateBetweenUpdates(stillRunning ? 1f / mUpdateInterval : 1f);
+        }
+        return stillRunning;
+    }
+
+    /*
+     * Whether advancing by time reaches the end of the current cycle, by
+     * the same arithmetic as onDrawFrame(float).
+     */
+    private boolean endsCycle(float time) {
+        return (int) ((mElapsedTime + time) / mDuration) != (int) (mElapsedTime / mDuration);
+    }
+
+    void setUpdateInterval(int frames, boolean interpolate) {
+        mUpdateInterval = frames;
+        mInterpolateUpdates = interpolate && (frames > 1);
+    }
+
+    /**
+     * Number of frames between two updates of this animation, chosen by
+     * the {@linkplain GVRAnimationLOD level of detail policy} of the engine.
+     * 
+     * @return 1 when the animation is updated every frame
+     */
+    protected int getUpdateInterval() {
+        return mUpdateInterval;
+    }
+
+    /**
+     * Whether {@link #animateBetweenUpdates(float)} is called on the frames
+     * between updates. It is when the animation is visible and updated less
+     * than every frame.
+     */
+    protected boolean isInterpolatingUpdates() {
+        return mInterpolateUpdates;
+    }
+
+    /**
+     * Called on the frames between two updates when
+     * {@link #isInterpolatingUpdates()}, and right after each update. The
+     * animation may blend from the state before the last update to the
+     * state the update computed, trailing the animation by one update
+     * interval. Does nothing by default.
+     * 
+     * @param fraction
+     *            how far to blend: 1 / interval right after an update,
+     *            reaching 1 on the frame before the next update
+     */
+    protected void animateBetweenUpdates(float fraction) {
+    }
+
     private float interpolate(float cycleTime, float duration) {
         float ratio = cycleTime / duration;
         return mInterpolator == null ? ratio : mInterpolator.mapRatio(ratio);
@@ -416,6 +503,10 @@ public abstract class GVRAnimation {
         mElapsedTime = 0;
         mIterations = 0;
         isFinished = false;
+        mUpdateInterval = 1;
+        mInterpolateUpdates = false;
+        mFramesSinceUpdate = 0;
+        mTimeSinceUpdate = 0f;
     }
 
 
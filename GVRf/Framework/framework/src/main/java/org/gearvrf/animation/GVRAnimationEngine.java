@@ -21,6 +21,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import org.gearvrf.GVRContext;
 import org.gearvrf.GVRDrawFrameListener;
 import org.gearvrf.GVRSceneObject;
+import org.gearvrf.debug.GVRFrameProfiler;
 
 /**
  * This class runs {@linkplain GVRAnimation animations}.
@@ -61,6 +62,7 @@ public class GVRAnimationEngine {
 
     private final List<GVRAnimation> mAnimations = new CopyOnWriteArrayList<GVRAnimation>();
     private final GVRDrawFrameListener mOnDrawFrame = new DrawFrame();
+    private volatile GVRAnimationLOD mLOD = null;
 
     protected GVRAnimationEngine(GVRContext gvrContext) {
         gvrContext.registerDrawFrameListener(mOnDrawFrame);
@@ -141,15 +143,41 @@ public class GVRAnimationEngine {
         mAnimations.remove(animation);
     }
 
+    /**
+     * Set the level of detail policy, which updates the animations of small
+     * or hidden objects less often. Without a policy, which is the default,
+     * every animation is updated every frame.
+     * 
+     * @param lod
+     *            the policy, or {@code null} to animate everything every
+     *            frame
+     */
+    public void setLOD(GVRAnimationLOD lod) {
+        mLOD = lod;
+    }
+
+    /**
+     * @return the level of detail policy, or {@code null} if there is none
+     */
+    public GVRAnimationLOD getLOD() {
+        return mLOD;
+    }
+
     private final class DrawFrame implements GVRDrawFrameListener {
 
         @Override
         public void onDrawFrame(float frameTime) {
+            final long start = GVRFrameProfiler.begin();
+            final GVRAnimationLOD lod = mLOD;
+            if (lod != null) {
+                lod.beginFrame();
+            }
             for (GVRAnimation animation : mAnimations) {
-                if (animation.onDrawFrame(frameTime) == false) {
+                if (animation.onDrawFrame(frameTime, lod) == false) {
                     mAnimations.remove(animation);
                 }
             }
+            GVRFrameProfiler.end(GVRFrameProfiler.PHASE_ANIMATION, start);
         }
     }
 }
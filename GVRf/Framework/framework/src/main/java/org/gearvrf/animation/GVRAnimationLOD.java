@@ -0,0 +1,277 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.animation;
+
+import org.gearvrf.GVRCameraRig;
+import org.gearvrf.GVRComponent;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRHybridObject;
+import org.gearvrf.GVRScene;
+import org.gearvrf.GVRSceneObject;
+
+/**
+ * Level of detail policy for the {@linkplain GVRAnimationEngine animation
+ * engine}: animations of objects which look small, or are out of view,
+ * are updated less often than every frame.
+ * <p>
+ * The size of an object is the radius of its bounding sphere divided by
+ * its distance to the viewer, roughly the fraction of the view it spans.
+ * Objects at least {@link #setFullRateSize(float) full rate size} big are
+ * animated every frame; smaller objects are animated every
+ * {@code fullRateSize / size} frames, up to {@link #setMaxInterval(int)}.
+ * Objects outside the {@link #setViewAngle(float) view cone} are animated
+ * every {@link #setHiddenInterval(int)} frames. Animation time still
+ * advances on skipped frames, so throttled animations stay in step, and
+ * the frame on which an animation reaches the end of its duration is never
+ * skipped, so repeat and finish callbacks come on the same frame as they
+ * would without a policy.
+ * <p>
+ * Between updates, visible skinned animations blend the bone matrices
+ * from the previous pose to the last one computed, so the skeleton keeps
+ * moving smoothly a few frames behind; other animations hold their last
+ * state. Animations of objects which are not scene objects or components,
+ * such as materials, always run every frame.
+ * <p>
+ * The policy is checked each time an animation is updated, not every
+ * frame, so skipped animations cost almost nothing.
+ *
+ * @see GVRAnimationEngine#setLOD(GVRAnimationLOD)
+ */
+public class GVRAnimationLOD {
+    private final GVRContext mContext;
+    private float mFullRateSize = 0.1f;
+    private int mMaxInterval = 8;
+    private int mHiddenInterval = 30;
+    private float mCosHalfViewAngle;
+    private float mSinHalfViewAngle;
+    private boolean mInterpolate = true;
+
+    private boolean mHaveViewer;
+    private float mViewerX, mViewerY, mViewerZ;
+    private float mLookX, mLookY, mLookZ;
+    private final float[] mSphere = new float[4];
+
+    /**
+     * Make a policy which measures objects from the main camera rig of the
+     * main scene.
+     *
+     * @param gvrContext
+     *            current GVR context
+     */
+    public GVRAnimationLOD(GVRContext gvrContext) {
+        mContext = gvrContext;
+        setViewAngle(110.0f);
+    }
+
+    /**
+     * @param size
+     *            size, as radius over distance, at or above which objects
+     *            are animated every frame. The default is 0.1.
+     * @return this policy
+     */
+    public GVRAnimationLOD setFullRateSize(float size) {
+        mFullRateSize = size;
+        return this;
+    }
+
+    /**
+     * @param frames
+     *            largest number of frames between updates of visible
+     *            objects. The default is 8.
+     * @return this policy
+     */
+    public GVRAnimationLOD setMaxInterval(int frames) {
+        mMaxInterval = Math.max(1, frames);
+        return this;
+    }
+
+    /**
+     * @param frames
+     *            number of frames between updates of objects out of view.
+     *            The default is 30.
+     * @return this policy
+     */
+    public GVRAnimationLOD setHiddenInterval(int frames) {
+        mHiddenInterval = Math.max(1, frames);
+        return this;
+    }
+
+    /**
+     * @param degrees
+     *            full angle of the cone around the view direction in which
+     *            objects count as visible. The default of 110 degrees
+     *            covers the field of view of a headset with some margin
+     *            for head motion.
+     * @return this policy
+     */
+    public GVRAnimationLOD setViewAngle(float degrees) {
+        double halfAngle = Math.toRadians(Math.min(360.0f, Math.max(0.0f, degrees)) / 2.0);
+        mCosHalfViewAngle = (float) Math.cos(halfAngle);
+        mSinHalfViewAngle = (float) Math.sin(halfAngle);
+        return this;
+    }
+
+    /**
+     * @param interpolate
+     *            true to blend skinned poses between updates, false to hold
+     *            the last pose. The default is true.
+     * @return this policy
+     */
+    public GVRAnimationLOD setInterpolation(boolean interpolate) {
+        mInterpolate = interpolate;
+        return this;
+    }
+
+    /**
+     * Number of frames from one update of an animation to the next.
+     *
+     * @param size
+     *            radius of the animated object over its distance to the
+     *            viewer
+     * @param visible
+     *            false if the object is out of view
+     * @return 1 to animate every frame, or more
+     */
+    public int getUpdateInterval(float size, boolean visible) {
+        if (!visible) {
+            return mHiddenInterval;
+        }
+        if (size >= mFullRateSize) {
+            return 1;
+        }
+        if (size <= mFullRateSize / mMaxInterval) {
+            return mMaxInterval;
+        }
+        return Math.max(1, Math.min(mMaxInterval, Math.round(mFullRateSize / size)));
+    }
+
+    /**
+     * Find the scene object an animation moves.
+     *
+     * @return the animated scene object, or null if the animation target
+     *         is not part of the scene graph
+     */
+    protected GVRSceneObject getAnimatedObject(GVRAnimation animation) {
+        GVRHybridObject target = animation.mTarget;
+        if (target instanceof GVRSceneObject) {
+            return (GVRSceneObject) target;
+        }
+        if (target instanceof GVRComponent) {
+            return ((GVRComponent) target).getOwnerObject();
+        }
+        return null;
+    }
+
+    /**
+     * Find the bounding sphere of what an animation moves, from the
+     * bounding volume of its {@linkplain #getAnimatedObject(GVRAnimation)
+     * animated object}.
+     *
+     * @param sphere
+     *            gets the x, y, z of the center and the radius, in world
+     *            coordinates
+     * @return false if the animation target is not part of the scene graph
+     */
+    protected boolean getBoundingSphere(GVRAnimation animation, float[] sphere) {
+        GVRSceneObject object = getAnimatedObject(animation);
+        if (object == null) {
+            return false;
+        }
+        GVRSceneObject.BoundingVolume bv = object.getBoundingVolume();
+        sphere[0] = bv.center.x;
+        sphere[1] = bv.center.y;
+        sphere[2] = bv.center.z;
+        sphere[3] = bv.radius;
+        return true;
+    }
+
+    /**
+     * Find where the viewer is: the head of the main camera rig of the
+     * main scene.
+     *
+     * @return model matrix of the viewer, looking down its -z axis, or
+     *         null if there is no viewer
+     */
+    protected float[] getViewerMatrix() {
+        GVRScene scene = mContext.getMainScene();
+        GVRCameraRig rig = (scene != null) ? scene.getMainCameraRig() : null;
+        return (rig != null) ? rig.getHeadTransform().getModelMatrix() : null;
+    }
+
+    /*
+     * Called by the engine once per frame, before any animation.
+     */
+    void beginFrame() {
+        mHaveViewer = false;
+        float[] head = getViewerMatrix();
+        if (head == null) {
+            return;
+        }
+        mViewerX = head[12];
+        mViewerY = head[13];
+        mViewerZ = head[14];
+        mLookX = -head[8];
+        mLookY = -head[9];
+        mLookZ = -head[10];
+        float length = (float) Math.sqrt(mLookX * mLookX + mLookY * mLookY + mLookZ * mLookZ);
+        if (length > 0) {
+            mLookX /= length;
+            mLookY /= length;
+            mLookZ /= length;
+            mHaveViewer = true;
+        }
+    }
+
+    /*
+     * Called by the engine when an animation is updated, to choose when
+     * its next update is due.
+     */
+    void schedule(GVRAnimation animation) {
+        if (!mHaveViewer || !getBoundingSphere(animation, mSphere)) {
+            animation.setUpdateInterval(1, false);
+            return;
+        }
+        float radius = mSphere[3];
+        float dx = mSphere[0] - mViewerX;
+        float dy = mSphere[1] - mViewerY;
+        float dz = mSphere[2] - mViewerZ;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+        if (distance <= radius) {
+            // viewer inside the bounding sphere
+            animation.setUpdateInterval(1, false);
+            return;
+        }
+        boolean visible = isInViewCone(dx, dy, dz, distance, radius);
+        int interval = getUpdateInterval(radius / distance, visible);
+        animation.setUpdateInterval(interval, visible && mInterpolate);
+    }
+
+    /*
+     * Sphere against cone test: the angle between the view direction and
+     * the sphere center is at most the half view angle plus the angular
+     * radius of the sphere.
+     */
+    private boolean isInViewCone(float dx, float dy, float dz, float distance, float radius) {
+        float cosCenter = (dx * mLookX + dy * mLookY + dz * mLookZ) / distance;
+        float sinRadius = radius / distance;
+        float cosRadius = (float) Math.sqrt(1.0f - sinRadius * sinRadius);
+        // cos(halfView + angularRadius)
+        float cosLimit = mCosHalfViewAngle * cosRadius - mSinHalfViewAngle * sinRadius;
+        return (mSinHalfViewAngle * cosRadius + mCosHalfViewAngle * sinRadius < 0.0f)
+                || (cosCenter >= cosLimit);
+    }
+}
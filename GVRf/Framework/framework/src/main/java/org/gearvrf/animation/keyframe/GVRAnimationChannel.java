@@ -17,11 +17,29 @@ import org.joml.Vector3f;
  *
  * This means all keys are absolute and not relative to the bone default pose.
  * The order in which the transformations are applied is - as usual -
- * scaling, rotation, translation.
+ * scaling, rotation, translation.<p>
+ *
+ * Once all keys are set, {@link #compress()} can make the channel
+ * smaller and faster to sample, at the cost of making it read only.
  */
 public final class GVRAnimationChannel implements PrettyPrint {
     private static final String TAG = GVRAnimationChannel.class.getSimpleName();
 
+    /**
+     * Position tolerance {@link #compress()} uses, in model units.
+     */
+    public static final float DEFAULT_POSITION_TOLERANCE = 0.001f;
+
+    /**
+     * Rotation tolerance {@link #compress()} uses, in radians.
+     */
+    public static final float DEFAULT_ROTATION_TOLERANCE = 0.001f;
+
+    /**
+     * Scale tolerance {@link #compress()} uses.
+     */
+    public static final float DEFAULT_SCALE_TOLERANCE = 0.0001f;
+
     /**
      * Constructor.
      *
@@ -161,7 +179,7 @@ public final class GVRAnimationChannel implements PrettyPrint {
 
     public void setRotKeyQuaternion(int keyIndex, float time, Quaternionf rot)
     {
-        mRotInterpolator.setKey(keyIndex, time, rot);
+        mRotInterpolator.setKey(keyIndex, time, new float[] { rot.x, rot.y, rot.z, rot.w });
     }
 
     /**
@@ -237,6 +255,59 @@ public final class GVRAnimationChannel implements PrettyPrint {
         return mPostState;
     }
 
+    /**
+     * Compress the keys with the default tolerances.
+     * @see #compress(float, float, float)
+     */
+    public void compress()
+    {
+        compress(DEFAULT_POSITION_TOLERANCE, DEFAULT_ROTATION_TOLERANCE, DEFAULT_SCALE_TOLERANCE);
+    }
+
+    /**
+     * Replace the keys with a compressed copy.<p>
+     *
+     * Key times and values are stored in separate arrays and rotations
+     * are quantized to 48 bits. Keys which interpolating their neighbors
+     * reproduces within the tolerance are dropped. Keys cannot be set
+     * or resized afterwards. Compressing twice does nothing.
+     *
+     * @param positionTolerance largest position error, in model units
+     * @param rotationTolerance largest rotation error, in radians
+     * @param scaleTolerance    largest scale error
+     * @see GVRCompressedFloatAnimation
+     * @see GVRCompressedQuatAnimation
+     */
+    public void compress(float positionTolerance, float rotationTolerance, float scaleTolerance)
+    {
+        if (isCompressed())
+        {
+            return;
+        }
+        mPosInterpolator = new GVRCompressedFloatAnimation(mPosInterpolator, positionTolerance);
+        mRotInterpolator = new GVRCompressedQuatAnimation(mRotInterpolator, rotationTolerance);
+        mSclInterpolator = new GVRCompressedFloatAnimation(mSclInterpolator, scaleTolerance);
+    }
+
+    /**
+     * @return true if {@link #compress()} was called.
+     */
+    public boolean isCompressed()
+    {
+        return mRotInterpolator instanceof GVRCompressedQuatAnimation;
+    }
+
+    /**
+     * Returns the number of bytes taken by the keys of this channel.
+     *
+     * @return size of the position, rotation and scale keys in bytes
+     */
+    public int getKeyDataSize()
+    {
+        return mPosInterpolator.getKeyDataSize() + mRotInterpolator.getKeyDataSize()
+                + mSclInterpolator.getKeyDataSize();
+    }
+
     /**
      * Obtains the transform for a specific time in animation.
      *
@@ -259,7 +330,8 @@ public final class GVRAnimationChannel implements PrettyPrint {
         sb.append(" [nodeName=" + m_nodeName + ", positionKeys="
                 + getNumPosKeys() + ", rotationKeys="
                 + getNumRotKeys() + ", scaleKeys="
-                + getNumScaleKeys() + ", m_preState=" + mPreState
+                + getNumScaleKeys() + ", keyBytes=" + getKeyDataSize()
+                + ", m_preState=" + mPreState
                 + ", m_postState=" + mPostState + "]");
         sb.append(System.lineSeparator());
     }
@@ -279,9 +351,9 @@ public final class GVRAnimationChannel implements PrettyPrint {
     final private float[] mScaleKey = new float[] { 1, 1, 1 };
     final private float[] mRotKey = new float[] { 0, 0, 0, 1 };
     final private Quaternionf mTempQuat = new Quaternionf(0, 0, 0, 1);
-    final private GVRFloatAnimation mPosInterpolator;
-    final private GVRQuatAnimation mRotInterpolator;
-    final private GVRFloatAnimation mSclInterpolator;
+    private GVRFloatAnimation mPosInterpolator;
+    private GVRFloatAnimation mRotInterpolator;
+    private GVRFloatAnimation mSclInterpolator;
 
     /**
      * Pre-animation behavior.
@@ -0,0 +1,317 @@
+package org.gearvrf.animation.keyframe;
+
+import org.gearvrf.utility.Log;
+import org.joml.Quaternionf;
+
+/**
+ * Read only animation of a set of floating point values, stored
+ * compactly.<p>
+ *
+ * The key times and the key values are kept in two separate arrays,
+ * so finding a key only touches the times. Keys which linear
+ * interpolation of their neighbors reproduces within a tolerance
+ * are dropped when the animation is made.
+ *
+ * @see GVRAnimationChannel#compress(float, float, float)
+ */
+public class GVRCompressedFloatAnimation extends GVRFloatAnimation
+{
+    private static final String TAG = GVRCompressedFloatAnimation.class.getSimpleName();
+
+    protected final int mValuesPerKey;
+    protected final float[] mTimes;
+    protected final float[] mValues;
+    protected int mLastKeyIndex = 0;
+
+    /**
+     * Make a compressed copy of an animation.
+     *
+     * @param source    animation to copy
+     * @param tolerance largest difference allowed between a value of
+     *                  the source and the compressed animation at a
+     *                  key of the source which is dropped
+     */
+    public GVRCompressedFloatAnimation(GVRFloatAnimation source, float tolerance)
+    {
+        super(source.mFloatsPerKey);
+        mValuesPerKey = mFloatsPerKey - 1;
+
+        int[] kept = reduceKeys(source.mKeys, mFloatsPerKey, tolerance, false);
+        mTimes = new float[kept.length];
+        mValues = new float[kept.length * mValuesPerKey];
+        for (int i = 0; i < kept.length; ++i)
+        {
+            int ofs = kept[i] * mFloatsPerKey;
+            mTimes[i] = source.mKeys[ofs];
+            System.arraycopy(source.mKeys, ofs + 1, mValues, i * mValuesPerKey, mValuesPerKey);
+        }
+    }
+
+    @Override
+    public int getNumKeys()
+    {
+        return mTimes.length;
+    }
+
+    @Override
+    public int getKeyDataSize()
+    {
+        return (mTimes.length + mValues.length) * 4;
+    }
+
+    @Override
+    public float getDuration()
+    {
+        return (mTimes.length > 1) ? mTimes[mTimes.length - 1] - mTimes[0] : 0;
+    }
+
+    @Override
+    public float getTime(int keyIndex)
+    {
+        return mTimes[keyIndex];
+    }
+
+    @Override
+    public void getKey(int keyIndex, float[] values)
+    {
+        System.arraycopy(mValues, keyIndex * mValuesPerKey, values, 0, values.length);
+    }
+
+    /**
+     * Compressed keys cannot be changed.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setKey(int keyIndex, float time, final float[] values)
+    {
+        throw new UnsupportedOperationException("Compressed animation keys are read only");
+    }
+
+    /**
+     * Compressed keys cannot be changed.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void resizeKeys(int numKeys)
+    {
+        throw new UnsupportedOperationException("Compressed animation keys are read only");
+    }
+
+    @Override
+    public void animate(float animationTime, float[] destValues)
+    {
+        int n = mTimes.length;
+        if (n == 0)
+        {
+            return;
+        }
+        if ((n == 1) || (animationTime <= mTimes[0]))
+        {
+            System.arraycopy(mValues, 0, destValues, 0, mValuesPerKey);
+            return;
+        }
+        if (animationTime >= mTimes[n - 1])
+        {
+            System.arraycopy(mValues, (n - 1) * mValuesPerKey, destValues, 0, mValuesPerKey);
+            return;
+        }
+        int index = mLastKeyIndex = findKey(mTimes, animationTime, mLastKeyIndex);
+        float factor = (animationTime - mTimes[index]) / (mTimes[index + 1] - mTimes[index]);
+        int firstOfs = index * mValuesPerKey;
+        int lastOfs = firstOfs + mValuesPerKey;
+
+        for (int i = 0; i < mValuesPerKey; ++i)
+        {
+            destValues[i] = factor * mValues[lastOfs + i] + (1.0f - factor) * mValues[firstOfs + i];
+        }
+    }
+
+    @Override
+    public void prettyPrint(StringBuffer sb, int indent)
+    {
+        sb.append(Log.getSpaces(indent));
+        sb.append(getClass().getSimpleName());
+        sb.append(" [ Keys=" + getNumKeys() + ", Bytes=" + getKeyDataSize() + "]");
+        sb.append(System.lineSeparator());
+    }
+
+    /**
+     * Find the key interval holding a time strictly inside the
+     * animation. Starts from the interval of the previous call, since
+     * animations mostly move forward by less than a key.
+     *
+     * @return index of the key at or before the time
+     */
+    static int findKey(float[] times, float time, int hint)
+    {
+        int last = times.length - 1;
+
+        if ((hint >= 0) && (hint < last) && (times[hint] <= time))
+        {
+            if (time < times[hint + 1])
+            {
+                return hint;
+            }
+            if ((hint + 2 <= last) && (time < times[hint + 2]))
+            {
+                return hint + 1;
+            }
+        }
+        int low = 0, high = last;
+        // invariant: times[low] <= time < times[high]
+        while (high - low > 1)
+        {
+            int mid = (low + high) >>> 1;
+            if (time < times[mid])
+            {
+                high = mid;
+            }
+            else
+            {
+                low = mid;
+            }
+        }
+        return low;
+    }
+
+    /*
+     * Most keys between two kept keys. A dropped key is checked again for
+     * every key after it up to the next kept key, so without a bound a
+     * long run of keys which all fit takes time quadratic in its length.
+     */
+    private static final int MAX_SPAN = 256;
+
+    /**
+     * Choose the keys to keep so that interpolating between kept keys
+     * stays within the tolerance at every dropped key. The first and
+     * last key are always kept, unless all the keys have the same value.
+     * <p>
+     * Keys are dropped greedily, keeping the last key before the first
+     * candidate which puts a dropped key out of tolerance. No more than
+     * {@code MAX_SPAN} keys are dropped in a row, which bounds the work
+     * to that many checks per key, and costs one extra key per
+     * {@code MAX_SPAN} keys on tracks which change at a steady rate.
+     *
+     * @param keys     interleaved keys, time first
+     * @param keySize  number of floats per key, including time
+     * @param rotation true if the values are x, y, z, w quaternions which
+     *                 are interpolated spherically and compared by angle
+     * @return indices of the kept keys, in order
+     */
+    static int[] reduceKeys(float[] keys, int keySize, float tolerance, boolean rotation)
+    {
+        int n = keys.length / keySize;
+        KeyError error = new KeyError(keys, keySize, rotation);
+        if (isConstant(error, n, tolerance))
+        {
+            return (n > 0) ? new int[] { 0 } : new int[0];
+        }
+        if (n == 2)
+        {
+            return new int[] { 0, 1 };
+        }
+        int[] kept = new int[n];
+        int numKept = 0;
+        int anchor = 0;
+
+        kept[numKept++] = 0;
+        for (int candidate = 2; candidate < n; ++candidate)
+        {
+            if (candidate - anchor > MAX_SPAN)
+            {
+                anchor = candidate - 1;
+                kept[numKept++] = anchor;
+                continue;
+            }
+            for (int k = anchor + 1; k < candidate; ++k)
+            {
+                if (error.at(anchor, candidate, k) > tolerance)
+                {
+                    anchor = candidate - 1;
+                    kept[numKept++] = anchor;
+                    break;
+                }
+            }
+        }
+        kept[numKept++] = n - 1;
+
+        int[] result = new int[numKept];
+        System.arraycopy(kept, 0, result, 0, numKept);
+        return result;
+    }
+
+    /*
+     * A track whose keys all hold the value of the first one within the
+     * tolerance only needs one key.
+     */
+    private static boolean isConstant(KeyError error, int n, float tolerance)
+    {
+        for (int k = 1; k < n; ++k)
+        {
+            if (error.at(0, 0, k) > tolerance)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Difference between a key and the interpolation of two others at
+     * its time: the largest component difference for values, the
+     * angle in radians for rotations.
+     */
+    private static final class KeyError
+    {
+        private final float[] mKeys;
+        private final int mKeySize;
+        private final boolean mRotation;
+        private final Quaternionf mFirst = new Quaternionf();
+        private final Quaternionf mLast = new Quaternionf();
+        private final Quaternionf mKey = new Quaternionf();
+
+        KeyError(float[] keys, int keySize, boolean rotation)
+        {
+            mKeys = keys;
+            mKeySize = keySize;
+            mRotation = rotation;
+        }
+
+        float at(int first, int last, int key)
+        {
+            int firstOfs = first * mKeySize;
+            int lastOfs = last * mKeySize;
+            int keyOfs = key * mKeySize;
+            float span = mKeys[lastOfs] - mKeys[firstOfs];
+            float factor = (span > 0) ? (mKeys[keyOfs] - mKeys[firstOfs]) / span : 0;
+
+            if (mRotation)
+            {
+                set(mFirst, firstOfs + 1);
+                set(mLast, lastOfs + 1);
+                set(mKey, keyOfs + 1);
+                mFirst.slerp(mLast, factor).normalize();
+                // angle from the chord, acos loses small angles in floats
+                float sign = (mFirst.dot(mKey) < 0) ? -1.0f : 1.0f;
+                float dx = mFirst.x - sign * mKey.x;
+                float dy = mFirst.y - sign * mKey.y;
+                float dz = mFirst.z - sign * mKey.z;
+                float dw = mFirst.w - sign * mKey.w;
+                float chord = (float) Math.sqrt(dx * dx + dy * dy + dz * dz + dw * dw);
+                return 4.0f * (float) Math.asin(Math.min(1.0f, chord * 0.5f));
+            }
+            float maxError = 0;
+            for (int i = 1; i < mKeySize; ++i)
+            {
+                float value = factor * mKeys[lastOfs + i] + (1.0f - factor) * mKeys[firstOfs + i];
+                maxError = Math.max(maxError, Math.abs(value - mKeys[keyOfs + i]));
+            }
+            return maxError;
+        }
+
+        private void set(Quaternionf q, int ofs)
+        {
+            q.set(mKeys[ofs], mKeys[ofs + 1], mKeys[ofs + 2], mKeys[ofs + 3]).normalize();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.gearvrf.animation.keyframe;
+
+import org.gearvrf.utility.Log;
+import org.joml.Quaternionf;
+
+/**
+ * Read only animation of a rotation, stored compactly.<p>
+ *
+ * Key times are kept apart from the rotations, and keys which
+ * spherical interpolation of their neighbors reproduces within an
+ * angle are dropped. Each rotation is quantized to 48 bits with the
+ * "smallest three" encoding: the largest component of the unit
+ * quaternion is left out and recomputed from the other three, which
+ * are stored in 15 bits each. The two bits saying which component was
+ * left out are kept in the top bits of the first two. Quantizing adds
+ * less than 0.00013 radians of error.
+ *
+ * @see GVRAnimationChannel#compress(float, float, float)
+ */
+public final class GVRCompressedQuatAnimation extends GVRFloatAnimation
+{
+    private static final String TAG = GVRCompressedQuatAnimation.class.getSimpleName();
+
+    private static final float SQRT2 = (float) Math.sqrt(2.0);
+    private static final int QUANT_MAX = 0x7FFF;
+
+    private final float[] mTimes;
+    private final short[] mRotations;
+    private int mLastKeyIndex = 0;
+    private final Quaternionf mTempQuatA = new Quaternionf();
+    private final Quaternionf mTempQuatB = new Quaternionf();
+
+    /**
+     * Make a compressed copy of a rotation animation.
+     *
+     * @param source    animation to copy, x,y,z,w quaternions
+     * @param tolerance largest angle in radians allowed between a
+     *                  rotation of the source and the compressed
+     *                  animation at a key of the source which is dropped
+     */
+    public GVRCompressedQuatAnimation(GVRFloatAnimation source, float tolerance)
+    {
+        super(5);
+        if (source.mFloatsPerKey != 5)
+        {
+            throw new IllegalArgumentException("Rotation keys need 5 floats, the key includes time");
+        }
+        int[] kept = GVRCompressedFloatAnimation.reduceKeys(source.mKeys, mFloatsPerKey, tolerance, true);
+        mTimes = new float[kept.length];
+        mRotations = new short[kept.length * 3];
+        for (int i = 0; i < kept.length; ++i)
+        {
+            int ofs = kept[i] * mFloatsPerKey;
+            mTimes[i] = source.mKeys[ofs];
+            encode(source.mKeys, ofs + 1, mRotations, i * 3);
+        }
+    }
+
+    @Override
+    public int getNumKeys()
+    {
+        return mTimes.length;
+    }
+
+    @Override
+    public int getKeyDataSize()
+    {
+        return mTimes.length * 4 + mRotations.length * 2;
+    }
+
+    @Override
+    public float getDuration()
+    {
+        return (mTimes.length > 1) ? mTimes[mTimes.length - 1] - mTimes[0] : 0;
+    }
+
+    @Override
+    public float getTime(int keyIndex)
+    {
+        return mTimes[keyIndex];
+    }
+
+    @Override
+    public void getKey(int keyIndex, float[] values)
+    {
+        decode(mRotations, keyIndex * 3, mTempQuatA);
+        values[0] = mTempQuatA.x;
+        values[1] = mTempQuatA.y;
+        values[2] = mTempQuatA.z;
+        values[3] = mTempQuatA.w;
+    }
+
+    /**
+     * Returns the rotation of a key.
+     *
+     * @param keyIndex the index of the rotation key
+     * @param q        gets the rotation
+     */
+    public void getKey(int keyIndex, Quaternionf q)
+    {
+        decode(mRotations, keyIndex * 3, q);
+    }
+
+    /**
+     * Compressed keys cannot be changed.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setKey(int keyIndex, float time, final float[] values)
+    {
+        throw new UnsupportedOperationException("Compressed animation keys are read only");
+    }
+
+    /**
+     * Compressed keys cannot be changed.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void resizeKeys(int numKeys)
+    {
+        throw new UnsupportedOperationException("Compressed animation keys are read only");
+    }
+
+    @Override
+    public void animate(float animationTime, float[] destValues)
+    {
+        int n = mTimes.length;
+        if (n == 0)
+        {
+            return;
+        }
+        if ((n == 1) || (animationTime <= mTimes[0]))
+        {
+            getKey(0, destValues);
+            return;
+        }
+        if (animationTime >= mTimes[n - 1])
+        {
+            getKey(n - 1, destValues);
+            return;
+        }
+        int index = mLastKeyIndex = GVRCompressedFloatAnimation.findKey(mTimes, animationTime, mLastKeyIndex);
+        float factor = (animationTime - mTimes[index]) / (mTimes[index + 1] - mTimes[index]);
+
+        decode(mRotations, index * 3, mTempQuatA);
+        decode(mRotations, index * 3 + 3, mTempQuatB);
+        mTempQuatA.slerp(mTempQuatB, factor, mTempQuatA);
+        destValues[0] = mTempQuatA.x;
+        destValues[1] = mTempQuatA.y;
+        destValues[2] = mTempQuatA.z;
+        destValues[3] = mTempQuatA.w;
+    }
+
+    @Override
+    public void prettyPrint(StringBuffer sb, int indent)
+    {
+        sb.append(Log.getSpaces(indent));
+        sb.append(GVRCompressedQuatAnimation.class.getSimpleName());
+        sb.append(" [ Keys=" + getNumKeys() + ", Bytes=" + getKeyDataSize() + "]");
+        sb.append(System.lineSeparator());
+    }
+
+    /*
+     * Quantize the quaternion at src[srcOfs] into three shorts. The
+     * quaternion is normalized and negated if needed so the component
+     * left out is positive; the other three then lie within
+     * +-1/sqrt(2).
+     */
+    static void encode(float[] src, int srcOfs, short[] dest, int destOfs)
+    {
+        float x = src[srcOfs], y = src[srcOfs + 1], z = src[srcOfs + 2], w = src[srcOfs + 3];
+        float length = (float) Math.sqrt(x * x + y * y + z * z + w * w);
+        int largest = 0;
+        float largestAbs = Math.abs(x);
+
+        if (Math.abs(y) > largestAbs)
+        {
+            largest = 1;
+            largestAbs = Math.abs(y);
+        }
+        if (Math.abs(z) > largestAbs)
+        {
+            largest = 2;
+            largestAbs = Math.abs(z);
+        }
+        if (Math.abs(w) > largestAbs)
+        {
+            largest = 3;
+        }
+        float[] q = { x, y, z, w };
+        float scale = (length > 0) ? ((q[largest] < 0) ? -1.0f : 1.0f) / length : 1.0f;
+        int j = 0;
+        for (int i = 0; i < 4; ++i)
+        {
+            if (i != largest)
+            {
+                int v = Math.round((q[i] * scale * SQRT2 + 1.0f) * 0.5f * QUANT_MAX);
+                dest[destOfs + j++] = (short) Math.max(0, Math.min(QUANT_MAX, v));
+            }
+        }
+        dest[destOfs] |= (short) ((largest & 1) << 15);
+        dest[destOfs + 1] |= (short) ((largest >> 1) << 15);
+    }
+
+    static void decode(short[] src, int srcOfs, Quaternionf q)
+    {
+        int a = src[srcOfs], b = src[srcOfs + 1], c = src[srcOfs + 2];
+        int largest = ((a >> 15) & 1) | (((b >> 15) & 1) << 1);
+        float qa = unquantize(a & QUANT_MAX);
+        float qb = unquantize(b & QUANT_MAX);
+        float qc = unquantize(c & QUANT_MAX);
+        float ql = (float) Math.sqrt(Math.max(0.0f, 1.0f - qa * qa - qb * qb - qc * qc));
+
+        switch (largest)
+        {
+            case 0: q.set(ql, qa, qb, qc); break;
+            case 1: q.set(qa, ql, qb, qc); break;
+            case 2: q.set(qa, qb, ql, qc); break;
+            default: q.set(qa, qb, qc, ql); break;
+        }
+    }
+
+    private static float unquantize(int v)
+    {
+        return ((v * (2.0f / QUANT_MAX)) - 1.0f) / SQRT2;
+    }
+}
@@ -266,6 +266,17 @@ public class GVRFloatAnimation implements PrettyPrint
         mFloatInterpolator = new LinearInterpolator(mKeys, keySize);
     }
 
+    /**
+     * Constructor for subclasses which keep their keys in their own format.
+     *
+     * @param keySize number of floats per key, including time
+     */
+    protected GVRFloatAnimation(int keySize)
+    {
+        mFloatsPerKey = keySize;
+        mKeys = new float[0];
+    }
+
     /**
      * Returns the number of keys.
      *
@@ -276,6 +287,16 @@ public class GVRFloatAnimation implements PrettyPrint
         return mKeys.length / mFloatsPerKey;
     }
 
+    /**
+     * Returns the number of bytes taken by the key data.
+     *
+     * @return size of the keys in bytes
+     */
+    public int getKeyDataSize()
+    {
+        return mKeys.length * 4;
+    }
+
     public float getDuration()
     {
         if (mKeys.length > mFloatsPerKey)
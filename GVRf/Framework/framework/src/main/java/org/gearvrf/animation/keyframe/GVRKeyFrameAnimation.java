@@ -54,6 +54,29 @@ public class GVRKeyFrameAnimation extends GVRAnimation implements PrettyPrint {
         mChannels.add(channel);
     }
 
+    /**
+     * Compress the keys of all channels with the default tolerances.
+     * @see GVRAnimationChannel#compress()
+     */
+    public void compress() {
+        for (GVRAnimationChannel channel : mChannels) {
+            channel.compress();
+        }
+    }
+
+    /**
+     * Returns the number of bytes taken by the keys of all channels.
+     *
+     * @return size of the keys in bytes
+     */
+    public int getKeyDataSize() {
+        int size = 0;
+        for (GVRAnimationChannel channel : mChannels) {
+            size += channel.getKeyDataSize();
+        }
+        return size;
+    }
+
     /**
      * Must be called after adding all channels.
      */
@@ -120,9 +143,22 @@ public class GVRKeyFrameAnimation extends GVRAnimation implements PrettyPrint {
 
         mNodeAnimationController.animate(getDuration() * ratio);
 
+        mSkinningController.setInterpolating(isInterpolatingUpdates());
         mSkinningController.animate(getDuration() * ratio);
     }
 
+    /**
+     * Blends the bone matrices between updates when the animation engine
+     * updates this animation less than every frame.
+     * @see org.gearvrf.animation.GVRAnimationLOD
+     */
+    @Override
+    protected void animateBetweenUpdates(float fraction) {
+        if (mSkinningController != null) {
+            mSkinningController.interpolate(fraction);
+        }
+    }
+
     protected Matrix4f[] getTransforms(float animationTime) {
         int i = 0;
         for (GVRAnimationChannel channel : mChannels) {
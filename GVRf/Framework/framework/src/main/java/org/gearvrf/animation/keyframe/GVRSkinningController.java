@@ -16,6 +16,8 @@ import org.gearvrf.GVRRenderData;
 import org.gearvrf.GVRSceneObject;
 import org.gearvrf.utility.Log;
 import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
 
 /**
  * Controls skeletal animation (skinning). 
@@ -30,6 +32,23 @@ public class GVRSkinningController extends GVRAnimationController {
     protected Map<String, SceneAnimNode> nodeByName;
     protected Map<GVRSceneObject, List<GVRBone>> boneMap;
 
+    /*
+     * Per bone, the previous and the last computed final matrix, each as
+     * translation, rotation and scale, for blending between updates
+     * throttled by GVRAnimationLOD. Blending the matrix elements would
+     * shrink and skew the bones half way between two rotations.
+     */
+    private static final int POSE_SIZE = 10;
+    private static final int ROTATION = 3;
+    private static final int SCALE = 7;
+    private final Map<GVRBone, float[]> mBonePoses = new HashMap<GVRBone, float[]>();
+    private final float[] mBlendedMatrix = new float[16];
+    private final Matrix4f mTempMatrix = new Matrix4f();
+    private final Quaternionf mTempQuatA = new Quaternionf();
+    private final Quaternionf mTempQuatB = new Quaternionf();
+    private final Vector3f mTempVec = new Vector3f();
+    private boolean mInterpolating = false;
+
     protected class SceneAnimNode {
         GVRSceneObject sceneObject;
         SceneAnimNode parent;
@@ -147,6 +166,75 @@ public class GVRSkinningController extends GVRAnimationController {
         }
     }
 
+    /**
+     * Choose whether {@link #animate(float)} sets the bone matrices, or
+     * only computes them for {@link #interpolate(float)}.
+     *
+     * @param interpolating true to leave setting the bones to interpolate()
+     */
+    public void setInterpolating(boolean interpolating) {
+        mInterpolating = interpolating;
+    }
+
+    /**
+     * Set the bone matrices to a blend of the last two poses computed by
+     * {@link #animate(float)}. Translations and scales are blended
+     * linearly, rotations spherically.
+     *
+     * @param fraction 0 for the previous pose, 1 for the last one
+     */
+    public void interpolate(float fraction) {
+        for (Entry<GVRBone, float[]> ent : mBonePoses.entrySet()) {
+            float[] poses = ent.getValue();
+            int r = ROTATION;
+            int s = SCALE;
+            int last = POSE_SIZE;
+
+            mTempQuatA.set(poses[r], poses[r + 1], poses[r + 2], poses[r + 3]);
+            mTempQuatB.set(poses[last + r], poses[last + r + 1], poses[last + r + 2], poses[last + r + 3]);
+            mTempQuatA.slerp(mTempQuatB, fraction);
+            mTempMatrix.translationRotateScale(
+                    lerp(poses, 0, fraction), lerp(poses, 1, fraction), lerp(poses, 2, fraction),
+                    mTempQuatA.x, mTempQuatA.y, mTempQuatA.z, mTempQuatA.w,
+                    lerp(poses, s, fraction), lerp(poses, s + 1, fraction), lerp(poses, s + 2, fraction));
+            mTempMatrix.get(mBlendedMatrix);
+            ent.getKey().setFinalTransformMatrix(mBlendedMatrix);
+        }
+    }
+
+    private static float inverse(float scale) {
+        return (scale != 0) ? 1.0f / scale : 1.0f;
+    }
+
+    private static float lerp(float[] poses, int i, float fraction) {
+        return poses[i] + (poses[i + POSE_SIZE] - poses[i]) * fraction;
+    }
+
+    /*
+     * Split a matrix without shear into translation, rotation and scale.
+     * A mirroring matrix gets a negative x scale.
+     */
+    private void decompose(Matrix4f m, float[] pose, int ofs) {
+        m.getTranslation(mTempVec);
+        pose[ofs] = mTempVec.x;
+        pose[ofs + 1] = mTempVec.y;
+        pose[ofs + 2] = mTempVec.z;
+        m.getScale(mTempVec);
+        if (m.determinant3x3() < 0) {
+            mTempVec.x = -mTempVec.x;
+        }
+        // getNormalizedRotation() expects unit axes
+        mTempMatrix.set(m).scale(inverse(mTempVec.x), inverse(mTempVec.y), inverse(mTempVec.z));
+        mTempMatrix.getNormalizedRotation(mTempQuatA);
+        pose[ofs + ROTATION] = mTempQuatA.x;
+        pose[ofs + ROTATION + 1] = mTempQuatA.y;
+        pose[ofs + ROTATION + 2] = mTempQuatA.z;
+        pose[ofs + ROTATION + 3] = mTempQuatA.w;
+        pose[ofs + SCALE] = mTempVec.x;
+        pose[ofs + SCALE + 1] = mTempVec.y;
+        pose[ofs + SCALE + 2] = mTempVec.z;
+    }
+
     /**
      * Update bone transforms for the specified tick.
      */
@@ -194,7 +282,19 @@ public class GVRSkinningController extends GVRAnimationController {
         Matrix4f globalInverse = new Matrix4f().set(bone.getSceneObject().getTransform().getModelMatrix4f()).invert();
         globalInverse.mul(finalMatrix, finalMatrix);
 
-        bone.setFinalTransformMatrix(finalMatrix);
+        float[] poses = mBonePoses.get(bone);
+        if (poses == null) {
+            poses = new float[2 * POSE_SIZE];
+            decompose(finalMatrix, poses, 0);
+            mBonePoses.put(bone, poses);
+        } else {
+            System.arraycopy(poses, POSE_SIZE, poses, 0, POSE_SIZE);
+        }
+        decompose(finalMatrix, poses, POSE_SIZE);
+        if (!mInterpolating) {
+            finalMatrix.get(mBlendedMatrix);
+            bone.setFinalTransformMatrix(mBlendedMatrix);
+        }
     }
 
     /* Returns true if the subtree should be kept */
@@ -79,8 +79,12 @@ class AdaptiveScalableTextureCompression extends GVRCompressedTextureLoader {
         formatMap[blockdim_x - OFFSET][blockdim_y - OFFSET] = format;
     }
 
-    private static final int getFormat(int blockdim_x, int blockdim_y) {
-        return formatMap[blockdim_x - OFFSET][blockdim_y - OFFSET];
+    static final int getFormat(int blockdim_x, int blockdim_y) {
+        int x = blockdim_x - OFFSET, y = blockdim_y - OFFSET;
+        if (x < 0 || x >= formatMap.length || y < 0 || y >= formatMap[x].length) {
+            return 0;
+        }
+        return formatMap[x][y];
     }
 
     static {
@@ -17,6 +17,8 @@ package org.gearvrf.asynchronous;
 
 import static android.opengl.GLES20.GL_MAX_TEXTURE_SIZE;
 import static android.opengl.GLES20.GL_NO_ERROR;
+import static android.opengl.GLES20.GL_RGBA;
+import static android.opengl.GLES20.GL_UNSIGNED_BYTE;
 import static android.opengl.GLES20.glGetError;
 import static android.opengl.GLES20.glGetIntegerv;
 import static org.gearvrf.utility.Threads.threadId;
@@ -25,7 +27,6 @@ import java.io.FileDescriptor;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.ByteBuffer;
 
 import org.gearvrf.GVRAndroidResource;
 import org.gearvrf.GVRAndroidResource.CancelableCallback;
@@ -96,9 +97,9 @@ class AsyncBitmapTexture {
 
     private AsyncBitmapTexture() {
         AsyncManager.get().registerDatatype(TEXTURE_CLASS,
-                new AsyncLoaderFactory<GVRBitmapImage, Bitmap>() {
+                new AsyncLoaderFactory<GVRBitmapImage, GVRBitmapImage>() {
             @Override
-            AsyncLoader<GVRBitmapImage, Bitmap> threadProc(GVRContext gvrContext,
+            AsyncLoader<GVRBitmapImage, GVRBitmapImage> threadProc(GVRContext gvrContext,
                     GVRAndroidResource request,
                     CancelableCallback<GVRBitmapImage> callback,
                     int priority) {
@@ -327,13 +328,17 @@ class AsyncBitmapTexture {
      */
 
     private static class AsyncLoadTextureResource extends
-            AsyncLoader<GVRBitmapImage, Bitmap> {
+            AsyncLoader<GVRBitmapImage, GVRBitmapImage> {
 
-        private static final GlConverter<GVRBitmapImage, Bitmap> sConverter = new GlConverter<GVRBitmapImage, Bitmap>() {
+        /*
+         * The image is created on the loader thread: a TGA goes straight
+         * from the decoder's direct buffer to the GPU, without a Bitmap.
+         */
+        private static final GlConverter<GVRBitmapImage, GVRBitmapImage> sConverter = new GlConverter<GVRBitmapImage, GVRBitmapImage>() {
 
             @Override
-            public GVRBitmapImage convert(GVRContext gvrContext, Bitmap bitmap) {
-                return new GVRBitmapImage(gvrContext, bitmap);
+            public GVRBitmapImage convert(GVRContext gvrContext, GVRBitmapImage image) {
+                return image;
             }
         };
 
@@ -344,265 +349,30 @@ class AsyncBitmapTexture {
         }
 
         @Override
-        protected Bitmap loadResource() throws IOException {
-            Bitmap bitmap;
+        protected GVRBitmapImage loadResource() throws IOException {
+            GVRBitmapImage image = null;
             String resourceName = resource.getResourceFilename();
-            if (resourceName.toLowerCase().endsWith("tga")) {
-                // decodeStream for sure do not support tga
-                bitmap = decodeStreamTGA(resource.getStream());
-            } else {
-                bitmap = decodeStream(resource.getStream(),
-                        glMaxTextureSize, glMaxTextureSize, true, null, false);
-            }
-
-            resource.closeStream();
-            return bitmap;
-        }
-    }
-
-    static Bitmap decodeStreamTGA(InputStream stream) throws IOException {
-        Bitmap bitmap = null;
-        byte[] headerTGA = new byte[18];
-
-        stream.read(headerTGA);
-        int type = headerTGA[2] & 0xFF;
-        // uncompressed RGB tga
-        if (type == 2) {
-            int depth = headerTGA[16] & 0xFF;
-            int descriptor = headerTGA[17] & 0xFF;
-            int width = (headerTGA[12] & 0xFF) | (headerTGA[13] & 0xFF) << 8;
-            int height = (headerTGA[14] & 0xFF) | (headerTGA[15] & 0xFF) << 8;
-            try
-            {
-                bitmap = decodeStreamRGB(stream, width, height, depth, descriptor);
-            }
-            catch (Exception ex)
-            {
-                Log.d(TAG, "Exception reading TGA file" + ex.getMessage());
-            }
-        } else {
-            Log.d(TAG, "TGA format not supported: type is not uncompressed RGB");
-        }
-        return bitmap;
-    }
-
-    private static final int RIGHT_ORIGIN = 0x10;
-    private static final int UPPER_ORIGIN = 0x20;
-
-
-    static Bitmap decodeStreamRGB(InputStream stream, int width, int height, int depth, int descriptor) throws IOException {
-        Bitmap bitmap = null;
-        byte rgb[];
-        byte data[];
-        int currentHeight = 0;
-        int size = width * height * 4;
-        int t;
-
-        if (depth == 24)
-        {
-            rgb = new byte[size];
-            data = new byte[width * 3];
-
-            if ((descriptor & RIGHT_ORIGIN) == 0)
-            {
-                if ((descriptor & UPPER_ORIGIN) != 0)
-                {
-                    currentHeight = 0;
-                    while ((currentHeight < height) && (stream.read(data) != -1))
-                    {
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = (byte) 0xFF;
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight++;
-                    }
-                }
-                else
-                {
-                    currentHeight = height - 1;
-                    while ((currentHeight >= 0) && (stream.read(data) != -1))
-                    {
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = (byte) 0xFF;
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight--;
-                    }
-                }
-            }
-            else
-            {
-                if ((descriptor & UPPER_ORIGIN) != 0)
-                {
-                    currentHeight = 0;
-                    while ((currentHeight < height) && (stream.read(data) != -1))
-                    {
-                        for (int i = width - 1; i >= 0; i--)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = (byte) 0xFF;
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight++;
-                    }
-                }
-                else
-                {
-                    currentHeight = height - 1;
-                    while ((currentHeight >= 0) && (stream.read(data) != -1))
-                    {
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = (byte) 0xFF;
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight--;
-                    }
-                }
-            }
-        }
-        else if (depth == 32)
-        {
-            rgb = new byte[width * height * 4];
-            data = new byte[width * 4];
-
-            if ((descriptor & RIGHT_ORIGIN) == 0)
-            {
-                if ((descriptor & UPPER_ORIGIN) != 0)
-                {
-                    currentHeight = 0;
-                    while ((currentHeight < height) && (stream.read(data) != -1))
-                    {
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = data[i * 3 + 3];
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight++;
-                    }
-                }
-                else
-                {
-                    currentHeight = height - 1;
-                    while ((currentHeight >= 0) && (stream.read(data) != -1))
-                    {
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = data[i * 3 + 3];
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight--;
-                    }
-                }
-            }
-            else
-            {
-                if ((descriptor & UPPER_ORIGIN) != 0)
-                {
-                    currentHeight = 0;
-                    while ((currentHeight < height) && (stream.read(data) != -1))
-                    {
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = data[i * 3 + 3];
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight++;
-                    }
-                }
-                else
-                {
-                    while ((currentHeight >= 0) && (stream.read(data) != -1))
-                    {
-                        currentHeight = height - 1;
-                        for (int i = 0; i < width; i++)
-                        {
-                            byte r = data[i * 3 + 0];
-                            byte g = data[i * 3 + 1];
-                            byte b = data[i * 3 + 2];
-                            byte a = data[i * 3 + 3];
-                            t = (width * currentHeight + i) * 4;
-
-                            rgb[t + 0] = b;
-                            rgb[t + 1] = g;
-                            rgb[t + 2] = r;
-                            rgb[t + 3] = a;
-                        }
-                        currentHeight--;
+            try {
+                if (resourceName.toLowerCase().endsWith("tga")) {
+                    // decodeStream for sure do not support tga
+                    TgaImage tga = TgaImage.decode(resource.getStream());
+                    image = new GVRBitmapImage(gvrContext);
+                    image.setBuffer(tga.getWidth(), tga.getHeight(), GL_RGBA,
+                            GL_UNSIGNED_BYTE, tga.getPixels());
+                } else {
+                    Bitmap bitmap = decodeStream(resource.getStream(),
+                            glMaxTextureSize, glMaxTextureSize, true, null, false);
+                    if (bitmap != null) {
+                        image = new GVRBitmapImage(gvrContext, bitmap);
                     }
                 }
+            } finally {
+                resource.closeStream();
             }
+            return image;
         }
-        else
-        {
-            return null;
-        }
-        bitmap = Bitmap.createBitmap(width, height, Config.ARGB_8888);
-        bitmap.copyPixelsFromBuffer(ByteBuffer.wrap(rgb));
-        if(depth == 24) {
-            bitmap.setHasAlpha(false);
-        }
-        return bitmap;
     }
 
-
     /*
      * decodeStream
      */
@@ -16,6 +16,7 @@
 package org.gearvrf.asynchronous;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.gearvrf.GVRAndroidResource;
 import org.gearvrf.GVRCompressedImage;
@@ -105,8 +106,14 @@ class AsyncCompressedTexture {
             GVRCompressedTextureLoader loader = resource.getCompressedLoader();
             CompressedTexture compressedTexture = null;
             try {
-                compressedTexture = CompressedTexture
-                        .parse(resource.getStream(), false, loader);
+                if (loader instanceof KTX
+                        || loader instanceof AdaptiveScalableTextureCompression) {
+                    compressedTexture = new StreamedTexture(
+                            CompressedTextureStream.open(resource.getStream()));
+                } else {
+                    compressedTexture = CompressedTexture
+                            .parse(resource.getStream(), false, loader);
+                }
                 Log.d("ASYNC", "parse compressed texture %s", resource);
             } catch (IOException e) {
                 e.printStackTrace();
@@ -116,4 +123,26 @@ class AsyncCompressedTexture {
             return compressedTexture;
         }
     }
+
+    /*
+     * A KTX or ASTC texture whose levels go to the GPU smallest first: the
+     * ones that fit in SYNC_LEVEL_BYTES before the callback, the rest later.
+     */
+    private static class StreamedTexture extends CompressedTexture {
+        private static final long SYNC_LEVEL_BYTES = 64 * 1024;
+        private static final ByteBuffer NO_DATA = ByteBuffer.allocate(0);
+
+        private final CompressedTextureStream stream;
+
+        private StreamedTexture(CompressedTextureStream stream) {
+            super(stream.getFormat(), stream.getWidth(), stream.getHeight(),
+                    stream.getLevelSize(0), stream.getLevelCount(), NO_DATA);
+            this.stream = stream;
+        }
+
+        @Override
+        public GVRCompressedImage toTexture(GVRContext gvrContext, int quality) {
+            return stream.toImage(gvrContext, quality, SYNC_LEVEL_BYTES);
+        }
+    }
 }
@@ -0,0 +1,531 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.asynchronous;
+
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import org.gearvrf.GVRCompressedImage;
+import org.gearvrf.GVRContext;
+import org.gearvrf.utility.Log;
+import org.gearvrf.utility.RuntimeAssertion;
+import org.gearvrf.utility.Threads;
+
+/**
+ * Reads a KTX or ASTC compressed texture one mip-map level at a time.
+ * <p>
+ * {@link CompressedTexture#load(InputStream, int, boolean)} reads the whole
+ * file into a growing {@code byte[]} before anything reaches the GPU. This
+ * class parses the header first, locates every level, and hands the levels
+ * out smallest first, so a texture can be drawn from its small levels while
+ * the big ones are still being read.
+ * <p>
+ * When the source is a file, it is memory-mapped and each level is a direct
+ * slice of the mapping; the pages of a level are faulted in by the thread
+ * that publishes it, never by the GL thread. Other sources are read in
+ * chunks straight into one direct buffer per level.
+ * <p>
+ * Only 2D textures are supported: no arrays, cube maps or 3D textures, same
+ * as {@link KTX}.
+ */
+public final class CompressedTextureStream
+{
+    private static final String TAG = Log.tag(CompressedTextureStream.class);
+
+    /**
+     * Receives the mip-map levels of a {@link CompressedTextureStream}.
+     */
+    public interface LevelListener
+    {
+        /**
+         * Called once per level, smallest level first.
+         * @param level  mip-map level, 0 is the largest
+         * @param width  pixel width of the level
+         * @param height pixel height of the level
+         * @param data   compressed data of the level, between position and
+         *               limit. Direct unless the stream was opened on a heap
+         *               buffer.
+         */
+        void onLevel(int level, int width, int height, ByteBuffer data);
+    }
+
+    // Byte[12] identifier, then 13 UInt32, see KTX
+    private static final int KTX_HEADER_SIZE = 64;
+    private static final int KTX_ENDIANNESS_OFFSET = 12;
+    private static final int KTX_FIELDS_OFFSET = 16;
+    private static final int[] KTX_SIGNATURE = {
+            0xAB4B5458, 0x203131BB, 0x0D0A1A0A };
+
+    // magic, block size and dimensions, see AdaptiveScalableTextureCompression
+    private static final int ASTC_HEADER_SIZE = 16;
+    private static final int ASTC_MAGIC = 0x5CA1AB13;
+    private static final int ASTC_BLOCK_BYTES = 16;
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int PAGE_SIZE = 4096;
+
+    // keeps the reads of prefault() from being optimized away
+    private static volatile int sPrefaultSink;
+
+    private final int mFormat;
+    private final int mWidth;
+    private final int mHeight;
+    private final int mLevels;
+    private final int[] mOffsets;
+    private final int[] mSizes;
+    private final ByteBuffer[] mData;
+    private final boolean mMapped;
+    private int mNextLevel;
+
+    private CompressedTextureStream(Header header, ByteBuffer[] data, boolean mapped)
+    {
+        mFormat = header.format;
+        mWidth = header.width;
+        mHeight = header.height;
+        mLevels = header.levels;
+        mOffsets = header.offsets;
+        mSizes = header.sizes;
+        mData = data;
+        mMapped = mapped;
+        mNextLevel = mLevels - 1;
+    }
+
+    /**
+     * Open a compressed texture. The stream is not closed.
+     * <p>
+     * A {@link FileInputStream} is memory-mapped and this returns as soon as
+     * the header is parsed; any other stream is read to the end of the
+     * texture first.
+     * @throws IllegalArgumentException if the data is not a KTX or ASTC file
+     */
+    public static CompressedTextureStream open(InputStream stream) throws IOException
+    {
+        if (stream instanceof FileInputStream)
+        {
+            FileChannel channel = ((FileInputStream) stream).getChannel();
+            return open(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        return read(stream);
+    }
+
+    /**
+     * Open a compressed texture which is already in memory, for example a
+     * mapped file. The levels are slices of {@code file}; its position and
+     * limit are not changed.
+     * @throws IllegalArgumentException if the data is not a KTX or ASTC file
+     */
+    public static CompressedTextureStream open(ByteBuffer file)
+    {
+        ByteBuffer buffer = file.duplicate();
+        buffer.position(0);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        Header header = new Header();
+        if (buffer.remaining() < ASTC_HEADER_SIZE)
+        {
+            throw new IllegalArgumentException("Not a compressed texture");
+        }
+        if (header.isAstc(buffer))
+        {
+            header.parseAstc(buffer);
+        }
+        else if (buffer.remaining() >= KTX_HEADER_SIZE && header.isKtx(buffer))
+        {
+            buffer.order(header.parseKtx(buffer));
+            int position = header.dataOffset;
+            for (int level = 0; level < header.levels; ++level)
+            {
+                header.setLevel(level, position + 4, buffer.getInt(position));
+                position = header.nextLevel(level);
+            }
+        }
+        else
+        {
+            throw new IllegalArgumentException("Not a KTX or ASTC file");
+        }
+
+        ByteBuffer[] data = new ByteBuffer[header.levels];
+        for (int level = 0; level < header.levels; ++level)
+        {
+            int start = header.offsets[level];
+            if (start + header.sizes[level] > buffer.capacity())
+            {
+                throw new RuntimeAssertion("Level %d extends past the end of the file", level);
+            }
+            ByteBuffer slice = buffer.duplicate();
+            slice.limit(start + header.sizes[level]);
+            slice.position(start);
+            data[level] = slice.slice();
+        }
+        return new CompressedTextureStream(header, data, file.isDirect());
+    }
+
+    /*
+     * Read a texture from a stream which cannot be mapped, one direct
+     * buffer per level, through one small chunk buffer.
+     */
+    private static CompressedTextureStream read(InputStream stream) throws IOException
+    {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        ByteBuffer header = ByteBuffer.allocate(KTX_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        Header layout = new Header();
+
+        readFully(stream, chunk, header, ASTC_HEADER_SIZE);
+        header.flip();
+        if (layout.isAstc(header))
+        {
+            layout.parseAstc(header);
+        }
+        else
+        {
+            header.limit(header.capacity());
+            header.position(ASTC_HEADER_SIZE);
+            readFully(stream, chunk, header, KTX_HEADER_SIZE - ASTC_HEADER_SIZE);
+            header.flip();
+            if (!layout.isKtx(header))
+            {
+                throw new IllegalArgumentException("Not a KTX or ASTC file");
+            }
+            header.order(layout.parseKtx(header));
+            skipFully(stream, layout.dataOffset - KTX_HEADER_SIZE);
+        }
+
+        ByteBuffer[] data = new ByteBuffer[layout.levels];
+        int position = layout.dataOffset;
+        for (int level = 0; level < layout.levels; ++level)
+        {
+            int size = layout.sizes[level];
+            if (layout.isKtx)
+            {
+                header.clear();
+                readFully(stream, chunk, header, 4);
+                size = header.getInt(0);
+                layout.setLevel(level, position + 4, size);
+            }
+            ByteBuffer levelData = ByteBuffer.allocateDirect(size);
+            readFully(stream, chunk, levelData, size);
+            levelData.flip();
+            data[level] = levelData;
+            if (layout.isKtx)
+            {
+                int next = layout.nextLevel(level);
+                skipFully(stream, next - (position + 4 + size));
+                position = next;
+            }
+        }
+        return new CompressedTextureStream(layout, data, false);
+    }
+
+    /** @return the GL internal format of the texture */
+    public int getFormat()
+    {
+        return mFormat;
+    }
+
+    /** @return pixel width of level 0 */
+    public int getWidth()
+    {
+        return mWidth;
+    }
+
+    /** @return pixel height of level 0 */
+    public int getHeight()
+    {
+        return mHeight;
+    }
+
+    /** @return number of mip-map levels */
+    public int getLevelCount()
+    {
+        return mLevels;
+    }
+
+    /** @return file offset of the data of a level */
+    public int getLevelOffset(int level)
+    {
+        return mOffsets[level];
+    }
+
+    /** @return bytes of compressed data in a level */
+    public int getLevelSize(int level)
+    {
+        return mSizes[level];
+    }
+
+    /** @return pixel width of a level */
+    public int getLevelWidth(int level)
+    {
+        return Math.max(1, mWidth >> level);
+    }
+
+    /** @return pixel height of a level */
+    public int getLevelHeight(int level)
+    {
+        return Math.max(1, mHeight >> level);
+    }
+
+    /**
+     * @return number of levels not published yet
+     */
+    public synchronized int getPendingLevelCount()
+    {
+        return mNextLevel + 1;
+    }
+
+    /**
+     * Publish the next levels, smallest first, until {@code byteBudget} bytes
+     * have been published. At least one level is published if any is left.
+     * @return number of levels still to publish
+     */
+    public synchronized int publish(LevelListener listener, long byteBudget)
+    {
+        long published = 0;
+        while ((mNextLevel >= 0) && ((published == 0) || (published < byteBudget)))
+        {
+            final int level = mNextLevel--;
+            final ByteBuffer data = mData[level];
+            mData[level] = null;
+            if (mMapped)
+            {
+                prefault(data);
+            }
+            listener.onLevel(level, getLevelWidth(level), getLevelHeight(level), data);
+            published += mSizes[level];
+        }
+        return mNextLevel + 1;
+    }
+
+    /**
+     * Create a texture and feed it the levels of this stream. The smallest
+     * levels, up to {@code byteBudget} bytes, are supplied before this
+     * returns; the rest are supplied from a low priority thread.
+     * @param gvrContext GVRContext to create the texture in
+     * @param quality    compression quality
+     * @param byteBudget bytes of level data to supply before returning
+     */
+    public GVRCompressedImage toImage(GVRContext gvrContext, int quality, long byteBudget)
+    {
+        final GVRCompressedImage image = new GVRCompressedImage(gvrContext,
+                mWidth, mHeight, mFormat, mLevels, quality);
+        final LevelListener listener = new LevelListener()
+        {
+            @Override
+            public void onLevel(int level, int width, int height, ByteBuffer data)
+            {
+                image.updateLevel(level, data.isDirect() ? data : copyToDirect(data));
+            }
+        };
+
+        if (publish(listener, byteBudget) > 0)
+        {
+            Threads.spawnLow(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    publish(listener, Long.MAX_VALUE);
+                    Log.d(TAG, "streamed all %d levels of %dx%d texture", mLevels, mWidth, mHeight);
+                }
+            });
+        }
+        return image;
+    }
+
+    private static ByteBuffer copyToDirect(ByteBuffer data)
+    {
+        ByteBuffer copy = ByteBuffer.allocateDirect(data.remaining());
+        copy.put(data.duplicate());
+        copy.flip();
+        return copy;
+    }
+
+    /*
+     * Touch every page so that the disk reads happen here and not in
+     * glCompressedTexImage2D.
+     */
+    private static void prefault(ByteBuffer data)
+    {
+        int sum = 0;
+        for (int i = 0, limit = data.limit(); i < limit; i += PAGE_SIZE)
+        {
+            sum += data.get(i);
+        }
+        sPrefaultSink = sum;
+    }
+
+    private static void readFully(InputStream stream, byte[] chunk, ByteBuffer dest, int bytes)
+            throws IOException
+    {
+        while (bytes > 0)
+        {
+            int read = stream.read(chunk, 0, Math.min(bytes, chunk.length));
+            if (read < 0)
+            {
+                throw new EOFException("Compressed texture is truncated");
+            }
+            dest.put(chunk, 0, read);
+            bytes -= read;
+        }
+    }
+
+    private static void skipFully(InputStream stream, long bytes) throws IOException
+    {
+        while (bytes > 0)
+        {
+            long skipped = stream.skip(bytes);
+            if (skipped <= 0)
+            {
+                if (stream.read() < 0)
+                {
+                    throw new EOFException("Compressed texture is truncated");
+                }
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+
+    /*
+     * What the header says about the levels. The buffers passed in are
+     * little endian and positioned at the start of the file.
+     */
+    private static final class Header
+    {
+        int format;
+        int width;
+        int height;
+        int levels;
+        int dataOffset;
+        int[] offsets;
+        int[] sizes;
+        boolean isKtx;
+
+        boolean isAstc(ByteBuffer buffer)
+        {
+            return buffer.getInt(0) == ASTC_MAGIC;
+        }
+
+        boolean isKtx(ByteBuffer buffer)
+        {
+            for (int i = 0; i < KTX_SIGNATURE.length; ++i)
+            {
+                if (Integer.reverseBytes(buffer.getInt(i * 4)) != KTX_SIGNATURE[i])
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void parseAstc(ByteBuffer buffer)
+        {
+            int blockX = buffer.get(4) & 0xff;
+            int blockY = buffer.get(5) & 0xff;
+            format = AdaptiveScalableTextureCompression.getFormat(blockX, blockY);
+            if (format == 0)
+            {
+                throw new RuntimeAssertion("%dx%d is not a valid ASTC block size", blockX, blockY);
+            }
+            width = read24(buffer, 7);
+            height = read24(buffer, 10);
+            levels = 1;
+            dataOffset = ASTC_HEADER_SIZE;
+            offsets = new int[] { ASTC_HEADER_SIZE };
+            sizes = new int[] { ((width + blockX - 1) / blockX)
+                    * ((height + blockY - 1) / blockY) * ASTC_BLOCK_BYTES };
+        }
+
+        /*
+         * @return byte order of the rest of the file
+         */
+        ByteOrder parseKtx(ByteBuffer buffer)
+        {
+            ByteOrder order;
+            switch (buffer.getInt(KTX_ENDIANNESS_OFFSET))
+            {
+            case 0x04030201:
+                order = ByteOrder.LITTLE_ENDIAN;
+                break;
+            case 0x01020304:
+                order = ByteOrder.BIG_ENDIAN;
+                break;
+            default:
+                throw new RuntimeAssertion("Unexpected KTX endianness");
+            }
+            ByteBuffer fields = buffer.duplicate().order(order);
+            fields.position(KTX_FIELDS_OFFSET);
+            int glType = fields.getInt();
+            fields.getInt();    // glTypeSize
+            int glFormat = fields.getInt();
+            if ((glType != 0) || (glFormat != 0))
+            {
+                throw new RuntimeAssertion("Uncompressed KTX textures are not supported");
+            }
+            format = fields.getInt();
+            fields.getInt();    // glBaseInternalFormat
+            width = fields.getInt();
+            height = fields.getInt();
+            if (fields.getInt() != 0)
+            {
+                throw new RuntimeAssertion("3D textures not supported");
+            }
+            if (fields.getInt() != 0)
+            {
+                throw new RuntimeAssertion("Array textures not supported");
+            }
+            if (fields.getInt() != 1)
+            {
+                throw new RuntimeAssertion("Cube maps not supported");
+            }
+            levels = Math.max(1, fields.getInt());
+            dataOffset = KTX_HEADER_SIZE + fields.getInt();
+            offsets = new int[levels];
+            sizes = new int[levels];
+            isKtx = true;
+            return order;
+        }
+
+        void setLevel(int level, int offset, int size)
+        {
+            if (size < 0)
+            {
+                throw new RuntimeAssertion("Level %d has a bad size %d", level, size);
+            }
+            offsets[level] = offset;
+            sizes[level] = size;
+        }
+
+        /*
+         * KTX levels are preceded by a UInt32 size and padded to 4 bytes.
+         */
+        int nextLevel(int level)
+        {
+            return offsets[level] + ((sizes[level] + 3) & ~3);
+        }
+
+        private static int read24(ByteBuffer buffer, int offset)
+        {
+            return (buffer.get(offset) & 0xff)
+                    | ((buffer.get(offset + 1) & 0xff) << 8)
+                    | ((buffer.get(offset + 2) & 0xff) << 16);
+        }
+    }
+}
@@ -0,0 +1,538 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.asynchronous;
+
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.gearvrf.utility.RecycleBin;
+
+/**
+ * A TGA file decoded to RGBA pixels in a direct buffer.
+ * <p>
+ * The file is read in bulk, then its rows are converted in parallel bands
+ * straight into a direct {@link ByteBuffer}, which can be handed to
+ * {@link org.gearvrf.GVRBitmapImage#setBuffer(int, int, int, int, java.nio.Buffer)
+ * GVRBitmapImage.setBuffer()} with {@code GL_RGBA} and
+ * {@code GL_UNSIGNED_BYTE}: there is no intermediate {@code Bitmap} or
+ * {@code int[]}. The first row of the buffer is the top of the image, as
+ * with a {@code Bitmap}.
+ * <p>
+ * Uncompressed and run-length encoded true color (16, 24 and 32 bits) and
+ * grayscale (8 bits) images are supported; color mapped images are not.
+ * <p>
+ * Every image gets a new pixel buffer: the buffer passed to
+ * {@code setBuffer()} is held until the texture is drawn, so there is no
+ * point at which it could safely be reused. Only the array the file is
+ * read into is pooled. This class only uses the Java runtime, so it can be
+ * run and timed outside of Android.
+ */
+public final class TgaImage
+{
+    private static final int HEADER_SIZE = 18;
+
+    private static final int TYPE_TRUE_COLOR = 2;
+    private static final int TYPE_GRAYSCALE = 3;
+    private static final int TYPE_RLE_TRUE_COLOR = 10;
+    private static final int TYPE_RLE_GRAYSCALE = 11;
+
+    private static final int ALPHA_BITS = 0x0F;
+    private static final int RIGHT_ORIGIN = 0x10;
+    private static final int UPPER_ORIGIN = 0x20;
+
+    private static final int RLE_PACKET = 0x80;
+
+    private static final int READ_CHUNK = 64 * 1024;
+    private static final int MIN_BAND_ROWS = 32;
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static final RecycleBin<byte[]> sFileBin = RecycleBin.<byte[]> soft().synchronize();
+    private static ExecutorService sBandExecutor;
+
+    private final int mWidth;
+    private final int mHeight;
+    private final boolean mHasAlpha;
+    private final ByteBuffer mPixels;
+
+    private TgaImage(int width, int height, boolean hasAlpha, ByteBuffer pixels)
+    {
+        mWidth = width;
+        mHeight = height;
+        mHasAlpha = hasAlpha;
+        mPixels = pixels;
+    }
+
+    /**
+     * Decode a TGA file. The stream is read to the end of the image and
+     * not closed.
+     * @throws IOException if the file is truncated or of an unsupported type
+     */
+    public static TgaImage decode(InputStream stream) throws IOException
+    {
+        int[] length = new int[1];
+        byte[] file = readAll(stream, length);
+        try
+        {
+            return decode(file, length[0]);
+        }
+        finally
+        {
+            sFileBin.put(file);
+        }
+    }
+
+    /**
+     * Decode a TGA file which is already in memory. The array is no longer
+     * read once this returns or throws, so it can be reused.
+     * @param file   the file, starting at index 0
+     * @param length bytes of {@code file} which hold the file
+     * @throws IOException if the file is truncated, corrupt or of an
+     * unsupported type
+     */
+    public static TgaImage decode(byte[] file, int length) throws IOException
+    {
+        if (length < HEADER_SIZE)
+        {
+            throw new EOFException("TGA header is truncated");
+        }
+        final Decoder decoder = new Decoder(file, length);
+        final ByteBuffer pixels = ByteBuffer.allocateDirect(decoder.width * decoder.height * 4);
+
+        final int bands = Math.max(1, Math.min(THREADS, decoder.height / MIN_BAND_ROWS));
+        final List<Future<?>> pending = new ArrayList<Future<?>>(bands - 1);
+        for (int band = 1; band < bands; ++band)
+        {
+            final int first = decoder.height * band / bands;
+            final int last = decoder.height * (band + 1) / bands;
+            pending.add(getExecutor().submit(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    decoder.decodeRows(first, last, pixels.duplicate());
+                }
+            }));
+        }
+        Throwable failure = null;
+        try
+        {
+            decoder.decodeRows(0, decoder.height / bands, pixels.duplicate());
+        }
+        catch (RuntimeException e)
+        {
+            decoder.abandoned = true;
+            failure = e;
+        }
+
+        // every band reads the file, which the caller may reuse as soon as
+        // this returns, so wait for all of them even after a failure
+        boolean interrupted = false;
+        for (Future<?> band : pending)
+        {
+            while (true)
+            {
+                try
+                {
+                    band.get();
+                    break;
+                }
+                catch (InterruptedException e)
+                {
+                    decoder.abandoned = true;
+                    interrupted = true;
+                }
+                catch (ExecutionException e)
+                {
+                    decoder.abandoned = true;
+                    if (failure == null)
+                    {
+                        failure = e.getCause();
+                    }
+                    break;
+                }
+            }
+        }
+        if (failure instanceof Error)
+        {
+            throw (Error) failure;
+        }
+        if (failure != null)
+        {
+            throw new IOException("Corrupt TGA file", failure);
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decoding TGA");
+        }
+        return new TgaImage(decoder.width, decoder.height, decoder.hasAlpha, pixels);
+    }
+
+    public int getWidth()
+    {
+        return mWidth;
+    }
+
+    public int getHeight()
+    {
+        return mHeight;
+    }
+
+    /**
+     * @return {@code true} if the file has an alpha channel. All pixels of
+     * an image without one have an alpha of 255.
+     */
+    public boolean hasAlpha()
+    {
+        return mHasAlpha;
+    }
+
+    /**
+     * @return RGBA pixels, top row first, between position 0 and the limit
+     */
+    public ByteBuffer getPixels()
+    {
+        return mPixels;
+    }
+
+    /*
+     * Read the rest of a stream into a pooled array, sized up front when
+     * the stream is a file.
+     */
+    private static byte[] readAll(InputStream stream, int[] length) throws IOException
+    {
+        int expected = stream.available();
+        if (stream instanceof FileInputStream)
+        {
+            FileChannel channel = ((FileInputStream) stream).getChannel();
+            expected = (int) (channel.size() - channel.position());
+        }
+        byte[] file = sFileBin.get();
+        if ((file == null) || (file.length <= expected))
+        {
+            // one spare byte, so reaching the end does not grow the array
+            file = new byte[Math.max(expected + 1, READ_CHUNK)];
+        }
+
+        int total = 0;
+        for (int read = 0; read >= 0; read = stream.read(file, total, file.length - total))
+        {
+            total += read;
+            if (total == file.length)
+            {
+                byte[] bigger = new byte[file.length * 2];
+                System.arraycopy(file, 0, bigger, 0, total);
+                file = bigger;
+            }
+        }
+        length[0] = total;
+        return file;
+    }
+
+    private static synchronized ExecutorService getExecutor()
+    {
+        if (sBandExecutor == null)
+        {
+            sBandExecutor = Executors.newFixedThreadPool(THREADS, new ThreadFactory()
+            {
+                private final AtomicInteger mCount = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    Thread thread = new Thread(r, "GVRF-TGA-" + mCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sBandExecutor;
+    }
+
+    /*
+     * Header fields and row layout of one file. Immutable once built, so
+     * bands can decode concurrently.
+     */
+    private static final class Decoder
+    {
+        final byte[] file;
+        final int length;
+        final int width;
+        final int height;
+        final int pixelSize;
+        final boolean rle;
+        final boolean hasAlpha;
+        final boolean mirrored;
+        final boolean bottomUp;
+        final int dataStart;
+        // RLE only: where each stored row starts, and how many pixels of
+        // the packet at that position belong to the previous row
+        final int[] rowStart;
+        final int[] rowSkip;
+        // set when a band fails or the caller is interrupted, so the
+        // other bands stop early
+        volatile boolean abandoned;
+
+        Decoder(byte[] file, int length) throws IOException
+        {
+            this.file = file;
+            this.length = length;
+
+            int idLength = file[0] & 0xFF;
+            int colorMapType = file[1] & 0xFF;
+            int type = file[2] & 0xFF;
+            int colorMapLength = u16(5);
+            int colorMapEntryBits = file[7] & 0xFF;
+            width = u16(12);
+            height = u16(14);
+            int depth = file[16] & 0xFF;
+            int descriptor = file[17] & 0xFF;
+
+            rle = (type == TYPE_RLE_TRUE_COLOR) || (type == TYPE_RLE_GRAYSCALE);
+            boolean gray = (type == TYPE_GRAYSCALE) || (type == TYPE_RLE_GRAYSCALE);
+            if (!gray && (type != TYPE_TRUE_COLOR) && (type != TYPE_RLE_TRUE_COLOR))
+            {
+                throw new IOException("Unsupported TGA image type " + type);
+            }
+            if (gray ? (depth != 8) : ((depth != 16) && (depth != 24) && (depth != 32)))
+            {
+                throw new IOException("Unsupported TGA pixel depth " + depth);
+            }
+            pixelSize = depth / 8;
+            hasAlpha = (depth == 32) || ((depth == 16) && ((descriptor & ALPHA_BITS) != 0));
+            mirrored = (descriptor & RIGHT_ORIGIN) != 0;
+            bottomUp = (descriptor & UPPER_ORIGIN) == 0;
+            dataStart = HEADER_SIZE + idLength
+                    + ((colorMapType != 0) ? colorMapLength * ((colorMapEntryBits + 7) / 8) : 0);
+
+            if (rle)
+            {
+                rowStart = new int[height];
+                rowSkip = new int[height];
+                indexRows();
+            }
+            else
+            {
+                rowStart = null;
+                rowSkip = null;
+                if ((long) dataStart + (long) width * height * pixelSize > length)
+                {
+                    throw new EOFException("TGA pixel data is truncated");
+                }
+            }
+        }
+
+        private int u16(int offset)
+        {
+            return (file[offset] & 0xFF) | ((file[offset + 1] & 0xFF) << 8);
+        }
+
+        /*
+         * Walk the packet headers once to find where every row starts.
+         * Packets may run across rows.
+         */
+        private void indexRows() throws IOException
+        {
+            int position = dataStart;
+            int skip = 0;
+            for (int row = 0; row < height; ++row)
+            {
+                rowStart[row] = position;
+                rowSkip[row] = skip;
+                int remaining = width;
+                while (remaining > 0)
+                {
+                    if (position >= length)
+                    {
+                        throw new EOFException("TGA pixel data is truncated");
+                    }
+                    int header = file[position] & 0xFF;
+                    int count = (header & ~RLE_PACKET) + 1;
+                    int take = Math.min(count - skip, remaining);
+                    remaining -= take;
+                    skip += take;
+                    if (skip == count)
+                    {
+                        position += 1 + (((header & RLE_PACKET) != 0) ? pixelSize : count * pixelSize);
+                        skip = 0;
+                    }
+                }
+            }
+            if (position > length)
+            {
+                throw new EOFException("TGA pixel data is truncated");
+            }
+        }
+
+        /*
+         * Convert stored rows [first, last) into the matching rows of
+         * the output.
+         */
+        void decodeRows(int first, int last, ByteBuffer pixels)
+        {
+            final int rowBytes = width * 4;
+            final byte[] row = new byte[rowBytes];
+
+            for (int stored = first; (stored < last) && !abandoned; ++stored)
+            {
+                if (rle)
+                {
+                    decodeRleRow(stored, row);
+                }
+                else
+                {
+                    convert(dataStart + stored * width * pixelSize, row, 0, width);
+                }
+                if (mirrored)
+                {
+                    mirror(row);
+                }
+                int y = bottomUp ? (height - 1 - stored) : stored;
+                pixels.position(y * rowBytes);
+                pixels.put(row, 0, rowBytes);
+            }
+        }
+
+        private void decodeRleRow(int stored, byte[] row)
+        {
+            int position = rowStart[stored];
+            int skip = rowSkip[stored];
+            int x = 0;
+            while (x < width)
+            {
+                int header = file[position] & 0xFF;
+                int count = (header & ~RLE_PACKET) + 1;
+                int take = Math.min(count - skip, width - x);
+                if ((header & RLE_PACKET) != 0)
+                {
+                    convert(position + 1, row, x * 4, 1);
+                    fill(row, x * 4, take);
+                    if (skip + take == count)
+                    {
+                        position += 1 + pixelSize;
+                    }
+                }
+                else
+                {
+                    convert(position + 1 + skip * pixelSize, row, x * 4, take);
+                    if (skip + take == count)
+                    {
+                        position += 1 + count * pixelSize;
+                    }
+                }
+                x += take;
+                skip = 0;
+            }
+        }
+
+        /*
+         * Expand count stored pixels to RGBA. One loop per depth keeps
+         * the inner loops free of branches.
+         */
+        private void convert(int src, byte[] dst, int d, int count)
+        {
+            final byte[] f = file;
+            final int end = d + count * 4;
+            switch (pixelSize)
+            {
+            case 4:
+                for (; d < end; d += 4, src += 4)
+                {
+                    dst[d] = f[src + 2];
+                    dst[d + 1] = f[src + 1];
+                    dst[d + 2] = f[src];
+                    dst[d + 3] = f[src + 3];
+                }
+                break;
+
+            case 3:
+                for (; d < end; d += 4, src += 3)
+                {
+                    dst[d] = f[src + 2];
+                    dst[d + 1] = f[src + 1];
+                    dst[d + 2] = f[src];
+                    dst[d + 3] = (byte) 0xFF;
+                }
+                break;
+
+            case 2:
+                for (; d < end; d += 4, src += 2)
+                {
+                    int v = (f[src] & 0xFF) | ((f[src + 1] & 0xFF) << 8);
+                    int r = (v >> 10) & 0x1F;
+                    int g = (v >> 5) & 0x1F;
+                    int b = v & 0x1F;
+                    dst[d] = (byte) ((r << 3) | (r >> 2));
+                    dst[d + 1] = (byte) ((g << 3) | (g >> 2));
+                    dst[d + 2] = (byte) ((b << 3) | (b >> 2));
+                    dst[d + 3] = (!hasAlpha || ((v & 0x8000) != 0)) ? (byte) 0xFF : 0;
+                }
+                break;
+
+            default:
+                for (; d < end; d += 4, ++src)
+                {
+                    byte gray = f[src];
+                    dst[d] = gray;
+                    dst[d + 1] = gray;
+                    dst[d + 2] = gray;
+                    dst[d + 3] = (byte) 0xFF;
+                }
+                break;
+            }
+        }
+
+        /*
+         * Copy the pixel at d over the count - 1 pixels after it.
+         */
+        private static void fill(byte[] row, int d, int count)
+        {
+            int filled = 1;
+            while (filled < count)
+            {
+                int copy = Math.min(filled, count - filled);
+                System.arraycopy(row, d, row, d + filled * 4, copy * 4);
+                filled += copy;
+            }
+        }
+
+        private static void mirror(byte[] row)
+        {
+            for (int l = 0, r = row.length - 4; l < r; l += 4, r -= 4)
+            {
+                for (int i = 0; i < 4; ++i)
+                {
+                    byte t = row[l + i];
+                    row[l + i] = row[r + i];
+                    row[r + i] = t;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,376 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Breaks frames into phases and keeps a latency histogram of each.
+ * <p>
+ * Code brackets a phase with {@link #begin()} and {@link #end(int, long)}.
+ * Each bracket is one sample. Samples go into a ring owned by the thread
+ * that records them, so recording takes no lock and allocates nothing
+ * once the thread has its ring. The rings are drained into a
+ * {@link GVRLatencyHistogram} per phase every few frames, and whenever
+ * results are asked for.
+ * <p>
+ * The native renderer reports culling, sorting and draw submission as one
+ * sample per frame each. Culling includes the shadow map passes. The
+ * frame listener phase includes animation, picking and physics sync when
+ * they run as frame listeners; those are also reported on their own.
+ * Likewise the controller phase includes the picking done by cursor
+ * controllers, which the picking phase also counts.
+ * <p>
+ * Profiling is off by default and then costs one volatile read per
+ * bracket. Use the <code>profile</code> command of the {@link DebugServer}
+ * shell, or {@link #setEnabled(boolean)}.
+ */
+public final class GVRFrameProfiler
+{
+    /** From the start of the frame update to the end of rendering. */
+    public static final int PHASE_FRAME = 0;
+    /** Tasks queued with {@link org.gearvrf.GVRContext#runOnGlThread(Runnable)}. */
+    public static final int PHASE_GL_TASKS = 1;
+    /** All {@link org.gearvrf.GVRDrawFrameListener}s. */
+    public static final int PHASE_FRAME_LISTENERS = 2;
+    /** {@link org.gearvrf.GVRMain#onStep()} */
+    public static final int PHASE_ON_STEP = 3;
+    /** The animation engine stepping its animations. */
+    public static final int PHASE_ANIMATION = 4;
+    /** Pickers, including those run by cursor controllers. */
+    public static final int PHASE_PICKING = 5;
+    /** Copying physics results to the scene graph. */
+    public static final int PHASE_PHYSICS_SYNC = 6;
+    /** Updating the input controllers once per frame. */
+    public static final int PHASE_CONTROLLERS = 7;
+    /** Native view frustum and occlusion culling. */
+    public static final int PHASE_CULL = 8;
+    /** Native sorting of the render list. */
+    public static final int PHASE_SORT = 9;
+    /** Native draw call submission. */
+    public static final int PHASE_DRAW = 10;
+
+    public static final int NUM_PHASES = 11;
+
+    private static final String[] PHASE_NAMES = {
+            "frame", "gl tasks", "frame listeners", "onStep", "animation",
+            "picking", "physics sync", "controllers", "cull", "sort", "draw"
+    };
+
+    private static final int FIRST_NATIVE_PHASE = PHASE_CULL;
+    private static final int NUM_NATIVE_PHASES = NUM_PHASES - FIRST_NATIVE_PHASE;
+    private static final int RING_SIZE = 1024;
+    private static final int COLLECT_INTERVAL = 30;
+
+    private static volatile boolean sEnabled;
+    private static final CopyOnWriteArrayList<Ring> sRings = new CopyOnWriteArrayList<Ring>();
+    private static final ThreadLocal<Ring> sLocalRing = new ThreadLocal<Ring>() {
+        @Override
+        protected Ring initialValue() {
+            Ring ring = new Ring(Thread.currentThread());
+            sRings.add(ring);
+            return ring;
+        }
+    };
+
+    // guarded by sLock
+    private static final ReentrantLock sLock = new ReentrantLock();
+    private static final GVRLatencyHistogram[] sHistograms = new GVRLatencyHistogram[NUM_PHASES];
+
+    // GL thread only
+    private static final long[] sNativeNanos = new long[NUM_NATIVE_PHASES];
+    private static long sFrameStart;
+    private static int sFramesSinceCollect;
+
+    static
+    {
+        for (int i = 0; i < NUM_PHASES; ++i)
+        {
+            sHistograms[i] = new GVRLatencyHistogram();
+        }
+    }
+
+    private GVRFrameProfiler()
+    {
+    }
+
+    /**
+     * Turn profiling on or off. Turning it on does not clear earlier
+     * results, use {@link #reset()} for that.
+     */
+    public static void setEnabled(boolean enabled)
+    {
+        if (enabled != sEnabled)
+        {
+            NativeFrameProfiler.setEnabled(enabled);
+            sEnabled = enabled;
+        }
+    }
+
+    public static boolean isEnabled()
+    {
+        return sEnabled;
+    }
+
+    /**
+     * Start timing a phase.
+     * @return start time to pass to {@link #end(int, long)},
+     * 0 if profiling is off
+     */
+    public static long begin()
+    {
+        return sEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Finish timing a phase started with {@link #begin()}.
+     * @param phase one of the PHASE_ constants
+     * @param start value returned by {@link #begin()}
+     */
+    public static void end(int phase, long start)
+    {
+        if (start != 0)
+        {
+            sLocalRing.get().add(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Mark the start of a frame. GL thread only.
+     */
+    public static void beginFrame()
+    {
+        sFrameStart = begin();
+    }
+
+    /**
+     * Mark the end of a frame, after the eyes have been rendered.
+     * Picks up the native phases of the frame. GL thread only.
+     */
+    public static void endFrame()
+    {
+        if (sFrameStart == 0)
+        {
+            return;
+        }
+        end(PHASE_FRAME, sFrameStart);
+        sFrameStart = 0;
+
+        NativeFrameProfiler.readPhases(sNativeNanos);
+        final Ring ring = sLocalRing.get();
+        for (int i = 0; i < NUM_NATIVE_PHASES; ++i)
+        {
+            if (sNativeNanos[i] > 0)
+            {
+                ring.add(FIRST_NATIVE_PHASE + i, sNativeNanos[i]);
+            }
+        }
+        if ((++sFramesSinceCollect >= COLLECT_INTERVAL) && sLock.tryLock())
+        {
+            // skip it if someone is reading the results, they collect anyway
+            try
+            {
+                drain();
+            }
+            finally
+            {
+                sLock.unlock();
+            }
+            sFramesSinceCollect = 0;
+        }
+    }
+
+    /**
+     * @return name of a phase, as shown by {@link #report()}
+     */
+    public static String getPhaseName(int phase)
+    {
+        return PHASE_NAMES[phase];
+    }
+
+    /**
+     * Get a copy of the histogram of a phase, with all the samples
+     * recorded so far.
+     * @param phase one of the PHASE_ constants
+     */
+    public static GVRLatencyHistogram getHistogram(int phase)
+    {
+        GVRLatencyHistogram copy = new GVRLatencyHistogram();
+        sLock.lock();
+        try
+        {
+            drain();
+            copy.add(sHistograms[phase]);
+        }
+        finally
+        {
+            sLock.unlock();
+        }
+        return copy;
+    }
+
+    /**
+     * @return number of samples lost because a thread recorded them
+     * faster than they were collected
+     */
+    public static long getDroppedCount()
+    {
+        long dropped = 0;
+        for (Ring ring : sRings)
+        {
+            dropped += ring.mDropped;
+        }
+        return dropped;
+    }
+
+    /**
+     * Discard the results so far.
+     */
+    public static void reset()
+    {
+        sLock.lock();
+        try
+        {
+            drain();
+            for (GVRLatencyHistogram histogram : sHistograms)
+            {
+                histogram.reset();
+            }
+        }
+        finally
+        {
+            sLock.unlock();
+        }
+    }
+
+    /**
+     * @return a table with the sample count and the median, 99th
+     * percentile and maximum of each phase, in microseconds
+     */
+    public static String report()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "%-16s %8s %9s %9s %9s%n",
+                                "phase", "count", "p50 us", "p99 us", "max us"));
+        sLock.lock();
+        try
+        {
+            drain();
+            for (int i = 0; i < NUM_PHASES; ++i)
+            {
+                GVRLatencyHistogram h = sHistograms[i];
+                sb.append(String.format(Locale.US, "%-16s %8d %9.1f %9.1f %9.1f%n",
+                                        PHASE_NAMES[i], h.getCount(),
+                                        h.getValueAtPercentile(50) / 1000.0,
+                                        h.getValueAtPercentile(99) / 1000.0,
+                                        h.getMax() / 1000.0));
+            }
+        }
+        finally
+        {
+            sLock.unlock();
+        }
+        final long dropped = getDroppedCount();
+        if (dropped > 0)
+        {
+            sb.append("dropped samples: ").append(dropped).append('\n');
+        }
+        if (!sEnabled)
+        {
+            sb.append("profiling is off\n");
+        }
+        return sb.toString();
+    }
+
+    /*
+     * Move the samples of every ring into the histograms.
+     * Called with sLock held.
+     */
+    private static void drain()
+    {
+        for (Ring ring : sRings)
+        {
+            ring.drainTo(sHistograms);
+            if (ring.isOrphaned())
+            {
+                sRings.remove(ring);
+            }
+        }
+    }
+
+    /**
+     * Samples of one thread. The owning thread writes, the thread holding
+     * sLock reads.
+     */
+    private static final class Ring
+    {
+        private final int[] mPhases = new int[RING_SIZE];
+        private final long[] mNanos = new long[RING_SIZE];
+        private final AtomicLong mWritten = new AtomicLong();
+        private final AtomicLong mRead = new AtomicLong();
+        private final WeakReference<Thread> mThread;
+        private long mNext;                 // owner only
+        private volatile long mDropped;
+
+        Ring(Thread owner)
+        {
+            mThread = new WeakReference<Thread>(owner);
+        }
+
+        void add(int phase, long nanos)
+        {
+            final long next = mNext;
+            if (next - mRead.get() >= RING_SIZE)
+            {
+                ++mDropped;
+                return;
+            }
+            final int i = (int) (next & (RING_SIZE - 1));
+            mPhases[i] = phase;
+            mNanos[i] = nanos;
+            mNext = next + 1;
+            mWritten.lazySet(next + 1);
+        }
+
+        void drainTo(GVRLatencyHistogram[] histograms)
+        {
+            final long end = mWritten.get();
+            for (long n = mRead.get(); n < end; ++n)
+            {
+                final int i = (int) (n & (RING_SIZE - 1));
+                histograms[mPhases[i]].record(mNanos[i]);
+            }
+            mRead.lazySet(end);
+        }
+
+        boolean isOrphaned()
+        {
+            final Thread owner = mThread.get();
+            return ((owner == null) || !owner.isAlive()) && (mWritten.get() == mRead.get());
+        }
+    }
+}
+
+class NativeFrameProfiler
+{
+    static native void setEnabled(boolean enabled);
+
+    static native void readPhases(long[] nanos);
+}
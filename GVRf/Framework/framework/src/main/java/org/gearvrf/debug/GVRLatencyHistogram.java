@@ -0,0 +1,177 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.debug;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of durations in nanoseconds with a fixed relative precision,
+ * used to report percentiles.
+ * <p>
+ * Values below 64 have their own bucket. Above that every power of two
+ * is split into 32 buckets, so a reported value is within about 3% of
+ * the recorded ones, whatever their magnitude. Recording is a few integer
+ * operations and never allocates. The histogram is not thread safe.
+ */
+public final class GVRLatencyHistogram
+{
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int LINEAR_COUNT = SUB_COUNT * 2;
+    private static final int MAX_EXPONENT = 40; // about 18 minutes
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT =
+            LINEAR_COUNT + (MAX_EXPONENT - SUB_BITS) * SUB_COUNT;
+
+    private final long[] mCounts = new long[BUCKET_COUNT];
+    private long mTotalCount;
+    private long mTotal;
+    private long mMin = Long.MAX_VALUE;
+    private long mMax;
+
+    /**
+     * Add a value.
+     * @param nanos duration, negative values count as 0
+     */
+    public void record(long nanos)
+    {
+        if (nanos < 0)
+        {
+            nanos = 0;
+        }
+        else if (nanos > MAX_VALUE)
+        {
+            nanos = MAX_VALUE;
+        }
+        ++mCounts[bucketOf(nanos)];
+        ++mTotalCount;
+        mTotal += nanos;
+        if (nanos < mMin)
+        {
+            mMin = nanos;
+        }
+        if (nanos > mMax)
+        {
+            mMax = nanos;
+        }
+    }
+
+    /**
+     * Add all the values of another histogram.
+     */
+    public void add(GVRLatencyHistogram other)
+    {
+        for (int i = 0; i < BUCKET_COUNT; ++i)
+        {
+            mCounts[i] += other.mCounts[i];
+        }
+        mTotalCount += other.mTotalCount;
+        mTotal += other.mTotal;
+        mMin = Math.min(mMin, other.mMin);
+        mMax = Math.max(mMax, other.mMax);
+    }
+
+    public void reset()
+    {
+        Arrays.fill(mCounts, 0);
+        mTotalCount = 0;
+        mTotal = 0;
+        mMin = Long.MAX_VALUE;
+        mMax = 0;
+    }
+
+    /**
+     * @return number of recorded values
+     */
+    public long getCount()
+    {
+        return mTotalCount;
+    }
+
+    /**
+     * @return smallest recorded value, 0 if there is none
+     */
+    public long getMin()
+    {
+        return (mTotalCount > 0) ? mMin : 0;
+    }
+
+    /**
+     * @return largest recorded value, 0 if there is none
+     */
+    public long getMax()
+    {
+        return mMax;
+    }
+
+    /**
+     * @return average of the recorded values, 0 if there is none
+     */
+    public long getMean()
+    {
+        return (mTotalCount > 0) ? (mTotal / mTotalCount) : 0;
+    }
+
+    /**
+     * Get the value below which a percentage of the recorded values fall.
+     * @param percentile between 0 and 100, for example 50 for the median
+     * @return the highest value equivalent to the bucket the percentile
+     * falls into, 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        if (mTotalCount == 0)
+        {
+            return 0;
+        }
+        percentile = Math.max(0.0, Math.min(percentile, 100.0));
+        long target = Math.max(1, (long) Math.ceil(percentile * mTotalCount / 100.0));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; ++i)
+        {
+            seen += mCounts[i];
+            if (seen >= target)
+            {
+                return Math.min(highestOf(i), mMax);
+            }
+        }
+        return mMax;
+    }
+
+    private static int bucketOf(long value)
+    {
+        if (value < LINEAR_COUNT)
+        {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int mantissa = (int) (value >>> (exponent - SUB_BITS));  // SUB_COUNT..2*SUB_COUNT-1
+        return LINEAR_COUNT + (exponent - SUB_BITS - 1) * SUB_COUNT + (mantissa - SUB_COUNT);
+    }
+
+    private static long highestOf(int bucket)
+    {
+        if (bucket < LINEAR_COUNT)
+        {
+            return bucket;
+        }
+        final int k = bucket - LINEAR_COUNT;
+        final int shift = k / SUB_COUNT + 1;
+        final long mantissa = (k % SUB_COUNT) + SUB_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -23,6 +23,7 @@ import org.gearvrf.GVRContext;
 import org.gearvrf.GVRVersion;
 import org.gearvrf.debug.cli.Command;
 import org.gearvrf.debug.cli.HelpCommandHandler;
+import org.gearvrf.debug.cli.Param;
 import org.gearvrf.debug.cli.Shell;
 import org.gearvrf.debug.cli.ShellDependent;
 import org.gearvrf.script.IScriptManager;
@@ -69,6 +70,27 @@ public class ShellCommandHandler implements ShellDependent {
         return GVRVersion.CURRENT;
     }
 
+    @Command(description = "Show the frame phase timings")
+    public String profile() {
+        return GVRFrameProfiler.report();
+    }
+
+    @Command(description = "Frame profiler: on, off or reset")
+    public String profile(
+            @Param(name = "action", description = "on, off or reset") String action) {
+        if ("on".equals(action)) {
+            GVRFrameProfiler.setEnabled(true);
+            return "profiling on";
+        } else if ("off".equals(action)) {
+            GVRFrameProfiler.setEnabled(false);
+            return "profiling off";
+        } else if ("reset".equals(action)) {
+            GVRFrameProfiler.reset();
+            return "profile cleared";
+        }
+        return "unknown action " + action + ", use on, off or reset";
+    }
+
     @Command
     public Object help() {
         return mHelpHandler.help();
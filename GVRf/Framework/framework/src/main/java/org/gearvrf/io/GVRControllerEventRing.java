@@ -0,0 +1,152 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.io;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed size ring of reusable input event records, handed from the
+ * thread which reads a controller to the thread which dispatches its
+ * events without locks or allocation.
+ * <p>
+ * There is one writer and one reader. The writer fills the record
+ * returned by {@link #claim()} and makes it visible with
+ * {@link #publish()}; the reader walks the published records with
+ * {@link #read(Reader)}. Records are only valid inside the
+ * {@link Reader#onRecord(Record)} callback; they are reused afterwards.
+ * If the reader falls behind and the ring is full, new records are
+ * dropped and counted by {@link #getDroppedCount()}.
+ */
+public final class GVRControllerEventRing
+{
+    /** {@link Record#type} of a button transition. */
+    public static final int TYPE_KEY = 0;
+    /** {@link Record#type} of a touchpad or pointer event. */
+    public static final int TYPE_MOTION = 1;
+
+    /**
+     * One input event, stored as primitives.
+     */
+    public static final class Record
+    {
+        /** {@link #TYPE_KEY} or {@link #TYPE_MOTION} */
+        public int type;
+        /** KeyEvent or MotionEvent action */
+        public int action;
+        /** KeyEvent key code, for {@link #TYPE_KEY} */
+        public int keyCode;
+        /** MotionEvent button state, for {@link #TYPE_MOTION} */
+        public int buttonState;
+        public float x;
+        public float y;
+        /** uptime of the matching down event in milliseconds */
+        public long downTime;
+        /** uptime of this event in milliseconds */
+        public long eventTime;
+    }
+
+    /**
+     * Receives the published records.
+     */
+    public interface Reader
+    {
+        void onRecord(Record record);
+    }
+
+    private final Record[] mRecords;
+    private final int mMask;
+    private final AtomicLong mWritten = new AtomicLong();  // published by the writer
+    private final AtomicLong mRead = new AtomicLong();     // released by the reader
+    private long mClaimed;                                 // writer only
+    private volatile long mDropped;
+
+    /**
+     * @param capacity number of records, rounded up to a power of two
+     */
+    public GVRControllerEventRing(int capacity)
+    {
+        int size = 1;
+        while (size < capacity)
+        {
+            size <<= 1;
+        }
+        mRecords = new Record[size];
+        for (int i = 0; i < size; ++i)
+        {
+            mRecords[i] = new Record();
+        }
+        mMask = size - 1;
+        mClaimed = 0;
+    }
+
+    /**
+     * Get the next free record. Writer thread only.
+     * @return record to fill in, or null if the ring is full
+     */
+    public Record claim()
+    {
+        if (mClaimed - mRead.get() >= mRecords.length)
+        {
+            ++mDropped;
+            return null;
+        }
+        return mRecords[(int) (mClaimed++ & mMask)];
+    }
+
+    /**
+     * Make the records claimed so far visible to the reader.
+     * Writer thread only.
+     */
+    public void publish()
+    {
+        mWritten.lazySet(mClaimed);
+    }
+
+    /**
+     * Pass every published record to a reader and release them.
+     * Reader thread only.
+     * @param reader called once per record, in order
+     * @return number of records read
+     */
+    public int read(Reader reader)
+    {
+        final long start = mRead.get();
+        final long end = mWritten.get();
+
+        for (long i = start; i < end; ++i)
+        {
+            reader.onRecord(mRecords[(int) (i & mMask)]);
+        }
+        mRead.lazySet(end);
+        return (int) (end - start);
+    }
+
+    /**
+     * @return number of records waiting to be read
+     */
+    public int size()
+    {
+        return (int) (mWritten.get() - mRead.get());
+    }
+
+    /**
+     * @return number of records dropped because the ring was full
+     */
+    public long getDroppedCount()
+    {
+        return mDropped;
+    }
+}
@@ -582,10 +582,11 @@ public abstract class GVRCursorController implements IEventReceiver
      * {@link IControllerEvent} or the {@link ISensorEvents} listener to
      * query for the {@link MotionEvent}s whenever a a callback is made.
      *
-     * The {@link MotionEvent}s reported would be valid for the lifetime of that
-     * callback and would be recycled and reset on completion. Make use to the
-     * {@link MotionEvent#obtain(MotionEvent)} to clone a copy of the
-     * {@link MotionEvent}.
+     * The {@link MotionEvent}s are only valid until that callback returns:
+     * the controller may recycle them right after, and reuse them for other
+     * events. Do not keep them, or hand them to another thread; use
+     * {@link MotionEvent#obtain(MotionEvent)} to keep a copy instead, and
+     * recycle the copy when done with it.
      *
      * @return a list of {@link MotionEvent}s processed by the
      * {@link GVRCursorController} .
@@ -606,10 +607,11 @@ public abstract class GVRCursorController implements IEventReceiver
      * {@link IControllerEvent} or the {@link ISensorEvents} listener to
      * query for the {@link MotionEvent} whenever a a callback is made.
      *
-     * The {@link MotionEvent} would be valid for the lifetime of that callback
-     * and would be recycled and reset to null on completion. Make use to the
-     * {@link MotionEvent#obtain(MotionEvent)} to clone a copy of the
-     * {@link MotionEvent}.
+     * The {@link MotionEvent} is only valid until that callback returns: the
+     * controller may recycle it right after, and reuse it for another event.
+     * Do not keep it, or hand it to another thread; use
+     * {@link MotionEvent#obtain(MotionEvent)} to keep a copy instead, and
+     * recycle the copy when done with it.
      *
      * @return the latest {@link MotionEvent} processed by the
      * {@link GVRCursorController} or null.
@@ -1068,16 +1070,18 @@ public abstract class GVRCursorController implements IEventReceiver
         public ControllerPick(GVRPicker picker, MotionEvent event, boolean active)
         {
             mPicker = picker;
+            set(event, active);
+        }
+
+        /**
+         * Reuse this pick for another event. Only valid once
+         * the previous pick has run.
+         */
+        public void set(MotionEvent event, boolean active)
+        {
             mEvent = event;
             mActive = active;
-            if (!mPicker.isEnabled())
-            {
-                mDoPick = true;
-            }
-            else if (mEvent != null)
-            {
-                mDoPick = true;
-            }
+            mDoPick = !mPicker.isEnabled() || (mEvent != null);
         }
 
         public void run()
@@ -1131,13 +1135,17 @@ public abstract class GVRCursorController implements IEventReceiver
     {
         boolean hasEvents = false;
         // set the newly received key and motion events.
+        // the processed lists are empty here, swapping avoids a copy
         synchronized (eventLock)
         {
+            final List<KeyEvent> keys = processedKeyEvent;
+            final List<MotionEvent> motions = processedMotionEvent;
+
             hasEvents = (keyEvent.size() > 0) || (motionEvent.size() > 0);
-            processedKeyEvent.addAll(keyEvent);
-            keyEvent.clear();
-            processedMotionEvent.addAll(motionEvent);
-            motionEvent.clear();
+            processedKeyEvent = keyEvent;
+            keyEvent = keys;
+            processedMotionEvent = motionEvent;
+            motionEvent = motions;
         }
         previousActive = active;
         if ((scene != null) && (mPicker != null))
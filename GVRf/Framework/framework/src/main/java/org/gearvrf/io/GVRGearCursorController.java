@@ -41,10 +41,10 @@ import org.joml.Vector3f;
 import org.joml.Vector4f;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.Iterator;
-import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 /**
@@ -95,6 +95,38 @@ public final class GVRGearCursorController extends GVRCursorController
         String getModelFileName();
     }
 
+    /**
+     * A reader which can correct the cursor natively with a newer
+     * controller pose just before the eyes are rendered, after the
+     * pose read in {@link GVRGearCursorController#pollController()} has
+     * been used for picking.
+     */
+    public interface LateLatchReader extends ControllerReader
+    {
+        /**
+         * Set the scene object whose transform follows the controller.
+         * Its transform holds the camera rig pose combined with the
+         * controller rotation passed to {@link #onPoseApplied}.
+         * The target is cleared whenever the controller is disabled or
+         * leaves its scene, so a reader never keeps a pivot which is no
+         * longer drawn.
+         * @param pivot scene object to update, null to stop late latching
+         * @param index controller index
+         */
+        void setLateLatchTarget(GVRSceneObject pivot, int index);
+
+        /**
+         * Called once the pose read through this reader is in the late
+         * latch target, with the rotation actually applied: the predicted
+         * one when {@linkplain #setPredictionInterval(float) prediction} is
+         * on. The late latch replaces this rotation, and only latches
+         * frames for which this was called.
+         * @param rotation controller rotation in the target
+         * @param index    controller index
+         */
+        void onPoseApplied(Quaternionf rotation, int index);
+    }
+
     public static class ControllerReaderStubs implements ControllerReader
     {
         @Override
@@ -224,6 +256,12 @@ public final class GVRGearCursorController extends GVRCursorController
     private int prevButtonVolumeDown = KeyEvent.ACTION_UP;
     private int prevButtonHome = KeyEvent.ACTION_UP;
     private ControllerEvent currentControllerEvent;
+    private final GVRControllerEventRing mEventRing = new GVRControllerEventRing(EVENT_RING_SIZE);
+    private final ControllerPick mControllerPick;
+    // motion events this controller obtained, recycled once processed
+    private final ArrayList<MotionEvent> mOwnedMotionEvents = new ArrayList<MotionEvent>();
+    private final GVRPosePredictor mPredictor = new GVRPosePredictor(0.0f);
+    private static final int EVENT_RING_SIZE = 64;
 
     public GVRGearCursorController(GVRContext context, int id)
     {
@@ -242,12 +280,54 @@ public final class GVRGearCursorController extends GVRCursorController
         properties.toolType = MotionEvent.TOOL_TYPE_FINGER;
         pointerPropertiesArray = new MotionEvent.PointerProperties[]{properties};
         pointerCoordsArray = new MotionEvent.PointerCoords[]{pointerCoords};
-        mPropagateEvents = new SendEvents(context);
+        mControllerPick = new ControllerPick(mPicker, null, false);
+        mPropagateEvents = new SendEvents(context, mEventRing);
     }
 
     public void attachReader(ControllerReader reader)
     {
+        if (mControllerReader instanceof LateLatchReader)
+        {
+            ((LateLatchReader) mControllerReader).setLateLatchTarget(null, controllerID);
+        }
         mControllerReader = reader;
+        updateLateLatchTarget();
+    }
+
+    /*
+     * Latch the pivot only while it is in a scene and moved by this
+     * controller, the native side holds it by pointer.
+     */
+    private void updateLateLatchTarget()
+    {
+        if (mControllerReader instanceof LateLatchReader)
+        {
+            boolean latch = (scene != null) && isEnabled();
+            ((LateLatchReader) mControllerReader).setLateLatchTarget(latch ? mPivotRoot : null,
+                                                                     controllerID);
+        }
+    }
+
+    /**
+     * Predict the controller orientation ahead by a fixed interval,
+     * from the angular velocity and acceleration the reader reports.
+     * Use it with readers which sample the current pose rather than the
+     * pose at display time. It is off by default.
+     * @param seconds time from sampling the controller to the frame
+     *                being displayed, 0 to turn prediction off
+     * @see GVRPosePredictor
+     */
+    public void setPredictionInterval(float seconds)
+    {
+        mPredictor.setInterval(seconds);
+    }
+
+    /**
+     * @return prediction interval in seconds, 0 if prediction is off
+     */
+    public float getPredictionInterval()
+    {
+        return mPredictor.getInterval();
     }
 
     /**
@@ -259,6 +339,28 @@ public final class GVRGearCursorController extends GVRCursorController
      */
     public int getControllerID() { return controllerID; }
 
+    /**
+     * Add a listener which sees the key and touchpad events of this
+     * controller as {@link GVRControllerEventRing.Record}s, before they
+     * are dispatched as Android events. It is called on the UI thread.
+     * The record is reused once the call returns, so copy any field
+     * that must be kept.
+     * @param reader listener to add
+     */
+    public void addEventRecordListener(GVRControllerEventRing.Reader reader)
+    {
+        mPropagateEvents.addListener(reader);
+    }
+
+    /**
+     * Remove a listener added with {@link #addEventRecordListener}.
+     * @param reader listener to remove
+     */
+    public void removeEventRecordListener(GVRControllerEventRing.Reader reader)
+    {
+        mPropagateEvents.removeListener(reader);
+    }
+
     /**
      * Show or hide the controller model and picking ray.
      * <p>
@@ -373,6 +475,7 @@ public final class GVRGearCursorController extends GVRCursorController
     {
         super.setEnable(flag);
         mControllerGroup.setEnable(flag);
+        updateLateLatchTarget();
     }
 
     private void createControllerModel()
@@ -424,6 +527,7 @@ public final class GVRGearCursorController extends GVRCursorController
             if (scene != null) {
                 scene.addSceneObject(mPivotRoot);
             }
+            updateLateLatchTarget();
         }
         showControllerModel(mShowControllerModel);
     }
@@ -449,6 +553,11 @@ public final class GVRGearCursorController extends GVRCursorController
             mControllerReader.updatePosition(event.position,controllerID);
             mControllerReader.updateAngularAcceleration(event.angularAcceleration,controllerID);
             mControllerReader.updateAngularVelocity(event.angularVelocity,controllerID);
+            if (mPredictor.getInterval() > 0.0f)
+            {
+                mPredictor.predict(event.rotation, event.angularVelocity,
+                                   event.angularAcceleration, event.rotation);
+            }
             event.touched = mControllerReader.isTouched(controllerID);
             event.key = mControllerReader.getKey(controllerID);
             event.handedness = mControllerReader.getHandedness();
@@ -539,8 +648,9 @@ public final class GVRGearCursorController extends GVRCursorController
     protected void updatePicker(MotionEvent event, boolean isActive)
     {
         MotionEvent newEvent = (event != null) ? MotionEvent.obtain(event) : null;
-        final ControllerPick controllerPick = new ControllerPick(mPicker, newEvent,isActive);
-        controllerPick.run();
+        // picking runs right here, so one ControllerPick can be reused
+        mControllerPick.set(newEvent, isActive);
+        mControllerPick.run();
     }
 
     private void handleControllerEvent(final ControllerEvent event)
@@ -570,6 +680,10 @@ public final class GVRGearCursorController extends GVRCursorController
         mTempPivotMtx.setTranslation(x, y, z);
         synchronized (mPivotRoot) {
             mPivotRoot.getTransform().setModelMatrix(mTempPivotMtx);
+            if (mControllerReader instanceof LateLatchReader)
+            {
+                ((LateLatchReader) mControllerReader).onPoseApplied(q, controllerID);
+            }
         }
         setOrigin(x, y, z);
 
@@ -595,12 +709,66 @@ public final class GVRGearCursorController extends GVRCursorController
                                     prevButtonHome, KeyEvent.KEYCODE_HOME);
         prevButtonHome = handleResult == -1 ? prevButtonHome : handleResult;
         event.recycle();
-        if (keyEvent.size() > 0 || motionEvent.size() > 0)
+        mEventRing.publish();
+        if (mEventRing.size() > 0)
         {
-            mPropagateEvents.init(keyEvent, motionEvent);
-            getGVRContext().getActivity().runOnUiThread(mPropagateEvents);
+            mPropagateEvents.post();
         }
         invalidate();
+
+        recycleProcessedMotionEvents();
+    }
+
+    /*
+     * The motion events are only valid during the controller callbacks.
+     * Events still waiting for an update, because the controller is
+     * disabled, are kept until one processes them.
+     */
+    private void recycleProcessedMotionEvents()
+    {
+        synchronized (eventLock)
+        {
+            for (int i = mOwnedMotionEvents.size() - 1; i >= 0; --i)
+            {
+                final MotionEvent event = mOwnedMotionEvents.get(i);
+                if (!motionEvent.contains(event))
+                {
+                    event.recycle();
+                    mOwnedMotionEvents.remove(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Queue a touchpad event for the controller listeners and
+     * record it for the UI thread.
+     */
+    private MotionEvent addMotionEvent(long downTime, long time, int action, int buttonState,
+                                       float x, float y)
+    {
+        pointerCoords.x = x;
+        pointerCoords.y = y;
+        MotionEvent motionEvent = MotionEvent.obtain(downTime, time, action, 1,
+                                                     pointerPropertiesArray, pointerCoordsArray,
+                                                     0, buttonState, 1f, 1f, 0,
+                                                     0, InputDevice.SOURCE_TOUCHPAD, 0);
+        setMotionEvent(motionEvent);
+        mOwnedMotionEvents.add(motionEvent);
+
+        GVRControllerEventRing.Record record = mEventRing.claim();
+        if (record != null)
+        {
+            record.type = GVRControllerEventRing.TYPE_MOTION;
+            record.action = action;
+            record.keyCode = 0;
+            record.buttonState = buttonState;
+            record.x = x;
+            record.y = y;
+            record.downTime = downTime;
+            record.eventTime = time;
+        }
+        return motionEvent;
     }
 
     private int handleEnterButton(int key, PointF pointF, boolean touched)
@@ -610,27 +778,14 @@ public final class GVRGearCursorController extends GVRCursorController
                                    KeyEvent.KEYCODE_ENTER);
         if ((handled == KeyEvent.ACTION_UP) || (actionDown && !touched))
         {
-            pointerCoords.x = pointF.x;
-            pointerCoords.y = pointF.y;
-            MotionEvent motionEvent = MotionEvent.obtain(prevEnterTime, time,
-                                                         MotionEvent.ACTION_UP, 1,
-                                                         pointerPropertiesArray, pointerCoordsArray,
-                                                         0, MotionEvent.BUTTON_PRIMARY, 1f, 1f, 0,
-                                                         0, InputDevice.SOURCE_TOUCHPAD, 0);
-            setMotionEvent(motionEvent);
+            addMotionEvent(prevEnterTime, time, MotionEvent.ACTION_UP,
+                           MotionEvent.BUTTON_PRIMARY, pointF.x, pointF.y);
             setActive(false);
         }
         else if ((handled == KeyEvent.ACTION_DOWN) || (touched && !actionDown))
         {
-            pointerCoords.x = pointF.x;
-            pointerCoords.y = pointF.y;
-            MotionEvent motionEvent = MotionEvent.obtain(time, time,
-                                                         MotionEvent.ACTION_DOWN, 1,
-                                                         pointerPropertiesArray,
-                                                         pointerCoordsArray,
-                                                         0, MotionEvent.BUTTON_PRIMARY, 1f, 1f,
-                                                         0, 0, InputDevice.SOURCE_TOUCHPAD, 0);
-            setMotionEvent(motionEvent);
+            addMotionEvent(time, time, MotionEvent.ACTION_DOWN,
+                           MotionEvent.BUTTON_PRIMARY, pointF.x, pointF.y);
             if ((mTouchButtons & MotionEvent.BUTTON_PRIMARY) != 0)
             {
                 setActive(true);
@@ -639,14 +794,8 @@ public final class GVRGearCursorController extends GVRCursorController
         }
         else if (actionDown && touched)
         {
-            pointerCoords.x = pointF.x;
-            pointerCoords.y = pointF.y;
-            MotionEvent motionEvent = MotionEvent.obtain(prevEnterTime, time,
-                                                         MotionEvent.ACTION_MOVE, 1,
-                                                         pointerPropertiesArray, pointerCoordsArray,
-                                                         0, MotionEvent.BUTTON_PRIMARY, 1f, 1f, 0,
-                                                         0, InputDevice.SOURCE_TOUCHPAD, 0);
-            setMotionEvent(motionEvent);
+            addMotionEvent(prevEnterTime, time, MotionEvent.ACTION_MOVE,
+                           MotionEvent.BUTTON_PRIMARY, pointF.x, pointF.y);
         }
         /*
          * If the controller is allowed to change the cursor depth,
@@ -684,28 +833,16 @@ public final class GVRGearCursorController extends GVRCursorController
         if (handled == KeyEvent.ACTION_UP)
         {
             setActive(false);
-            pointerCoords.x = 0;
-            pointerCoords.y = 0;
-            MotionEvent motionEvent = MotionEvent.obtain(prevATime, time,
-                                                         MotionEvent.ACTION_UP, 1,
-                                                         pointerPropertiesArray, pointerCoordsArray,
-                                                         0, MotionEvent.BUTTON_SECONDARY, 1f, 1f, 0,
-                                                         0, InputDevice.SOURCE_TOUCHPAD, 0);
-            setMotionEvent(motionEvent);
+            MotionEvent motionEvent = addMotionEvent(prevATime, time, MotionEvent.ACTION_UP,
+                                                     MotionEvent.BUTTON_SECONDARY, 0, 0);
             Log.d(TAG, "handleAButton action=%d button=%d x=%f y=%f",
                   motionEvent.getAction(), motionEvent.getButtonState(), motionEvent.getX(),
                   motionEvent.getY());
         }
         else if (handled == KeyEvent.ACTION_DOWN)
         {
-            pointerCoords.x = 0;
-            pointerCoords.y = 0;
-            MotionEvent motionEvent = MotionEvent.obtain(time, time,
-                                                         MotionEvent.ACTION_DOWN, 1,
-                                                         pointerPropertiesArray, pointerCoordsArray,
-                                                         0, MotionEvent.BUTTON_SECONDARY, 1f, 1f, 0,
-                                                         0, InputDevice.SOURCE_TOUCHPAD, 0);
-            setMotionEvent(motionEvent);
+            MotionEvent motionEvent = addMotionEvent(time, time, MotionEvent.ACTION_DOWN,
+                                                     MotionEvent.BUTTON_SECONDARY, 0, 0);
             prevATime = time;
             if ((mTouchButtons & MotionEvent.BUTTON_SECONDARY) != 0)
             {
@@ -725,8 +862,7 @@ public final class GVRGearCursorController extends GVRCursorController
             Log.d(TAG, "keyPress button=%d code=%d", button.getNumVal(), keyCode);
             if (prevButton != KeyEvent.ACTION_DOWN)
             {
-                KeyEvent keyEvent = new KeyEvent(KeyEvent.ACTION_DOWN, keyCode);
-                setKeyEvent(keyEvent);
+                addKeyEvent(KeyEvent.ACTION_DOWN, keyCode);
                 return KeyEvent.ACTION_DOWN;
             }
         }
@@ -734,14 +870,63 @@ public final class GVRGearCursorController extends GVRCursorController
         {
             if (prevButton != KeyEvent.ACTION_UP)
             {
-                KeyEvent keyEvent = new KeyEvent(KeyEvent.ACTION_UP, keyCode);
-                setKeyEvent(keyEvent);
+                addKeyEvent(KeyEvent.ACTION_UP, keyCode);
                 return KeyEvent.ACTION_UP;
             }
         }
         return -1;
     }
 
+    private void addKeyEvent(int action, int keyCode)
+    {
+        setKeyEvent(sharedKeyEvent(action, keyCode));
+
+        GVRControllerEventRing.Record record = mEventRing.claim();
+        if (record != null)
+        {
+            record.type = GVRControllerEventRing.TYPE_KEY;
+            record.action = action;
+            record.keyCode = keyCode;
+            record.buttonState = 0;
+            record.x = 0;
+            record.y = 0;
+            record.downTime = 0;
+            record.eventTime = SystemClock.uptimeMillis();
+        }
+    }
+
+    private static final int[] KEY_CODES = {
+            KeyEvent.KEYCODE_ENTER, KeyEvent.KEYCODE_A, KeyEvent.KEYCODE_BACK,
+            KeyEvent.KEYCODE_VOLUME_UP, KeyEvent.KEYCODE_VOLUME_DOWN, KeyEvent.KEYCODE_HOME
+    };
+    private static final KeyEvent[] KEY_DOWN_EVENTS = new KeyEvent[KEY_CODES.length];
+    private static final KeyEvent[] KEY_UP_EVENTS = new KeyEvent[KEY_CODES.length];
+
+    static
+    {
+        for (int i = 0; i < KEY_CODES.length; ++i)
+        {
+            KEY_DOWN_EVENTS[i] = new KeyEvent(KeyEvent.ACTION_DOWN, KEY_CODES[i]);
+            KEY_UP_EVENTS[i] = new KeyEvent(KeyEvent.ACTION_UP, KEY_CODES[i]);
+        }
+    }
+
+    /**
+     * KeyEvents are immutable and the controller buttons carry no
+     * timestamps, so one instance per button and action is shared.
+     */
+    static KeyEvent sharedKeyEvent(int action, int keyCode)
+    {
+        for (int i = 0; i < KEY_CODES.length; ++i)
+        {
+            if (KEY_CODES[i] == keyCode)
+            {
+                return (action == KeyEvent.ACTION_DOWN) ? KEY_DOWN_EVENTS[i] : KEY_UP_EVENTS[i];
+            }
+        }
+        return new KeyEvent(action, keyCode);
+    }
+
     private static final class ControllerEvent
     {
         private static final int MAX_RECYCLED = 5;
@@ -797,49 +982,86 @@ public final class GVRGearCursorController extends GVRCursorController
         }
     }
 
-    public static final class SendEvents implements Runnable
+    public static final class SendEvents implements Runnable, GVRControllerEventRing.Reader
     {
-        private final ConcurrentLinkedQueue<KeyEvent> mKeyEvents = new ConcurrentLinkedQueue<>();
-        private final ConcurrentLinkedQueue<MotionEvent> mMotionEvents =
-                new ConcurrentLinkedQueue<>();
         private final GVRContext mContext;
-
-        SendEvents(final GVRContext context)
+        private final GVRControllerEventRing mRing;
+        private final AtomicBoolean mPosted = new AtomicBoolean();
+        private final CopyOnWriteArrayList<GVRControllerEventRing.Reader> mListeners =
+                new CopyOnWriteArrayList<GVRControllerEventRing.Reader>();
+        private final MotionEvent.PointerCoords mPointerCoords = new MotionEvent.PointerCoords();
+        private final MotionEvent.PointerProperties[] mPointerProperties;
+        private final MotionEvent.PointerCoords[] mPointerCoordsArray;
+        private Activity mActivity;
+
+        SendEvents(final GVRContext context, final GVRControllerEventRing ring)
         {
             mContext = context;
+            mRing = ring;
+            MotionEvent.PointerProperties properties = new MotionEvent.PointerProperties();
+            properties.id = 0;
+            properties.toolType = MotionEvent.TOOL_TYPE_FINGER;
+            mPointerProperties = new MotionEvent.PointerProperties[]{properties};
+            mPointerCoordsArray = new MotionEvent.PointerCoords[]{mPointerCoords};
+        }
+
+        void addListener(GVRControllerEventRing.Reader reader)
+        {
+            mListeners.addIfAbsent(reader);
+        }
+
+        void removeListener(GVRControllerEventRing.Reader reader)
+        {
+            mListeners.remove(reader);
         }
 
-        public void init(List<KeyEvent> keyEvents, List<MotionEvent> motionEvents)
+        /**
+         * Schedule a run on the UI thread unless one is already pending.
+         */
+        void post()
         {
-            mKeyEvents.addAll(keyEvents);
-            mMotionEvents.addAll(motionEvents);
+            if (mPosted.compareAndSet(false, true))
+            {
+                mContext.getActivity().runOnUiThread(this);
+            }
         }
 
         public void run() {
-            final Activity activity = mContext.getActivity();
-            for (final Iterator<KeyEvent> it = mKeyEvents.iterator(); it.hasNext(); ) {
-                final KeyEvent e = it.next();
+            mPosted.set(false);
+            mActivity = mContext.getActivity();
+            mRing.read(this);
+        }
+
+        public void onRecord(GVRControllerEventRing.Record record)
+        {
+            for (GVRControllerEventRing.Reader listener : mListeners)
+            {
+                listener.onRecord(record);
+            }
+            if (record.type == GVRControllerEventRing.TYPE_KEY)
+            {
                 mContext.getEventManager().sendEventWithMask(
                         GVREventManager.SEND_MASK_ALL & ~GVREventManager.SEND_MASK_OBJECT,
-                        activity,
+                        mActivity,
                         IActivityEvents.class,
-                        "dispatchKeyEvent", e);
-                it.remove();
+                        "dispatchKeyEvent", sharedKeyEvent(record.action, record.keyCode));
             }
-
-            for (Iterator<MotionEvent> it = mMotionEvents.iterator(); it.hasNext(); ) {
-                final MotionEvent e = it.next();
-                final MotionEvent dupe = MotionEvent.obtain(e);
-                it.remove();
+            else
+            {
+                mPointerCoords.x = record.x;
+                mPointerCoords.y = record.y;
+                final MotionEvent e = MotionEvent.obtain(record.downTime, record.eventTime,
+                        record.action, 1, mPointerProperties, mPointerCoordsArray,
+                        0, record.buttonState, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHPAD, 0);
 
                 //@todo move the io package back to gearvrf
                 mContext.getEventManager().sendEventWithMask(
                         GVREventManager.SEND_MASK_ALL & ~GVREventManager.SEND_MASK_OBJECT,
-                        activity,
+                        mActivity,
                         IActivityEvents.class,
-                        "dispatchTouchEvent", dupe);
+                        "dispatchTouchEvent", e);
 
-                dupe.recycle();
+                e.recycle();
             }
         }
     }
@@ -0,0 +1,140 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.io;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+/**
+ * Predicts where a controller will point when the frame being rendered
+ * reaches the display.
+ * <p>
+ * The orientation is extrapolated from the angular velocity and angular
+ * acceleration reported with it, both in radians per second (per second)
+ * around the axes of the reference frame of the orientation.
+ * The predictor does not touch the scene graph, so it can be driven
+ * by recorded pose streams as well as by a live controller.
+ *
+ * @see GVRGearCursorController#setPredictionInterval(float)
+ * @see GVRPoseStreamReader
+ */
+public final class GVRPosePredictor
+{
+    /**
+     * Longest interval the pose is extrapolated over, in seconds.
+     * Beyond a few frames the acceleration term makes things worse.
+     */
+    public static final float MAX_INTERVAL = 0.1f;
+
+    private static final float MIN_ANGLE = 1e-6f;
+
+    private float mInterval;
+
+    /**
+     * @param interval how far ahead to predict, in seconds
+     */
+    public GVRPosePredictor(float interval)
+    {
+        setInterval(interval);
+    }
+
+    /**
+     * Set how far ahead to predict, normally the time between sampling
+     * the controller and the frame appearing on the display.
+     * @param interval prediction interval in seconds, 0 disables prediction
+     */
+    public void setInterval(float interval)
+    {
+        mInterval = Math.max(0.0f, Math.min(interval, MAX_INTERVAL));
+    }
+
+    /**
+     * @return prediction interval in seconds
+     */
+    public float getInterval()
+    {
+        return mInterval;
+    }
+
+    /**
+     * Predict an orientation over the interval of this predictor.
+     * @param rotation            sampled orientation
+     * @param angularVelocity     angular velocity in radians per second
+     * @param angularAcceleration angular acceleration in radians per second squared
+     * @param dest                receives the predicted orientation, may be
+     *                            the same object as <code>rotation</code>
+     * @return <code>dest</code>
+     */
+    public Quaternionf predict(Quaternionf rotation, Vector3f angularVelocity,
+                               Vector3f angularAcceleration, Quaternionf dest)
+    {
+        return predict(rotation, angularVelocity, angularAcceleration, mInterval, dest);
+    }
+
+    /**
+     * Predict an orientation over a given interval.
+     * The rotation vector <code>w t + a t^2 / 2</code> is turned into a
+     * quaternion and applied to the sampled orientation.
+     * @param rotation            sampled orientation
+     * @param angularVelocity     angular velocity in radians per second
+     * @param angularAcceleration angular acceleration in radians per second squared
+     * @param interval            time to predict ahead, in seconds
+     * @param dest                receives the predicted orientation, may be
+     *                            the same object as <code>rotation</code>
+     * @return <code>dest</code>
+     */
+    public static Quaternionf predict(Quaternionf rotation, Vector3f angularVelocity,
+                                      Vector3f angularAcceleration, float interval,
+                                      Quaternionf dest)
+    {
+        final float halfT2 = 0.5f * interval * interval;
+        final float rx = angularVelocity.x * interval + angularAcceleration.x * halfT2;
+        final float ry = angularVelocity.y * interval + angularAcceleration.y * halfT2;
+        final float rz = angularVelocity.z * interval + angularAcceleration.z * halfT2;
+        final float angle = (float) Math.sqrt(rx * rx + ry * ry + rz * rz);
+
+        if (angle < MIN_ANGLE)
+        {
+            return dest.set(rotation);
+        }
+        final float s = (float) Math.sin(angle * 0.5f) / angle;
+        final float dx = rx * s;
+        final float dy = ry * s;
+        final float dz = rz * s;
+        final float dw = (float) Math.cos(angle * 0.5f);
+        final float qx = rotation.x;
+        final float qy = rotation.y;
+        final float qz = rotation.z;
+        final float qw = rotation.w;
+
+        // delta * rotation, the velocity is in the reference frame
+        dest.set(dw * qx + dx * qw + dy * qz - dz * qy,
+                 dw * qy - dx * qz + dy * qw + dz * qx,
+                 dw * qz + dx * qy - dy * qx + dz * qw,
+                 dw * qw - dx * qx - dy * qy - dz * qz);
+        return dest.normalize();
+    }
+
+    /**
+     * Angle between two orientations.
+     * @return angle in radians, between 0 and PI
+     */
+    public static float angleBetween(Quaternionf a, Quaternionf b)
+    {
+        float dot = Math.abs(a.x * b.x + a.y * b.y + a.z * b.z + a.w * b.w);
+        return 2.0f * (float) Math.acos(Math.min(dot, 1.0f));
+    }
+}
@@ -0,0 +1,331 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.io;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Replays a recorded stream of controller poses.
+ * <p>
+ * Attach it to a {@link GVRGearCursorController} with
+ * {@link GVRGearCursorController#attachReader(GVRGearCursorController.ControllerReader)}
+ * to drive the cursor without a controller, or use it on its own to
+ * measure how well {@link GVRPosePredictor} follows a recording with
+ * {@link #getPredictionError(float, boolean)}. Nothing here needs a GL
+ * context or a headset.
+ * <p>
+ * Each line of a recording holds one sample: time in seconds, rotation
+ * quaternion (x y z w), position (x y z), angular velocity (x y z) and
+ * angular acceleration (x y z), separated by white space. The velocity and
+ * acceleration may be left out. Empty lines and lines starting with
+ * <code>#</code> are skipped. Samples must be in time order.
+ */
+public class GVRPoseStreamReader extends GVRGearCursorController.ControllerReaderStubs
+{
+    private static final int STRIDE = 14;
+    private static final int TIME = 0;
+    private static final int ROTATION = 1;
+    private static final int POSITION = 5;
+    private static final int VELOCITY = 8;
+    private static final int ACCELERATION = 11;
+
+    private float[] mSamples = new float[STRIDE * 64];
+    private double mStartTime;
+    private int mCount;
+    private int mCurrent;
+    private float mTime;
+    private final Quaternionf mNextRotation = new Quaternionf();
+
+    /**
+     * Read a recording.
+     * @param in text in the format described above
+     * @return reader positioned at the first sample
+     * @throws IOException if the text cannot be read or a line is malformed
+     */
+    public static GVRPoseStreamReader load(Reader in) throws IOException
+    {
+        GVRPoseStreamReader stream = new GVRPoseStreamReader();
+        BufferedReader lines = new BufferedReader(in);
+        float[] values = new float[STRIDE];
+        String line;
+        int lineNumber = 0;
+
+        while ((line = lines.readLine()) != null)
+        {
+            ++lineNumber;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#"))
+            {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            if ((fields.length != STRIDE) && (fields.length != VELOCITY))
+            {
+                throw new IOException("line " + lineNumber + ": expected "
+                                      + VELOCITY + " or " + STRIDE + " values");
+            }
+            Arrays.fill(values, 0.0f);
+            try
+            {
+                for (int i = 0; i < fields.length; ++i)
+                {
+                    values[i] = Float.parseFloat(fields[i]);
+                }
+            }
+            catch (NumberFormatException ex)
+            {
+                throw new IOException("line " + lineNumber + ": " + ex.getMessage());
+            }
+            stream.addSample(values);
+        }
+        return stream;
+    }
+
+    /**
+     * Append a sample to the stream.
+     * @param time                seconds, not earlier than the previous sample
+     * @param rotation            controller orientation
+     * @param position            controller position
+     * @param angularVelocity     radians per second
+     * @param angularAcceleration radians per second squared
+     */
+    public void addSample(double time, Quaternionf rotation, Vector3f position,
+                          Vector3f angularVelocity, Vector3f angularAcceleration)
+    {
+        if (mCount == 0)
+        {
+            mStartTime = time;
+        }
+        float[] values = new float[STRIDE];
+        values[TIME] = (float) (time - mStartTime);
+        values[ROTATION] = rotation.x;
+        values[ROTATION + 1] = rotation.y;
+        values[ROTATION + 2] = rotation.z;
+        values[ROTATION + 3] = rotation.w;
+        values[POSITION] = position.x;
+        values[POSITION + 1] = position.y;
+        values[POSITION + 2] = position.z;
+        values[VELOCITY] = angularVelocity.x;
+        values[VELOCITY + 1] = angularVelocity.y;
+        values[VELOCITY + 2] = angularVelocity.z;
+        values[ACCELERATION] = angularAcceleration.x;
+        values[ACCELERATION + 1] = angularAcceleration.y;
+        values[ACCELERATION + 2] = angularAcceleration.z;
+        append(values);
+    }
+
+    private void addSample(float[] values)
+    {
+        if (mCount == 0)
+        {
+            mStartTime = values[TIME];
+        }
+        values[TIME] -= (float) mStartTime;
+        append(values);
+    }
+
+    private void append(float[] values)
+    {
+        if ((mCount > 0) && (values[TIME] < mSamples[(mCount - 1) * STRIDE + TIME]))
+        {
+            throw new IllegalArgumentException("pose samples must be in time order");
+        }
+        if ((mCount + 1) * STRIDE > mSamples.length)
+        {
+            mSamples = Arrays.copyOf(mSamples, mSamples.length * 2);
+        }
+        System.arraycopy(values, 0, mSamples, mCount * STRIDE, STRIDE);
+        ++mCount;
+    }
+
+    /**
+     * @return number of samples in the stream
+     */
+    public int getSampleCount()
+    {
+        return mCount;
+    }
+
+    /**
+     * @return time of the last sample, in seconds from the first one
+     */
+    public float getDuration()
+    {
+        return (mCount > 0) ? mSamples[(mCount - 1) * STRIDE + TIME] : 0.0f;
+    }
+
+    /**
+     * Move the playback position. The reader reports the pose at this time,
+     * interpolated between the samples around it.
+     * @param time seconds from the first sample
+     */
+    public void seek(float time)
+    {
+        mTime = Math.max(0.0f, Math.min(time, getDuration()));
+        if ((mCurrent >= mCount) || (mSamples[mCurrent * STRIDE + TIME] > mTime))
+        {
+            mCurrent = 0;
+        }
+        while ((mCurrent + 1 < mCount) && (mSamples[(mCurrent + 1) * STRIDE + TIME] <= mTime))
+        {
+            ++mCurrent;
+        }
+    }
+
+    /**
+     * Advance the playback position, as a frame loop would.
+     * @param seconds time since the previous frame
+     */
+    public void advance(float seconds)
+    {
+        seek(mTime + seconds);
+    }
+
+    /**
+     * @return current playback position in seconds
+     */
+    public float getTime()
+    {
+        return mTime;
+    }
+
+    /**
+     * Compare the poses a predictor produces with the poses actually
+     * recorded one interval later, at every sample.
+     * @param interval prediction interval in seconds
+     * @param predict  false to measure the error of using each sample as it
+     *                 is, which is the error prediction removes
+     * @return average angular error in radians
+     */
+    public float getPredictionError(float interval, boolean predict)
+    {
+        final float savedTime = mTime;
+        final Quaternionf sampled = new Quaternionf();
+        final Quaternionf actual = new Quaternionf();
+        final Vector3f velocity = new Vector3f();
+        final Vector3f acceleration = new Vector3f();
+        final float end = getDuration() - interval;
+        double total = 0;
+        int n = 0;
+
+        for (int i = 0; i < mCount; ++i)
+        {
+            final float t = mSamples[i * STRIDE + TIME];
+            if (t > end)
+            {
+                break;
+            }
+            seek(t);
+            updateRotation(sampled, 0);
+            updateAngularVelocity(velocity, 0);
+            updateAngularAcceleration(acceleration, 0);
+            if (predict)
+            {
+                GVRPosePredictor.predict(sampled, velocity, acceleration, interval, sampled);
+            }
+            seek(t + interval);
+            updateRotation(actual, 0);
+            total += GVRPosePredictor.angleBetween(sampled, actual);
+            ++n;
+        }
+        seek(savedTime);
+        return (n > 0) ? (float) (total / n) : 0.0f;
+    }
+
+    @Override
+    public boolean isConnected(int index)
+    {
+        return mCount > 0;
+    }
+
+    @Override
+    public void updateRotation(Quaternionf quat, int index)
+    {
+        if (mCount == 0)
+        {
+            quat.identity();
+            return;
+        }
+        final int a = mCurrent * STRIDE + ROTATION;
+        final float t = blend();
+
+        quat.set(mSamples[a], mSamples[a + 1], mSamples[a + 2], mSamples[a + 3]);
+        if (t > 0.0f)
+        {
+            final int b = a + STRIDE;
+            mNextRotation.set(mSamples[b], mSamples[b + 1], mSamples[b + 2], mSamples[b + 3]);
+            quat.slerp(mNextRotation, t);
+        }
+    }
+
+    @Override
+    public void updatePosition(Vector3f vec, int index)
+    {
+        lerp(POSITION, vec);
+    }
+
+    @Override
+    public void updateAngularVelocity(Vector3f vec, int index)
+    {
+        lerp(VELOCITY, vec);
+    }
+
+    @Override
+    public void updateAngularAcceleration(Vector3f vec, int index)
+    {
+        lerp(ACCELERATION, vec);
+    }
+
+    /*
+     * Fraction of the way from the current sample to the next one.
+     */
+    private float blend()
+    {
+        if (mCurrent + 1 >= mCount)
+        {
+            return 0.0f;
+        }
+        final float t0 = mSamples[mCurrent * STRIDE + TIME];
+        final float t1 = mSamples[(mCurrent + 1) * STRIDE + TIME];
+        return (t1 > t0) ? (mTime - t0) / (t1 - t0) : 0.0f;
+    }
+
+    private void lerp(int offset, Vector3f vec)
+    {
+        if (mCount == 0)
+        {
+            vec.zero();
+            return;
+        }
+        final int a = mCurrent * STRIDE + offset;
+        final float t = blend();
+
+        vec.set(mSamples[a], mSamples[a + 1], mSamples[a + 2]);
+        if (t > 0.0f)
+        {
+            final int b = a + STRIDE;
+            vec.x += (mSamples[b] - vec.x) * t;
+            vec.y += (mSamples[b + 1] - vec.y) * t;
+            vec.z += (mSamples[b + 2] - vec.z) * t;
+        }
+    }
+}
@@ -267,7 +267,7 @@ public class GVRCubeSceneObject extends GVRSceneObject {
      */
     public GVRCubeSceneObject(GVRContext gvrContext, boolean facingOut, String vertexDesc, GVRShaderId shaderId) {
         super(gvrContext);
-        GVRMesh mesh = createCube(gvrContext, vertexDesc, facingOut, null);
+        GVRMesh mesh = acquireCube(gvrContext, vertexDesc, facingOut, null);
         GVRRenderData renderData = new GVRRenderData(gvrContext, new GVRMaterial(gvrContext, shaderId));
         attachComponent(renderData);
         renderData.setMesh(mesh);
@@ -298,7 +298,7 @@ public class GVRCubeSceneObject extends GVRSceneObject {
      */
     public GVRCubeSceneObject(GVRContext gvrContext, boolean facingOut, String vertexDesc, GVRMaterial mtl, Vector3f dimensions) {
         super(gvrContext);
-        GVRMesh mesh = createCube(gvrContext, vertexDesc, facingOut, dimensions);
+        GVRMesh mesh = acquireCube(gvrContext, vertexDesc, facingOut, dimensions);
         GVRRenderData renderData = new GVRRenderData(gvrContext, mtl);
         attachComponent(renderData);
         renderData.setMesh(mesh);
@@ -507,10 +507,32 @@ public class GVRCubeSceneObject extends GVRSceneObject {
         return mesh;
     }
 
+    /**
+     * Get a cube mesh from the {@link GVRPrimitiveMeshCache}, shared with
+     * other cubes built with the same parameters.
+     */
+    private GVRMesh acquireCube(GVRContext gvrContext, final String descriptor,
+            final boolean facingOut, final Vector3f dimensions)
+    {
+        final String key = GVRPrimitiveMeshCache.makeKey("cube", facingOut,
+                (dimensions != null) ? dimensions.x : 1.0f,
+                (dimensions != null) ? dimensions.y : 1.0f,
+                (dimensions != null) ? dimensions.z : 1.0f, descriptor);
+        final Vector3f size = (dimensions != null) ? new Vector3f(dimensions) : null;
+
+        return GVRPrimitiveMeshCache.getInstance(gvrContext).acquire(key, this,
+                new GVRPrimitiveMeshCache.MeshFactory() {
+                    @Override
+                    public GVRMesh create(GVRContext gvrContext) {
+                        return createCube(gvrContext, descriptor, facingOut, size);
+                    }
+                });
+    }
+
     private void createSimpleCube(GVRContext gvrContext, boolean facingOut,
             GVRMaterial material, Vector3f dimensions) {
 
-        GVRMesh mesh = createCube(gvrContext, "float3 a_position, float2 a_texcoord, float3 a_normal", facingOut, dimensions);
+        GVRMesh mesh = acquireCube(gvrContext, "float3 a_position, float2 a_texcoord, float3 a_normal", facingOut, dimensions);
         GVRRenderData renderData = new GVRRenderData(gvrContext, material);
         attachComponent(renderData);
         renderData.setMesh(mesh);
@@ -557,31 +557,38 @@ public class GVRCylinderSceneObject extends GVRSceneObject {
         generateComplexCylinderObject(gvrContext, params, stackSegmentNumber, sliceSegmentNumber);
     }
 
-    private void generateCylinderObject(GVRContext gvrContext, CylinderParams params) {
-        String vertexDesc = params.VertexDescriptor;
-
-        if (vertexDesc == null) {
-            vertexDesc = "float3 a_position float2 a_texcoord float3 a_normal";
-        }
-        generateCylinder(params);
-
-        GVRMesh mesh = new GVRMesh(gvrContext, vertexDesc);
+    private void generateCylinderObject(GVRContext gvrContext, final CylinderParams params) {
+        final String vertexDesc = (params.VertexDescriptor != null) ? params.VertexDescriptor
+                : "float3 a_position float2 a_texcoord float3 a_normal";
+        final String key = GVRPrimitiveMeshCache.makeKey("cylinder", params.StackNumber,
+                params.SliceNumber, params.FacingOut, params.Height, params.TopRadius,
+                params.BottomRadius, params.HasTopCap, params.HasBottomCap, vertexDesc);
+        GVRMesh mesh = GVRPrimitiveMeshCache.getInstance(gvrContext).acquire(key, this,
+                new GVRPrimitiveMeshCache.MeshFactory() {
+                    @Override
+                    public GVRMesh create(GVRContext gvrContext) {
+                        generateCylinder(params);
+
+                        GVRMesh mesh = new GVRMesh(gvrContext, vertexDesc);
+                        mesh.setVertices(vertices);
+                        if (vertexDesc.contains("normal"))
+                        {
+                            mesh.setNormals(normals);
+                        }
+                        if (vertexDesc.contains("texcoord"))
+                        {
+                            mesh.setTexCoords(texCoords);
+                        }
+                        mesh.setIndices(indices);
+                        return mesh;
+                    }
+                });
         GVRMaterial material = params.Material;
 
         if (material == null)
         {
             material = new GVRMaterial(gvrContext);
         }
-        mesh.setVertices(vertices);
-        if (vertexDesc.contains("normal"))
-        {
-            mesh.setNormals(normals);
-        }
-        if (vertexDesc.contains("texcoord"))
-        {
-            mesh.setTexCoords(texCoords);
-        }
-        mesh.setIndices(indices);
 
         GVRRenderData renderData = new GVRRenderData(gvrContext);
         attachRenderData(renderData);
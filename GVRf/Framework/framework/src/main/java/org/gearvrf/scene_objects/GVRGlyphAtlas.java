@@ -0,0 +1,341 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.scene_objects;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.util.LongSparseArray;
+import android.util.SparseArray;
+
+import org.gearvrf.GVRBitmapImage;
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRTexture;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A signed distance field glyph atlas baked once from a {@link Typeface}.
+ * <p>
+ * Every glyph is rendered into a single grayscale texture where each
+ * texel stores its distance to the outline of the glyph: 0.5 on the
+ * outline, more inside, less outside. The texture stays sharp when
+ * magnified and is shared by all the {@link GVRTextMeshSceneObject}s
+ * using this atlas, so they can be drawn with the same material.
+ * <p>
+ * The kerning of every pair of characters is measured with the font when
+ * the atlas has at most {@link #MAX_KERNED_CHARACTERS} characters. Larger
+ * atlases are laid out without kerning.
+ * @see GVRTextLayout
+ */
+public class GVRGlyphAtlas implements GVRTextLayout.GlyphSource
+{
+    /** printable ASCII characters */
+    public static final String DEFAULT_CHARACTERS;
+    public static final int DEFAULT_GLYPH_SIZE = 48;
+    /** largest atlas whose pairs are measured for kerning */
+    public static final int MAX_KERNED_CHARACTERS = 256;
+
+    static
+    {
+        StringBuilder chars = new StringBuilder();
+        for (char c = ' '; c <= '~'; ++c)
+        {
+            chars.append(c);
+        }
+        DEFAULT_CHARACTERS = chars.toString();
+    }
+
+    private static final int ATLAS_WIDTH = 1024;
+    private static final float INFINITY = 1e20f;
+
+    private final SparseArray<GVRTextLayout.Glyph> mGlyphs = new SparseArray<GVRTextLayout.Glyph>();
+    // kerning of the pairs which have some, keyed by both code points
+    private final LongSparseArray<Float> mKerning = new LongSparseArray<Float>();
+    private final GVRTexture mTexture;
+    private final float mLineHeight;
+    private final float mAscent;
+    private final float mSpread;
+
+    /**
+     * Bake an atlas of the printable ASCII characters.
+     * @param gvrContext current {@link GVRContext}
+     * @param typeface   font to bake
+     */
+    public GVRGlyphAtlas(GVRContext gvrContext, Typeface typeface)
+    {
+        this(gvrContext, typeface, DEFAULT_CHARACTERS, DEFAULT_GLYPH_SIZE);
+    }
+
+    /**
+     * Bake an atlas with the given characters.
+     * @param gvrContext current {@link GVRContext}
+     * @param typeface   font to bake
+     * @param characters characters to include in the atlas
+     * @param glyphSize  size of an em in the atlas, in pixels. Larger sizes
+     *                   keep more of the details of the glyphs.
+     */
+    public GVRGlyphAtlas(GVRContext gvrContext, Typeface typeface, String characters, int glyphSize)
+    {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        Paint.FontMetrics metrics;
+        int spread = Math.max(2, glyphSize / 8);
+
+        paint.setTypeface(typeface);
+        paint.setTextSize(glyphSize);
+        paint.setColor(0xFFFFFFFF);
+        metrics = paint.getFontMetrics();
+        mLineHeight = (metrics.descent - metrics.ascent + metrics.leading) / glyphSize;
+        mAscent = -metrics.ascent / glyphSize;
+        mSpread = (float) spread / glyphSize;
+
+        // shelf pack the glyph cells, each with room for the spread around the glyph
+        int numChars = characters.codePointCount(0, characters.length());
+        int[] codePoints = new int[numChars];
+        Rect[] bounds = new Rect[numChars];
+        int[] cellX = new int[numChars];
+        int[] cellY = new int[numChars];
+        int x = 0, y = 0, shelfHeight = 0;
+
+        for (int i = 0, c = 0; i < numChars; ++i)
+        {
+            int codePoint = characters.codePointAt(c);
+            String s = new String(Character.toChars(codePoint));
+            Rect r = new Rect();
+
+            c += Character.charCount(codePoint);
+            paint.getTextBounds(s, 0, s.length(), r);
+            int w = r.width() + 2 * spread;
+            int h = r.height() + 2 * spread;
+            if (x + w > ATLAS_WIDTH)
+            {
+                x = 0;
+                y += shelfHeight;
+                shelfHeight = 0;
+            }
+            codePoints[i] = codePoint;
+            bounds[i] = r;
+            cellX[i] = x;
+            cellY[i] = y;
+            x += w;
+            shelfHeight = Math.max(shelfHeight, h);
+        }
+        int height = Integer.highestOneBit(Math.max(1, y + shelfHeight - 1)) << 1;
+
+        // draw the glyphs and turn their coverage into distances
+        Bitmap bitmap = Bitmap.createBitmap(ATLAS_WIDTH, height, Bitmap.Config.ALPHA_8);
+        Canvas canvas = new Canvas(bitmap);
+        for (int i = 0; i < numChars; ++i)
+        {
+            String s = new String(Character.toChars(codePoints[i]));
+            canvas.drawText(s, cellX[i] + spread - bounds[i].left, cellY[i] + spread - bounds[i].top, paint);
+        }
+        byte[] pixels = new byte[ATLAS_WIDTH * height];
+        bitmap.copyPixelsToBuffer(ByteBuffer.wrap(pixels));
+        bitmap.recycle();
+        makeDistanceField(pixels, ATLAS_WIDTH, height, spread);
+
+        for (int i = 0; i < numChars; ++i)
+        {
+            String s = new String(Character.toChars(codePoints[i]));
+            Rect r = bounds[i];
+            float w = r.width() + 2 * spread;
+            float h = r.height() + 2 * spread;
+            float u = (float) cellX[i] / ATLAS_WIDTH;
+            float v = (float) cellY[i] / height;
+
+            mGlyphs.put(codePoints[i], new GVRTextLayout.Glyph(
+                    paint.measureText(s) / glyphSize,
+                    (float) (r.left - spread) / glyphSize,
+                    (float) (spread - r.top) / glyphSize,
+                    w / glyphSize, h / glyphSize,
+                    u, v, u + w / ATLAS_WIDTH, v + h / height));
+        }
+        if (numChars <= MAX_KERNED_CHARACTERS)
+        {
+            measureKerning(paint, codePoints, glyphSize);
+        }
+        mTexture = new GVRTexture(gvrContext);
+        mTexture.setImage(new GVRBitmapImage(gvrContext, ATLAS_WIDTH, height, pixels));
+    }
+
+    @Override
+    public GVRTextLayout.Glyph getGlyph(int codePoint)
+    {
+        return mGlyphs.get(codePoint);
+    }
+
+    @Override
+    public float getKerning(int left, int right)
+    {
+        Float kerning = mKerning.get(pairKey(left, right));
+        return (kerning != null) ? kerning : 0.0f;
+    }
+
+    @Override
+    public float getLineHeight()
+    {
+        return mLineHeight;
+    }
+
+    @Override
+    public float getAscent()
+    {
+        return mAscent;
+    }
+
+    /**
+     * @return width of the distance ramp around the glyph outlines, in em units
+     */
+    public float getSpread()
+    {
+        return mSpread;
+    }
+
+    /**
+     * @return the grayscale distance field texture
+     */
+    public GVRTexture getTexture()
+    {
+        return mTexture;
+    }
+
+    /*
+     * The kerning of a pair is what its width differs from the sum of the
+     * advances of its glyphs.
+     */
+    private void measureKerning(Paint paint, int[] codePoints, int glyphSize)
+    {
+        int n = codePoints.length;
+        String[] chars = new String[n];
+        float[] advances = new float[n];
+        float threshold = glyphSize / 100.0f;
+
+        for (int i = 0; i < n; ++i)
+        {
+            chars[i] = new String(Character.toChars(codePoints[i]));
+            advances[i] = paint.measureText(chars[i]);
+        }
+        for (int l = 0; l < n; ++l)
+        {
+            for (int r = 0; r < n; ++r)
+            {
+                float kerning = paint.measureText(chars[l] + chars[r]) - advances[l] - advances[r];
+                if (Math.abs(kerning) > threshold)
+                {
+                    mKerning.put(pairKey(codePoints[l], codePoints[r]), kerning / glyphSize);
+                }
+            }
+        }
+    }
+
+    private static long pairKey(int left, int right)
+    {
+        return ((long) left << 32) | right;
+    }
+
+    /*
+     * Replace the coverage of each pixel by its signed distance to the
+     * glyph outline, mapped so that [-spread, spread] covers [0, 255].
+     */
+    private static void makeDistanceField(byte[] pixels, int width, int height, int spread)
+    {
+        int n = width * height;
+        float[] outside = new float[n];
+        float[] inside = new float[n];
+        int maxDim = Math.max(width, height);
+        float[] f = new float[maxDim];
+        float[] d = new float[maxDim];
+        float[] z = new float[maxDim + 1];
+        int[] v = new int[maxDim];
+
+        for (int i = 0; i < n; ++i)
+        {
+            boolean ink = (pixels[i] & 0xFF) >= 128;
+            outside[i] = ink ? 0 : INFINITY;
+            inside[i] = ink ? INFINITY : 0;
+        }
+        distanceTransform(outside, width, height, f, d, z, v);
+        distanceTransform(inside, width, height, f, d, z, v);
+        for (int i = 0; i < n; ++i)
+        {
+            float dist = (float) (Math.sqrt(inside[i]) - Math.sqrt(outside[i]));
+            float value = 0.5f + dist / (2 * spread);
+            pixels[i] = (byte) Math.round(255 * Math.max(0, Math.min(1, value)));
+        }
+    }
+
+    /*
+     * Squared euclidean distance transform of a 2D grid, done as a 1D
+     * transform of the columns then of the rows (Felzenszwalb and Huttenlocher).
+     */
+    private static void distanceTransform(float[] grid, int width, int height,
+                                          float[] f, float[] d, float[] z, int[] v)
+    {
+        for (int x = 0; x < width; ++x)
+        {
+            for (int y = 0; y < height; ++y)
+            {
+                f[y] = grid[y * width + x];
+            }
+            distanceTransform1D(f, d, z, v, height);
+            for (int y = 0; y < height; ++y)
+            {
+                grid[y * width + x] = d[y];
+            }
+        }
+        for (int y = 0; y < height; ++y)
+        {
+            System.arraycopy(grid, y * width, f, 0, width);
+            distanceTransform1D(f, d, z, v, width);
+            System.arraycopy(d, 0, grid, y * width, width);
+        }
+    }
+
+    private static void distanceTransform1D(float[] f, float[] d, float[] z, int[] v, int n)
+    {
+        int k = 0;
+
+        v[0] = 0;
+        z[0] = -INFINITY;
+        z[1] = INFINITY;
+        for (int q = 1; q < n; ++q)
+        {
+            float s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            while (s <= z[k])
+            {
+                --k;
+                s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            }
+            ++k;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = INFINITY;
+        }
+        k = 0;
+        for (int q = 0; q < n; ++q)
+        {
+            while (z[k + 1] < q)
+            {
+                ++k;
+            }
+            float dq = q - v[k];
+            d[q] = dq * dq + f[v[k]];
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.scene_objects;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRMesh;
+import org.gearvrf.GVRSceneObject;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.WeakHashMap;
+
+/**
+ * Shares the meshes generated by the primitive scene objects
+ * ({@link GVRSphereSceneObject}, {@link GVRCylinderSceneObject} and
+ * {@link GVRCubeSceneObject}) between all objects built with the same
+ * parameters. Spawning a thousand identical spheres generates and uploads
+ * one mesh instead of a thousand.
+ * <p>
+ * Meshes are keyed by shape, segment counts, facing, size and vertex
+ * descriptor. Each scene object that draws from the cache holds a
+ * reference on its entry; the reference is dropped by {@link #release}
+ * or when the scene object is garbage collected, and the mesh leaves the
+ * cache when the last reference goes.
+ * <p>
+ * Sharing is off by default, since editing a shared mesh changes every
+ * object drawing it. Applications which spawn many identical primitives
+ * and treat their meshes as read-only turn it on with
+ * {@link #setEnabled(boolean)}.
+ * <p>
+ * Meshes are generated outside the cache lock, so threads spawning
+ * different primitives do not wait for each other. Two threads missing
+ * the same key at once may both generate the mesh; both get the one
+ * cached first, and the other is dropped.
+ */
+public final class GVRPrimitiveMeshCache {
+    /**
+     * Generates the mesh for a key which is not in the cache.
+     */
+    public interface MeshFactory {
+        GVRMesh create(GVRContext gvrContext);
+    }
+
+    private static final WeakHashMap<GVRContext, GVRPrimitiveMeshCache> sCaches = new WeakHashMap<GVRContext, GVRPrimitiveMeshCache>();
+
+    private final HashMap<String, Entry> mEntries = new HashMap<String, Entry>();
+    /*
+     * The references each owner holds, so release() need not search
+     * every entry: an OwnerReference, or a list of them for owners of
+     * more than one mesh.
+     */
+    private final WeakHashMap<Object, Object> mOwners = new WeakHashMap<Object, Object>();
+    private final ReferenceQueue<Object> mOwnerQueue = new ReferenceQueue<Object>();
+    private boolean mEnabled = false;
+    private long mHits;
+    private long mMisses;
+    private long mEvictions;
+    private long mGenerateNanos;
+
+    private GVRPrimitiveMeshCache() {
+    }
+
+    /**
+     * Get the primitive mesh cache of a context.
+     * @param gvrContext context the meshes belong to
+     * @return cache shared by all primitive scene objects of that context
+     */
+    public static GVRPrimitiveMeshCache getInstance(GVRContext gvrContext) {
+        synchronized (sCaches) {
+            GVRPrimitiveMeshCache cache = sCaches.get(gvrContext);
+            if (cache == null) {
+                cache = new GVRPrimitiveMeshCache();
+                sCaches.put(gvrContext, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Build a cache key from the parameters which determine a mesh.
+     * @param shape name of the primitive, e.g. "sphere"
+     * @param parameters values that change the generated geometry
+     * @return key string
+     */
+    public static String makeKey(String shape, Object... parameters) {
+        final StringBuilder key = new StringBuilder(shape);
+        for (Object p : parameters) {
+            key.append('/').append(p);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Get the mesh for a key, generating it if it is not cached, and add
+     * a reference to it on behalf of a scene object.
+     * @param key     key from {@link #makeKey(String, Object...)}
+     * @param owner   scene object which will render the mesh
+     * @param factory generates the mesh on a miss
+     * @return shared mesh, or a new unshared one if the cache is disabled
+     */
+    public GVRMesh acquire(String key, GVRSceneObject owner, MeshFactory factory) {
+        return acquire(key, owner.getGVRContext(), owner, factory);
+    }
+
+    /*
+     * acquire() for any kind of owner, for tests.
+     */
+    GVRMesh acquire(String key, GVRContext gvrContext, Object owner, MeshFactory factory) {
+        synchronized (this) {
+            drainOwners();
+            if (mEnabled) {
+                final Entry entry = mEntries.get(key);
+                if (entry != null) {
+                    ++mHits;
+                    return addOwner(entry, owner);
+                }
+            }
+            ++mMisses;
+        }
+
+        final long start = System.nanoTime();
+        final GVRMesh mesh = factory.create(gvrContext);
+        final long elapsed = System.nanoTime() - start;
+
+        synchronized (this) {
+            mGenerateNanos += elapsed;
+            if (!mEnabled) {
+                return mesh;
+            }
+            // another thread may have cached this key meanwhile
+            Entry entry = mEntries.get(key);
+            if (entry == null) {
+                entry = new Entry(key, mesh);
+                mEntries.put(key, entry);
+            }
+            return addOwner(entry, owner);
+        }
+    }
+
+    /**
+     * Drop the references a scene object holds on cached meshes, without
+     * waiting for it to be garbage collected. The scene object keeps its
+     * mesh; it is just no longer shared with objects created later.
+     * @param owner scene object passed to {@link #acquire}
+     */
+    public void release(GVRSceneObject owner) {
+        releaseOwner(owner);
+    }
+
+    /*
+     * release() for any kind of owner, for tests.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized void releaseOwner(Object owner) {
+        drainOwners();
+        final Object refs = mOwners.remove(owner);
+        if (refs instanceof OwnerReference) {
+            removeOwner((OwnerReference) refs);
+        } else if (refs != null) {
+            for (OwnerReference ref : (List<OwnerReference>) refs) {
+                removeOwner(ref);
+            }
+        }
+    }
+
+    /**
+     * Enable or disable sharing. While disabled every primitive
+     * generates its own mesh. Meshes already cached are kept.
+     * @param enabled true to share meshes, false (the default) to
+     *                give every primitive its own
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    public synchronized boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * Forget all cached meshes. Scene objects keep the meshes they have.
+     */
+    public synchronized void clear() {
+        drainOwners();
+        mEvictions += mEntries.size();
+        mEntries.clear();
+        mOwners.clear();
+    }
+
+    /**
+     * @return number of meshes currently cached
+     */
+    public synchronized int getMeshCount() {
+        drainOwners();
+        return mEntries.size();
+    }
+
+    /**
+     * @return number of live scene objects drawing from the cache
+     */
+    public synchronized int getReferenceCount() {
+        drainOwners();
+        int count = 0;
+        for (Entry entry : mEntries.values()) {
+            count += entry.owners.size();
+        }
+        return count;
+    }
+
+    /**
+     * @return number of requests served from the cache
+     */
+    public synchronized long getHitCount() {
+        return mHits;
+    }
+
+    /**
+     * @return number of requests which generated a mesh
+     */
+    public synchronized long getMissCount() {
+        return mMisses;
+    }
+
+    /**
+     * @return number of meshes dropped because nothing referenced them any more
+     */
+    public synchronized long getEvictionCount() {
+        return mEvictions;
+    }
+
+    /**
+     * @return total time spent generating meshes on misses, in nanoseconds
+     */
+    public synchronized long getGenerateTimeNanos() {
+        return mGenerateNanos;
+    }
+
+    /**
+     * Reset the hit, miss, eviction and timing counters.
+     */
+    public synchronized void resetStatistics() {
+        mHits = 0;
+        mMisses = 0;
+        mEvictions = 0;
+        mGenerateNanos = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "meshes=" + mEntries.size() + " hits=" + mHits + " misses=" + mMisses
+                + " evictions=" + mEvictions + " generateMs=" + (mGenerateNanos / 1000000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private GVRMesh addOwner(Entry entry, Object owner) {
+        final OwnerReference ref = new OwnerReference(owner, entry, mOwnerQueue);
+        final Object refs = mOwners.put(owner, ref);
+        if (refs instanceof OwnerReference) {
+            final List<OwnerReference> list = new ArrayList<OwnerReference>(2);
+            list.add((OwnerReference) refs);
+            list.add(ref);
+            mOwners.put(owner, list);
+        } else if (refs != null) {
+            ((List<OwnerReference>) refs).add(ref);
+            mOwners.put(owner, refs);
+        }
+        entry.owners.add(ref);
+        return entry.mesh;
+    }
+
+    private void removeOwner(OwnerReference ref) {
+        ref.clear();
+        final Entry entry = ref.entry;
+        if (entry.owners.remove(ref) && entry.owners.isEmpty()
+                && (mEntries.get(entry.key) == entry)) {
+            mEntries.remove(entry.key);
+            ++mEvictions;
+        }
+    }
+
+    private void drainOwners() {
+        OwnerReference ref;
+        while ((ref = (OwnerReference) mOwnerQueue.poll()) != null) {
+            removeOwner(ref);
+        }
+    }
+
+    private static final class Entry {
+        final String key;
+        final GVRMesh mesh;
+        final HashSet<OwnerReference> owners = new HashSet<OwnerReference>();
+
+        Entry(String key, GVRMesh mesh) {
+            this.key = key;
+            this.mesh = mesh;
+        }
+    }
+
+    private static final class OwnerReference extends WeakReference<Object> {
+        final Entry entry;
+
+        OwnerReference(Object owner, Entry entry, ReferenceQueue<Object> queue) {
+            super(owner, queue);
+            this.entry = entry;
+        }
+    }
+}
@@ -362,20 +362,29 @@ public class GVRSphereSceneObject extends GVRSceneObject {
                 facingOut, material, stackSegmentNumber, sliceSegmentNumber);
     }
 
-    private void generateSphereObject(GVRContext gvrContext, int stackNumber,
-                                      int sliceNumber, boolean facingOut, GVRMaterial material, float radius) {
-        generateSphere(stackNumber, sliceNumber, facingOut);
-
-        // multiply by radius > 0
-        //float radius = 1;
-        for (int i = 0; i < vertices.length; i++) {
-            vertices[i] *= radius;
-        }
-        GVRMesh mesh = new GVRMesh(gvrContext, "float3 a_position float2 a_texcoord float3 a_normal");
-        mesh.setVertices(vertices);
-        mesh.setNormals(normals);
-        mesh.setTexCoords(texCoords);
-        mesh.setIndices(indices);
+    private void generateSphereObject(GVRContext gvrContext, final int stackNumber,
+                                      final int sliceNumber, final boolean facingOut, GVRMaterial material, final float radius) {
+        final String descriptor = "float3 a_position float2 a_texcoord float3 a_normal";
+        final String key = GVRPrimitiveMeshCache.makeKey("sphere", stackNumber, sliceNumber,
+                facingOut, radius, descriptor);
+        GVRMesh mesh = GVRPrimitiveMeshCache.getInstance(gvrContext).acquire(key, this,
+                new GVRPrimitiveMeshCache.MeshFactory() {
+                    @Override
+                    public GVRMesh create(GVRContext gvrContext) {
+                        generateSphere(stackNumber, sliceNumber, facingOut);
+
+                        // multiply by radius > 0
+                        for (int i = 0; i < vertices.length; i++) {
+                            vertices[i] *= radius;
+                        }
+                        GVRMesh mesh = new GVRMesh(gvrContext, descriptor);
+                        mesh.setVertices(vertices);
+                        mesh.setNormals(normals);
+                        mesh.setTexCoords(texCoords);
+                        mesh.setIndices(indices);
+                        return mesh;
+                    }
+                });
 
         GVRRenderData renderData = new GVRRenderData(gvrContext, material);
         attachComponent(renderData);
@@ -0,0 +1,442 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.scene_objects;
+
+import java.util.Arrays;
+
+/**
+ * Lays out the glyphs of a text as textured quads.
+ * <p>
+ * The layout engine only depends on the glyph metrics provided by a
+ * {@link GlyphSource}, usually a {@link GVRGlyphAtlas}, and writes plain
+ * float arrays. It has no Android or GL dependencies so it can be run
+ * and tested off the device.
+ * <p>
+ * Glyph metrics are expressed in em units: the layout scales them by the
+ * text size, which is the height of an em in scene units. Text starts at
+ * the origin and grows to the right and downward, with the top of the
+ * first line at the origin. The distance between two glyphs of a line is
+ * the advance of the first plus the kerning of the pair.
+ * <p>
+ * Each quad has four vertices in the order bottom left, bottom right,
+ * top right, top left, with three position and two texture coordinates
+ * per vertex. Use {@link #setQuadIndices(int[], int, int)} to make the
+ * matching triangle indices.
+ * @see GVRTextMeshSceneObject
+ */
+public final class GVRTextLayout
+{
+    public static final int VERTICES_PER_QUAD = 4;
+    public static final int INDICES_PER_QUAD = 6;
+    public static final int POSITION_SIZE = 3;
+    public static final int TEXCOORD_SIZE = 2;
+
+    /**
+     * Horizontal alignment of the lines of text.
+     */
+    public enum Alignment { LEFT, CENTER, RIGHT }
+
+    /**
+     * Metrics of a single glyph, in em units, and its location in the atlas.
+     */
+    public static final class Glyph
+    {
+        /** horizontal distance from this glyph's origin to the next one */
+        public final float advance;
+        /** distance from the pen position to the left edge of the quad */
+        public final float left;
+        /** distance from the baseline up to the top edge of the quad */
+        public final float top;
+        public final float width;
+        public final float height;
+        public final float u0, v0, u1, v1;
+
+        public Glyph(float advance, float left, float top, float width, float height,
+                     float u0, float v0, float u1, float v1)
+        {
+            this.advance = advance;
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+            this.u0 = u0;
+            this.v0 = v0;
+            this.u1 = u1;
+            this.v1 = v1;
+        }
+    }
+
+    /**
+     * Provides the metrics of the glyphs of a font.
+     */
+    public interface GlyphSource
+    {
+        /**
+         * @param codePoint Unicode code point
+         * @return metrics of the glyph, or null if the font has no such glyph
+         */
+        Glyph getGlyph(int codePoint);
+
+        /**
+         * @param left  code point of the first glyph of a pair
+         * @param right code point of the glyph which follows it
+         * @return adjustment of the distance between the two glyphs, in em
+         * units, added to the advance of the first one. Negative values
+         * bring them closer.
+         */
+        float getKerning(int left, int right);
+
+        /**
+         * @return distance between two baselines, in em units
+         */
+        float getLineHeight();
+
+        /**
+         * @return distance from the top of a line to its baseline, in em units
+         */
+        float getAscent();
+    }
+
+    private final GlyphSource mGlyphs;
+    private float mTextSize = 1.0f;
+    private float mMaxWidth = 0.0f;
+    private float mLineSpacing = 1.0f;
+    private Alignment mAlignment = Alignment.LEFT;
+
+    // line breaks found by the last layout, reused between calls
+    private int[] mLineStarts = new int[8];
+    private int[] mLineEnds = new int[8];
+    private float[] mLineWidths = new float[8];
+    private int mLineCount;
+    private float mWidth;
+    private float mHeight;
+
+    public GVRTextLayout(GlyphSource glyphs)
+    {
+        mGlyphs = glyphs;
+    }
+
+    public GlyphSource getGlyphSource()
+    {
+        return mGlyphs;
+    }
+
+    /**
+     * @param size height of an em, in scene units
+     */
+    public void setTextSize(float size)
+    {
+        mTextSize = size;
+    }
+
+    public float getTextSize()
+    {
+        return mTextSize;
+    }
+
+    /**
+     * Sets the width at which lines are wrapped, breaking at spaces
+     * when possible.
+     * @param maxWidth maximum line width in scene units, 0 to never wrap
+     */
+    public void setMaxWidth(float maxWidth)
+    {
+        mMaxWidth = maxWidth;
+    }
+
+    public float getMaxWidth()
+    {
+        return mMaxWidth;
+    }
+
+    /**
+     * @param spacing multiplier applied to the line height of the font
+     */
+    public void setLineSpacing(float spacing)
+    {
+        mLineSpacing = spacing;
+    }
+
+    public float getLineSpacing()
+    {
+        return mLineSpacing;
+    }
+
+    /**
+     * Lines are aligned within the wrap width, or within the widest line
+     * when the text is not wrapped.
+     */
+    public void setAlignment(Alignment alignment)
+    {
+        mAlignment = alignment;
+    }
+
+    public Alignment getAlignment()
+    {
+        return mAlignment;
+    }
+
+    /**
+     * @return width of the text laid out last, in scene units
+     */
+    public float getWidth()
+    {
+        return mWidth;
+    }
+
+    /**
+     * @return height of the text laid out last, in scene units
+     */
+    public float getHeight()
+    {
+        return mHeight;
+    }
+
+    /**
+     * @return number of lines of the text laid out last
+     */
+    public int getLineCount()
+    {
+        return mLineCount;
+    }
+
+    /**
+     * Upper bound of the number of quads needed to lay out a text.
+     */
+    public static int getMaxQuads(CharSequence text)
+    {
+        return text.length();
+    }
+
+    /**
+     * Lays out a text and writes one quad per visible glyph.
+     * @param text      text to lay out
+     * @param originX   X coordinate of the top left corner of the text
+     * @param originY   Y coordinate of the top left corner of the text
+     * @param positions destination of the vertex positions
+     * @param texCoords destination of the vertex texture coordinates
+     * @param firstQuad index of the quad the first glyph is written to
+     * @return number of quads written
+     * @throws ArrayIndexOutOfBoundsException if the arrays cannot hold
+     * {@link #getMaxQuads(CharSequence)} quads from <i>firstQuad</i>
+     */
+    public int layout(CharSequence text, float originX, float originY,
+                      float[] positions, float[] texCoords, int firstQuad)
+    {
+        breakLines(text);
+
+        float lineHeight = mGlyphs.getLineHeight() * mTextSize * mLineSpacing;
+        float boxWidth = (mMaxWidth > 0) ? mMaxWidth : mWidth;
+        float baseline = originY - mGlyphs.getAscent() * mTextSize;
+        int quad = firstQuad;
+
+        mHeight = mLineCount * lineHeight;
+        for (int line = 0; line < mLineCount; ++line)
+        {
+            float x = originX;
+
+            if (mAlignment == Alignment.CENTER)
+            {
+                x += (boxWidth - mLineWidths[line]) / 2;
+            }
+            else if (mAlignment == Alignment.RIGHT)
+            {
+                x += boxWidth - mLineWidths[line];
+            }
+            int previous = -1;
+            for (int i = mLineStarts[line]; i < mLineEnds[line]; )
+            {
+                int codePoint = Character.codePointAt(text, i);
+                Glyph glyph = mGlyphs.getGlyph(codePoint);
+
+                i += Character.charCount(codePoint);
+                if (glyph == null)
+                {
+                    continue;
+                }
+                x += kerning(previous, codePoint);
+                previous = codePoint;
+                if ((glyph.width > 0) && !Character.isWhitespace(codePoint))
+                {
+                    writeQuad(glyph, x, baseline, positions, texCoords, quad++);
+                }
+                x += glyph.advance * mTextSize;
+            }
+            baseline -= lineHeight;
+        }
+        return quad - firstQuad;
+    }
+
+    /**
+     * Make the triangle indices for a range of quads.
+     * @param indices   destination array
+     * @param firstQuad index of the first quad
+     * @param numQuads  number of quads
+     */
+    public static void setQuadIndices(int[] indices, int firstQuad, int numQuads)
+    {
+        for (int q = firstQuad; q < firstQuad + numQuads; ++q)
+        {
+            int i = q * INDICES_PER_QUAD;
+            int v = q * VERTICES_PER_QUAD;
+
+            indices[i] = v;
+            indices[i + 1] = v + 1;
+            indices[i + 2] = v + 2;
+            indices[i + 3] = v;
+            indices[i + 4] = v + 2;
+            indices[i + 5] = v + 3;
+        }
+    }
+
+    private void writeQuad(Glyph glyph, float x, float baseline,
+                           float[] positions, float[] texCoords, int quad)
+    {
+        float left = x + glyph.left * mTextSize;
+        float right = left + glyph.width * mTextSize;
+        float top = baseline + glyph.top * mTextSize;
+        float bottom = top - glyph.height * mTextSize;
+        int p = quad * VERTICES_PER_QUAD * POSITION_SIZE;
+        int t = quad * VERTICES_PER_QUAD * TEXCOORD_SIZE;
+
+        positions[p] = left;       positions[p + 1] = bottom;  positions[p + 2] = 0;
+        positions[p + 3] = right;  positions[p + 4] = bottom;  positions[p + 5] = 0;
+        positions[p + 6] = right;  positions[p + 7] = top;     positions[p + 8] = 0;
+        positions[p + 9] = left;   positions[p + 10] = top;    positions[p + 11] = 0;
+
+        texCoords[t] = glyph.u0;     texCoords[t + 1] = glyph.v1;
+        texCoords[t + 2] = glyph.u1; texCoords[t + 3] = glyph.v1;
+        texCoords[t + 4] = glyph.u1; texCoords[t + 5] = glyph.v0;
+        texCoords[t + 6] = glyph.u0; texCoords[t + 7] = glyph.v0;
+    }
+
+    /*
+     * Greedy line breaking: a line ends at a newline, or when the next
+     * glyph would go past the wrap width, at the last space if there
+     * was one on the line.
+     */
+    private void breakLines(CharSequence text)
+    {
+        int n = text.length();
+        int lineStart = 0;
+        int lastSpace = -1;
+        int previous = -1;
+        float widthAtSpace = 0;
+        float x = 0;
+
+        mLineCount = 0;
+        mWidth = 0;
+        for (int i = 0; i < n; )
+        {
+            int codePoint = Character.codePointAt(text, i);
+            int next = i + Character.charCount(codePoint);
+
+            if (codePoint == '\n')
+            {
+                addLine(lineStart, i, x);
+                lineStart = next;
+                lastSpace = -1;
+                previous = -1;
+                x = 0;
+                i = next;
+                continue;
+            }
+            Glyph glyph = mGlyphs.getGlyph(codePoint);
+            if (glyph == null)
+            {
+                i = next;
+                continue;
+            }
+            float advance = glyph.advance * mTextSize;
+            float kerning = kerning(previous, codePoint);
+            previous = codePoint;
+            if (Character.isWhitespace(codePoint))
+            {
+                lastSpace = i;
+                widthAtSpace = x;
+                x += kerning + advance;
+                i = next;
+                continue;
+            }
+            if ((mMaxWidth > 0) && (i > lineStart) &&
+                (x + kerning + (glyph.left + glyph.width) * mTextSize > mMaxWidth))
+            {
+                if (lastSpace >= lineStart)
+                {
+                    // the glyphs after the space move to the next line
+                    addLine(lineStart, lastSpace, widthAtSpace);
+                    lineStart = lastSpace + 1;
+                    lastSpace = -1;
+                    x = measure(text, lineStart, next);
+                    i = next;
+                    continue;
+                }
+                addLine(lineStart, i, x);
+                lineStart = i;
+                lastSpace = -1;
+                kerning = 0;
+                x = 0;
+            }
+            x += kerning + advance;
+            i = next;
+        }
+        addLine(lineStart, n, x);
+    }
+
+    private float measure(CharSequence text, int start, int end)
+    {
+        int previous = -1;
+        float x = 0;
+
+        for (int i = start; i < end; )
+        {
+            int codePoint = Character.codePointAt(text, i);
+            Glyph glyph = mGlyphs.getGlyph(codePoint);
+
+            if (glyph != null)
+            {
+                x += kerning(previous, codePoint) + glyph.advance * mTextSize;
+                previous = codePoint;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return x;
+    }
+
+    /*
+     * Kerning of a pair in scene units, none at the start of a line.
+     */
+    private float kerning(int previous, int codePoint)
+    {
+        return (previous < 0) ? 0 : mGlyphs.getKerning(previous, codePoint) * mTextSize;
+    }
+
+    private void addLine(int start, int end, float width)
+    {
+        if (mLineCount == mLineStarts.length)
+        {
+            int size = mLineCount * 2;
+            mLineStarts = Arrays.copyOf(mLineStarts, size);
+            mLineEnds = Arrays.copyOf(mLineEnds, size);
+            mLineWidths = Arrays.copyOf(mLineWidths, size);
+        }
+        mLineStarts[mLineCount] = start;
+        mLineEnds[mLineCount] = end;
+        mLineWidths[mLineCount] = width;
+        ++mLineCount;
+        mWidth = Math.max(mWidth, width);
+    }
+}
@@ -0,0 +1,463 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.scene_objects;
+
+import android.graphics.Color;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRIndexBuffer;
+import org.gearvrf.GVRMaterial;
+import org.gearvrf.GVRMesh;
+import org.gearvrf.GVRRenderData;
+import org.gearvrf.GVRSceneObject;
+import org.gearvrf.GVRShaderId;
+import org.gearvrf.GVRVertexBuffer;
+import org.gearvrf.shaders.GVRDistanceFieldTextShader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.gearvrf.scene_objects.GVRTextLayout.INDICES_PER_QUAD;
+import static org.gearvrf.scene_objects.GVRTextLayout.POSITION_SIZE;
+import static org.gearvrf.scene_objects.GVRTextLayout.TEXCOORD_SIZE;
+import static org.gearvrf.scene_objects.GVRTextLayout.VERTICES_PER_QUAD;
+
+/**
+ * Renders text as a mesh of glyph quads from a shared {@link GVRGlyphAtlas}.
+ * <p>
+ * Unlike {@link GVRTextViewSceneObject}, there is no Android view, surface
+ * or texture upload per text. A text mesh holds any number of
+ * {@link Label}s, all drawn with one material in a single draw call.
+ * Changing the text of a label only rewrites that label's range of the
+ * vertex buffer. This makes it suitable for a HUD with many values that
+ * change often.
+ * <p>
+ * Each label reserves a few more glyph quads than its text needs. The
+ * vertex buffer is only rebuilt when a label outgrows the room left in it.
+ */
+public class GVRTextMeshSceneObject extends GVRSceneObject
+{
+    private static final String VERTEX_DESCRIPTOR = "float3 a_position float2 a_texcoord";
+    private static final int INITIAL_QUADS = 64;
+    private static final int QUAD_GRANULARITY = 8;
+
+    /**
+     * A text, at a position in the local coordinates of the mesh.
+     * The top left corner of the text is at that position.
+     */
+    public final class Label
+    {
+        private CharSequence mText;
+        private float mX;
+        private float mY;
+        private float mWidth;
+        private float mHeight;
+        private int mFirstQuad;
+        private int mCapacity;
+        private int mQuadCount;
+
+        private Label(float x, float y, CharSequence text)
+        {
+            mX = x;
+            mY = y;
+            mText = text;
+        }
+
+        /**
+         * Replace the text of the label.
+         * Only the vertices of this label are updated.
+         */
+        public void setText(CharSequence text)
+        {
+            synchronized (mLock)
+            {
+                mText = text;
+                if (mLabels.contains(this))
+                {
+                    updateLabel(this);
+                }
+            }
+        }
+
+        public CharSequence getText()
+        {
+            return mText;
+        }
+
+        public void setPosition(float x, float y)
+        {
+            synchronized (mLock)
+            {
+                mX = x;
+                mY = y;
+                if (mLabels.contains(this))
+                {
+                    updateLabel(this);
+                }
+            }
+        }
+
+        public float getX()
+        {
+            return mX;
+        }
+
+        public float getY()
+        {
+            return mY;
+        }
+
+        /**
+         * @return width of the laid out text, in scene units
+         */
+        public float getWidth()
+        {
+            return mWidth;
+        }
+
+        /**
+         * @return height of the laid out text, in scene units
+         */
+        public float getHeight()
+        {
+            return mHeight;
+        }
+    }
+
+    private final Object mLock = new Object();
+    private final GVRGlyphAtlas mAtlas;
+    private final GVRTextLayout mLayout;
+    private final GVRMaterial mMaterial;
+    private final List<Label> mLabels = new ArrayList<Label>();
+
+    private GVRVertexBuffer mVertices;
+    private float[] mPositions;
+    private float[] mTexCoords;
+    private int mQuadCapacity;
+    private int mUsedQuads;
+
+    /**
+     * Create an empty text mesh.
+     * @param gvrContext current {@link GVRContext}
+     * @param atlas      glyphs to draw the text with
+     * @see #addLabel(float, float, CharSequence)
+     */
+    public GVRTextMeshSceneObject(GVRContext gvrContext, GVRGlyphAtlas atlas)
+    {
+        super(gvrContext);
+        mAtlas = atlas;
+        mLayout = new GVRTextLayout(atlas);
+        mMaterial = new GVRMaterial(gvrContext, new GVRShaderId(GVRDistanceFieldTextShader.class));
+        mMaterial.setTexture("u_texture", atlas.getTexture());
+
+        GVRRenderData renderData = new GVRRenderData(gvrContext);
+        renderData.setMaterial(mMaterial);
+        renderData.setAlphaBlend(true);
+        renderData.setDepthMask(false);
+        renderData.setRenderingOrder(GVRRenderData.GVRRenderingOrder.TRANSPARENT);
+        attachRenderData(renderData);
+        allocate(INITIAL_QUADS);
+    }
+
+    /**
+     * Create a text mesh with a single label at its origin.
+     * @param gvrContext current {@link GVRContext}
+     * @param atlas      glyphs to draw the text with
+     * @param text       text of the label
+     * @see #setText(CharSequence)
+     */
+    public GVRTextMeshSceneObject(GVRContext gvrContext, GVRGlyphAtlas atlas, CharSequence text)
+    {
+        this(gvrContext, atlas);
+        addLabel(0, 0, text);
+    }
+
+    public GVRGlyphAtlas getAtlas()
+    {
+        return mAtlas;
+    }
+
+    /**
+     * Add a label to this text mesh.
+     * @param x    X coordinate of the top left corner of the text
+     * @param y    Y coordinate of the top left corner of the text
+     * @param text text of the label
+     * @return the new label
+     */
+    public Label addLabel(float x, float y, CharSequence text)
+    {
+        synchronized (mLock)
+        {
+            Label label = new Label(x, y, text);
+            mLabels.add(label);
+            updateLabel(label);
+            return label;
+        }
+    }
+
+    /**
+     * Remove a label from this text mesh. Its glyphs disappear and its
+     * room in the vertex buffer is reclaimed the next time it is rebuilt.
+     */
+    public void removeLabel(Label label)
+    {
+        synchronized (mLock)
+        {
+            if (!mLabels.remove(label))
+            {
+                return;
+            }
+            clearQuads(label.mFirstQuad, label.mQuadCount);
+            upload(label.mFirstQuad, label.mQuadCount);
+            if (label.mFirstQuad + label.mCapacity == mUsedQuads)
+            {
+                mUsedQuads = label.mFirstQuad;
+            }
+        }
+    }
+
+    /**
+     * @return the labels of this text mesh, in the order they were added
+     */
+    public List<Label> getLabels()
+    {
+        synchronized (mLock)
+        {
+            return new ArrayList<Label>(mLabels);
+        }
+    }
+
+    /**
+     * Set the text of the first label, adding one at the origin if there is none.
+     */
+    public void setText(CharSequence text)
+    {
+        synchronized (mLock)
+        {
+            if (mLabels.isEmpty())
+            {
+                addLabel(0, 0, text);
+            }
+            else
+            {
+                mLabels.get(0).setText(text);
+            }
+        }
+    }
+
+    /**
+     * @return text of the first label, or null if there is no label
+     */
+    public CharSequence getText()
+    {
+        synchronized (mLock)
+        {
+            return mLabels.isEmpty() ? null : mLabels.get(0).getText();
+        }
+    }
+
+    /**
+     * @param size height of an em, in scene units
+     */
+    public void setTextSize(float size)
+    {
+        synchronized (mLock)
+        {
+            mLayout.setTextSize(size);
+            updateAll();
+        }
+    }
+
+    public float getTextSize()
+    {
+        return mLayout.getTextSize();
+    }
+
+    /**
+     * @param maxWidth width at which lines are wrapped, in scene units. 0 to never wrap.
+     */
+    public void setMaxWidth(float maxWidth)
+    {
+        synchronized (mLock)
+        {
+            mLayout.setMaxWidth(maxWidth);
+            updateAll();
+        }
+    }
+
+    public float getMaxWidth()
+    {
+        return mLayout.getMaxWidth();
+    }
+
+    public void setLineSpacing(float spacing)
+    {
+        synchronized (mLock)
+        {
+            mLayout.setLineSpacing(spacing);
+            updateAll();
+        }
+    }
+
+    public float getLineSpacing()
+    {
+        return mLayout.getLineSpacing();
+    }
+
+    public void setAlignment(GVRTextLayout.Alignment alignment)
+    {
+        synchronized (mLock)
+        {
+            mLayout.setAlignment(alignment);
+            updateAll();
+        }
+    }
+
+    public GVRTextLayout.Alignment getAlignment()
+    {
+        return mLayout.getAlignment();
+    }
+
+    /**
+     * @param color Android color of all the labels, including alpha
+     */
+    public void setTextColor(int color)
+    {
+        mMaterial.setVec4("u_color", Color.red(color) / 255.0f, Color.green(color) / 255.0f,
+                          Color.blue(color) / 255.0f, Color.alpha(color) / 255.0f);
+    }
+
+    private void updateLabel(Label label)
+    {
+        int needed = GVRTextLayout.getMaxQuads(label.mText);
+
+        if (needed > label.mCapacity)
+        {
+            int capacity = roundUp(needed);
+            if (mUsedQuads + capacity > mQuadCapacity)
+            {
+                // compact the labels, into a larger vertex buffer if they do not fit
+                label.mCapacity = capacity;
+                int required = requiredQuads();
+                allocate((required <= mQuadCapacity) ? mQuadCapacity
+                         : roundUp(Math.max(mQuadCapacity * 2, required)));
+                return;
+            }
+            clearQuads(label.mFirstQuad, label.mQuadCount);
+            upload(label.mFirstQuad, label.mQuadCount);
+            label.mFirstQuad = mUsedQuads;
+            label.mCapacity = capacity;
+            label.mQuadCount = 0;
+            mUsedQuads += capacity;
+        }
+        int oldCount = label.mQuadCount;
+        layoutLabel(label);
+        upload(label.mFirstQuad, Math.max(oldCount, label.mQuadCount));
+    }
+
+    private void updateAll()
+    {
+        for (Label label : mLabels)
+        {
+            layoutLabel(label);
+        }
+        upload(0, mUsedQuads);
+    }
+
+    /*
+     * Lay out the label into its quads, collapsing the unused ones.
+     */
+    private void layoutLabel(Label label)
+    {
+        int count = mLayout.layout(label.mText, label.mX, label.mY,
+                                   mPositions, mTexCoords, label.mFirstQuad);
+
+        clearQuads(label.mFirstQuad + count, label.mQuadCount - count);
+        label.mQuadCount = count;
+        label.mWidth = mLayout.getWidth();
+        label.mHeight = mLayout.getHeight();
+    }
+
+    private void clearQuads(int firstQuad, int numQuads)
+    {
+        if (numQuads > 0)
+        {
+            int first = firstQuad * VERTICES_PER_QUAD;
+            int end = first + numQuads * VERTICES_PER_QUAD;
+            Arrays.fill(mPositions, first * POSITION_SIZE, end * POSITION_SIZE, 0.0f);
+        }
+    }
+
+    private void upload(int firstQuad, int numQuads)
+    {
+        if (numQuads > 0)
+        {
+            int firstVertex = firstQuad * VERTICES_PER_QUAD;
+            int numVerts = numQuads * VERTICES_PER_QUAD;
+
+            mVertices.setFloatArrayRange("a_position", mPositions, firstVertex * POSITION_SIZE,
+                                         firstVertex, numVerts);
+            mVertices.setFloatArrayRange("a_texcoord", mTexCoords, firstVertex * TEXCOORD_SIZE,
+                                         firstVertex, numVerts);
+        }
+    }
+
+    private int requiredQuads()
+    {
+        int total = 0;
+        for (Label label : mLabels)
+        {
+            total += Math.max(label.mCapacity, roundUp(GVRTextLayout.getMaxQuads(label.mText)));
+        }
+        return total;
+    }
+
+    /*
+     * Make a new mesh with room for the given number of quads and lay out
+     * all of the labels next to each other at the start of it.
+     */
+    private void allocate(int quadCapacity)
+    {
+        int numVerts = quadCapacity * VERTICES_PER_QUAD;
+        int[] indices = new int[quadCapacity * INDICES_PER_QUAD];
+        GVRIndexBuffer indexBuffer = new GVRIndexBuffer(getGVRContext(), 4, indices.length);
+
+        mQuadCapacity = quadCapacity;
+        mPositions = new float[numVerts * POSITION_SIZE];
+        mTexCoords = new float[numVerts * TEXCOORD_SIZE];
+        mUsedQuads = 0;
+        for (Label label : mLabels)
+        {
+            label.mCapacity = Math.max(label.mCapacity, roundUp(GVRTextLayout.getMaxQuads(label.mText)));
+            label.mFirstQuad = mUsedQuads;
+            label.mQuadCount = 0;
+            mUsedQuads += label.mCapacity;
+            layoutLabel(label);
+        }
+        GVRTextLayout.setQuadIndices(indices, 0, quadCapacity);
+        indexBuffer.setIntVec(indices);
+        mVertices = new GVRVertexBuffer(getGVRContext(), VERTEX_DESCRIPTOR, numVerts);
+        mVertices.setFloatArray("a_position", mPositions);
+        mVertices.setFloatArray("a_texcoord", mTexCoords);
+        getRenderData().setMesh(new GVRMesh(mVertices, indexBuffer));
+    }
+
+    private static int roundUp(int quads)
+    {
+        return Math.max(QUAD_GRANULARITY, (quads + QUAD_GRANULARITY - 1) / QUAD_GRANULARITY * QUAD_GRANULARITY);
+    }
+}
@@ -0,0 +1,51 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gearvrf.shaders;
+
+import android.content.Context;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRShaderData;
+import org.gearvrf.GVRShaderTemplate;
+import org.gearvrf.R;
+import org.gearvrf.utility.TextFile;
+
+/**
+ * Shader which renders text from a signed distance field glyph atlas.
+ * Edges are anti-aliased over about a pixel at any magnification.
+ * This shader ignores light sources.
+ * @<code>
+ *     a_position   position vertex attribute
+ *     a_texcoord   texture coordinate vertex attribute
+ *     u_color      color and opacity of the text
+ *     u_texture    distance field of the glyphs
+ * </code>
+ * @see org.gearvrf.scene_objects.GVRGlyphAtlas
+ */
+public class GVRDistanceFieldTextShader extends GVRShaderTemplate
+{
+    public GVRDistanceFieldTextShader(GVRContext gvrContext)
+    {
+        super("float4 u_color", "sampler2D u_texture", "float3 a_position float2 a_texcoord", GLSLESVersion.VULKAN);
+        Context context = gvrContext.getContext();
+        setSegment("FragmentTemplate", TextFile.readTextFile(context, R.raw.distance_field_text_frag));
+        setSegment("VertexTemplate", TextFile.readTextFile(context, R.raw.pos_tex_ubo));
+    }
+
+    protected void setMaterialDefaults(GVRShaderData material)
+    {
+        material.setVec4("u_color", 1, 1, 1, 1);
+    }
+}
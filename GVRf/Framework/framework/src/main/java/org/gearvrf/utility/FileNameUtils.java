@@ -18,6 +18,9 @@ package org.gearvrf.utility;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.regex.Pattern;
 
 /**
@@ -125,4 +128,55 @@ public class FileNameUtils {
         String[] tokens = fileName.split("\\.(?=[^\\.]+$)");
         return tokens;
     }
+
+    /**
+     * Gets a string which identifies the resource a URL downloads.
+     *
+     * Unlike {@link URL#equals(Object)} and {@link URL#hashCode()}, this never
+     * resolves the host name, so it cannot block on DNS. Scheme and host are
+     * case insensitive, the default port is the same as no port, "." and ".."
+     * path segments are resolved and the fragment is dropped, as it never
+     * changes what is downloaded.
+     * @param url the URL to normalize.
+     * @return the normalized URL.
+     */
+    public static String normalizeUrl(URL url) {
+        String protocol = url.getProtocol().toLowerCase(Locale.US);
+        StringBuilder key = new StringBuilder(protocol).append("://");
+        if (url.getUserInfo() != null) {
+            key.append(url.getUserInfo()).append('@');
+        }
+        key.append(url.getHost().toLowerCase(Locale.US));
+        if ((url.getPort() != -1) && (url.getPort() != url.getDefaultPort())) {
+            key.append(':').append(url.getPort());
+        }
+
+        List<String> segments = new ArrayList<String>();
+        String[] parts = url.getPath().split("/", -1);
+        for (int i = 1; i < parts.length; ++i) {
+            String segment = parts[i];
+            boolean last = (i == parts.length - 1);
+            if (segment.equals(".") || segment.equals("..")) {
+                if (segment.equals("..") && !segments.isEmpty()) {
+                    segments.remove(segments.size() - 1);
+                }
+                if (last) {
+                    segments.add("");   // keep the trailing slash
+                }
+            } else {
+                segments.add(segment);
+            }
+        }
+        key.append('/');
+        for (int i = 0; i < segments.size(); ++i) {
+            if (i > 0) {
+                key.append('/');
+            }
+            key.append(segments.get(i));
+        }
+        if (url.getQuery() != null) {
+            key.append('?').append(url.getQuery());
+        }
+        return key.toString();
+    }
 }
@@ -0,0 +1,604 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.utility;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads URLs into a local, content-addressed cache.
+ * <p>
+ * Downloads run on a fixed number of threads; asking for a URL which is
+ * already being downloaded joins that download. Each file is stored once,
+ * named by the SHA-1 of its content, however many URLs return it. For
+ * each URL the cache remembers which file it returned, and its ETag and
+ * Last-Modified validators.
+ * <p>
+ * A cached URL is used without a request until its revalidation interval
+ * runs out. After that it is revalidated with a conditional request, and
+ * downloaded again only if it changed. When the server cannot be reached
+ * the stale copy is used. An interrupted download is resumed with a range
+ * request, as long as the server still has the same version.
+ * <p>
+ * The cache is kept under a size limit by deleting the least recently used
+ * files. A file returned by {@link #fetch(URL)} is pinned until the caller
+ * calls {@link #release(URL)}, which it should do as soon as the file is
+ * open; {@link #openNow(URL)} does both. Files used in the last few seconds
+ * are not deleted either, as a grace period for callers which do not pin.
+ */
+public final class HttpFetcher {
+    private static final int CONNECT_TIMEOUT = 15000;
+    private static final int READ_TIMEOUT = 30000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long IN_USE_MILLIS = 10000;
+
+    private static final String OBJECTS = "objects";
+    private static final String URLS = "urls";
+    private static final String PARTIAL = "partial";
+
+    private static final String KEY_URL = "url";
+    private static final String KEY_OBJECT = "object";
+    private static final String KEY_LENGTH = "length";
+    private static final String KEY_ETAG = "etag";
+    private static final String KEY_LAST_MODIFIED = "lastModified";
+    private static final String KEY_VALIDATED = "validated";
+
+    private final File mObjects;
+    private final File mUrls;
+    private final File mPartial;
+    private final long mMaxCacheBytes;
+    private final ExecutorService mExecutor;
+    private final ConcurrentHashMap<String, Future<File>> mInFlight =
+            new ConcurrentHashMap<String, Future<File>>();
+    private final Map<String, Integer> mPins = new HashMap<String, Integer>();
+    private volatile long mRevalidateMillis = 10 * 60 * 1000;
+
+    /**
+     * Create a fetcher. Fetchers sharing a cache directory must not be
+     * used at the same time.
+     * @param cacheDir      directory of the cache, created if needed
+     * @param maxCacheBytes size the cache is trimmed to after downloads
+     * @param maxConcurrent maximum number of downloads running at once
+     */
+    public HttpFetcher(File cacheDir, long maxCacheBytes, int maxConcurrent) {
+        mObjects = new File(cacheDir, OBJECTS);
+        mUrls = new File(cacheDir, URLS);
+        mPartial = new File(cacheDir, PARTIAL);
+        mObjects.mkdirs();
+        mUrls.mkdirs();
+        mPartial.mkdirs();
+        mMaxCacheBytes = maxCacheBytes;
+
+        final AtomicInteger count = new AtomicInteger();
+        mExecutor = Executors.newFixedThreadPool(maxConcurrent, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "HttpFetcher-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Set how long a cached URL is used before it is revalidated with the
+     * server. 0 revalidates on every fetch.
+     */
+    public void setRevalidateInterval(long millis) {
+        mRevalidateMillis = millis;
+    }
+
+    /**
+     * Start downloading a URL, unless the cache has it. The file is pinned
+     * in the cache until {@link #release(URL)} is called, once for each
+     * fetch, whether it succeeds or not.
+     * @param url the URL
+     * @return the cached file, when it is available. Fails with an
+     * {@link IOException} if the URL cannot be downloaded and is not cached.
+     */
+    public Future<File> fetch(final URL url) {
+        final String key = FileNameUtils.normalizeUrl(url);
+        pin(key);
+        Future<File> running = mInFlight.get(key);
+        if ((running != null) && !running.isDone()) {
+            return running;
+        }
+
+        final FutureTask<File> task = new FutureTask<File>(new Callable<File>() {
+            @Override
+            public File call() throws IOException {
+                return load(url, key);
+            }
+        }) {
+            @Override
+            protected void done() {
+                // only once the result is published: until then a fetch of
+                // the same key joins this task instead of loading again
+                mInFlight.remove(key, this);
+            }
+        };
+        while ((running = mInFlight.putIfAbsent(key, task)) != null) {
+            if (!running.isDone()) {
+                return running;
+            }
+            // finished but not removed by done() yet: its load() has
+            // returned, so a caller who saw a failure can start a new one
+            mInFlight.remove(key, running);
+        }
+        mExecutor.execute(task);
+        return task;
+    }
+
+    /**
+     * Download a URL unless the cache has it, and wait for it. As with
+     * {@link #fetch(URL)}, the file is pinned until {@link #release(URL)}
+     * is called; if this throws, the pin is already released.
+     * @param url the URL
+     * @return the cached file
+     * @throws IOException if the URL cannot be downloaded and is not cached
+     */
+    public File fetchNow(URL url) throws IOException {
+        boolean fetched = false;
+        try {
+            File file = fetch(url).get();
+            fetched = true;
+            return file;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading " + url);
+        } finally {
+            if (!fetched) {
+                release(url);
+            }
+        }
+    }
+
+    /**
+     * Download a URL unless the cache has it, and open it.
+     * @param url the URL
+     * @return a stream of the cached file, which supports mark and reset
+     * @throws IOException if the URL cannot be downloaded and is not cached
+     */
+    public InputStream openNow(URL url) throws IOException {
+        File file = fetchNow(url);
+        try {
+            // an open file can be deleted, and stays readable
+            return new MarkingFileInputStream(file);
+        } finally {
+            release(url);
+        }
+    }
+
+    /**
+     * Unpin the file of a URL, so that it can be deleted when the cache is
+     * trimmed. Call it once for each {@link #fetch(URL)} or successful
+     * {@link #fetchNow(URL)}.
+     * @param url the URL
+     */
+    public synchronized void release(URL url) {
+        String key = FileNameUtils.normalizeUrl(url);
+        Integer count = mPins.get(key);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            mPins.put(key, count - 1);
+        } else {
+            mPins.remove(key);
+        }
+    }
+
+    private synchronized void pin(String key) {
+        Integer count = mPins.get(key);
+        mPins.put(key, (count == null) ? 1 : count + 1);
+    }
+
+    /**
+     * @return total size of the cached files in bytes
+     */
+    public long getCacheSize() {
+        long total = 0;
+        File[] files = mObjects.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                total += file.length();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Delete least recently used files until the cache is under its size
+     * limit. Pinned files, and files used in the last few seconds, are
+     * kept. Runs after every download.
+     */
+    public synchronized void trim() {
+        File[] files = mObjects.listFiles();
+        if (files == null) {
+            return;
+        }
+        final long[] used = new long[files.length];
+        long total = 0;
+        for (int i = 0; i < files.length; ++i) {
+            total += files[i].length();
+        }
+        if (total <= mMaxCacheBytes) {
+            return;
+        }
+
+        // lastModified() is a system call, read it once per file
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; ++i) {
+            used[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return (used[a] < used[b]) ? -1 : ((used[a] == used[b]) ? 0 : 1);
+            }
+        });
+
+        // the files which pinned URLs point to now
+        Set<String> pinned = new HashSet<String>();
+        for (String key : mPins.keySet()) {
+            Properties meta = readProperties(new File(mUrls, sha1(key)));
+            if (meta != null) {
+                pinned.add(meta.getProperty(KEY_OBJECT, ""));
+            }
+        }
+
+        final long inUse = System.currentTimeMillis() - IN_USE_MILLIS;
+        for (int i = 0; (i < order.length) && (total > mMaxCacheBytes); ++i) {
+            File file = files[order[i]];
+            if (used[order[i]] >= inUse) {
+                break;
+            }
+            if (pinned.contains(file.getName())) {
+                continue;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+    }
+
+    /*
+     * Get a URL from the cache or the network. Runs on a pool thread, and
+     * never for the same key on two threads at once.
+     */
+    private File load(URL url, String key) throws IOException {
+        final String name = sha1(key);
+        final File metaFile = new File(mUrls, name);
+        final Properties meta = readProperties(metaFile);
+        File cached = null;
+
+        if (meta != null) {
+            cached = new File(mObjects, meta.getProperty(KEY_OBJECT, ""));
+            if (!cached.isFile() || (cached.length() != parseLong(meta.getProperty(KEY_LENGTH), -1))) {
+                cached = null;
+            } else if (System.currentTimeMillis() - parseLong(meta.getProperty(KEY_VALIDATED), 0) < mRevalidateMillis) {
+                touch(cached);
+                return cached;
+            }
+        }
+
+        try {
+            File file = download(url, key, name, (cached != null) ? meta : null, cached);
+            trim();
+            return file;
+        } catch (IOException e) {
+            if (cached != null) {
+                // stale is better than nothing
+                touch(cached);
+                return cached;
+            }
+            throw e;
+        }
+    }
+
+    private File download(URL url, String key, String name, Properties meta, File cached)
+            throws IOException {
+        final File partial = new File(mPartial, name);
+        final File partialMetaFile = new File(mPartial, name + ".properties");
+        Properties partialMeta = readProperties(partialMetaFile);
+        String ifRange = null;
+        long offset = 0;
+
+        if ((meta == null) && (partialMeta != null) && (partial.length() > 0)) {
+            ifRange = partialMeta.getProperty(KEY_ETAG);
+            if (ifRange == null) {
+                ifRange = partialMeta.getProperty(KEY_LAST_MODIFIED);
+            }
+            if (ifRange != null) {
+                offset = partial.length();
+            }
+        }
+
+        URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        connection.setUseCaches(false);
+        HttpURLConnection http = (connection instanceof HttpURLConnection)
+                ? (HttpURLConnection) connection : null;
+
+        if (http != null) {
+            // ranges and lengths count encoded bytes; keep them raw
+            http.setRequestProperty("Accept-Encoding", "identity");
+            if (meta != null) {
+                if (meta.getProperty(KEY_ETAG) != null) {
+                    http.setRequestProperty("If-None-Match", meta.getProperty(KEY_ETAG));
+                }
+                if (meta.getProperty(KEY_LAST_MODIFIED) != null) {
+                    http.setRequestProperty("If-Modified-Since", meta.getProperty(KEY_LAST_MODIFIED));
+                }
+            } else if (offset > 0) {
+                http.setRequestProperty("Range", "bytes=" + offset + "-");
+                http.setRequestProperty("If-Range", ifRange);
+            }
+        }
+
+        try {
+            long expected = connection.getContentLength();
+            if (http != null) {
+                final int status = http.getResponseCode();
+                if ((status == HttpURLConnection.HTTP_NOT_MODIFIED) && (cached != null)) {
+                    meta.setProperty(KEY_VALIDATED, Long.toString(System.currentTimeMillis()));
+                    writeProperties(new File(mUrls, name), meta);
+                    touch(cached);
+                    return cached;
+                } else if (status == HttpURLConnection.HTTP_PARTIAL) {
+                    long[] range = parseContentRange(http.getHeaderField("Content-Range"));
+                    if ((range == null) || (range[0] != offset)) {
+                        throw new IOException("Unexpected Content-Range from " + url);
+                    }
+                    expected = range[1] - offset;
+                } else if (status == 416) {
+                    // the server has a shorter version, start over next time
+                    partial.delete();
+                    partialMetaFile.delete();
+                    throw new IOException("Range not satisfiable for " + url);
+                } else if (status == HttpURLConnection.HTTP_OK) {
+                    offset = 0;
+                } else {
+                    throw new IOException("HTTP " + status + " for " + url);
+                }
+
+                partialMeta = new Properties();
+                putIfNotNull(partialMeta, KEY_ETAG, http.getHeaderField("ETag"));
+                putIfNotNull(partialMeta, KEY_LAST_MODIFIED, http.getHeaderField("Last-Modified"));
+                if (offset == 0) {
+                    writeProperties(partialMetaFile, partialMeta);
+                }
+            } else {
+                offset = 0;
+                partialMeta = null;
+            }
+
+            MessageDigest digest = newDigest();
+            if (offset > 0) {
+                hashFile(partial, digest);
+            }
+            long received = copy(connection.getInputStream(), partial, offset > 0, digest);
+            if ((expected >= 0) && (received != expected)) {
+                throw new IOException("Download of " + url + " ended after " + received
+                        + " of " + expected + " bytes");
+            }
+
+            String object = toHex(digest.digest());
+            File file = new File(mObjects, object);
+            if (file.isFile() && (file.length() == offset + received)) {
+                partial.delete();           // same content as another URL
+            } else if (!partial.renameTo(file)) {
+                throw new IOException("Cannot create " + file);
+            }
+            partialMetaFile.delete();
+            touch(file);
+
+            Properties newMeta = (partialMeta != null) ? partialMeta : new Properties();
+            newMeta.setProperty(KEY_URL, key);
+            newMeta.setProperty(KEY_OBJECT, object);
+            newMeta.setProperty(KEY_LENGTH, Long.toString(file.length()));
+            newMeta.setProperty(KEY_VALIDATED, Long.toString(System.currentTimeMillis()));
+            writeProperties(new File(mUrls, name), newMeta);
+            return file;
+        } finally {
+            if (http != null) {
+                http.disconnect();
+            }
+        }
+    }
+
+    /*
+     * Copy a response to a file, hashing it on the way.
+     * The file keeps what was received if the copy fails.
+     */
+    private static long copy(InputStream in, File file, boolean append, MessageDigest digest)
+            throws IOException {
+        long count = 0;
+        try {
+            OutputStream out = new FileOutputStream(file, append);
+            try {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, n);
+                    digest.update(buffer, 0, n);
+                    count += n;
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+        return count;
+    }
+
+    private static void hashFile(File file, MessageDigest digest) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /*
+     * "bytes first-last/total" to { first, total }, null if it is not one.
+     * An unknown total gives -1.
+     */
+    private static long[] parseContentRange(String value) {
+        if ((value == null) || !value.startsWith("bytes ")) {
+            return null;
+        }
+        int dash = value.indexOf('-');
+        int slash = value.indexOf('/');
+        if ((dash < 0) || (slash < dash)) {
+            return null;
+        }
+        long first = parseLong(value.substring(6, dash).trim(), -1);
+        String total = value.substring(slash + 1).trim();
+        if (first < 0) {
+            return null;
+        }
+        return new long[] { first, total.equals("*") ? -1 : parseLong(total, -1) };
+    }
+
+    /*
+     * The file modification time is the LRU clock.
+     */
+    private static void touch(File file) {
+        file.setLastModified(System.currentTimeMillis());
+    }
+
+    private static Properties readProperties(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try {
+            InputStream in = new FileInputStream(file);
+            try {
+                properties.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return properties;
+    }
+
+    /*
+     * Write to a temporary file and rename it, so a reader never sees
+     * half the properties.
+     */
+    private static void writeProperties(File file, Properties properties) throws IOException {
+        File temporary = new File(file.getPath() + ".tmp");
+        OutputStream out = new FileOutputStream(temporary);
+        try {
+            properties.store(out, null);
+        } finally {
+            out.close();
+        }
+        if (!temporary.renameTo(file)) {
+            temporary.delete();
+            throw new FileNotFoundException("Cannot create " + file);
+        }
+    }
+
+    private static void putIfNotNull(Properties properties, String key, String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private static long parseLong(String value, long fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);   // every Java runtime has SHA-1
+        }
+    }
+
+    private static String sha1(String text) {
+        try {
+            return toHex(newDigest().digest(text.getBytes("UTF-8")));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        final char[] digits = "0123456789abcdef".toCharArray();
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; ++i) {
+            hex[2 * i] = digits[(bytes[i] >> 4) & 0xf];
+            hex[2 * i + 1] = digits[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+}
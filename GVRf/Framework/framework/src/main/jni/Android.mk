@@ -98,4 +98,39 @@ LOCAL_CFLAGS := -Wattributes
 LOCAL_LDLIBS += -ljnigraphics -llog -lGLESv3 -lEGL -lz -landroid
 
 include $(BUILD_SHARED_LIBRARY)
+
+# Headless opacity scan, spatial grid, instance grouping and sparse morph benchmarks, build with GVRF_BENCHMARK=1 and run with adb shell
+ifdef GVRF_BENCHMARK
+include $(CLEAR_VARS)
+LOCAL_MODULE := gvrf-opacity-benchmark
+LOCAL_SRC_FILES := benchmark/opacity_benchmark.cpp objects/textures/pixel_opacity.cpp
+ifeq ($(TARGET_ARCH_ABI),$(filter $(TARGET_ARCH_ABI), armeabi-v7a x86))
+LOCAL_ARM_NEON  := true
+endif
+LOCAL_CPPFLAGS += -std=c++11
+include $(BUILD_EXECUTABLE)
+
+include $(CLEAR_VARS)
+LOCAL_MODULE := gvrf-spatial-grid-benchmark
+LOCAL_SRC_FILES := benchmark/spatial_grid_benchmark.cpp objects/spatial_grid.cpp
+LOCAL_C_INCLUDES += $(LOCAL_PATH)/contrib
+LOCAL_CPPFLAGS += -std=c++11
+include $(BUILD_EXECUTABLE)
+
+include $(CLEAR_VARS)
+LOCAL_MODULE := gvrf-instance-grouper-benchmark
+LOCAL_SRC_FILES := benchmark/instance_grouper_benchmark.cpp engine/renderer/instance_grouper.cpp
+LOCAL_C_INCLUDES += $(LOCAL_PATH)/contrib
+LOCAL_CPPFLAGS += -std=c++11
+include $(BUILD_EXECUTABLE)
+
+include $(CLEAR_VARS)
+LOCAL_MODULE := gvrf-sparse-morph-benchmark
+LOCAL_SRC_FILES := benchmark/sparse_morph_benchmark.cpp objects/components/sparse_morph.cpp
+ifeq ($(TARGET_ARCH_ABI),$(filter $(TARGET_ARCH_ABI), armeabi-v7a x86))
+LOCAL_ARM_NEON  := true
+endif
+LOCAL_CPPFLAGS += -std=c++11
+include $(BUILD_EXECUTABLE)
+endif
 $(call import-module, third_party/shaderc)
@@ -0,0 +1,206 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Headless check and benchmark of the instance grouper used by the GL
+ * renderer. Checks the grouping rules (opaque gathering, transparent
+ * order, rendering order and single item barriers, group size limit,
+ * render state keys) and that pack() lays the model matrices out per
+ * group, then times grouping a large render list. Build with
+ * GVRF_BENCHMARK=1 on the ndk-build command line and run the
+ * executable on the device with adb.
+ ***************************************************************************/
+
+#include "../engine/renderer/instance_grouper.h"
+
+#include <chrono>
+#include <cstdio>
+#include <string>
+#include <vector>
+
+#include "glm/gtc/matrix_transform.hpp"
+
+using namespace gvr;
+
+static const int ITEMS = 20000;
+static const int MESHES = 40;
+static const int FRAMES = 100;
+
+static int failures = 0;
+
+static void check(bool ok, const char* what)
+{
+    if (!ok)
+    {
+        printf("FAILED: %s\n", what);
+        ++failures;
+    }
+}
+
+/*
+ * Items are the integers 1, 2, 3... cast to pointers; each item's
+ * model matrix translates by its number so pack() can be checked.
+ */
+static void* item(intptr_t n)
+{
+    return reinterpret_cast<void*>(n);
+}
+
+static glm::mat4 modelOf(intptr_t n)
+{
+    return glm::translate(glm::mat4(), glm::vec3(float(n), 0.0f, 0.0f));
+}
+
+static InstanceGrouper::Key makeKey(intptr_t mesh, int order, const std::string* state = nullptr)
+{
+    InstanceGrouper::Key key = { item(mesh), item(1), 1, order, 3, 0, state };
+    return key;
+}
+
+static void add(InstanceGrouper& g, intptr_t n, const InstanceGrouper::Key& key, bool canReorder)
+{
+    g.add(key, item(n), modelOf(n), canReorder);
+}
+
+/*
+ * The items of group i, as the numbers they were added with.
+ */
+static std::vector<intptr_t> itemsOf(const InstanceGrouper& g, int i)
+{
+    std::vector<intptr_t> items;
+    const InstanceGrouper::Group& group = g.getGroup(i);
+    for (auto it = group.items.begin(); it != group.items.end(); ++it)
+    {
+        items.push_back(reinterpret_cast<intptr_t>(g.getItem(*it)));
+    }
+    return items;
+}
+
+static bool packedMatch(const InstanceGrouper& g)
+{
+    for (int i = 0; i < g.getGroupCount(); ++i)
+    {
+        const InstanceGrouper::Group& group = g.getGroup(i);
+        const glm::mat4* matrices = g.getMatrices(group);
+        for (size_t j = 0; j < group.items.size(); ++j)
+        {
+            intptr_t n = reinterpret_cast<intptr_t>(g.getItem(group.items[j]));
+            if (matrices[j] != modelOf(n))
+            {
+                return false;
+            }
+        }
+    }
+    return true;
+}
+
+static void checkGrouping()
+{
+    InstanceGrouper g(4);
+    const InstanceGrouper::Key a = makeKey(100, 1000);
+    const InstanceGrouper::Key b = makeKey(200, 1000);
+
+    // opaque items with the same key are gathered across other keys
+    g.clear();
+    add(g, 1, a, true);
+    add(g, 2, b, true);
+    add(g, 3, a, true);
+    add(g, 4, b, true);
+    g.pack();
+    check(g.getGroupCount() == 2, "opaque items gather into one group per key");
+    check(itemsOf(g, 0) == std::vector<intptr_t>({ 1, 3 }), "first opaque group keeps add order");
+    check(itemsOf(g, 1) == std::vector<intptr_t>({ 2, 4 }), "second opaque group keeps add order");
+    check(packedMatch(g), "opaque matrices are packed per group");
+
+    // transparent items only join the group right before them
+    g.clear();
+    add(g, 1, a, false);
+    add(g, 2, a, false);
+    add(g, 3, b, false);
+    add(g, 4, a, false);
+    g.pack();
+    check(g.getGroupCount() == 3, "transparent items keep back to front order");
+    check(itemsOf(g, 0) == std::vector<intptr_t>({ 1, 2 }), "consecutive transparent items merge");
+
+    // a change of rendering order is a barrier
+    g.clear();
+    add(g, 1, a, true);
+    add(g, 2, makeKey(100, 2000), true);
+    add(g, 3, makeKey(100, 1000), true);
+    check(g.getGroupCount() == 3, "rendering order changes stop gathering");
+
+    // an item drawn on its own is a barrier
+    g.clear();
+    add(g, 1, a, true);
+    g.addSingle(item(2));
+    add(g, 3, a, true);
+    g.pack();
+    check(g.getGroupCount() == 3, "single items stop gathering");
+    check(!g.getGroup(1).instanced, "single items are not instanced");
+
+    // groups are split at the instance limit
+    g.clear();
+    for (intptr_t n = 1; n <= 10; ++n)
+    {
+        add(g, n, a, true);
+    }
+    g.pack();
+    check(g.getGroupCount() == 3, "groups split at the instance limit");
+    check((g.getGroup(0).items.size() == 4) && (g.getGroup(2).items.size() == 2),
+          "split groups are filled in order");
+    check(packedMatch(g), "split group matrices are packed per group");
+
+    // render states compare by value
+    std::string state1("blend=1"), state2("blend=1"), state3("blend=0");
+    g.clear();
+    add(g, 1, makeKey(100, 1000, &state1), true);
+    add(g, 2, makeKey(100, 1000, &state2), true);
+    add(g, 3, makeKey(100, 1000, &state3), true);
+    check(g.getGroupCount() == 2, "equal render states share a group");
+}
+
+int main(int argc, char** argv)
+{
+    checkGrouping();
+
+    // a render list sorted by rendering order, meshes interleaved as
+    // they would be after sorting by distance
+    std::vector<InstanceGrouper::Key> keys(ITEMS);
+    std::vector<glm::mat4> models(ITEMS);
+    for (int i = 0; i < ITEMS; ++i)
+    {
+        keys[i] = makeKey(1 + (i * 7919) % MESHES, (i < ITEMS / 2) ? 1000 : 3000);
+        models[i] = modelOf(i + 1);
+    }
+
+    InstanceGrouper g;
+    auto start = std::chrono::steady_clock::now();
+    for (int f = 0; f < FRAMES; ++f)
+    {
+        g.clear();
+        for (int i = 0; i < ITEMS; ++i)
+        {
+            g.add(keys[i], item(i + 1), models[i], keys[i].renderingOrder < 2000);
+        }
+        g.pack();
+    }
+    double ms = std::chrono::duration<double, std::milli>(std::chrono::steady_clock::now() - start).count() / FRAMES;
+    check(packedMatch(g), "large render list matrices are packed per group");
+    printf("%d items, %d meshes: %d draw calls, grouping and packing %.3f ms per frame\n",
+           ITEMS, MESHES, g.getGroupCount(), ms);
+
+    printf("%s\n", (failures == 0) ? "all grouping checks pass" : "GROUPING CHECKS FAILED");
+    return (failures == 0) ? 0 : 1;
+}
@@ -0,0 +1,98 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Headless benchmark of the bitmap opacity scan on 4K images.
+ * Compares the vectorized scan with the per-pixel loop it replaced
+ * for opaque, alpha tested and blended images. Build with
+ * GVRF_BENCHMARK=1 on the ndk-build command line and run the
+ * executable on the device with adb.
+ ***************************************************************************/
+
+#include "../objects/textures/pixel_opacity.h"
+
+#include <chrono>
+#include <cstdio>
+#include <vector>
+
+using namespace gvr;
+
+static const int SIZE = 4096;
+static const int RUNS = 10;
+
+static const char* NAMES[] = { "opaque", "alpha tested", "blended" };
+
+/*
+ * The loop used before, kept as the baseline.
+ */
+static int scalarOpacity(const void* pixels, int width, int height, int stride)
+{
+    const uint32_t* ptr = static_cast<const uint32_t*>(pixels);
+    for (int y = 0; y < height; ++y)
+    {
+        for (int x = 0; x < width; ++x)
+        {
+            if ((ptr[x] >> 24) < 255)
+            {
+                return OPACITY_BLENDED;
+            }
+        }
+        ptr = reinterpret_cast<const uint32_t*>(reinterpret_cast<const uint8_t*>(ptr) + stride);
+    }
+    return OPACITY_OPAQUE;
+}
+
+typedef int (*ScanFunc)(const void*, int, int, int);
+
+static double timeScan(ScanFunc volatile scan, const std::vector<uint8_t>& image, int& result)
+{
+    auto start = std::chrono::steady_clock::now();
+    for (int i = 0; i < RUNS; ++i)
+    {
+        result = scan(image.data(), SIZE, SIZE, SIZE * 4);
+    }
+    auto end = std::chrono::steady_clock::now();
+    return std::chrono::duration<double, std::milli>(end - start).count() / RUNS;
+}
+
+int main(int argc, char** argv)
+{
+    std::vector<uint8_t> opaque(SIZE * SIZE * 4, 255);
+    std::vector<uint8_t> tested(opaque);
+    std::vector<uint8_t> blended(opaque);
+
+    // a cut-out in the middle, and one translucent pixel in the last row
+    for (int y = SIZE / 4; y < SIZE * 3 / 4; ++y)
+    {
+        for (int x = SIZE / 4; x < SIZE * 3 / 4; ++x)
+        {
+            tested[(y * SIZE + x) * 4 + 3] = 0;
+        }
+    }
+    blended[((SIZE - 1) * SIZE + SIZE / 2) * 4 + 3] = 128;
+
+    const std::vector<uint8_t>* images[] = { &opaque, &tested, &blended };
+
+    printf("%dx%d RGBA_8888, average of %d runs\n", SIZE, SIZE, RUNS);
+    for (int i = 0; i < 3; ++i)
+    {
+        int vectorResult, scalarResult;
+        double vectorMs = timeScan(opacity_rgba8888, *images[i], vectorResult);
+        double scalarMs = timeScan(scalarOpacity, *images[i], scalarResult);
+        printf("%-13s scan %7.2f ms (%s)  per-pixel loop %7.2f ms\n", NAMES[i],
+               vectorMs, NAMES[vectorResult], scalarMs);
+    }
+    return 0;
+}
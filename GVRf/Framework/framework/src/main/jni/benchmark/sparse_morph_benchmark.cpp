@@ -0,0 +1,194 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Headless benchmark of blend shape evaluation on the CPU for a face rig
+ * of 50 shapes. Compares the memory and time of sparse deltas with the
+ * dense per-vertex layout the morph texture used, with every shape
+ * active and with only a few. Build with GVRF_BENCHMARK=1 on the
+ * ndk-build command line and run the executable on the device with adb.
+ ***************************************************************************/
+
+#include "../objects/components/sparse_morph.h"
+
+#include <algorithm>
+#include <chrono>
+#include <cmath>
+#include <cstdio>
+#include <cstdlib>
+#include <vector>
+
+using namespace gvr;
+
+static const int NUM_VERTS = 12000;
+static const int NUM_SHAPES = 50;
+static const int FLOATS_PER_VERTEX = 6;     // position and normal
+static const int RUNS = 100;
+static const float THRESHOLD = 0.001f;
+
+struct SparseShape
+{
+    std::vector<int> indices;
+    std::vector<float> deltas;
+};
+
+static float randomFloat(float lo, float hi)
+{
+    return lo + (hi - lo) * (rand() / (float) RAND_MAX);
+}
+
+/*
+ * Each shape moves a band of neighboring vertices, from 1% to 8% of
+ * the mesh, like the brow, lid, lip and cheek shapes of a face.
+ */
+static void makeShapes(std::vector<SparseShape>& sparse, std::vector<float>& dense)
+{
+    sparse.resize(NUM_SHAPES);
+    dense.assign(NUM_VERTS * NUM_SHAPES * FLOATS_PER_VERTEX, 0.0f);
+    for (int s = 0; s < NUM_SHAPES; ++s)
+    {
+        int count = NUM_VERTS / 100 + rand() % (NUM_VERTS * 7 / 100);
+        int first = rand() % (NUM_VERTS - count);
+        for (int v = first; v < first + count; ++v)
+        {
+            sparse[s].indices.push_back(v);
+            for (int k = 0; k < FLOATS_PER_VERTEX; ++k)
+            {
+                float d = randomFloat(-0.01f, 0.01f);
+                sparse[s].deltas.push_back(d);
+                dense[(v * NUM_SHAPES + s) * FLOATS_PER_VERTEX + k] = d;
+            }
+        }
+    }
+}
+
+/*
+ * Every shape for every vertex, the work the dense morph texture does.
+ */
+static void denseMorph(const std::vector<float>& base, const std::vector<float>& dense,
+                       const float* weights, std::vector<float>& out)
+{
+    for (int v = 0; v < NUM_VERTS; ++v)
+    {
+        float* dst = &out[v * FLOATS_PER_VERTEX];
+        const float* src = &base[v * FLOATS_PER_VERTEX];
+        const float* d = &dense[v * NUM_SHAPES * FLOATS_PER_VERTEX];
+        for (int k = 0; k < FLOATS_PER_VERTEX; ++k)
+        {
+            dst[k] = src[k];
+        }
+        for (int s = 0; s < NUM_SHAPES; ++s, d += FLOATS_PER_VERTEX)
+        {
+            for (int k = 0; k < FLOATS_PER_VERTEX; ++k)
+            {
+                dst[k] += weights[s] * d[k];
+            }
+        }
+    }
+}
+
+static void sparseMorph(const std::vector<float>& base, const std::vector<SparseShape>& shapes,
+                        const float* weights, std::vector<float>& out)
+{
+    out = base;
+    for (int s = 0; s < NUM_SHAPES; ++s)
+    {
+        if (fabsf(weights[s]) > THRESHOLD)
+        {
+            sparse_morph_add(out.data(), 0, FLOATS_PER_VERTEX, shapes[s].indices.data(),
+                             shapes[s].deltas.data(), (int) shapes[s].indices.size(), weights[s]);
+        }
+    }
+}
+
+typedef void (*DenseFunc)(const std::vector<float>&, const std::vector<float>&,
+                          const float*, std::vector<float>&);
+typedef void (*SparseFunc)(const std::vector<float>&, const std::vector<SparseShape>&,
+                           const float*, std::vector<float>&);
+
+template <typename F, typename S>
+static double timeMorph(F volatile morph, const std::vector<float>& base, const S& shapes,
+                        const float* weights, std::vector<float>& out)
+{
+    auto start = std::chrono::steady_clock::now();
+    for (int i = 0; i < RUNS; ++i)
+    {
+        morph(base, shapes, weights, out);
+    }
+    auto end = std::chrono::steady_clock::now();
+    return std::chrono::duration<double, std::milli>(end - start).count() / RUNS;
+}
+
+int main(int argc, char** argv)
+{
+    std::vector<SparseShape> sparse;
+    std::vector<float> dense;
+    std::vector<float> base(NUM_VERTS * FLOATS_PER_VERTEX);
+    std::vector<float> denseOut(base.size());
+    std::vector<float> sparseOut(base.size());
+    float allWeights[NUM_SHAPES];
+    float fewWeights[NUM_SHAPES];
+    size_t sparseBytes = 0;
+
+    srand(1);
+    for (size_t i = 0; i < base.size(); ++i)
+    {
+        base[i] = randomFloat(-1.0f, 1.0f);
+    }
+    makeShapes(sparse, dense);
+    for (int s = 0; s < NUM_SHAPES; ++s)
+    {
+        sparseBytes += sparse[s].indices.size() * sizeof(int) + sparse[s].deltas.size() * sizeof(float);
+        allWeights[s] = randomFloat(0.1f, 1.0f);
+        // a typical expression: a few shapes on, the rest below the threshold
+        fewWeights[s] = (s % 7 == 0) ? allWeights[s] : THRESHOLD / 2;
+    }
+
+    printf("%d vertices, %d shapes, position and normal deltas, average of %d runs\n",
+           NUM_VERTS, NUM_SHAPES, RUNS);
+    printf("memory  dense %8.2f MB  sparse %8.2f MB\n",
+           dense.size() * sizeof(float) / 1048576.0, sparseBytes / 1048576.0);
+
+    const float* weightSets[] = { allWeights, fewWeights };
+    const char* names[] = { "50 active", " 8 active" };
+    for (int i = 0; i < 2; ++i)
+    {
+        double denseMs = timeMorph<DenseFunc>(denseMorph, base, dense, weightSets[i], denseOut);
+        double sparseMs = timeMorph<SparseFunc>(sparseMorph, base, sparse, weightSets[i], sparseOut);
+        float maxError = 0;
+        for (size_t k = 0; k < base.size(); ++k)
+        {
+            float expected = denseOut[k];
+            if (weightSets[i] == fewWeights)
+            {
+                // the sparse path skips the weights under the threshold
+                expected = base[k];
+                for (int s = 0; s < NUM_SHAPES; ++s)
+                {
+                    if (fabsf(fewWeights[s]) > THRESHOLD)
+                    {
+                        size_t v = k / FLOATS_PER_VERTEX;
+                        expected += fewWeights[s] * dense[(v * NUM_SHAPES + s) * FLOATS_PER_VERTEX
+                                                          + k % FLOATS_PER_VERTEX];
+                    }
+                }
+            }
+            maxError = std::max(maxError, fabsf(expected - sparseOut[k]));
+        }
+        printf("%s  dense %7.3f ms  sparse %7.3f ms  max difference %g\n",
+               names[i], denseMs, sparseMs, maxError);
+    }
+    return 0;
+}
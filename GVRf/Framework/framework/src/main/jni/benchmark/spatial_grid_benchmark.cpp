@@ -0,0 +1,215 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Headless benchmark of the spatial grid behind GVRScene proximity
+ * queries. Scatters boxes in a large world, moves some of them every
+ * frame and compares radius, box and nearest queries with the linear
+ * scan they replace. Results are checked against the scan. Build with
+ * GVRF_BENCHMARK=1 on the ndk-build command line and run the
+ * executable on the device with adb.
+ ***************************************************************************/
+
+#include "../objects/spatial_grid.h"
+
+#include <algorithm>
+#include <chrono>
+#include <cstdio>
+#include <random>
+#include <vector>
+
+using namespace gvr;
+
+static const int OBJECTS = 50000;
+static const int QUERIES = 1000;
+static const int MOVED_PER_FRAME = 2000;
+static const float WORLD = 1000.0f;
+static const float CELL = 8.0f;
+static const float QUERY_RADIUS = 10.0f;
+static const int NEAREST = 8;
+
+struct Box {
+    glm::vec3 min_corner;
+    glm::vec3 max_corner;
+    int handle;
+};
+
+static double millisSince(std::chrono::steady_clock::time_point start)
+{
+    return std::chrono::duration<double, std::milli>(std::chrono::steady_clock::now() - start).count();
+}
+
+static float distanceSquared(const glm::vec3& p, const Box& box)
+{
+    glm::vec3 d = glm::max(glm::max(box.min_corner - p, p - box.max_corner), glm::vec3(0.0f));
+    return glm::dot(d, d);
+}
+
+int main()
+{
+    std::mt19937 random(42);
+    std::uniform_real_distribution<float> position(-WORLD, WORLD);
+    std::uniform_real_distribution<float> size(0.1f, 3.0f);
+    std::vector<Box> boxes(OBJECTS);
+    SpatialGrid grid(CELL);
+
+    auto start = std::chrono::steady_clock::now();
+    for (int i = 0; i < OBJECTS; ++i)
+    {
+        glm::vec3 center(position(random), position(random) * 0.05f, position(random));
+        // one in a thousand is big, like terrain or a building
+        glm::vec3 half(((i % 1000) == 0) ? 50.0f : size(random));
+        boxes[i].min_corner = center - half;
+        boxes[i].max_corner = center + half;
+        boxes[i].handle = grid.add(&boxes[i], boxes[i].min_corner, boxes[i].max_corner);
+    }
+    printf("insert %d boxes: %.2f ms\n", OBJECTS, millisSince(start));
+
+    std::uniform_int_distribution<int> pick(0, OBJECTS - 1);
+    std::uniform_real_distribution<float> step(-1.0f, 1.0f);
+    start = std::chrono::steady_clock::now();
+    for (int i = 0; i < MOVED_PER_FRAME; ++i)
+    {
+        Box& box = boxes[pick(random)];
+        glm::vec3 delta(step(random), 0.0f, step(random));
+        box.min_corner += delta;
+        box.max_corner += delta;
+        grid.move(box.handle, box.min_corner, box.max_corner);
+    }
+    printf("move %d boxes: %.3f ms\n", MOVED_PER_FRAME, millisSince(start));
+
+    std::vector<glm::vec3> points(QUERIES);
+    for (int i = 0; i < QUERIES; ++i)
+    {
+        points[i] = glm::vec3(position(random), 0.0f, position(random));
+    }
+    std::vector<void*> results(OBJECTS);
+    float distances[NEAREST];
+    long gridFound = 0, scanFound = 0;
+    int mismatches = 0;
+
+    start = std::chrono::steady_clock::now();
+    for (int q = 0; q < QUERIES; ++q)
+    {
+        gridFound += grid.querySphere(points[q], QUERY_RADIUS, results.data(), OBJECTS);
+    }
+    double gridMs = millisSince(start);
+    start = std::chrono::steady_clock::now();
+    for (int q = 0; q < QUERIES; ++q)
+    {
+        for (int i = 0; i < OBJECTS; ++i)
+        {
+            if (distanceSquared(points[q], boxes[i]) <= QUERY_RADIUS * QUERY_RADIUS)
+            {
+                ++scanFound;
+            }
+        }
+    }
+    double scanMs = millisSince(start);
+    mismatches += (gridFound != scanFound);
+    printf("%d radius queries: grid %.2f ms, scan %.2f ms, %ld matches\n",
+           QUERIES, gridMs, scanMs, gridFound);
+
+    gridFound = scanFound = 0;
+    start = std::chrono::steady_clock::now();
+    for (int q = 0; q < QUERIES; ++q)
+    {
+        glm::vec3 half(QUERY_RADIUS);
+        gridFound += grid.queryBox(points[q] - half, points[q] + half, results.data(), OBJECTS);
+    }
+    gridMs = millisSince(start);
+    start = std::chrono::steady_clock::now();
+    for (int q = 0; q < QUERIES; ++q)
+    {
+        glm::vec3 min_corner = points[q] - glm::vec3(QUERY_RADIUS);
+        glm::vec3 max_corner = points[q] + glm::vec3(QUERY_RADIUS);
+        for (int i = 0; i < OBJECTS; ++i)
+        {
+            const Box& b = boxes[i];
+            if (b.min_corner.x <= max_corner.x && b.max_corner.x >= min_corner.x
+                && b.min_corner.y <= max_corner.y && b.max_corner.y >= min_corner.y
+                && b.min_corner.z <= max_corner.z && b.max_corner.z >= min_corner.z)
+            {
+                ++scanFound;
+            }
+        }
+    }
+    scanMs = millisSince(start);
+    mismatches += (gridFound != scanFound);
+    printf("%d box queries: grid %.2f ms, scan %.2f ms, %ld matches\n",
+           QUERIES, gridMs, scanMs, gridFound);
+
+    start = std::chrono::steady_clock::now();
+    std::vector<float> nearest(QUERIES);
+    for (int q = 0; q < QUERIES; ++q)
+    {
+        grid.queryNearest(points[q], NEAREST, results.data(), distances);
+        nearest[q] = distances[NEAREST - 1];
+    }
+    gridMs = millisSince(start);
+    start = std::chrono::steady_clock::now();
+    std::vector<float> all(OBJECTS);
+    for (int q = 0; q < QUERIES; ++q)
+    {
+        for (int i = 0; i < OBJECTS; ++i)
+        {
+            all[i] = distanceSquared(points[q], boxes[i]);
+        }
+        std::nth_element(all.begin(), all.begin() + NEAREST - 1, all.end());
+        if (std::abs(std::sqrt(all[NEAREST - 1]) - nearest[q]) > 1e-4f)
+        {
+            ++mismatches;
+        }
+    }
+    scanMs = millisSince(start);
+    printf("%d nearest-%d queries: grid %.2f ms, scan %.2f ms\n", QUERIES, NEAREST, gridMs, scanMs);
+
+    float planes[6][4];
+    glm::mat4 projection(1.0f);
+    {
+        // 90 degree frustum looking down -z from the origin, 1 to 200
+        const float n = 1.0f, f = 200.0f;
+        projection = glm::mat4(0.0f);
+        projection[0][0] = 1.0f;
+        projection[1][1] = 1.0f;
+        projection[2][2] = -(f + n) / (f - n);
+        projection[2][3] = -1.0f;
+        projection[3][2] = -2.0f * f * n / (f - n);
+    }
+    SpatialGrid::extractFrustum(&projection[0][0], planes);
+    start = std::chrono::steady_clock::now();
+    int inFrustum = grid.queryFrustum(planes, results.data(), OBJECTS);
+    gridMs = millisSince(start);
+    start = std::chrono::steady_clock::now();
+    int scanInFrustum = 0;
+    for (int i = 0; i < OBJECTS; ++i)
+    {
+        bool outside = false;
+        for (int p = 0; (p < 6) && !outside; ++p)
+        {
+            glm::vec3 corner((planes[p][0] >= 0.0f) ? boxes[i].max_corner.x : boxes[i].min_corner.x,
+                             (planes[p][1] >= 0.0f) ? boxes[i].max_corner.y : boxes[i].min_corner.y,
+                             (planes[p][2] >= 0.0f) ? boxes[i].max_corner.z : boxes[i].min_corner.z);
+            outside = glm::dot(glm::vec3(planes[p][0], planes[p][1], planes[p][2]), corner) + planes[p][3] < 0.0f;
+        }
+        scanInFrustum += !outside;
+    }
+    scanMs = millisSince(start);
+    mismatches += (inFrustum != scanInFrustum);
+    printf("frustum query: grid %.2f ms, scan %.2f ms, %d matches\n", gridMs, scanMs, inFrustum);
+
+    printf("%s\n", (mismatches == 0) ? "results match the scan" : "RESULTS DIFFER FROM THE SCAN");
+    return (mismatches == 0) ? 0 : 1;
+}
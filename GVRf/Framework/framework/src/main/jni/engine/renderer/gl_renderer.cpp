@@ -187,7 +187,7 @@ namespace gvr
     }
 
 
-    GLRenderer::GLRenderer() : transform_ubo_{nullptr, nullptr}
+    GLRenderer::GLRenderer() : transform_ubo_{nullptr, nullptr}, instance_ubo_(nullptr)
     {
         const char* desc;
 
@@ -263,16 +263,7 @@ namespace gvr
             (post_effects->pass_count() == 0))
         {
             clearBuffers(*camera);
-            for (auto it = render_data_vector->begin();
-                 it != render_data_vector->end();
-                 ++it)
-            {
-                RenderData* rdata = *it;
-                if (!rstate.is_shadow || rdata->cast_shadows())
-                {
-                    GL(renderRenderData(rstate, rdata));
-                }
-            }
+            renderRenderDataVector(rstate, *render_data_vector);
         }
         else
         {
@@ -286,16 +277,7 @@ namespace gvr
             GL(glBindFramebuffer(GL_FRAMEBUFFER, renderTexture->getFrameBufferId()));
             GL(glViewport(0, 0, renderTexture->width(), renderTexture->height()));
             GL(clearBuffers(*camera));
-            for (auto it = render_data_vector->begin();
-                 it != render_data_vector->end();
-                 ++it)
-            {
-                RenderData* rdata = *it;
-                if (!rstate.is_shadow || rdata->cast_shadows())
-                {
-                    GL(renderRenderData(rstate, rdata));
-                }
-            }
+            renderRenderDataVector(rstate, *render_data_vector);
             GL(glDisable(GL_DEPTH_TEST));
             GL(glDisable(GL_CULL_FACE));
             for (int i = 0; i < npost; ++i)
@@ -553,6 +535,94 @@ namespace gvr
         rstate.scene->unlockColliders();
     }
 
+    GLUniformBlock* GLRenderer::getInstanceUbo()
+    {
+        if (instance_ubo_ == nullptr)
+        {
+            instance_ubo_ = createUniformBlock("mat4 u_instance_model", INSTANCE_UBO_INDEX,
+                                               "Instance_ubo", mInstanceGrouper.getMaxInstances());
+        }
+        return instance_ubo_;
+    }
+
+    void GLRenderer::uploadInstances(const glm::mat4* matrices, int count)
+    {
+        GLUniformBlock* ubo = getInstanceUbo();
+        ubo->setRange(0, matrices, count);
+        ubo->updateGPU(this, 0, count * sizeof(glm::mat4));
+    }
+
+    /*
+     * Draw a sorted render list. Render datas with instancing enabled
+     * whose shader was built for it are grouped by mesh, material,
+     * shader and render state and each group is drawn with a single
+     * instanced call. Everything else is drawn one by one as before.
+     */
+    void GLRenderer::renderRenderDataVector(RenderState& rstate, std::vector<RenderData*>& render_data_vector)
+    {
+        mInstanceGrouper.clear();
+        for (auto it = render_data_vector.begin(); it != render_data_vector.end(); ++it)
+        {
+            RenderData* rdata = *it;
+            if (rstate.is_shadow && !rdata->cast_shadows())
+            {
+                continue;
+            }
+            if (!rstate.is_shadow && rdata->instancing() && (rdata->pass_count() == 1) &&
+                (rdata->mesh() != nullptr) && !rdata->mesh()->hasBones())
+            {
+                int shader_id = rdata->get_shader(rstate.is_multiview, 0);
+                Shader* shader = rstate.shader_manager->getShader(shader_id);
+
+                if ((shader != nullptr) && shader->usesInstancing())
+                {
+                    SceneObject* owner = rdata->owner_object();
+                    Transform* t = owner ? owner->transform() : nullptr;
+                    InstanceGrouper::Key key = { rdata->mesh(), rdata->material(0), shader_id,
+                                                 rdata->rendering_order(), rdata->render_mask(),
+                                                 rdata->cull_face(0), &rdata->getHashCode() };
+                    bool opaque = rdata->rendering_order() < RenderData::Transparent;
+
+                    mInstanceGrouper.add(key, rdata, t ? t->getModelMatrix() : glm::mat4(), opaque);
+                    continue;
+                }
+            }
+            mInstanceGrouper.addSingle(rdata);
+        }
+        mInstanceGrouper.pack();
+        for (int i = 0; i < mInstanceGrouper.getGroupCount(); ++i)
+        {
+            const InstanceGrouper::Group& group = mInstanceGrouper.getGroup(i);
+            RenderData* rdata = static_cast<RenderData*>(mInstanceGrouper.getItem(group.items[0]));
+
+            if (group.instanced)
+            {
+                renderInstanced(rstate, rdata, mInstanceGrouper.getMatrices(group), group.items.size());
+            }
+            else
+            {
+                GL(renderRenderData(rstate, rdata));
+            }
+        }
+    }
+
+    void GLRenderer::renderInstanced(RenderState& rstate, RenderData* render_data,
+                                     const glm::mat4* matrices, int count)
+    {
+        if (!(rstate.render_mask & render_data->render_mask()))
+        {
+            return;
+        }
+        uploadInstances(matrices, count);
+        rstate.instance_count = count;
+        setRenderStates(render_data, rstate);
+        GL(renderMesh(rstate, render_data));
+        restoreRenderStates(render_data);
+        rstate.instance_count = 0;
+        // renderMesh counted the first instance
+        numberTriangles += render_data->mesh()->getIndexCount() / 3 * (count - 1);
+    }
+
     void GLRenderer::renderMesh(RenderState &rstate, RenderData *render_data)
     {
         Mesh* mesh = render_data->mesh();
@@ -582,7 +652,7 @@ namespace gvr
             }
             if (curr_material->updateGPU(this,render_data) >= 0)
             {
-                numberTriangles += indexCount;
+                numberTriangles += indexCount / 3;
                 numberDrawCalls++;
                 set_face_culling(render_data->pass(0)->cull_face());
                 render_data->updateGPU(this, shader);
@@ -596,7 +666,7 @@ namespace gvr
          */
         for (int curr_pass = 0; curr_pass < render_data->pass_count(); ++curr_pass)
         {
-            numberTriangles += indexCount;
+            numberTriangles += indexCount / 3;
             numberDrawCalls++;
             set_face_culling(render_data->pass(curr_pass)->cull_face());
             curr_material = render_data->pass(curr_pass)->material();
@@ -640,9 +710,23 @@ namespace gvr
             }
         }
         GLShader* glshader = static_cast<GLShader*>(shader);
+        bool singleInstance = false;
+        if (shader->usesInstancing() && (rstate.instance_count == 0))
+        {
+            // instancing shader drawn outside a group, e.g. with several passes
+            SceneObject* owner = render_data->owner_object();
+            glm::mat4 model = (owner && owner->transform()) ? owner->transform()->getModelMatrix() : glm::mat4();
+            uploadInstances(&model, 1);
+            rstate.instance_count = 1;
+            singleInstance = true;
+        }
         int texIndex = material->bindToShader(shader, this);
         if (texIndex >= 0)
         {
+            if (rstate.instance_count > 0)
+            {
+                getInstanceUbo()->bindBuffer(shader, this);
+            }
             if (shader->usesMatrixUniforms())
             {
                 UniformBlock* transformBlock = getTransformUbo(rstate.is_multiview ? 1 : 0);
@@ -676,7 +760,11 @@ namespace gvr
                 }
             }
             checkGLError("renderMesh:before render");
-            rdata->render(shader, this);
+            rdata->render(shader, this, (rstate.instance_count > 0) ? rstate.instance_count : 1);
+        }
+        if (singleInstance)
+        {
+            rstate.instance_count = 0;
         }
         checkGLError("renderMesh::renderMaterialShader");
     }
@@ -41,6 +41,7 @@
 #include <unordered_map>
 #include "renderer.h"
 #include "gl/gl_uniform_block.h"
+#include "instance_grouper.h"
 
 typedef unsigned long Long;
 namespace gvr {
@@ -64,6 +65,8 @@ protected:
             delete transform_ubo_[0];
         if(transform_ubo_[1])
             delete transform_ubo_[1];
+        if(instance_ubo_)
+            delete instance_ubo_;
 
     }
 
@@ -101,6 +104,7 @@ public:
                                  const char* fragmentShader);
     virtual Light* createLight(const char* uniformDescriptor, const char* textureDescriptor);
     GLUniformBlock* getTransformUbo(int index) { return transform_ubo_[index]; }
+    GLUniformBlock* getInstanceUbo();
     virtual void updatePostEffectMesh(Mesh*);
     virtual bool renderWithShader(RenderState& rstate, Shader* shader, RenderData* renderData, ShaderData* shaderData,  int);
 
@@ -109,8 +113,13 @@ private:
     virtual void renderMaterialShader(RenderState& rstate, RenderData* render_data, ShaderData *material, Shader* shader);
     virtual void occlusion_cull(RenderState& rstate, std::vector<SceneObject*>& scene_objects, std::vector<RenderData*>* render_data_vector);
     void clearBuffers(const Camera& camera) const;
+    void renderRenderDataVector(RenderState& rstate, std::vector<RenderData*>& render_data_vector);
+    void renderInstanced(RenderState& rstate, RenderData* render_data, const glm::mat4* matrices, int count);
+    void uploadInstances(const glm::mat4* matrices, int count);
 
     GLUniformBlock* transform_ubo_[2];
+    GLUniformBlock* instance_ubo_;
+    InstanceGrouper mInstanceGrouper;
 };
 
 }
@@ -0,0 +1,159 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "instance_grouper.h"
+
+namespace gvr {
+
+InstanceGrouper::InstanceGrouper(int maxInstances)
+    : mMaxInstances((maxInstances > 0) ? maxInstances : 1),
+      mGroupCount(0),
+      mLastGroup(-1),
+      mLastOrder(0)
+{
+}
+
+/**
+ * Start a new frame. Storage is kept so steady state
+ * frames do not allocate.
+ */
+void InstanceGrouper::clear()
+{
+    for (int i = 0; i < mGroupCount; ++i)
+    {
+        mGroups[i].items.clear();
+    }
+    mGroupCount = 0;
+    mItems.clear();
+    mMatrices.clear();
+    barrier();
+}
+
+void InstanceGrouper::barrier()
+{
+    mOpen.clear();
+    mLastGroup = -1;
+}
+
+InstanceGrouper::Group& InstanceGrouper::newGroup(const Key& key, bool instanced)
+{
+    if (mGroupCount >= mGroups.size())
+    {
+        mGroups.resize(mGroupCount + 1);
+    }
+    Group& g = mGroups[mGroupCount];
+    g.key = key;
+    g.instanced = instanced;
+    g.items.clear();
+    g.firstMatrix = 0;
+    mLastGroup = mGroupCount++;
+    return g;
+}
+
+/**
+ * Add an item which may be drawn instanced.
+ * @param key        what must match to share a draw call
+ * @param item       opaque pointer handed back by getItem()
+ * @param model      model matrix of the item
+ * @param canReorder true if the item may be drawn before items
+ *                   added ahead of it (opaque geometry), false if
+ *                   it may only join the group right before it
+ */
+void InstanceGrouper::add(const Key& key, void* item, const glm::mat4& model, bool canReorder)
+{
+    int index = mItems.size();
+    int groupIndex = -1;
+
+    if (!mItems.empty() && (key.renderingOrder != mLastOrder))
+    {
+        barrier();
+    }
+    mLastOrder = key.renderingOrder;
+    mItems.push_back(item);
+    mMatrices.push_back(model);
+
+    if (canReorder)
+    {
+        auto it = mOpen.find(key);
+        if (it != mOpen.end())
+        {
+            groupIndex = it->second;
+        }
+    }
+    else
+    {
+        mOpen.clear();
+        if ((mLastGroup >= 0) && mGroups[mLastGroup].instanced &&
+            (mGroups[mLastGroup].key == key))
+        {
+            groupIndex = mLastGroup;
+        }
+    }
+    if (groupIndex < 0)
+    {
+        newGroup(key, true);
+        groupIndex = mLastGroup;
+        if (canReorder)
+        {
+            mOpen[key] = groupIndex;
+        }
+    }
+    Group& g = mGroups[groupIndex];
+    g.items.push_back(index);
+    mLastGroup = groupIndex;
+    if (g.items.size() >= mMaxInstances)
+    {
+        // full, the next item with this key starts a new group
+        mOpen.erase(key);
+        mLastGroup = -1;
+    }
+}
+
+/**
+ * Add an item which is drawn on its own. Nothing added
+ * afterwards may be gathered into a group before it.
+ */
+void InstanceGrouper::addSingle(void* item)
+{
+    Key key = { nullptr, nullptr, 0, mLastOrder, 0, 0, nullptr };
+    int index = mItems.size();
+
+    barrier();
+    mItems.push_back(item);
+    mMatrices.push_back(glm::mat4());
+    newGroup(key, false).items.push_back(index);
+    mLastGroup = -1;
+}
+
+/**
+ * Copy the model matrices into one array, contiguous per group.
+ */
+void InstanceGrouper::pack()
+{
+    int n = 0;
+
+    mPacked.resize(mMatrices.size());
+    for (int i = 0; i < mGroupCount; ++i)
+    {
+        Group& g = mGroups[i];
+        g.firstMatrix = n;
+        for (auto it = g.items.begin(); it != g.items.end(); ++it)
+        {
+            mPacked[n++] = mMatrices[*it];
+        }
+    }
+}
+
+}
@@ -0,0 +1,119 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef INSTANCE_GROUPER_H_
+#define INSTANCE_GROUPER_H_
+
+#include <string>
+#include <unordered_map>
+#include <vector>
+
+#include "glm/glm.hpp"
+
+namespace gvr {
+
+/**
+ * Groups a sorted render list into instanced draws.
+ *
+ * Items are added in render order with a key describing everything
+ * which must match for two items to share a draw call (mesh,
+ * material, shader, render state). Opaque items may be gathered
+ * into an earlier group with the same key, as long as no barrier
+ * (a change of rendering order or an item which may not be
+ * reordered) has been added since. Transparent items only merge
+ * with the item right before them, so back to front order holds.
+ *
+ * pack() then writes the model matrices of each group into one
+ * contiguous array, ready to be copied into an instance buffer.
+ *
+ * This class has no GL dependencies: items are opaque pointers
+ * and the result is plain data, so it can be exercised on the CPU.
+ */
+class InstanceGrouper
+{
+public:
+    static const int DEFAULT_MAX_INSTANCES = 128;
+
+    struct Key
+    {
+        const void*         mesh;
+        const void*         material;
+        int                 shader;
+        int                 renderingOrder;
+        int                 renderMask;
+        int                 cullFace;
+        const std::string*  renderState;
+
+        bool operator==(const Key& k) const
+        {
+            return (mesh == k.mesh) && (material == k.material) &&
+                   (shader == k.shader) && (renderingOrder == k.renderingOrder) &&
+                   (renderMask == k.renderMask) && (cullFace == k.cullFace) &&
+                   ((renderState == k.renderState) ||
+                    ((renderState != nullptr) && (k.renderState != nullptr) &&
+                     (*renderState == *k.renderState)));
+        }
+    };
+
+    struct Group
+    {
+        Key                 key;
+        bool                instanced;      // false for items drawn on their own
+        std::vector<int>    items;          // indices passed to item()
+        int                 firstMatrix;    // set by pack()
+    };
+
+    explicit InstanceGrouper(int maxInstances = DEFAULT_MAX_INSTANCES);
+
+    void clear();
+    void add(const Key& key, void* item, const glm::mat4& model, bool canReorder);
+    void addSingle(void* item);
+    void pack();
+
+    int getMaxInstances() const { return mMaxInstances; }
+    int getGroupCount() const { return mGroupCount; }
+    const Group& getGroup(int i) const { return mGroups[i]; }
+    void* getItem(int i) const { return mItems[i]; }
+    const glm::mat4* getMatrices(const Group& g) const { return mPacked.data() + g.firstMatrix; }
+    int getItemCount() const { return mItems.size(); }
+
+private:
+    struct KeyHash
+    {
+        size_t operator()(const Key& k) const
+        {
+            size_t h = reinterpret_cast<size_t>(k.mesh);
+            h = h * 31 + reinterpret_cast<size_t>(k.material);
+            h = h * 31 + k.shader;
+            return h;
+        }
+    };
+
+    Group& newGroup(const Key& key, bool instanced);
+    void barrier();
+
+    int                     mMaxInstances;
+    int                     mGroupCount;
+    int                     mLastGroup;         // group of the previous item, -1 after a barrier
+    int                     mLastOrder;
+    std::vector<Group>      mGroups;            // reused between frames, mGroupCount are live
+    std::vector<void*>      mItems;
+    std::vector<glm::mat4>  mMatrices;          // one per item, in add order
+    std::vector<glm::mat4>  mPacked;            // grouped by pack()
+    std::unordered_map<Key, int, KeyHash> mOpen; // groups still accepting reordered items
+};
+
+}
+#endif
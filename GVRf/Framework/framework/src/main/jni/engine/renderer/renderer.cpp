@@ -24,6 +24,10 @@
 #include "objects/scene.h"
 #include "objects/textures/texture.h"
 #include "objects/textures/render_texture.h"
+#include "objects/components/billboard.h"
+#include "objects/components/camera_rig.h"
+#include "objects/components/lod_group.h"
+#include "objects/components/perspective_camera.h"
 
 #define MAX_INDICES 500
 #define BATCH_SIZE 60
@@ -48,8 +52,8 @@ Renderer::Renderer() : numberDrawCalls(0),
         batch_manager = new BatchManager(BATCH_SIZE, MAX_INDICES);
     }
 }
-void Renderer::frustum_cull(glm::vec3 camera_position, SceneObject *object,
-        float frustum[6][4], std::vector<SceneObject*>& scene_objects,
+void Renderer::frustum_cull(glm::vec3 camera_position, const glm::vec3& viewer_position,
+        SceneObject *object, float frustum[6][4], std::vector<SceneObject*>& scene_objects,
         bool need_cull, int planeMask) {
 
     // frustumCull() return 3 possible values:
@@ -63,6 +67,12 @@ void Renderer::frustum_cull(glm::vec3 camera_position, SceneObject *object,
         return;
     }
 
+    // billboards are turned before their bounding volume is tested
+    Billboard* billboard = static_cast<Billboard*>(object->getComponent(Billboard::getComponentType()));
+    if ((nullptr != billboard) && billboard->enabled()) {
+        billboard->faceViewer(viewer_position);
+    }
+
     //allows for on demand calculation of the camera distance; usually matters
     //when transparent objects are in play
     RenderData* renderData = object->render_data();
@@ -103,10 +113,38 @@ void Renderer::frustum_cull(glm::vec3 camera_position, SceneObject *object,
         scene_objects.push_back(object);
     }
 
+    // an LOD group enables its selected level and disables the others
+    LODGroup* lod_group = static_cast<LODGroup*>(object->getComponent(LODGroup::getComponentType()));
+    if ((nullptr != lod_group) && lod_group->enabled()) {
+        glm::vec3 difference = object->getBoundingVolume().center() - viewer_position;
+        lod_group->selectLevel(glm::dot(difference, difference));
+    }
+
     const std::vector<SceneObject*> children = object->children();
     for (auto it = children.begin(); it != children.end(); ++it) {
-        frustum_cull(camera_position, *it, frustum, scene_objects, need_cull, planeMask);
+        frustum_cull(camera_position, viewer_position, *it, frustum, scene_objects, need_cull, planeMask);
+    }
+}
+
+/*
+ * Position used for view dependent decisions (LOD, billboards) which
+ * must agree across both eyes and shadow passes: the center camera
+ * of the main rig, or the culling camera if there is no rig.
+ */
+glm::vec3 Renderer::viewerPosition(Scene* scene, Camera* camera) {
+    const CameraRig* rig = scene->main_camera_rig();
+    SceneObject* owner = nullptr;
+
+    if ((nullptr != rig) && (nullptr != rig->center_camera())) {
+        owner = rig->center_camera()->owner_object();
+    }
+    if ((nullptr == owner) && (nullptr != camera)) {
+        owner = camera->owner_object();
+    }
+    if ((nullptr != owner) && (nullptr != owner->transform())) {
+        return glm::vec3(owner->transform()->getModelMatrix()[3]);
     }
+    return glm::vec3(glm::inverse(camera->getViewMatrix())[3]);
 }
 
 void Renderer::state_sort(std::vector<RenderData*>* render_data_vector) {
@@ -190,7 +228,8 @@ void Renderer::cullFromCamera(Scene *scene, jobject javaSceneObject, Camera* cam
         LOGD("FRUSTUM: start frustum culling for root %s\n", object->name().c_str());
     }
     //    frustum_cull(camera->owner_object()->transform()->position(), object, frustum, scene_objects, scene->get_frustum_culling(), 0);
-    frustum_cull(campos, object, frustum, scene_objects, scene->get_frustum_culling(), 0);
+    frustum_cull(campos, viewerPosition(scene, camera), object, frustum, scene_objects,
+                 scene->get_frustum_culling(), 0);
     if (DEBUG_RENDERER) {
         LOGD("FRUSTUM: end frustum culling for root %s\n", object->name().c_str());
     }
@@ -337,7 +376,8 @@ void Renderer::renderRenderData(RenderState& rstate, RenderData* render_data) {
 void Renderer::updateTransforms(RenderState& rstate, UniformBlock* transform_ubo, RenderData* renderData)
 {
     Transform* model = renderData->owner_object() ? renderData->owner_object()->transform() : nullptr;
-    rstate.uniforms.u_model = model ? model->getModelMatrix() : glm::mat4();
+    // instanced draws take the model matrices from the instance buffer
+    rstate.uniforms.u_model = (model && (rstate.instance_count == 0)) ? model->getModelMatrix() : glm::mat4();
 //    rstate.uniforms.u_right = rstate.render_mask & RenderData::RenderMaskBit::Right;
     transform_ubo->setMat4("u_model", rstate.uniforms.u_model);
     transform_ubo->setFloat("u_right", (rstate.render_mask & RenderData::RenderMaskBit::Right) ? 1 : 0);
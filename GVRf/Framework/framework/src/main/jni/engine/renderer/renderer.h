@@ -96,6 +96,7 @@ struct RenderState {
     bool                    is_multiview;
     Camera*                 camera;
     int                     sampleCount;
+    int                     instance_count = 0;
 };
 enum EYE{
     LEFT, RIGHT, MULTIVIEW
@@ -208,9 +209,10 @@ private:
     RenderTarget* mMultiviewRenderTarget[3];
     static bool isVulkan_;
     virtual void build_frustum(float frustum[6][4], const float *vp_matrix);
-    virtual void frustum_cull(glm::vec3 camera_position, SceneObject *object,
-            float frustum[6][4], std::vector<SceneObject*>& scene_objects,
+    virtual void frustum_cull(glm::vec3 camera_position, const glm::vec3& viewer_position,
+            SceneObject *object, float frustum[6][4], std::vector<SceneObject*>& scene_objects,
             bool continue_cull, int planeMask);
+    glm::vec3 viewerPosition(Scene* scene, Camera* camera);
 
     Renderer(const Renderer& render_engine) = delete;
     Renderer(Renderer&& render_engine) = delete;
@@ -79,7 +79,20 @@ int GLBitmapImage::updateFromBitmap(JNIEnv *env, int target, jobject bitmap, boo
 void GLBitmapImage::updateFromBuffer(JNIEnv *env, int target, jobject pixels)
 {
     void* directPtr = env->GetDirectBufferAddress(pixels);
-    glTexSubImage2D(target, 0, mXOffset, mYOffset, mWidth, mHeight, mFormat, mType, directPtr);
+    if (!mHasStorage && (mXOffset == 0) && (mYOffset == 0))
+    {
+        // first upload of a buffer-only image: allocate the texture
+        glTexImage2D(target, 0, mFormat, mWidth, mHeight, 0, mFormat, mType, directPtr);
+        if (mTexParams.getMinFilter() >= TextureParameters::NEAREST_MIPMAP_NEAREST)
+        {
+            glGenerateMipmap(target);
+        }
+    }
+    else
+    {
+        glTexSubImage2D(target, 0, mXOffset, mYOffset, mWidth, mHeight, mFormat, mType, directPtr);
+    }
+    mHasStorage = true;
 }
 
 void GLBitmapImage::update(int texid)
@@ -88,15 +101,22 @@ void GLBitmapImage::update(int texid)
     {
         return;
     }
+    if (!mPendingLevels.empty())
+    {
+        updateFromLevels(texid);
+        LOGV("Texture: GLBitmapImage::update(%d, levels)", texid);
+    }
     if (mBitmap != NULL)
     {
         updateFromBitmap(texid);
+        mHasStorage = true;
         clearData(getCurrentEnv(mJava));
         LOGV("Texture: GLBitmapImage::update(%d, bitmap)", texid);
     }
     else if (mData != NULL)
     {
         updateFromMemory(texid);
+        mHasStorage = true;
         clearData(getCurrentEnv(mJava));
         LOGV("Texture: GLBitmapImage::update(%d, byteArray)", texid);
     }
@@ -166,9 +186,39 @@ void GLBitmapImage::loadCompressedMipMaps(jbyte *data, int format)
         int height = mHeight >> level;
         if (width < 1) width = 1;
         if (height < 1) height = 1;
-        glCompressedTexImage2D(mGLTarget, level, format, width, height, levelOffset, levelSize,
-                               data);
+        glCompressedTexImage2D(mGLTarget, level, format, width, height, 0, levelSize,
+                               data + levelOffset);
+    }
+}
+
+/*
+ * Upload the mip levels published since the last update, then
+ * restrict sampling to the levels which are on the GPU. Levels usually
+ * arrive smallest first, so the texture starts out blurry and sharpens
+ * as the base level moves down to 0.
+ */
+void GLBitmapImage::updateFromLevels(int texid)
+{
+    JNIEnv *env = getCurrentEnv(mJava);
+
+    for (auto it = mPendingLevels.begin(); it != mPendingLevels.end(); ++it)
+    {
+        const void* data = env->GetDirectBufferAddress(it->buffer);
+        int width = mWidth >> it->level;
+        int height = mHeight >> it->level;
+        if (width < 1) width = 1;
+        if (height < 1) height = 1;
+        glCompressedTexImage2D(mGLTarget, it->level, mFormat, width, height, 0,
+                               it->imageSize, data);
+        if ((mBaseLevel < 0) || (it->level < mBaseLevel))
+        {
+            mBaseLevel = it->level;
+        }
     }
+    clearPendingLevels(env);
+    glTexParameteri(mGLTarget, GL_TEXTURE_BASE_LEVEL, mBaseLevel);
+    glTexParameteri(mGLTarget, GL_TEXTURE_MAX_LEVEL, mLevels - 1);
+    checkGLError("GLBitmapImage::updateFromLevels");
 }
 
 }
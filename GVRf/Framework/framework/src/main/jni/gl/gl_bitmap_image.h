@@ -29,7 +29,7 @@ namespace gvr {
     {
     public:
         explicit GLBitmapImage(int format) :
-                BitmapImage(format), GLImage(GL_TEXTURE_2D)
+                BitmapImage(format), GLImage(GL_TEXTURE_2D), mHasStorage(false)
         { }
 
         virtual ~GLBitmapImage() {}
@@ -64,10 +64,13 @@ namespace gvr {
         virtual void update(int texid);
         void updateFromMemory(int texid);
         void updateFromBitmap(int texid);
+        void updateFromLevels(int texid);
         void loadCompressedMipMaps(jbyte *data, int format);
 
     private:
         void updateFromBuffer(JNIEnv *env, int target, jobject bitmap);
+
+        bool mHasStorage;   // level 0 has been allocated on the GPU
     };
 
 }
@@ -18,7 +18,7 @@
 #include "objects/scene_object.h"
 namespace gvr
 {
-    void GLRenderData::render(Shader* shader, Renderer* renderer)
+    void GLRenderData::render(Shader* shader, Renderer* renderer, int numInstances)
     {
         GLShader*   glshader = static_cast<GLShader*>(shader);
         int         programId = glshader->getProgramId();
@@ -37,19 +37,39 @@ namespace gvr
 #endif
         mesh_->getVertexBuffer()->bindToShader(shader, mesh_->getIndexBuffer());
         checkGLError("renderMesh::mesh_->getVertexBuffer()->bindToShader(");
-        switch (mesh_->getIndexSize())
+        if (numInstances > 1)
         {
-            case 2:
-            glDrawElements(mode, indexCount, GL_UNSIGNED_SHORT, 0);
-            break;
+            switch (mesh_->getIndexSize())
+            {
+                case 2:
+                glDrawElementsInstanced(mode, indexCount, GL_UNSIGNED_SHORT, 0, numInstances);
+                break;
 
-            case 4:
-            glDrawElements(mode, indexCount, GL_UNSIGNED_INT, 0);
-            break;
+                case 4:
+                glDrawElementsInstanced(mode, indexCount, GL_UNSIGNED_INT, 0, numInstances);
+                break;
 
-            default:
-            glDrawArrays(mode, 0, vertexCount);
-            break;
+                default:
+                glDrawArraysInstanced(mode, 0, vertexCount, numInstances);
+                break;
+            }
+        }
+        else
+        {
+            switch (mesh_->getIndexSize())
+            {
+                case 2:
+                glDrawElements(mode, indexCount, GL_UNSIGNED_SHORT, 0);
+                break;
+
+                case 4:
+                glDrawElements(mode, indexCount, GL_UNSIGNED_INT, 0);
+                break;
+
+                default:
+                glDrawArrays(mode, 0, vertexCount);
+                break;
+            }
         }
         checkGLError(" RenderData::render after draw");
         glBindVertexArray(0);
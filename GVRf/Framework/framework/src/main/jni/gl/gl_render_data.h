@@ -42,7 +42,7 @@ namespace gvr
 
         virtual ~GLRenderData() {}
 
-        virtual void render(Shader*, Renderer*);
+        virtual void render(Shader*, Renderer*, int numInstances = 1);
 
     private:
         GLRenderData(GLRenderData &&render_data) = delete;
@@ -120,7 +120,7 @@ namespace gvr {
             LOGV("VertexBuffer::updateGPU created vertex buffer %d with %d vertices", mVBufferID, getVertexCount());
             mIsDirty = false;
         }
-        else if (mIsDirty)
+        else if (mIsDirty && (mDirtyBegin == 0) && (mDirtyEnd >= getVertexCount()))
         {
             GL(glBindBuffer(GL_ARRAY_BUFFER, mVBufferID));
             GL(glBufferData(GL_ARRAY_BUFFER, getDataSize(), NULL, GL_STATIC_DRAW));
@@ -129,6 +129,19 @@ namespace gvr {
             mIsDirty = false;
             LOGV("VertexBuffer::updateGPU updated vertex buffer %d", mVBufferID);
         }
+        else if (mIsDirty)
+        {
+            // only some vertices changed, update them in place
+            int vertexSize = getTotalSize();
+            GL(glBindBuffer(GL_ARRAY_BUFFER, mVBufferID));
+            GL(glBufferSubData(GL_ARRAY_BUFFER, mDirtyBegin * vertexSize,
+                               (mDirtyEnd - mDirtyBegin) * vertexSize,
+                               mVertexData + mDirtyBegin * vertexSize));
+            GL(glBindBuffer(GL_ARRAY_BUFFER, 0));
+            mIsDirty = false;
+            LOGV("VertexBuffer::updateGPU updated vertices %d to %d of vertex buffer %d",
+                 mDirtyBegin, mDirtyEnd, mVBufferID);
+        }
         return true;
     }
 
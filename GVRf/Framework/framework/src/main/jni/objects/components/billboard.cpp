@@ -0,0 +1,82 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "billboard.h"
+#include "component.inl"
+#include "transform.h"
+#include "objects/scene_object.h"
+
+namespace gvr {
+
+Billboard::Billboard() :
+        Component(Billboard::getComponentType()),
+        mUp(0, 1, 0),
+        mHasCustomUp(false) {
+}
+
+void Billboard::setUpVector(float x, float y, float z) {
+    glm::vec3 up(x, y, z);
+    if (glm::dot(up, up) > 0) {
+        mUp = glm::normalize(up);
+        mHasCustomUp = true;
+    }
+}
+
+/**
+ * Rotates the owner so its Z axis points at the viewer.
+ * The rotation is only written when it changes so a second
+ * cull pass from the same viewpoint does not invalidate
+ * the transform again.
+ */
+void Billboard::faceViewer(const glm::vec3& viewer_position) {
+    SceneObject* owner = owner_object();
+    if (nullptr == owner) {
+        return;
+    }
+    Transform* t = owner->transform();
+    if (nullptr == t) {
+        return;
+    }
+    glm::vec3 position(t->getModelMatrix()[3]);
+    glm::vec3 lookat = viewer_position - position;
+    glm::vec3 xaxis;
+    glm::vec3 yaxis;
+    glm::vec3 zaxis;
+
+    if (glm::dot(lookat, lookat) < 1e-10f) {
+        return;
+    }
+    lookat = glm::normalize(lookat);
+    xaxis = glm::cross(mUp, lookat);
+    if (glm::dot(xaxis, xaxis) < 1e-10f) {
+        return;             // looking straight along the up vector
+    }
+    xaxis = glm::normalize(xaxis);
+    if (mHasCustomUp) {
+        yaxis = mUp;
+        zaxis = glm::cross(xaxis, mUp);
+    } else {
+        yaxis = glm::normalize(glm::cross(lookat, xaxis));
+        zaxis = lookat;
+    }
+    glm::quat rotation = glm::quat_cast(glm::mat3(xaxis, yaxis, zaxis));
+    glm::quat current = t->rotation();
+
+    if (glm::abs(glm::dot(rotation, current)) < 0.999999f) {
+        t->set_rotation(rotation);
+    }
+}
+
+}
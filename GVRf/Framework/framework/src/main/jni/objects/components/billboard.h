@@ -0,0 +1,59 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef BILLBOARD_H_
+#define BILLBOARD_H_
+
+#include "glm/glm.hpp"
+#include "component.h"
+
+namespace gvr {
+
+/**
+ * Turns its owner to face the viewer. The renderer orients
+ * the owner during the culling pass, before its bounding
+ * volume is tested, so the orientation is always current
+ * for the frame being drawn.
+ *
+ * Without a custom up vector the owner keeps the world Y axis
+ * as close to up as possible; with one it only rotates
+ * about that axis.
+ */
+class Billboard : public Component {
+public:
+    Billboard();
+    virtual ~Billboard() { }
+
+    static long long getComponentType() { return COMPONENT_TYPE_BILLBOARD; }
+
+    void setUpVector(float x, float y, float z);
+    void clearUpVector() {
+        mHasCustomUp = false;
+    }
+    void faceViewer(const glm::vec3& viewer_position);
+
+private:
+    Billboard(const Billboard& billboard) = delete;
+    Billboard(Billboard&& billboard) = delete;
+    Billboard& operator=(const Billboard& billboard) = delete;
+    Billboard& operator=(Billboard&& billboard) = delete;
+
+private:
+    glm::vec3 mUp;
+    bool mHasCustomUp;
+};
+
+}
+#endif
@@ -0,0 +1,94 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "lod_group.h"
+#include "component.inl"
+#include "objects/scene_object.h"
+
+namespace gvr {
+
+LODGroup::LODGroup() :
+        Component(LODGroup::getComponentType()),
+        mCurrentLevel(-1),
+        mLevelsChanged(false),
+        mHysteresis(0.05f) {
+}
+
+/**
+ * Adds a level which is shown when the viewer is at least
+ * range units away from the owner. Levels are kept sorted
+ * by range so selection is a single backwards scan.
+ */
+void LODGroup::addRange(float range, SceneObject* level) {
+    std::lock_guard<std::mutex> lock(mLock);
+    auto it = mRanges.begin();
+    int i = 0;
+
+    while ((it != mRanges.end()) && (*it <= range)) {
+        ++it;
+        ++i;
+    }
+    mRanges.insert(it, range);
+    mLevels.insert(mLevels.begin() + i, level);
+    mCurrentLevel = -1;
+    mLevelsChanged = true;
+}
+
+/**
+ * Sets the width of the band around each range boundary,
+ * as a fraction of the range, inside which the current
+ * level is kept.
+ */
+void LODGroup::setHysteresis(float hysteresis) {
+    mHysteresis = (hysteresis < 0) ? 0 : hysteresis;
+}
+
+/**
+ * Returns the level to render for the given squared distance
+ * from the viewer, or null if the viewer is closer than the
+ * smallest range. Enables that level and disables the others
+ * when the selection changes.
+ */
+SceneObject* LODGroup::selectLevel(float distanceSquared) {
+    std::lock_guard<std::mutex> lock(mLock);
+    int level = -1;
+
+    for (int i = mRanges.size() - 1; i >= 0; --i) {
+        if (distanceSquared >= mRanges[i] * mRanges[i]) {
+            level = i;
+            break;
+        }
+    }
+    if ((level != mCurrentLevel) && (mCurrentLevel >= 0) && (mCurrentLevel < mRanges.size())) {
+        // only switch once the viewer is clear of the boundary being crossed
+        float boundary = mRanges[(level > mCurrentLevel) ? level : mCurrentLevel];
+        float lo = boundary * (1.0f - mHysteresis);
+        float hi = boundary * (1.0f + mHysteresis);
+
+        if ((distanceSquared > lo * lo) && (distanceSquared < hi * hi)) {
+            level = mCurrentLevel;
+        }
+    }
+    if ((level != mCurrentLevel) || mLevelsChanged) {
+        for (int i = 0; i < mLevels.size(); ++i) {
+            mLevels[i]->set_enable(i == level);
+        }
+        mLevelsChanged = false;
+    }
+    mCurrentLevel = level;
+    return (level >= 0) ? mLevels[level] : nullptr;
+}
+
+}
@@ -0,0 +1,72 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef LOD_GROUP_H_
+#define LOD_GROUP_H_
+
+#include <mutex>
+#include <vector>
+
+#include "component.h"
+
+namespace gvr {
+class SceneObject;
+
+/**
+ * Selects which child of its owner is rendered based on the
+ * distance from the viewer. Each level is a child scene object
+ * associated with the minimum distance at which it is shown.
+ *
+ * Selection happens inside the culling pass: the renderer asks
+ * for the level once per object before culling its children.
+ * When the level changes the selected child is enabled and the
+ * other levels are disabled, so picking and colliders only see
+ * the level shown. A hysteresis band around each
+ * range boundary keeps the level from flickering when the
+ * viewer hovers near it.
+ */
+class LODGroup : public Component {
+public:
+    LODGroup();
+    virtual ~LODGroup() { }
+
+    static long long getComponentType() { return COMPONENT_TYPE_LOD_GROUP; }
+
+    void addRange(float range, SceneObject* level);
+    void setHysteresis(float hysteresis);
+
+    float getHysteresis() const {
+        return mHysteresis;
+    }
+
+    SceneObject* selectLevel(float distanceSquared);
+
+private:
+    LODGroup(const LODGroup& lod_group) = delete;
+    LODGroup(LODGroup&& lod_group) = delete;
+    LODGroup& operator=(const LODGroup& lod_group) = delete;
+    LODGroup& operator=(LODGroup&& lod_group) = delete;
+
+private:
+    std::mutex mLock;
+    std::vector<float> mRanges;         // sorted ascending
+    std::vector<SceneObject*> mLevels;
+    int mCurrentLevel;
+    bool mLevelsChanged;
+    float mHysteresis;
+};
+
+}
+#endif
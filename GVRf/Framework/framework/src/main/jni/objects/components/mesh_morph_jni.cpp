@@ -0,0 +1,108 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * JNI
+ ***************************************************************************/
+
+#include <vector>
+#include <math.h>
+
+#include "objects/vertex_buffer.h"
+#include "sparse_morph.h"
+#include "util/gvr_jni.h"
+
+namespace gvr {
+extern "C" {
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeMeshMorph_applySparse(JNIEnv* env, jobject obj,
+                                             jlong jvbuf, jfloatArray jbase,
+                                             jint floatsPerVertex, jint firstVertex, jint numVerts,
+                                             jobjectArray jindices, jobjectArray jdeltas,
+                                             jfloatArray jweights, jfloat threshold);
+}
+
+static const char* MORPH_ATTRIBUTES[] = { "a_position", "a_normal", "a_tangent", "a_bitangent" };
+
+/*
+ * Morphs vertices firstVertex to firstVertex + numVerts of the vertex
+ * buffer: starts from the base shape and adds each blend shape whose
+ * weight is above the threshold. Only that range of the vertex buffer
+ * is updated. Returns the number of blend shapes applied.
+ */
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeMeshMorph_applySparse(JNIEnv* env, jobject obj,
+                                             jlong jvbuf, jfloatArray jbase,
+                                             jint floatsPerVertex, jint firstVertex, jint numVerts,
+                                             jobjectArray jindices, jobjectArray jdeltas,
+                                             jfloatArray jweights, jfloat threshold)
+{
+    VertexBuffer* vbuf = reinterpret_cast<VertexBuffer*>(jvbuf);
+    int numShapes = env->GetArrayLength(jweights);
+    std::vector<float> weights(numShapes);
+    std::vector<float> vertices(numVerts * floatsPerVertex);
+    int applied = 0;
+
+    if (numVerts <= 0)
+    {
+        return 0;
+    }
+    env->GetFloatArrayRegion(jweights, 0, numShapes, weights.data());
+    env->GetFloatArrayRegion(jbase, firstVertex * floatsPerVertex,
+                             numVerts * floatsPerVertex, vertices.data());
+    for (int s = 0; s < numShapes; ++s)
+    {
+        if (fabsf(weights[s]) <= threshold)
+        {
+            continue;
+        }
+        jintArray jshapeIndices = static_cast<jintArray>(env->GetObjectArrayElement(jindices, s));
+        jfloatArray jshapeDeltas = static_cast<jfloatArray>(env->GetObjectArrayElement(jdeltas, s));
+
+        if (jshapeIndices && jshapeDeltas)
+        {
+            int count = env->GetArrayLength(jshapeIndices);
+            jint* indices = static_cast<jint*>(env->GetPrimitiveArrayCritical(jshapeIndices, 0));
+            jfloat* deltas = static_cast<jfloat*>(env->GetPrimitiveArrayCritical(jshapeDeltas, 0));
+
+            if (indices && deltas)
+            {
+                sparse_morph_add(vertices.data(), firstVertex, floatsPerVertex,
+                                 reinterpret_cast<const int*>(indices), deltas, count, weights[s]);
+                ++applied;
+            }
+            if (deltas)
+            {
+                env->ReleasePrimitiveArrayCritical(jshapeDeltas, deltas, JNI_ABORT);
+            }
+            if (indices)
+            {
+                env->ReleasePrimitiveArrayCritical(jshapeIndices, indices, JNI_ABORT);
+            }
+        }
+        env->DeleteLocalRef(jshapeIndices);
+        env->DeleteLocalRef(jshapeDeltas);
+    }
+
+    std::vector<float> packed(numVerts * 3);
+    for (int a = 0; a * 3 < floatsPerVertex; ++a)
+    {
+        sparse_morph_extract(vertices.data(), floatsPerVertex, a * 3, numVerts, packed.data());
+        vbuf->setFloatVecRange(MORPH_ATTRIBUTES[a], packed.data(), firstVertex, numVerts);
+    }
+    return applied;
+}
+
+}
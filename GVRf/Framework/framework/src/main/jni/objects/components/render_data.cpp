@@ -84,6 +84,7 @@ void RenderData::set_mesh(Mesh* mesh)
         if (owner)
         {
             owner->dirtyHierarchicalBoundingVolume();
+            owner->markSpatialDirty();
         }
     }
 }
@@ -80,7 +80,7 @@ public:
         render_data_flags.invert_coverage_mask_ = GL_FALSE;
         render_data_flags.stencilTestFlag_ = false;
         render_data_flags.draw_mode_ = GL_TRIANGLES;
-        render_data_flags.padding = 0;
+        render_data_flags.instancing_ = false;
     }
 
     RenderData(const RenderData& rdata) : Component(rdata.getComponentType())
@@ -93,6 +93,7 @@ public:
         render_mask_ = rdata.render_mask_;
         bones_ubo_ = rdata.bones_ubo_;
         render_data_flags.cast_shadows_ = rdata.render_data_flags.cast_shadows_;
+        render_data_flags.instancing_ = rdata.render_data_flags.instancing_;
         batch_ = rdata.batch_;
         for(int i=0;i<rdata.render_pass_list_.size();i++) {
             render_pass_list_.push_back((rdata.render_pass_list_)[i]);
@@ -221,6 +222,24 @@ public:
         render_data_flags.cast_shadows_ = cast_shadows;
     }
 
+    /*
+     * Render datas with instancing enabled use a shader variant which
+     * reads the model matrix from the instance buffer, and are drawn
+     * together with the others sharing their mesh, material and state.
+     */
+    bool instancing() const {
+        return render_data_flags.instancing_;
+    }
+
+    void set_instancing(bool instancing) {
+        if (render_data_flags.instancing_ != instancing)
+        {
+            render_data_flags.instancing_ = instancing;
+            hash_code_dirty_ = true;
+            markDirty();
+        }
+    }
+
     Batch* getBatch() {
         return batch_;
     }
@@ -428,7 +447,7 @@ protected:
     bool hash_code_dirty_;
 
     typedef struct Bitfields{
-        // Note: unsigned short int will set the struct size to be 16 bits, hence only 1 padding bit required
+        // Note: unsigned short int will set the struct size to be 16 bits, all of them are in use
         unsigned short int draw_mode_:3;
         bool use_light_:1;
         bool use_lightmap_:1;
@@ -443,7 +462,7 @@ protected:
         bool cast_shadows_:1;
         GLboolean invert_coverage_mask_:1;
         bool stencilTestFlag_:1;
-        unsigned short int padding: 1;
+        bool instancing_:1;
     }Bitfields;
 
     Bitfields render_data_flags;
@@ -146,6 +146,10 @@ extern "C" {
     Java_org_gearvrf_NativeRenderData_getCastShadows(JNIEnv * env,
                                                      jobject obj, jlong jrender_data);
 
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeRenderData_setInstancing(JNIEnv * env,
+                                                    jobject obj, jlong jrender_data, jboolean instancing);
+
     JNIEXPORT jint JNICALL
     Java_org_gearvrf_NativeRenderData_getDrawMode(
             JNIEnv * env, jobject obj, jlong jrender_data);
@@ -464,6 +468,14 @@ Java_org_gearvrf_NativeRenderData_getCastShadows(JNIEnv * env,
     return render_data->cast_shadows();
 }
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeRenderData_setInstancing(JNIEnv * env,
+                                                jobject obj, jlong jrender_data, jboolean instancing)
+{
+    RenderData* render_data = reinterpret_cast<RenderData*>(jrender_data);
+    render_data->set_instancing(instancing);
+}
+
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeRenderData_setStencilFunc(JNIEnv *env, jclass type, jlong renderData,
                                                  jint func, jint ref, jint mask) {
@@ -18,6 +18,7 @@
 #include "objects/textures/render_texture.h"
 #include "objects/light.h" // for DEBUG_LIGHT
 #include "objects/scene.h"
+#include "util/gvr_frame_profiler.h"
 
 namespace gvr {
 
@@ -103,8 +104,12 @@ RenderTarget::RenderTarget()
 
 void RenderTarget::cullFromCamera(Scene* scene, jobject javaSceneObject, Camera* camera, Renderer* renderer, ShaderManager* shader_manager){
 
-    renderer->cullFromCamera(scene, javaSceneObject, camera,shader_manager, mRenderDataVector.get(),mRenderState.is_multiview);
+    {
+        FrameProfiler::Scope profile(FrameProfiler::CULL);
+        renderer->cullFromCamera(scene, javaSceneObject, camera,shader_manager, mRenderDataVector.get(),mRenderState.is_multiview);
+    }
     scene->getLights().shadersRebuilt();
+    FrameProfiler::Scope profile(FrameProfiler::SORT);
     renderer->state_sort(mRenderDataVector.get());
 }
 
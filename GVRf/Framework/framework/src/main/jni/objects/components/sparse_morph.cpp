@@ -0,0 +1,69 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "sparse_morph.h"
+
+#if defined(__ARM_NEON__) || defined(__ARM_NEON)
+#include <arm_neon.h>
+#define GVR_MORPH_NEON 1
+#endif
+
+namespace gvr {
+
+/*
+ * Vertices have 3, 6 or 12 floats, so NEON handles them as
+ * quads and at most one pair, leaving a single float for
+ * position only meshes. Without NEON the inner loop is short
+ * and fixed enough for the compiler to unroll or vectorize.
+ */
+void sparse_morph_add(float* dest, int first_vertex, int floats_per_vertex,
+                      const int* indices, const float* deltas, int count, float weight)
+{
+    for (int i = 0; i < count; ++i, deltas += floats_per_vertex)
+    {
+        float* v = dest + (indices[i] - first_vertex) * floats_per_vertex;
+        int k = 0;
+
+#ifdef GVR_MORPH_NEON
+        for (; k + 4 <= floats_per_vertex; k += 4)
+        {
+            vst1q_f32(v + k, vmlaq_n_f32(vld1q_f32(v + k), vld1q_f32(deltas + k), weight));
+        }
+        if (k + 2 <= floats_per_vertex)
+        {
+            vst1_f32(v + k, vmla_n_f32(vld1_f32(v + k), vld1_f32(deltas + k), weight));
+            k += 2;
+        }
+#endif
+        for (; k < floats_per_vertex; ++k)
+        {
+            v[k] += weight * deltas[k];
+        }
+    }
+}
+
+void sparse_morph_extract(const float* src, int floats_per_vertex, int ofs,
+                          int count, float* dest)
+{
+    src += ofs;
+    for (int i = 0; i < count; ++i, src += floats_per_vertex)
+    {
+        *dest++ = src[0];
+        *dest++ = src[1];
+        *dest++ = src[2];
+    }
+}
+
+}
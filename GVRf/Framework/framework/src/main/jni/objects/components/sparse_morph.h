@@ -0,0 +1,46 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Evaluates blend shapes stored as sparse vertex deltas
+ ***************************************************************************/
+
+#ifndef SPARSE_MORPH_H_
+#define SPARSE_MORPH_H_
+
+namespace gvr {
+
+/*
+ * A sparse blend shape only keeps the vertices it moves: count
+ * vertex indices and, for each one, floats_per_vertex differences
+ * from the base shape (position, then normal, tangent and bitangent
+ * if the mesh has them).
+ *
+ * Adds weight times the deltas of one shape to the interleaved
+ * vertices in dest, which start at vertex first_vertex.
+ * Four floats are done at a time with NEON.
+ */
+void sparse_morph_add(float* dest, int first_vertex, int floats_per_vertex,
+                      const int* indices, const float* deltas, int count, float weight);
+
+/*
+ * Copies the three floats at offset ofs of count interleaved
+ * vertices into a packed vec3 array.
+ */
+void sparse_morph_extract(const float* src, int floats_per_vertex, int ofs,
+                          int count, float* dest);
+
+}
+#endif
@@ -23,6 +23,10 @@ extern "C" {
 JNIEXPORT void JNICALL
 Java_org_gearvrf_NativeHybridObject_delete(JNIEnv * env,
         jobject obj, jlong jhybrid_object);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeHybridObject_deleteArray(JNIEnv * env,
+        jobject obj, jlongArray jhybrid_objects, jint count);
 }
 
 JNIEXPORT void JNICALL
@@ -30,5 +34,14 @@ Java_org_gearvrf_NativeHybridObject_delete(JNIEnv * env,
         jobject obj, jlong jhybrid_object) {
     delete reinterpret_cast<HybridObject*>(jhybrid_object);
 }
-}
 
+JNIEXPORT void JNICALL
+Java_org_gearvrf_NativeHybridObject_deleteArray(JNIEnv * env,
+        jobject obj, jlongArray jhybrid_objects, jint count) {
+    jlong* ptrs = env->GetLongArrayElements(jhybrid_objects, nullptr);
+    for (int i = 0; i < count; ++i) {
+        delete reinterpret_cast<HybridObject*>(ptrs[i]);
+    }
+    env->ReleaseLongArrayElements(jhybrid_objects, ptrs, JNI_ABORT);
+}
+}
@@ -153,6 +153,10 @@ void Scene::removeCollider(Collider* collider) {
  * Called when the main scene is first presented for render.
  */
 void Scene::set_main_scene(Scene* scene) {
+    if ((main_scene_ != nullptr) && (main_scene_ != scene)) {
+        // the index is only kept up to date for the main scene
+        main_scene_->getSpatialIndex().clear();
+    }
     main_scene_ = scene;
     scene->getRoot()->onAddedToScene(scene);
 }
@@ -31,6 +31,7 @@
 #include "engine/renderer/renderer.h"
 #include "objects/lightlist.h"
 #include "objects/scene_object.h"
+#include "objects/spatial_index.h"
 
 
 namespace gvr {
@@ -194,6 +195,12 @@ public:
 
     void setSceneRoot(SceneObject *sceneRoot);
 
+    /*
+     * Index of the objects in the scene by their world space bounds.
+     * Like the collider list, it is kept up to date for the main scene.
+     */
+    SpatialIndex& getSpatialIndex() { return spatial_index_; }
+
 private:
     Scene(const Scene& scene) = delete;
     Scene(Scene&& scene) = delete;
@@ -216,6 +223,7 @@ private:
     LightList lights_;
     std::vector<Component*> allColliders;
     std::vector<Component*> visibleColliders;
+    SpatialIndex spatial_index_;
 };
 
 }
@@ -76,6 +76,23 @@ extern "C" {
     JNIEXPORT void JNICALL
     Java_org_gearvrf_NativeScene_setMainScene(JNIEnv * env, jobject obj, jlong jscene);
 
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_NativeScene_findInSphere(JNIEnv * env, jobject obj, jlong jscene,
+            jfloat x, jfloat y, jfloat z, jfloat radius, jlongArray jresults);
+
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_NativeScene_findInBox(JNIEnv * env, jobject obj, jlong jscene,
+            jfloat minX, jfloat minY, jfloat minZ, jfloat maxX, jfloat maxY, jfloat maxZ,
+            jlongArray jresults);
+
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_NativeScene_findInFrustum(JNIEnv * env, jobject obj, jlong jscene,
+            jfloatArray jvp_matrix, jlongArray jresults);
+
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_NativeScene_findNearest(JNIEnv * env, jobject obj, jlong jscene,
+            jfloat x, jfloat y, jfloat z, jlongArray jresults, jfloatArray jdistances, jint k);
+
     JNIEXPORT void JNICALL
     Java_org_gearvrf_NativeScene_deleteLightsAndDepthTextureOnRenderThread(JNIEnv * env,
                                                        jobject obj, jlong jscene) {
@@ -218,4 +235,67 @@ Java_org_gearvrf_NativeScene_setMainScene(JNIEnv * env, jobject obj, jlong jscen
     Scene::set_main_scene(reinterpret_cast<Scene*>(jscene));
 }
 
+/*
+ * Copy the objects a query found into a Java array of native pointers.
+ */
+static void copyResults(JNIEnv* env, const std::vector<SceneObject*>& objects, int count,
+        jlongArray jresults) {
+    count = std::min(count, int(objects.size()));
+    std::vector<jlong> pointers(count);
+    for (int i = 0; i < count; ++i) {
+        pointers[i] = reinterpret_cast<jlong>(objects[i]);
+    }
+    env->SetLongArrayRegion(jresults, 0, count, pointers.data());
+}
+
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeScene_findInSphere(JNIEnv * env, jobject obj, jlong jscene,
+        jfloat x, jfloat y, jfloat z, jfloat radius, jlongArray jresults) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    std::vector<SceneObject*> objects(env->GetArrayLength(jresults));
+    int found = scene->getSpatialIndex().querySphere(glm::vec3(x, y, z), radius,
+            objects.data(), objects.size());
+    copyResults(env, objects, found, jresults);
+    return found;
+}
+
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeScene_findInBox(JNIEnv * env, jobject obj, jlong jscene,
+        jfloat minX, jfloat minY, jfloat minZ, jfloat maxX, jfloat maxY, jfloat maxZ,
+        jlongArray jresults) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    std::vector<SceneObject*> objects(env->GetArrayLength(jresults));
+    int found = scene->getSpatialIndex().queryBox(glm::vec3(minX, minY, minZ),
+            glm::vec3(maxX, maxY, maxZ), objects.data(), objects.size());
+    copyResults(env, objects, found, jresults);
+    return found;
+}
+
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeScene_findInFrustum(JNIEnv * env, jobject obj, jlong jscene,
+        jfloatArray jvp_matrix, jlongArray jresults) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    float vp_matrix[16];
+    env->GetFloatArrayRegion(jvp_matrix, 0, 16, vp_matrix);
+    std::vector<SceneObject*> objects(env->GetArrayLength(jresults));
+    int found = scene->getSpatialIndex().queryFrustum(vp_matrix, objects.data(), objects.size());
+    copyResults(env, objects, found, jresults);
+    return found;
+}
+
+JNIEXPORT jint JNICALL
+Java_org_gearvrf_NativeScene_findNearest(JNIEnv * env, jobject obj, jlong jscene,
+        jfloat x, jfloat y, jfloat z, jlongArray jresults, jfloatArray jdistances, jint k) {
+    Scene* scene = reinterpret_cast<Scene*>(jscene);
+    std::vector<SceneObject*> objects(k);
+    std::vector<float> distances(k);
+    int found = scene->getSpatialIndex().queryNearest(glm::vec3(x, y, z), objects.data(),
+            distances.data(), k);
+    copyResults(env, objects, found, jresults);
+    if (jdistances != nullptr) {
+        env->SetFloatArrayRegion(jdistances, 0, found, distances.data());
+    }
+    return found;
+}
+
 }
@@ -25,6 +25,7 @@
 #include "util/gvr_log.h"
 #include "mesh.h"
 #include "scene.h"
+#include "spatial_index.h"
 
 namespace gvr {
 
@@ -39,6 +40,9 @@ SceneObject::SceneObject() :
 }
 
 SceneObject::~SceneObject() {
+    if (spatial_index_ != nullptr) {
+        spatial_index_->remove(this);
+    }
     delete queries_;
 }
 
@@ -49,6 +53,7 @@ bool SceneObject::attachComponent(Component* component) {
     }
     component->set_owner_object(this);
     components_.push_back(component);
+    markSpatialDirty();
     SceneObject* par = parent();
     if (par)
     {
@@ -98,6 +103,7 @@ Component* SceneObject::detachComponent(long long type)
             }
             component->set_owner_object(NULL);
             components_.erase(it);
+            markSpatialDirty();
             return component;
         }
     }
@@ -156,6 +162,10 @@ void SceneObject::addChildObject(SceneObject* self, SceneObject* child) {
  */
 void SceneObject::onAddedToScene(Scene* scene)
 {
+    if (this != scene->getRoot())
+    {
+        scene->getSpatialIndex().insert(this);
+    }
     for (auto it = components_.begin(); it != components_.end(); ++it)
     {
         (*it)->onAddedToScene(scene);
@@ -212,6 +222,7 @@ bool SceneObject::onRemoveChild(SceneObject* removeme, SceneObject* root)
  */
 void SceneObject::onRemovedFromScene(Scene* scene)
 {
+    scene->getSpatialIndex().remove(this);
     for (auto it = components_.begin(); it != components_.end(); ++it)
     {
         (*it)->onRemovedFromScene(scene);
@@ -258,6 +269,7 @@ void SceneObject::onTransformChanged()
     }
     setTransformDirty();
     dirtyHierarchicalBoundingVolume();
+    markSpatialDirty();
     if (getChildrenCount() > 0)
     {
         std::lock_guard<std::mutex> lock(children_mutex_);
@@ -327,6 +339,13 @@ void SceneObject::dirtyHierarchicalBoundingVolume() {
     }
 }
 
+void SceneObject::markSpatialDirty() {
+    SpatialIndex* index = spatial_index_;
+    if (index != nullptr) {
+        index->markDirty(this);
+    }
+}
+
 void SceneObject::set_visible(bool visibility = true) {
 
     //HACK
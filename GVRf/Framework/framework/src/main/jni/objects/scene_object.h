@@ -36,6 +36,7 @@
 namespace gvr {
 class Camera;
 class CameraRig;
+class SpatialIndex;
 
 class SceneObject: public HybridObject {
 public:
@@ -141,6 +142,11 @@ public:
     bool intersectsBoundingVolume(SceneObject *scene_object);
     void dirtyHierarchicalBoundingVolume();
     BoundingVolume& getBoundingVolume();
+    /*
+     * The bounds of this object alone changed: it moved, or its
+     * mesh changed. Updates the spatial index of its scene.
+     */
+    void markSpatialDirty();
     void onTransformChanged();
     bool onAddChild(SceneObject* addme, SceneObject* root);
     bool onRemoveChild(SceneObject* removeme, SceneObject* root);
@@ -183,6 +189,12 @@ private:
             BoundingVolume &bounding_volume);
 
     std::mutex children_mutex_;
+
+    // guarded by the index
+    friend class SpatialIndex;
+    SpatialIndex* spatial_index_ = nullptr;
+    int spatial_handle_ = -1;
+    bool spatial_dirty_ = false;
 };
 
 }
@@ -0,0 +1,362 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Loose hashed grid of axis aligned boxes, for proximity queries
+ ***************************************************************************/
+
+#include "spatial_grid.h"
+
+#include <algorithm>
+#include <cmath>
+#include <utility>
+
+namespace gvr {
+
+static const int COORD_BITS = 21;
+static const int COORD_BIAS = 1 << (COORD_BITS - 1);
+static const int64_t COORD_MASK = (int64_t(1) << COORD_BITS) - 1;
+
+/*
+ * Squared distance from a point to a box, 0 inside it.
+ */
+static float distanceSquared(const glm::vec3& p, const glm::vec3& min_corner,
+        const glm::vec3& max_corner) {
+    glm::vec3 d = glm::max(glm::max(min_corner - p, p - max_corner), glm::vec3(0.0f));
+    return glm::dot(d, d);
+}
+
+static bool overlaps(const glm::vec3& min_a, const glm::vec3& max_a,
+        const glm::vec3& min_b, const glm::vec3& max_b) {
+    return min_a.x <= max_b.x && max_a.x >= min_b.x
+            && min_a.y <= max_b.y && max_a.y >= min_b.y
+            && min_a.z <= max_b.z && max_a.z >= min_b.z;
+}
+
+/*
+ * A box is outside when its corner furthest along the normal of
+ * one of the planes is behind that plane.
+ */
+static bool outsideFrustum(const float planes[6][4], const glm::vec3& min_corner,
+        const glm::vec3& max_corner) {
+    for (int p = 0; p < 6; ++p) {
+        const float* plane = planes[p];
+        float x = (plane[0] >= 0.0f) ? max_corner.x : min_corner.x;
+        float y = (plane[1] >= 0.0f) ? max_corner.y : min_corner.y;
+        float z = (plane[2] >= 0.0f) ? max_corner.z : min_corner.z;
+        if (plane[0] * x + plane[1] * y + plane[2] * z + plane[3] < 0.0f) {
+            return true;
+        }
+    }
+    return false;
+}
+
+SpatialGrid::SpatialGrid(float cell_size) :
+        cell_size_(cell_size), inv_cell_size_(1.0f / cell_size), count_(0) {
+}
+
+int SpatialGrid::add(void* item, const glm::vec3& min_corner, const glm::vec3& max_corner) {
+    int handle;
+    if (free_.empty()) {
+        handle = entries_.size();
+        entries_.push_back(Entry());
+    } else {
+        handle = free_.back();
+        free_.pop_back();
+    }
+    Entry& entry = entries_[handle];
+    entry.item = item;
+    entry.min_corner = min_corner;
+    entry.max_corner = max_corner;
+    entry.cell = cellOf(entry);
+    link(handle);
+    ++count_;
+    return handle;
+}
+
+void SpatialGrid::move(int handle, const glm::vec3& min_corner, const glm::vec3& max_corner) {
+    Entry& entry = entries_[handle];
+    entry.min_corner = min_corner;
+    entry.max_corner = max_corner;
+    int64_t cell = cellOf(entry);
+    if (cell != entry.cell) {
+        unlink(handle);
+        entry.cell = cell;
+        link(handle);
+    }
+}
+
+void SpatialGrid::remove(int handle) {
+    Entry& entry = entries_[handle];
+    unlink(handle);
+    entry.item = nullptr;
+    entry.cell = FREE;
+    free_.push_back(handle);
+    --count_;
+}
+
+void SpatialGrid::clear() {
+    entries_.clear();
+    free_.clear();
+    oversized_.clear();
+    cells_.clear();
+    count_ = 0;
+}
+
+int SpatialGrid::cellCoord(float v) const {
+    float c = std::floor(v * inv_cell_size_);
+    if (!(c > -COORD_BIAS)) {           // also catches NaN
+        return -COORD_BIAS;
+    }
+    return (c < COORD_BIAS - 1) ? int(c) : COORD_BIAS - 1;
+}
+
+int64_t SpatialGrid::cellKey(int x, int y, int z) {
+    return (int64_t(x + COORD_BIAS) << (2 * COORD_BITS))
+            | (int64_t(y + COORD_BIAS) << COORD_BITS)
+            | int64_t(z + COORD_BIAS);
+}
+
+void SpatialGrid::cellCoords(int64_t key, int& x, int& y, int& z) {
+    x = int((key >> (2 * COORD_BITS)) & COORD_MASK) - COORD_BIAS;
+    y = int((key >> COORD_BITS) & COORD_MASK) - COORD_BIAS;
+    z = int(key & COORD_MASK) - COORD_BIAS;
+}
+
+int64_t SpatialGrid::cellOf(const Entry& entry) const {
+    glm::vec3 half = (entry.max_corner - entry.min_corner) * 0.5f;
+    if (std::max(half.x, std::max(half.y, half.z)) > cell_size_ * 0.5f) {
+        return OVERSIZED;
+    }
+    glm::vec3 center = (entry.min_corner + entry.max_corner) * 0.5f;
+    return cellKey(cellCoord(center.x), cellCoord(center.y), cellCoord(center.z));
+}
+
+void SpatialGrid::link(int handle) {
+    int64_t cell = entries_[handle].cell;
+    if (cell == OVERSIZED) {
+        oversized_.push_back(handle);
+    } else {
+        cells_[cell].push_back(handle);
+    }
+}
+
+void SpatialGrid::unlink(int handle) {
+    int64_t cell = entries_[handle].cell;
+    std::vector<int>* list;
+    auto it = cells_.end();
+    if (cell == OVERSIZED) {
+        list = &oversized_;
+    } else {
+        it = cells_.find(cell);
+        list = &it->second;
+    }
+    auto pos = std::find(list->begin(), list->end(), handle);
+    *pos = list->back();
+    list->pop_back();
+    if (list->empty() && (it != cells_.end())) {
+        cells_.erase(it);
+    }
+}
+
+template <class Visitor>
+void SpatialGrid::forEachCandidate(const glm::vec3& min_corner, const glm::vec3& max_corner,
+        Visitor visit) const {
+    const glm::vec3 slack(cell_size_ * 0.5f);
+    const int x0 = cellCoord(min_corner.x - slack.x), x1 = cellCoord(max_corner.x + slack.x);
+    const int y0 = cellCoord(min_corner.y - slack.y), y1 = cellCoord(max_corner.y + slack.y);
+    const int z0 = cellCoord(min_corner.z - slack.z), z1 = cellCoord(max_corner.z + slack.z);
+    const double range = double(x1 - x0 + 1) * double(y1 - y0 + 1) * double(z1 - z0 + 1);
+
+    if (range > double(cells_.size())) {
+        // more cells in range than occupied ones, the entries are
+        // contiguous and quicker to scan than the cells
+        for (size_t handle = 0; handle < entries_.size(); ++handle) {
+            if (entries_[handle].cell != FREE) {
+                visit(int(handle));
+            }
+        }
+        return;
+    }
+    for (int x = x0; x <= x1; ++x) {
+        for (int y = y0; y <= y1; ++y) {
+            for (int z = z0; z <= z1; ++z) {
+                auto it = cells_.find(cellKey(x, y, z));
+                if (it != cells_.end()) {
+                    for (int handle : it->second) {
+                        visit(handle);
+                    }
+                }
+            }
+        }
+    }
+    for (int handle : oversized_) {
+        visit(handle);
+    }
+}
+
+int SpatialGrid::queryBox(const glm::vec3& min_corner, const glm::vec3& max_corner,
+        void** results, int max_count) const {
+    int found = 0;
+    forEachCandidate(min_corner, max_corner, [&](int handle) {
+        const Entry& entry = entries_[handle];
+        if (overlaps(entry.min_corner, entry.max_corner, min_corner, max_corner)) {
+            if (found < max_count) {
+                results[found] = entry.item;
+            }
+            ++found;
+        }
+    });
+    return found;
+}
+
+int SpatialGrid::querySphere(const glm::vec3& center, float radius,
+        void** results, int max_count) const {
+    const float radius2 = radius * radius;
+    int found = 0;
+    forEachCandidate(center - glm::vec3(radius), center + glm::vec3(radius), [&](int handle) {
+        const Entry& entry = entries_[handle];
+        if (distanceSquared(center, entry.min_corner, entry.max_corner) <= radius2) {
+            if (found < max_count) {
+                results[found] = entry.item;
+            }
+            ++found;
+        }
+    });
+    return found;
+}
+
+/*
+ * Bounds of the eight corners of a frustum, each the meeting point
+ * of three planes. False if the frustum is not closed.
+ */
+static bool frustumBounds(const float planes[6][4], glm::vec3& min_corner, glm::vec3& max_corner) {
+    min_corner = glm::vec3(INFINITY);
+    max_corner = glm::vec3(-INFINITY);
+    for (int corner = 0; corner < 8; ++corner) {
+        const float* a = planes[0 + (corner & 1)];         // right or left
+        const float* b = planes[2 + ((corner >> 1) & 1)];  // bottom or top
+        const float* c = planes[4 + ((corner >> 2) & 1)];  // far or near
+        glm::vec3 na(a[0], a[1], a[2]), nb(b[0], b[1], b[2]), nc(c[0], c[1], c[2]);
+        glm::vec3 bc = glm::cross(nb, nc);
+        float det = glm::dot(na, bc);
+        if (std::abs(det) < 1e-6f) {
+            return false;
+        }
+        glm::vec3 p = -(a[3] * bc + b[3] * glm::cross(nc, na) + c[3] * glm::cross(na, nb)) / det;
+        if (!std::isfinite(p.x) || !std::isfinite(p.y) || !std::isfinite(p.z)) {
+            return false;
+        }
+        min_corner = glm::min(min_corner, p);
+        max_corner = glm::max(max_corner, p);
+    }
+    return true;
+}
+
+int SpatialGrid::queryFrustum(const float planes[6][4], void** results, int max_count) const {
+    int found = 0;
+    auto test = [&](int handle) {
+        const Entry& entry = entries_[handle];
+        if (!outsideFrustum(planes, entry.min_corner, entry.max_corner)) {
+            if (found < max_count) {
+                results[found] = entry.item;
+            }
+            ++found;
+        }
+    };
+    glm::vec3 min_corner, max_corner;
+    if (frustumBounds(planes, min_corner, max_corner)) {
+        forEachCandidate(min_corner, max_corner, test);
+        return found;
+    }
+
+    // no far plane, check everything
+    for (size_t handle = 0; handle < entries_.size(); ++handle) {
+        if (entries_[handle].cell != FREE) {
+            test(int(handle));
+        }
+    }
+    return found;
+}
+
+int SpatialGrid::queryNearest(const glm::vec3& point, int k, void** results,
+        float* distances) const {
+    k = std::min(k, count_);
+    if (k <= 0) {
+        return 0;
+    }
+    std::vector<std::pair<float, int> > candidates;
+    float radius = cell_size_;
+
+    // grow a box around the point until it holds k boxes,
+    // or until it takes in every occupied cell
+    for (;;) {
+        const float radius2 = radius * radius;
+        const glm::vec3 min_corner = point - glm::vec3(radius);
+        const glm::vec3 max_corner = point + glm::vec3(radius);
+        const glm::vec3 slack(cell_size_ * 0.5f);
+        const double range = double(cellCoord(max_corner.x + slack.x) - cellCoord(min_corner.x - slack.x) + 1)
+                * double(cellCoord(max_corner.y + slack.y) - cellCoord(min_corner.y - slack.y) + 1)
+                * double(cellCoord(max_corner.z + slack.z) - cellCoord(min_corner.z - slack.z) + 1);
+        const bool everything = (range > double(cells_.size())) || !std::isfinite(radius);
+
+        candidates.clear();
+        forEachCandidate(min_corner, max_corner, [&](int handle) {
+            const Entry& entry = entries_[handle];
+            float d2 = distanceSquared(point, entry.min_corner, entry.max_corner);
+            if (everything || (d2 <= radius2)) {
+                candidates.push_back(std::make_pair(d2, handle));
+            }
+        });
+        if (everything) {
+            break;
+        }
+        if (int(candidates.size()) >= k) {
+            break;
+        }
+        radius *= 2.0f;
+    }
+
+    std::partial_sort(candidates.begin(), candidates.begin() + k, candidates.end());
+    for (int i = 0; i < k; ++i) {
+        results[i] = entries_[candidates[i].second].item;
+        if (distances != nullptr) {
+            distances[i] = std::sqrt(candidates[i].first);
+        }
+    }
+    return k;
+}
+
+void SpatialGrid::extractFrustum(const float* vp_matrix, float planes[6][4]) {
+    // rows of the matrix, combined as in Renderer::build_frustum
+    static const int ROW[6] = { 0, 0, 1, 1, 2, 2 };
+    static const float SIGN[6] = { -1.0f, 1.0f, 1.0f, -1.0f, -1.0f, 1.0f };
+
+    for (int p = 0; p < 6; ++p) {
+        float length = 0.0f;
+        for (int c = 0; c < 4; ++c) {
+            planes[p][c] = vp_matrix[c * 4 + 3] + SIGN[p] * vp_matrix[c * 4 + ROW[p]];
+            if (c < 3) {
+                length += planes[p][c] * planes[p][c];
+            }
+        }
+        length = std::sqrt(length);
+        for (int c = 0; c < 4; ++c) {
+            planes[p][c] /= length;
+        }
+    }
+}
+
+}
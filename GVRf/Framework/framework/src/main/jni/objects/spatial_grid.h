@@ -0,0 +1,118 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Loose hashed grid of axis aligned boxes, for proximity queries
+ ***************************************************************************/
+
+#ifndef SPATIAL_GRID_H_
+#define SPATIAL_GRID_H_
+
+#include <cstdint>
+#include <unordered_map>
+#include <vector>
+
+#include "glm/glm.hpp"
+
+namespace gvr {
+
+/*
+ * Each box is stored once, in the cell holding its center. A box may
+ * stick out of its cell by up to half a cell, so queries look half a
+ * cell further; boxes bigger than a cell go to a separate list that
+ * every query checks. Only occupied cells take memory, so the grid
+ * is unbounded.
+ *
+ * Boxes are identified by the handle add() returns and carry an
+ * opaque pointer, which is what queries report. Queries write at
+ * most max_count pointers and return the number of matches, which
+ * may be larger. The grid is not thread safe.
+ */
+class SpatialGrid {
+public:
+    explicit SpatialGrid(float cell_size);
+
+    int add(void* item, const glm::vec3& min_corner, const glm::vec3& max_corner);
+    void move(int handle, const glm::vec3& min_corner, const glm::vec3& max_corner);
+    void remove(int handle);
+    void clear();
+
+    int size() const {
+        return count_;
+    }
+    float cell_size() const {
+        return cell_size_;
+    }
+    void* item(int handle) const {
+        return entries_[handle].item;
+    }
+
+    int queryBox(const glm::vec3& min_corner, const glm::vec3& max_corner,
+            void** results, int max_count) const;
+    int querySphere(const glm::vec3& center, float radius,
+            void** results, int max_count) const;
+    /*
+     * Planes are (a, b, c, d) with normals pointing inside,
+     * as made by extractFrustum().
+     */
+    int queryFrustum(const float planes[6][4], void** results, int max_count) const;
+    /*
+     * The k boxes closest to a point, closest first. Distances are
+     * from the point to the box, 0 inside it. distances may be null.
+     */
+    int queryNearest(const glm::vec3& point, int k, void** results, float* distances) const;
+
+    /*
+     * Frustum planes of a column major view projection matrix.
+     */
+    static void extractFrustum(const float* vp_matrix, float planes[6][4]);
+
+private:
+    struct Entry {
+        void* item;
+        glm::vec3 min_corner;
+        glm::vec3 max_corner;
+        int64_t cell;       // OVERSIZED, FREE or a cell key
+    };
+
+    static const int64_t OVERSIZED = INT64_MIN;
+    static const int64_t FREE = INT64_MIN + 1;
+
+    int64_t cellOf(const Entry& entry) const;
+    int cellCoord(float v) const;
+    static int64_t cellKey(int x, int y, int z);
+    static void cellCoords(int64_t key, int& x, int& y, int& z);
+    void link(int handle);
+    void unlink(int handle);
+
+    /*
+     * Call visit(handle) for every box which may overlap the box
+     * between min_corner and max_corner.
+     */
+    template <class Visitor>
+    void forEachCandidate(const glm::vec3& min_corner, const glm::vec3& max_corner,
+            Visitor visit) const;
+
+    float cell_size_;
+    float inv_cell_size_;
+    int count_;
+    std::vector<Entry> entries_;
+    std::vector<int> free_;
+    std::vector<int> oversized_;
+    std::unordered_map<int64_t, std::vector<int> > cells_;
+};
+
+}
+#endif
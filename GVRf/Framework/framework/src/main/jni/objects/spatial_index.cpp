@@ -0,0 +1,159 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Spatial index of the objects in a scene.
+ ***************************************************************************/
+
+#include "spatial_index.h"
+
+#include "objects/scene_object.h"
+#include "objects/mesh.h"
+
+namespace gvr {
+
+SpatialIndex::SpatialIndex() : grid_(DEFAULT_CELL_SIZE) {
+}
+
+SpatialIndex::~SpatialIndex() {
+    clear();
+}
+
+void SpatialIndex::insert(SceneObject* object) {
+    SpatialIndex* previous;
+    {
+        std::lock_guard<std::mutex> lock(mutex_);
+        previous = object->spatial_index_;
+        if (previous == this) {
+            return;
+        }
+    }
+    if (previous != nullptr) {
+        // it was in the scene which was shown before
+        previous->remove(object);
+    }
+    std::lock_guard<std::mutex> lock(mutex_);
+    glm::vec3 min_corner, max_corner;
+    getBounds(object, min_corner, max_corner);
+    object->spatial_index_ = this;
+    object->spatial_handle_ = grid_.add(object, min_corner, max_corner);
+    object->spatial_dirty_ = false;
+}
+
+void SpatialIndex::remove(SceneObject* object) {
+    std::lock_guard<std::mutex> lock(mutex_);
+    if (object->spatial_index_ != this) {
+        return;
+    }
+    grid_.remove(object->spatial_handle_);
+    if (object->spatial_dirty_) {
+        dirty_.erase(std::remove(dirty_.begin(), dirty_.end(), object), dirty_.end());
+    }
+    object->spatial_index_ = nullptr;
+    object->spatial_handle_ = -1;
+    object->spatial_dirty_ = false;
+}
+
+void SpatialIndex::markDirty(SceneObject* object) {
+    std::lock_guard<std::mutex> lock(mutex_);
+    if ((object->spatial_index_ == this) && !object->spatial_dirty_) {
+        object->spatial_dirty_ = true;
+        dirty_.push_back(object);
+    }
+}
+
+void SpatialIndex::clear() {
+    std::lock_guard<std::mutex> lock(mutex_);
+    for (int handle = 0; grid_.size() > 0; ++handle) {
+        SceneObject* object = static_cast<SceneObject*>(grid_.item(handle));
+        if (object != nullptr) {
+            grid_.remove(handle);
+            object->spatial_index_ = nullptr;
+            object->spatial_handle_ = -1;
+            object->spatial_dirty_ = false;
+        }
+    }
+    grid_.clear();
+    dirty_.clear();
+}
+
+int SpatialIndex::size() {
+    std::lock_guard<std::mutex> lock(mutex_);
+    return grid_.size();
+}
+
+/*
+ * Called with the lock held.
+ */
+void SpatialIndex::update() {
+    for (auto it = dirty_.begin(); it != dirty_.end(); ++it) {
+        SceneObject* object = *it;
+        glm::vec3 min_corner, max_corner;
+        getBounds(object, min_corner, max_corner);
+        grid_.move(object->spatial_handle_, min_corner, max_corner);
+        object->spatial_dirty_ = false;
+    }
+    dirty_.clear();
+}
+
+void SpatialIndex::getBounds(SceneObject* object, glm::vec3& min_corner, glm::vec3& max_corner) {
+    Transform* transform = object->transform();
+    glm::mat4 model_matrix = transform ? transform->getModelMatrix() : glm::mat4(1.0f);
+    RenderData* render_data = object->render_data();
+    Mesh* mesh = render_data ? render_data->mesh() : nullptr;
+
+    if (mesh != nullptr) {
+        const BoundingVolume& mesh_bounds = mesh->getBoundingVolume();
+        if (mesh_bounds.radius() > 0) {
+            BoundingVolume bounds;
+            bounds.transform(mesh_bounds, model_matrix);
+            min_corner = bounds.min_corner();
+            max_corner = bounds.max_corner();
+            return;
+        }
+    }
+    min_corner = max_corner = glm::vec3(model_matrix[3]);
+}
+
+int SpatialIndex::querySphere(const glm::vec3& center, float radius,
+        SceneObject** results, int max_count) {
+    std::lock_guard<std::mutex> lock(mutex_);
+    update();
+    return grid_.querySphere(center, radius, reinterpret_cast<void**>(results), max_count);
+}
+
+int SpatialIndex::queryBox(const glm::vec3& min_corner, const glm::vec3& max_corner,
+        SceneObject** results, int max_count) {
+    std::lock_guard<std::mutex> lock(mutex_);
+    update();
+    return grid_.queryBox(min_corner, max_corner, reinterpret_cast<void**>(results), max_count);
+}
+
+int SpatialIndex::queryFrustum(const float* vp_matrix, SceneObject** results, int max_count) {
+    float planes[6][4];
+    SpatialGrid::extractFrustum(vp_matrix, planes);
+    std::lock_guard<std::mutex> lock(mutex_);
+    update();
+    return grid_.queryFrustum(planes, reinterpret_cast<void**>(results), max_count);
+}
+
+int SpatialIndex::queryNearest(const glm::vec3& point, SceneObject** results,
+        float* distances, int k) {
+    std::lock_guard<std::mutex> lock(mutex_);
+    update();
+    return grid_.queryNearest(point, k, reinterpret_cast<void**>(results), distances);
+}
+
+}
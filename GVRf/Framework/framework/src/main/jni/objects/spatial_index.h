@@ -0,0 +1,78 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Spatial index of the objects in a scene.
+ ***************************************************************************/
+
+#ifndef SPATIAL_INDEX_H_
+#define SPATIAL_INDEX_H_
+
+#include <mutex>
+#include <vector>
+
+#include "objects/spatial_grid.h"
+
+namespace gvr {
+
+class SceneObject;
+
+/*
+ * Keeps the world space bounds of scene objects in a SpatialGrid.
+ * An object is indexed by its own bounds: those of its mesh, or its
+ * position if it has none, not including its children.
+ *
+ * Objects are added and removed as they enter and leave the scene,
+ * while it is the main scene; the index is emptied when another scene
+ * becomes the main one, and filled again when it is main again.
+ * Moving an object, or changing its mesh, only marks it; the bounds of
+ * marked objects are brought up to date by the next query. The index
+ * can be used from any thread.
+ */
+class SpatialIndex {
+public:
+    static constexpr float DEFAULT_CELL_SIZE = 4.0f;
+
+    SpatialIndex();
+    ~SpatialIndex();
+
+    void insert(SceneObject* object);
+    void remove(SceneObject* object);
+    void markDirty(SceneObject* object);
+    void clear();
+    int size();
+
+    int querySphere(const glm::vec3& center, float radius,
+            SceneObject** results, int max_count);
+    int queryBox(const glm::vec3& min_corner, const glm::vec3& max_corner,
+            SceneObject** results, int max_count);
+    int queryFrustum(const float* vp_matrix, SceneObject** results, int max_count);
+    int queryNearest(const glm::vec3& point, SceneObject** results,
+            float* distances, int k);
+
+private:
+    SpatialIndex(const SpatialIndex&) = delete;
+    SpatialIndex& operator=(const SpatialIndex&) = delete;
+
+    void update();
+    static void getBounds(SceneObject* object, glm::vec3& min_corner, glm::vec3& max_corner);
+
+    std::mutex mutex_;
+    SpatialGrid grid_;
+    std::vector<SceneObject*> dirty_;
+};
+
+}
+#endif
@@ -16,11 +16,13 @@
 #include "bitmap_image.h"
 #include "bitmap_transparency.h"
 #include "astc_transparency.h"
+#include "pixel_opacity.h"
 
 namespace gvr {
 BitmapImage::BitmapImage(int format) :
             Image(Image::BITMAP, format),mData(NULL),
-            mBitmap(NULL), mJava(NULL), mHasTransparency(false)
+            mBitmap(NULL), mJava(NULL), mOpacity(OPACITY_OPAQUE),
+            mBaseLevel(-1)
 {
 }
 
@@ -29,7 +31,9 @@ BitmapImage::~BitmapImage()
     if (mJava)
     {
         std::lock_guard<std::mutex> lock(mUpdateLock);
-        clearData(getCurrentEnv(mJava));
+        JNIEnv* env = getCurrentEnv(mJava);
+        clearData(env);
+        clearPendingLevels(env);
     }
 }
 
@@ -62,13 +66,9 @@ void BitmapImage::update(JNIEnv* env, jobject bitmap, bool hasAlpha, int format)
         mFormat = format;
         mIsBuffer = false;
         LOGV("Texture: BitmapImage::update(bitmap)");
-        if( hasAlpha ) {
-            if(bitmap_has_transparency(env, bitmap)) {
-                set_transparency(true);
-            } else {
-                // TODO: warning: bitmap has an alpha channel with no translucent/transparent pixels.
-            }
-        }
+        // classified once here, on the loading thread, and
+        // reused by every texture and render data sharing the image
+        set_opacity(hasAlpha ? bitmap_opacity(env, bitmap) : OPACITY_OPAQUE);
         signalUpdate();
     }
 }
@@ -89,6 +89,13 @@ void BitmapImage::update(JNIEnv* env, int xoffset, int yoffset, int width, int h
         mBitmap = env->NewGlobalRef(buffer);
         mIsBuffer = true;
         LOGV("Texture: BitmapImage::update(buffer)");
+        // a whole RGBA image, like a decoded TGA, is classified like a bitmap
+        void* pixels = env->GetDirectBufferAddress(buffer);
+        if ((pixels != NULL) && (xoffset == 0) && (yoffset == 0) &&
+            (format == GL_RGBA) && (type == GL_UNSIGNED_BYTE))
+        {
+            set_opacity(opacity_rgba8888(pixels, width, height, width * 4));
+        }
         signalUpdate();
     }
 }
@@ -117,6 +124,51 @@ void BitmapImage::update(JNIEnv *env, int width, int height, int imageSize,
     }
 }
 
+/*
+ * Queue one mip level of a compressed image for upload. Levels can come
+ * in any order, and the image is usable as soon as the first one is on
+ * the GPU: the GL side limits sampling to the levels it already has.
+ * The buffer must be direct, and stay unchanged until it is uploaded.
+ */
+void BitmapImage::updateLevel(JNIEnv* env, int width, int height, int levels,
+                              int level, int imageSize, jobject buffer)
+{
+    std::lock_guard<std::mutex> lock(mUpdateLock);
+    jbyte* pixels = static_cast<jbyte*>(env->GetDirectBufferAddress(buffer));
+
+    if (pixels == NULL)
+    {
+        LOGE("BitmapImage::updateLevel buffer is not direct");
+        return;
+    }
+    env->GetJavaVM(&mJava);
+    clearData(env);
+    mWidth = width;
+    mHeight = height;
+    mLevels = levels;
+    mIsCompressed = true;
+    mImageSize = imageSize;
+    mPixels = pixels;
+    if (hasAlpha(mFormat))
+    {
+        set_transparency(true);
+    }
+    mPixels = NULL;
+    PendingLevel pending = { level, imageSize, env->NewGlobalRef(buffer) };
+    mPendingLevels.push_back(pending);
+    LOGV("Texture: BitmapImage::updateLevel(%d of %d)", level, levels);
+    signalUpdate();
+}
+
+void BitmapImage::clearPendingLevels(JNIEnv* env)
+{
+    for (auto it = mPendingLevels.begin(); it != mPendingLevels.end(); ++it)
+    {
+        env->DeleteGlobalRef(it->buffer);
+    }
+    mPendingLevels.clear();
+}
+
 void BitmapImage::clearData(JNIEnv* env)
 {
     if (mData != NULL)
@@ -41,17 +41,39 @@ namespace gvr {
                     int format, int type, jobject bitmap);
         void update(JNIEnv *env, int width, int height, int imageSize,
                     jbyteArray bytes, int levels, const int* dataOffsets);
+        void updateLevel(JNIEnv* env, int width, int height, int levels,
+                         int level, int imageSize, jobject buffer);
 
         void set_transparency(bool hasTransparency) {
-            mHasTransparency = hasTransparency;
+            mOpacity = hasTransparency ? OPACITY_BLENDED : OPACITY_OPAQUE;
+        }
+
+        void set_opacity(int opacity) {
+            mOpacity = opacity;
         }
 
         virtual bool transparency() {
-            return mHasTransparency;
+            return mOpacity != OPACITY_OPAQUE;
+        }
+
+        virtual int opacity() {
+            return mOpacity;
         }
 
     protected:
+        /*
+         * One mip level of a compressed image in a direct buffer,
+         * waiting for the GL thread.
+         */
+        struct PendingLevel
+        {
+            int     level;
+            int     imageSize;
+            jobject buffer;
+        };
+
         void clearData(JNIEnv* env);
+        void clearPendingLevels(JNIEnv* env);
 
     private:
         BitmapImage(const BitmapImage& texture) = delete;
@@ -65,8 +87,10 @@ namespace gvr {
         jbyteArray mData;
         jobject mBitmap;
         bool mIsBuffer;
-        bool mHasTransparency;
+        int mOpacity;
         jbyte* mPixels;
+        std::vector<PendingLevel> mPendingLevels;
+        int mBaseLevel;     // smallest level uploaded so far, -1 if none
     };
 
 }
@@ -31,6 +31,15 @@ namespace gvr
     Java_org_gearvrf_NativeBitmapImage_constructor(JNIEnv *env, jobject obj,
                                                    int imageType, int pixelFormat);
 
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeBitmapImage_updateCompressedLevel(JNIEnv *env, jobject obj,
+                                                             jlong jtexture, jint width, jint height, jint levels,
+                                                             jint level, jint imageSize, jobject jbuffer)
+    {
+        BitmapImage *texture = reinterpret_cast<BitmapImage *>(jtexture);
+        texture->updateLevel(env, width, height, levels, level, imageSize, jbuffer);
+    }
+
     JNIEXPORT void JNICALL
     Java_org_gearvrf_NativeBitmapImage_setFileName(JNIEnv *env, jobject obj,
                                                    jlong jtexture, jstring jfile);
@@ -38,6 +47,9 @@ namespace gvr
     JNIEXPORT jstring JNICALL
     Java_org_gearvrf_NativeBitmapImage_getFileName(JNIEnv *env, jobject obj, jlong jtexture);
 
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_NativeBitmapImage_getOpacity(JNIEnv *env, jobject obj, jlong jimage);
+
     JNIEXPORT void JNICALL
     Java_org_gearvrf_NativeBitmapImage_updateFromMemory(JNIEnv *env, jobject obj,
                                                         jlong jtexture, jint width,
@@ -48,6 +60,11 @@ namespace gvr
                                                         jlong jtexture, jint width, int height, jint imageSize,
                                                         jbyteArray jdata, jint levels, jintArray offset);
 
+    JNIEXPORT void JNICALL
+    Java_org_gearvrf_NativeBitmapImage_updateCompressedLevel(JNIEnv *env, jobject obj,
+                                                             jlong jtexture, jint width, jint height, jint levels,
+                                                             jint level, jint imageSize, jobject jbuffer);
+
     JNIEXPORT void JNICALL
     Java_org_gearvrf_NativeBitmapImage_updateFromBitmap(JNIEnv *env, jobject obj,
                                                         jlong jtexture, jobject jbitmap,
@@ -144,4 +161,11 @@ namespace gvr
         const char* fname = bmap->getFileName();
         return env->NewStringUTF(fname);
     }
-}
\ No newline at end of file
+
+    JNIEXPORT jint JNICALL
+    Java_org_gearvrf_NativeBitmapImage_getOpacity(JNIEnv *env, jobject obj, jlong jimage)
+    {
+        Image* image = reinterpret_cast<Image*>(jimage);
+        return image->opacity();
+    }
+}
@@ -20,10 +20,11 @@
 #include "android/bitmap.h"
 #include "util/gvr_jni.h"
 #include "util/gvr_log.h"
+#include "pixel_opacity.h"
 
 
 namespace gvr {
 
-bool bitmap_has_transparency(JNIEnv *env, jobject jbitmap);
+int bitmap_opacity(JNIEnv *env, jobject jbitmap);
 
 }
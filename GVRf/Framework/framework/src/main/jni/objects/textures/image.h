@@ -23,6 +23,7 @@
 #include "objects/hybrid_object.h"
 #include "util/gvr_log.h"
 #include "gl/gl_headers.h"  // for GL_TEXTURE_xxx
+#include "pixel_opacity.h"
 
 namespace gvr {
 class Texture;
@@ -86,6 +87,7 @@ public:
     virtual bool isReady() = 0;
     virtual void texParamsChanged(const TextureParameters&) = 0;
     virtual bool transparency() { return false; }
+    virtual int opacity() { return OPACITY_OPAQUE; }
 
     bool hasData() const { return mState == HAS_DATA; }
     short getWidth() const { return mWidth; }
@@ -0,0 +1,216 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "pixel_opacity.h"
+
+#if defined(__ARM_NEON__) || defined(__ARM_NEON)
+#include <arm_neon.h>
+#define GVR_OPACITY_NEON 1
+#endif
+
+namespace gvr {
+
+/*
+ * A pixel is translucent when its alpha is neither 0 nor the
+ * maximum. Subtracting one wraps 0 around to the maximum, so
+ * (alpha - 1) < (max - 1) picks out exactly the translucent ones.
+ * Rows are checked as a whole so the loops stay branch free
+ * and the compiler can vectorize them where NEON is not used.
+ */
+static inline bool is_translucent(uint32_t alpha, uint32_t max)
+{
+    return ((alpha - 1) & max) < (max - 1);
+}
+
+static inline int classify(uint32_t minAlpha, uint32_t max)
+{
+    return (minAlpha == max) ? OPACITY_OPAQUE : OPACITY_ALPHA_TESTED;
+}
+
+#ifdef GVR_OPACITY_NEON
+static inline uint8_t max_lane(uint8x16_t v)
+{
+#if defined(__aarch64__)
+    return vmaxvq_u8(v);
+#else
+    uint8x8_t m = vmax_u8(vget_low_u8(v), vget_high_u8(v));
+    m = vpmax_u8(m, m);
+    m = vpmax_u8(m, m);
+    m = vpmax_u8(m, m);
+    return vget_lane_u8(m, 0);
+#endif
+}
+
+static inline uint8_t min_lane(uint8x16_t v)
+{
+#if defined(__aarch64__)
+    return vminvq_u8(v);
+#else
+    uint8x8_t m = vmin_u8(vget_low_u8(v), vget_high_u8(v));
+    m = vpmin_u8(m, m);
+    m = vpmin_u8(m, m);
+    m = vpmin_u8(m, m);
+    return vget_lane_u8(m, 0);
+#endif
+}
+#endif
+
+int opacity_rgba8888(const void* pixels, int width, int height, int stride)
+{
+    const uint8_t* row = static_cast<const uint8_t*>(pixels);
+    uint32_t minAlpha = 255;
+
+#ifdef GVR_OPACITY_NEON
+    const uint8x16_t one = vdupq_n_u8(1);
+    const uint8x16_t limit = vdupq_n_u8(254);
+    uint8x16_t vmin = vdupq_n_u8(255);
+#endif
+    for (int y = 0; y < height; ++y, row += stride)
+    {
+        int x = 0;
+#ifdef GVR_OPACITY_NEON
+        uint8x16_t translucent = vdupq_n_u8(0);
+        for (; x + 16 <= width; x += 16)
+        {
+            // deinterleave 16 pixels, val[3] holds their alpha
+            uint8x16_t a = vld4q_u8(row + x * 4).val[3];
+            vmin = vminq_u8(vmin, a);
+            translucent = vorrq_u8(translucent, vcltq_u8(vsubq_u8(a, one), limit));
+        }
+        if (max_lane(translucent))
+        {
+            return OPACITY_BLENDED;
+        }
+#endif
+        const uint32_t* p = reinterpret_cast<const uint32_t*>(row);
+        uint32_t translucentTail = 0;
+        for (; x < width; ++x)
+        {
+            // little endian, alpha is the top byte
+            uint32_t a = p[x] >> 24;
+            translucentTail |= is_translucent(a, 255);
+            minAlpha &= a;
+        }
+        if (translucentTail)
+        {
+            return OPACITY_BLENDED;
+        }
+    }
+#ifdef GVR_OPACITY_NEON
+    minAlpha &= min_lane(vmin);
+#endif
+    return classify(minAlpha, 255);
+}
+
+int opacity_a8(const void* pixels, int width, int height, int stride)
+{
+    const uint8_t* row = static_cast<const uint8_t*>(pixels);
+    uint32_t minAlpha = 255;
+
+#ifdef GVR_OPACITY_NEON
+    const uint8x16_t one = vdupq_n_u8(1);
+    const uint8x16_t limit = vdupq_n_u8(254);
+    uint8x16_t vmin = vdupq_n_u8(255);
+#endif
+    for (int y = 0; y < height; ++y, row += stride)
+    {
+        int x = 0;
+#ifdef GVR_OPACITY_NEON
+        uint8x16_t translucent = vdupq_n_u8(0);
+        for (; x + 16 <= width; x += 16)
+        {
+            uint8x16_t a = vld1q_u8(row + x);
+            vmin = vminq_u8(vmin, a);
+            translucent = vorrq_u8(translucent, vcltq_u8(vsubq_u8(a, one), limit));
+        }
+        if (max_lane(translucent))
+        {
+            return OPACITY_BLENDED;
+        }
+#endif
+        uint32_t translucentTail = 0;
+        for (; x < width; ++x)
+        {
+            uint32_t a = row[x];
+            translucentTail |= is_translucent(a, 255);
+            minAlpha &= a;
+        }
+        if (translucentTail)
+        {
+            return OPACITY_BLENDED;
+        }
+    }
+#ifdef GVR_OPACITY_NEON
+    minAlpha &= min_lane(vmin);
+#endif
+    return classify(minAlpha, 255);
+}
+
+/*
+ * Android stores ARGB_4444 pixels as 16 bit RGBA values,
+ * alpha is in the low nibble.
+ */
+int opacity_rgba4444(const void* pixels, int width, int height, int stride)
+{
+    const uint8_t* row = static_cast<const uint8_t*>(pixels);
+    uint32_t minAlpha = 15;
+
+#ifdef GVR_OPACITY_NEON
+    const uint16x8_t mask = vdupq_n_u16(15);
+    const uint16x8_t one = vdupq_n_u16(1);
+    const uint16x8_t limit = vdupq_n_u16(14);
+    uint16x8_t vmin = mask;
+#endif
+    for (int y = 0; y < height; ++y, row += stride)
+    {
+        const uint16_t* p = reinterpret_cast<const uint16_t*>(row);
+        int x = 0;
+#ifdef GVR_OPACITY_NEON
+        uint16x8_t translucent = vdupq_n_u16(0);
+        for (; x + 8 <= width; x += 8)
+        {
+            uint16x8_t a = vandq_u16(vld1q_u16(p + x), mask);
+            vmin = vminq_u16(vmin, a);
+            translucent = vorrq_u16(translucent, vcltq_u16(vsubq_u16(a, one), limit));
+        }
+        if (max_lane(vreinterpretq_u8_u16(translucent)))
+        {
+            return OPACITY_BLENDED;
+        }
+#endif
+        uint32_t translucentTail = 0;
+        for (; x < width; ++x)
+        {
+            uint32_t a = p[x] & 15;
+            translucentTail |= is_translucent(a, 15);
+            minAlpha &= a;
+        }
+        if (translucentTail)
+        {
+            return OPACITY_BLENDED;
+        }
+    }
+#ifdef GVR_OPACITY_NEON
+    uint16_t lanes[8];
+    vst1q_u16(lanes, vmin);
+    for (int i = 0; i < 8; ++i)
+    {
+        minAlpha &= lanes[i];
+    }
+#endif
+    return classify(minAlpha, 15);
+}
+
+}
@@ -0,0 +1,50 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Classifies the alpha channel of uncompressed pixels
+ ***************************************************************************/
+
+#ifndef PIXEL_OPACITY_H_
+#define PIXEL_OPACITY_H_
+
+#include <stdint.h>
+
+namespace gvr {
+
+/*
+ * How an image uses its alpha channel.
+ * OPACITY_ALPHA_TESTED images only have fully opaque and
+ * fully transparent pixels, OPACITY_BLENDED images have
+ * at least one pixel in between.
+ */
+enum PixelOpacity
+{
+    OPACITY_OPAQUE = 0,
+    OPACITY_ALPHA_TESTED = 1,
+    OPACITY_BLENDED = 2
+};
+
+/*
+ * Each scan reads the alpha of every pixel once, 16 pixels at
+ * a time with NEON, and returns as soon as a translucent pixel
+ * is found. stride is the distance between rows in bytes.
+ */
+int opacity_rgba8888(const void* pixels, int width, int height, int stride);
+int opacity_rgba4444(const void* pixels, int width, int height, int stride);
+int opacity_a8(const void* pixels, int width, int height, int stride);
+
+}
+#endif
@@ -30,6 +30,7 @@
 #define LIGHT_UBO_INDEX     3
 #define LAST_UBO_INDEX      3
 #define SHADOW_UBO_INDEX    4
+#define INSTANCE_UBO_INDEX  5
 
 namespace gvr
 {
@@ -6,6 +6,7 @@
  ****/
 #include "vertex_buffer.h"
 #include "util/gvr_log.h"
+#include <algorithm>
 #include <sstream>
 
 namespace gvr {
@@ -155,6 +156,69 @@ namespace gvr {
     }
 
 
+    /**
+     * Update a range of vertices of a float vertex attribute
+     * without changing the size of the vertex buffer.
+     * @param attributeName name of attribute to update
+     * @param src           pointer to closely packed source float data
+     * @param firstVertex   index of first vertex to update
+     * @param numVerts      number of vertices to update
+     * @return true if attribute was updated, false on error
+     */
+    bool    VertexBuffer::setFloatVecRange(const char* attributeName, const float* src, int firstVertex, int numVerts)
+    {
+        std::lock_guard<std::mutex> lock(mLock);
+        DataEntry*      attr = find(attributeName);
+
+        if ((attr == NULL) || attr->IsInt)
+        {
+            LOGE("VertexBuffer: ERROR float attribute %s not found in vertex buffer", attributeName);
+            return false;
+        }
+        if ((src == NULL) || (firstVertex < 0) || (numVerts < 0) ||
+            (firstVertex + numVerts > mVertexCount))
+        {
+            LOGE("VertexBuffer: cannot update vertices %d to %d of %s, vertex buffer has %d vertices",
+                 firstVertex, firstVertex + numVerts, attributeName, mVertexCount);
+            return false;
+        }
+        int     attrStride = attr->Size / sizeof(float);
+        int     dstStride = getTotalSize() / sizeof(float);
+        float*  dest = reinterpret_cast<float*>(mVertexData) + attr->Offset / sizeof(float) + firstVertex * dstStride;
+
+        for (int i = 0; i < numVerts; ++i)
+        {
+            for (int j = 0; j < attrStride; ++j)
+            {
+                dest[j] = *src++;
+            }
+            dest += dstStride;
+        }
+        markDirtyRange(firstVertex, numVerts);
+        attr->IsSet = true;
+        return true;
+    }
+
+    void VertexBuffer::markDirty()
+    {
+        mDirtyBegin = 0;
+        mDirtyEnd = mVertexCount;
+        mIsDirty = true;
+    }
+
+    void VertexBuffer::markDirtyRange(int firstVertex, int numVerts)
+    {
+        if (!mIsDirty)
+        {
+            mDirtyBegin = firstVertex;
+            mDirtyEnd = firstVertex + numVerts;
+            mIsDirty = true;
+            return;
+        }
+        mDirtyBegin = std::min(mDirtyBegin, firstVertex);
+        mDirtyEnd = std::max(mDirtyEnd, firstVertex + numVerts);
+    }
+
     bool    VertexBuffer::getFloatVec(const char* attributeName, float* dest, int destSize, int destStride) const
     {
         std::lock_guard<std::mutex> lock(mLock);
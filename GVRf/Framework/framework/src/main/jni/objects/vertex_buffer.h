@@ -75,6 +75,21 @@ namespace gvr {
          */
         bool    setFloatVec(const char* attributeName, const float* src, int srcSize, int srcStride);
 
+        /**
+         * Update a range of vertices of an existing float vertex attribute.
+         * Unlike setFloatVec this never changes the vertex count, and
+         * only the updated range is marked dirty so the renderer
+         * can upload just those vertices.
+         *
+         * @param name        name of entry to set.
+         * @param src         pointer to closely packed float source data.
+         * @param firstVertex index of the first vertex to update.
+         * @param numVerts    number of vertices to update.
+         * @returns true if successfully set, false on error.
+         * @see setFloatVec
+         */
+        bool    setFloatVecRange(const char* attributeName, const float* src, int firstVertex, int numVerts);
+
         /**
          * Gets all the values of a float vertex attribute.
          * If the named attribute is not a float vector in the descriptor
@@ -136,9 +151,11 @@ namespace gvr {
         virtual void    bindToShader(Shader* shader, IndexBuffer* ibuf) = 0;
         void            dump() const;
         void            dump(const char* attrName) const;
+        virtual void    markDirty();
 
     protected:
         bool            setVertexCount(int vertexCount);
+        void            markDirtyRange(int firstVertex, int numVerts);
         const void*     getData(const char* attributeName, int& size) const;
         const void*     getData(int index, int& size) const;
 
@@ -146,6 +163,8 @@ namespace gvr {
         int             mVertexCount;       // current number of vertices
         char*           mVertexData;        // vertex data buffer
         int             mBoneFlags = 0;     // indicates which vertex attributes are bones
+        int             mDirtyBegin = 0;    // first vertex changed since last update
+        int             mDirtyEnd = 0;      // one past the last vertex changed since last update
     };
 
 } // end gvrf
@@ -60,6 +60,12 @@ namespace gvr {
     Java_org_gearvrf_NativeVertexBuffer_setFloatArray(JNIEnv* env, jobject obj,
                                                     jlong jvbuf, jstring attribName,
                                                     jfloatArray data, jint stride, jint ofs);
+
+    JNIEXPORT bool JNICALL
+    Java_org_gearvrf_NativeVertexBuffer_setFloatArrayRange(JNIEnv* env, jobject obj,
+                                                         jlong jvbuf, jstring attribName,
+                                                         jfloatArray data, jint srcOfs,
+                                                         jint firstVertex, jint vertexCount);
     JNIEXPORT bool JNICALL
     Java_org_gearvrf_NativeVertexBuffer_setFloatVec(JNIEnv* env, jobject obj,
                                                     jlong jvbuf, jstring attribName,
@@ -72,6 +78,10 @@ namespace gvr {
     Java_org_gearvrf_NativeVertexBuffer_getVertexCount(JNIEnv* env, jobject obj,
                                                       jlong jvbuf);
 
+    JNIEXPORT int JNICALL
+    Java_org_gearvrf_NativeVertexBuffer_getDataSize(JNIEnv* env, jobject obj,
+                                                   jlong jvbuf);
+
     JNIEXPORT int JNICALL
     Java_org_gearvrf_NativeVertexBuffer_getAttributeSize(JNIEnv* env, jobject obj,
                                                         jlong jvbuf, jstring attribName);
@@ -200,6 +210,26 @@ Java_org_gearvrf_NativeVertexBuffer_setFloatArray(JNIEnv * env, jobject obj,
     return rc;
 }
 
+JNIEXPORT bool JNICALL
+Java_org_gearvrf_NativeVertexBuffer_setFloatArrayRange(JNIEnv * env, jobject obj,
+                                                     jlong jvbuf, jstring attribName,
+                                                     jfloatArray jdata, jint srcOfs,
+                                                     jint firstVertex, jint vertexCount)
+{
+    VertexBuffer* vbuf = reinterpret_cast<VertexBuffer*>(jvbuf);
+    const char* char_key = env->GetStringUTFChars(attribName, 0);
+    jfloat* data = static_cast<jfloat*>(env->GetPrimitiveArrayCritical(jdata, 0));
+    bool rc = false;
+
+    if (data)
+    {
+        rc = vbuf->setFloatVecRange(char_key, data + srcOfs, firstVertex, vertexCount);
+        env->ReleasePrimitiveArrayCritical(jdata, data, JNI_ABORT);
+    }
+    env->ReleaseStringUTFChars(attribName, char_key);
+    return rc;
+}
+
 JNIEXPORT bool JNICALL
 Java_org_gearvrf_NativeVertexBuffer_setFloatVec(JNIEnv* env, jobject obj,
                                                 jlong jvbuf, jstring attribName,
@@ -251,6 +281,13 @@ Java_org_gearvrf_NativeVertexBuffer_getVertexCount(JNIEnv* env, jobject obj, jlo
     return vbuf->getVertexCount();
 }
 
+JNIEXPORT int JNICALL
+Java_org_gearvrf_NativeVertexBuffer_getDataSize(JNIEnv* env, jobject obj, jlong jvbuf)
+{
+    VertexBuffer* vbuf = reinterpret_cast<VertexBuffer*>(jvbuf);
+    return vbuf->getDataSize();
+}
+
 JNIEXPORT int JNICALL
 Java_org_gearvrf_NativeVertexBuffer_getAttributeSize(JNIEnv* env, jobject obj,
                                                      jlong jvbuf, jstring attribName)
@@ -38,6 +38,7 @@ Shader::Shader(int id,
       mUseMatrixUniforms(false),
       mUseLights(false),
       mUseHasBones(false),
+      mUseInstancing(false),
       mUseMaterialGPUBuffer(false),
       mJavaShaderClass(0), mJavaVM(nullptr), mCalcMatrixMethod(0)
 {
@@ -52,6 +53,8 @@ Shader::Shader(int id,
 
     if(strstr(vertex_shader, "Bones_ubo"))
         mUseHasBones = true;
+    if (strstr(signature, "$INSTANCING"))
+        mUseInstancing = true;
 
     LOGD("SHADER: %s\n    %s\n    %s\n    %s", signature, uniformDescriptor, textureDescriptor, vertexDescriptor);
 }
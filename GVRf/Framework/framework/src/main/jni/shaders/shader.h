@@ -123,6 +123,11 @@ public:
         return mUseHasBones;
     }
 
+    bool usesInstancing() const
+    {
+        return mUseInstancing;
+    }
+
     bool isShaderDirty()
     {
         return  shaderDirty;
@@ -162,6 +167,7 @@ protected:
     bool mUseMatrixUniforms;
     bool mUseLights;
     bool mUseHasBones;
+    bool mUseInstancing;
     bool mUseMaterialGPUBuffer;
     jclass mJavaShaderClass;
     JavaVM *mJavaVM;
@@ -0,0 +1,36 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include "gvr_frame_profiler.h"
+
+namespace gvr {
+
+std::atomic<bool> FrameProfiler::enabled_(false);
+std::atomic<long long> FrameProfiler::totals_[FrameProfiler::NUM_PHASES];
+
+void FrameProfiler::setEnabled(bool enabled) {
+    for (int i = 0; i < NUM_PHASES; ++i) {
+        totals_[i].store(0, std::memory_order_relaxed);
+    }
+    enabled_.store(enabled, std::memory_order_relaxed);
+}
+
+void FrameProfiler::readPhases(long long* nanos) {
+    for (int i = 0; i < NUM_PHASES; ++i) {
+        nanos[i] = totals_[i].exchange(0, std::memory_order_relaxed);
+    }
+}
+
+}
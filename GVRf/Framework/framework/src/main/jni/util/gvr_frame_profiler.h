@@ -0,0 +1,87 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * Per-frame timing of the native render phases, read by
+ * org.gearvrf.debug.GVRFrameProfiler once per frame.
+ ***************************************************************************/
+
+#ifndef GVR_FRAME_PROFILER_H_
+#define GVR_FRAME_PROFILER_H_
+
+#include <atomic>
+#include "gvr_time.h"
+
+namespace gvr {
+
+class FrameProfiler {
+public:
+    /*
+     * Must match the order of the native phases in GVRFrameProfiler.
+     */
+    enum Phase {
+        CULL = 0,
+        SORT,
+        DRAW,
+        NUM_PHASES
+    };
+
+    static bool enabled() {
+        return enabled_.load(std::memory_order_relaxed);
+    }
+
+    static void setEnabled(bool enabled);
+
+    /*
+     * Time spent in each phase since the last call, in nanoseconds.
+     * The totals are reset.
+     */
+    static void readPhases(long long* nanos);
+
+    static void add(Phase phase, long long nanos) {
+        totals_[phase].fetch_add(nanos, std::memory_order_relaxed);
+    }
+
+    /*
+     * Adds the lifetime of the scope to a phase, when profiling is on.
+     */
+    class Scope {
+    public:
+        explicit Scope(Phase phase)
+                : phase_(phase), start_(enabled() ? getNanoTime() : 0) {
+        }
+
+        ~Scope() {
+            if (start_ != 0) {
+                add(phase_, getNanoTime() - start_);
+            }
+        }
+
+    private:
+        Scope(const Scope&) = delete;
+        Scope& operator=(const Scope&) = delete;
+
+        const Phase phase_;
+        const long long start_;
+    };
+
+private:
+    static std::atomic<bool> enabled_;
+    static std::atomic<long long> totals_[NUM_PHASES];
+};
+
+}
+
+#endif
@@ -0,0 +1,54 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/***************************************************************************
+ * JNI
+ ***************************************************************************/
+
+#include "gvr_frame_profiler.h"
+
+#include "util/gvr_jni.h"
+
+namespace gvr {
+
+extern "C" {
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeFrameProfiler_setEnabled(JNIEnv * env,
+        jclass clazz, jboolean enabled);
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeFrameProfiler_readPhases(JNIEnv * env,
+        jclass clazz, jlongArray jnanos);
+}
+;
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeFrameProfiler_setEnabled(JNIEnv * env,
+        jclass clazz, jboolean enabled) {
+    FrameProfiler::setEnabled(enabled);
+}
+
+JNIEXPORT void JNICALL
+Java_org_gearvrf_debug_NativeFrameProfiler_readPhases(JNIEnv * env,
+        jclass clazz, jlongArray jnanos) {
+    long long nanos[FrameProfiler::NUM_PHASES];
+    FrameProfiler::readPhases(nanos);
+    jlong values[FrameProfiler::NUM_PHASES];
+    for (int i = 0; i < FrameProfiler::NUM_PHASES; ++i) {
+        values[i] = nanos[i];
+    }
+    env->SetLongArrayRegion(jnanos, 0, FrameProfiler::NUM_PHASES, values);
+}
+}
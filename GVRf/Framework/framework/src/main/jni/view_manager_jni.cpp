@@ -17,6 +17,7 @@
 #include "engine/renderer/renderer.h"
 #include "objects/textures/render_texture.h"
 #include "objects/components/render_target.h"
+#include "util/gvr_frame_profiler.h"
 //#include "objects/components/camera.h"
 
 namespace gvr {
@@ -57,11 +58,14 @@ extern "C" {
 
         javaSceneObject = jni->NewLocalRef(javaSceneObject);
         renderTarget->cullFromCamera(scene, javaSceneObject, renderTarget->getCamera(),gRenderer,shader_manager);
-        if(!gRenderer->isVulkanInstance())
-            renderTarget->beginRendering(gRenderer);
-        gRenderer->renderRenderTarget(scene, javaSceneObject, renderTarget,shader_manager,post_effect_render_texture_a,post_effect_render_texture_b);
-        if(!gRenderer->isVulkanInstance())
-            renderTarget->endRendering(gRenderer);
+        {
+            FrameProfiler::Scope profile(FrameProfiler::DRAW);
+            if(!gRenderer->isVulkanInstance())
+                renderTarget->beginRendering(gRenderer);
+            gRenderer->renderRenderTarget(scene, javaSceneObject, renderTarget,shader_manager,post_effect_render_texture_a,post_effect_render_texture_b);
+            if(!gRenderer->isVulkanInstance())
+                renderTarget->endRendering(gRenderer);
+        }
 
         jni->DeleteLocalRef(javaSceneObject);
     }
@@ -0,0 +1,189 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the depth-first sort of {@link GVRScene.ObjectIndex} lookups on
+ * a desktop JVM, against the comparator it replaced, which built both
+ * paths from the root and searched the sibling lists on every comparison.
+ * <p>
+ * Not a unit test: run {@code main} with the framework and test classes on
+ * the class path, with the optional argument {@code [iterations]}. There
+ * are two trees of about 50,000 nodes: a deep one of 50 groups of 10 parts
+ * of 100 leaves, and a flat one with all its objects under the root. For
+ * each number of matches it shuffles the matching nodes, checks that both
+ * sorts put them back in walk order, and prints the best time of each.
+ * Exits with status 1 if a check fails.
+ */
+public final class DepthFirstOrderBenchmark {
+    private static final int GROUPS = 50;
+    private static final int PARTS = 10;
+    private static final int LEAVES = 100;
+    private static final int FLAT = 50000;
+
+    private static final class Node {
+        final Node parent;
+        final List<Node> children = new ArrayList<Node>();
+
+        Node(Node parent) {
+            this.parent = parent;
+            if (parent != null) {
+                parent.children.add(this);
+            }
+        }
+    }
+
+    private static final DepthFirstOrder<Node> ORDER = new DepthFirstOrder<Node>() {
+        @Override
+        protected Node getParent(Node node) {
+            return node.parent;
+        }
+
+        @Override
+        protected List<Node> getChildren(Node node) {
+            return node.children;
+        }
+    };
+
+    /*
+     * What ObjectIndex used before.
+     */
+    private static final Comparator<Node> PATH_PER_COMPARISON = new Comparator<Node>() {
+        @Override
+        public int compare(Node a, Node b) {
+            final List<Node> pathA = pathFromRoot(a);
+            final List<Node> pathB = pathFromRoot(b);
+            final int common = Math.min(pathA.size(), pathB.size());
+            for (int i = 1; i < common; ++i) {
+                final Node childA = pathA.get(i);
+                final Node childB = pathB.get(i);
+                if (childA != childB) {
+                    final List<Node> siblings = pathA.get(i - 1).children;
+                    return siblings.indexOf(childA) - siblings.indexOf(childB);
+                }
+            }
+            return pathA.size() - pathB.size();
+        }
+    };
+
+    private DepthFirstOrderBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 10;
+        boolean ok = true;
+
+        List<Node> walk = new ArrayList<Node>();
+        buildDeepTree(walk);
+        System.out.printf("depth-first sort, deep tree of %d nodes%n", walk.size());
+        ok &= runAll(walk, iterations);
+
+        walk.clear();
+        buildFlatTree(walk);
+        System.out.printf("depth-first sort, flat tree of %d nodes%n", walk.size());
+        ok &= runAll(walk, iterations);
+        if (!ok) {
+            System.out.println("FAILED");
+            System.exit(1);
+        }
+    }
+
+    private static boolean runAll(List<Node> walk, int iterations) {
+        boolean ok = true;
+        for (int step : new int[] { 500, 50, 5, 1 }) {
+            List<Node> matches = new ArrayList<Node>();
+            for (int i = 0; i < walk.size(); i += step) {
+                matches.add(walk.get(i));
+            }
+            ok &= run(matches, iterations);
+        }
+        return ok;
+    }
+
+    private static boolean run(List<Node> expected, int iterations) {
+        Random random = new Random(expected.size());
+        long bestOld = Long.MAX_VALUE;
+        long bestNew = Long.MAX_VALUE;
+
+        for (int i = 0; i < iterations; ++i) {
+            List<Node> nodes = new ArrayList<Node>(expected);
+            Collections.shuffle(nodes, random);
+            long start = System.nanoTime();
+            Collections.sort(nodes, PATH_PER_COMPARISON);
+            bestOld = Math.min(bestOld, System.nanoTime() - start);
+            if (!nodes.equals(expected)) {
+                System.out.printf("  %6d matches: comparator order is wrong%n", expected.size());
+                return false;
+            }
+
+            Collections.shuffle(nodes, random);
+            start = System.nanoTime();
+            ORDER.sort(nodes);
+            bestNew = Math.min(bestNew, System.nanoTime() - start);
+            if (!nodes.equals(expected)) {
+                System.out.printf("  %6d matches: DepthFirstOrder is wrong%n", expected.size());
+                return false;
+            }
+        }
+        System.out.printf("  %6d matches: %9.2f ms path per comparison  %7.2f ms paths once%n",
+                expected.size(), bestOld / 1e6, bestNew / 1e6);
+        return true;
+    }
+
+    /*
+     * Build a tree, and list its nodes in walk order.
+     */
+    private static Node buildDeepTree(List<Node> walk) {
+        Node root = new Node(null);
+        walk.add(root);
+        for (int g = 0; g < GROUPS; ++g) {
+            Node group = new Node(root);
+            walk.add(group);
+            for (int p = 0; p < PARTS; ++p) {
+                Node part = new Node(group);
+                walk.add(part);
+                for (int l = 0; l < LEAVES; ++l) {
+                    walk.add(new Node(part));
+                }
+            }
+        }
+        return root;
+    }
+
+    private static Node buildFlatTree(List<Node> walk) {
+        Node root = new Node(null);
+        walk.add(root);
+        for (int i = 0; i < FLAT; ++i) {
+            walk.add(new Node(root));
+        }
+        return root;
+    }
+
+    private static List<Node> pathFromRoot(Node node) {
+        final ArrayList<Node> path = new ArrayList<Node>();
+        for (Node n = node; n != null; n = n.parent) {
+            path.add(n);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
@@ -0,0 +1,308 @@
+/* Copyright 2016 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf;
+
+import org.gearvrf.utility.Threads;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Loads a zip of several hundred textures through {@link ZipLoader}, and
+ * compares its load time and memory with reading every entry into memory
+ * first, which is what the loader used to do.
+ * <p>
+ * The entries are made up: what matters here is how many bytes are held
+ * at once, not what they decode to.
+ */
+public class ZipLoaderTest {
+    private static final int TEXTURE_COUNT = 400;
+    private static final int TEXTURE_SIZE = 64 * 1024;
+    private static final long TOTAL_SIZE = (long) TEXTURE_COUNT * TEXTURE_SIZE;
+
+    private static File sZipFile;
+    private static long[] sChecksums;
+
+    @BeforeClass
+    public static void writeZip() throws IOException {
+        // GVRApplication sets up the pool the loader runs on
+        if (Threads.getThreadPool() == null) {
+            Threads.setThreadPool(Executors.newCachedThreadPool());
+        }
+        sZipFile = File.createTempFile("gvrf", ".zip");
+        sChecksums = new long[TEXTURE_COUNT];
+        byte[] texture = new byte[TEXTURE_SIZE];
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(sZipFile));
+        try {
+            out.putNextEntry(new ZipEntry("textures/"));
+            out.closeEntry();
+            for (int i = 0; i < TEXTURE_COUNT; ++i) {
+                // half noise, half flat, so that deflate has some work to do
+                Random random = new Random(i);
+                random.nextBytes(texture);
+                for (int j = TEXTURE_SIZE / 2; j < TEXTURE_SIZE; ++j) {
+                    texture[j] = (byte) i;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(texture, 0, texture.length);
+                sChecksums[i] = crc.getValue();
+
+                out.putNextEntry(new ZipEntry(String.format(Locale.US, "textures/%03d.bin", i)));
+                out.write(texture);
+                out.closeEntry();
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    @AfterClass
+    public static void deleteZip() {
+        sZipFile.delete();
+    }
+
+    @Test
+    public void loadsEntriesInArchiveOrder() throws IOException {
+        GVRZipVolume volume = new GVRZipVolume(null, sZipFile, null);
+        List<Long> checksums = ZipLoader.load(null, volume, sZipFile.getName(),
+                new ZipLoader.ZipEntryProcessor<Long>() {
+                    @Override
+                    public Long getItem(GVRContext context, GVRAndroidResource resource) {
+                        try {
+                            return checksum(resource);
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }
+                });
+
+        assertEquals(TEXTURE_COUNT, checksums.size());
+        for (int i = 0; i < TEXTURE_COUNT; ++i) {
+            assertEquals("entry " + i, sChecksums[i], (long) checksums.get(i));
+        }
+        assertClosed(volume);
+    }
+
+    /*
+     * Resources handed to a loader which reads them later keep the archive
+     * open until the last one is read.
+     */
+    @Test
+    public void keepsArchiveOpenForLateReads() throws Exception {
+        GVRZipVolume volume = new GVRZipVolume(null, sZipFile, null);
+        List<GVRAndroidResource> resources = ZipLoader.load(null, volume, sZipFile.getName(),
+                new ZipLoader.ZipEntryProcessor<GVRAndroidResource>() {
+                    @Override
+                    public GVRAndroidResource getItem(GVRContext context,
+                            GVRAndroidResource resource) {
+                        return resource;
+                    }
+                });
+
+        assertEquals(TEXTURE_COUNT, volume.getEntryNames().size());
+        for (int i = 0; i < TEXTURE_COUNT - 1; ++i) {
+            assertEquals("entry " + i, sChecksums[i], checksum(resources.get(i)));
+        }
+        assertEquals(TEXTURE_COUNT, volume.getEntryNames().size());
+        assertEquals(sChecksums[TEXTURE_COUNT - 1], checksum(resources.get(TEXTURE_COUNT - 1)));
+        assertClosed(volume);
+    }
+
+    /*
+     * Each texture is read by a loader thread some time after the
+     * processor returns, as GVRContext.loadFutureTexture() does. Reading the
+     * whole archive into memory first holds every texture until its loader
+     * gets to it; the volume holds none.
+     */
+    @Test
+    public void peakMemoryAndLoadTime() throws Exception {
+        Run eager = new Run();
+        Run lazy = new Run();
+
+        // warm up the class loader and the JIT
+        eager.load(false);
+        lazy.load(true);
+
+        eager.load(false);
+        lazy.load(true);
+
+        System.out.println(String.format(Locale.US,
+                "%d textures, %.1f MB%n"
+                        + "  eager:  load %4.0f ms, read %4.0f ms, %5.1f MB held, peak heap %5.1f MB%n"
+                        + "  volume: load %4.0f ms, read %4.0f ms, %5.1f MB held, peak heap %5.1f MB",
+                TEXTURE_COUNT, TOTAL_SIZE / 1e6,
+                eager.loadMillis, eager.readMillis, eager.held / 1e6, eager.peak / 1e6,
+                lazy.loadMillis, lazy.readMillis, lazy.held / 1e6, lazy.peak / 1e6));
+        assertTrue("volume held " + lazy.held + " bytes", lazy.held < TOTAL_SIZE / 4);
+    }
+
+    private static final class Run {
+        double loadMillis;
+        double readMillis;
+        long held;
+        long peak;
+
+        void load(boolean lazy) throws Exception {
+            ZipLoader.ZipEntryProcessor<GVRAndroidResource> processor =
+                    new ZipLoader.ZipEntryProcessor<GVRAndroidResource>() {
+                        @Override
+                        public GVRAndroidResource getItem(GVRContext context,
+                                GVRAndroidResource resource) {
+                            return resource;
+                        }
+                    };
+
+            long before = usedHeap();
+            resetPeak();
+            long start = System.nanoTime();
+            List<GVRAndroidResource> resources = lazy
+                    ? ZipLoader.load(null, new GVRZipVolume(null, sZipFile, null),
+                            sZipFile.getName(), processor)
+                    : loadEager(processor);
+            loadMillis = (System.nanoTime() - start) / 1e6;
+            // what the loaders still have to read
+            held = Math.max(0, usedHeap() - before);
+
+            start = System.nanoTime();
+            ExecutorService loaders = Executors.newFixedThreadPool(
+                    Runtime.getRuntime().availableProcessors());
+            try {
+                List<Future<Long>> checksums = new ArrayList<Future<Long>>(resources.size());
+                for (final GVRAndroidResource resource : resources) {
+                    checksums.add(loaders.submit(new Callable<Long>() {
+                        @Override
+                        public Long call() throws IOException {
+                            return checksum(resource);
+                        }
+                    }));
+                }
+                for (int i = 0; i < checksums.size(); ++i) {
+                    assertEquals("entry " + i, sChecksums[i], (long) checksums.get(i).get());
+                }
+            } finally {
+                loaders.shutdown();
+                loaders.awaitTermination(10, TimeUnit.SECONDS);
+            }
+            readMillis = (System.nanoTime() - start) / 1e6;
+            peak = Math.max(0, peakHeap() - before);
+        }
+    }
+
+    /*
+     * What ZipLoader did before it used GVRZipVolume.
+     */
+    private static <T> List<T> loadEager(ZipLoader.ZipEntryProcessor<T> processor)
+            throws IOException {
+        List<T> result = new ArrayList<T>();
+        ZipInputStream zipInputStream = new ZipInputStream(new FileInputStream(sZipFile));
+        try {
+            ZipEntry zipEntry;
+            while ((zipEntry = zipInputStream.getNextEntry()) != null) {
+                if (zipEntry.isDirectory()) {
+                    continue;
+                }
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                int count;
+                while ((count = zipInputStream.read(buffer)) != -1) {
+                    baos.write(buffer, 0, count);
+                }
+                result.add(processor.getItem(null, new GVRAndroidResource(zipEntry.getName(),
+                        new ByteArrayInputStream(baos.toByteArray()))));
+            }
+        } finally {
+            zipInputStream.close();
+        }
+        return result;
+    }
+
+    private static long checksum(GVRAndroidResource resource) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        try {
+            InputStream in = resource.getStream();
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, count);
+            }
+        } finally {
+            resource.closeStream();
+        }
+        return crc.getValue();
+    }
+
+    private static void assertClosed(GVRZipVolume volume) {
+        try {
+            volume.getEntryNames();
+            fail("the archive is still open");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void resetPeak() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
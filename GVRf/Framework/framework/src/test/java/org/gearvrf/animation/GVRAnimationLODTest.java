@@ -0,0 +1,209 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.animation;
+
+import org.gearvrf.GVRHybridObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives {@link GVRAnimationLOD} for ten seconds at 60 frames a second,
+ * without a scene: the viewer stands at the origin looking down -z, and
+ * each animation has a made-up bounding sphere.
+ */
+public class GVRAnimationLODTest {
+    private static final int FRAMES = 600;
+    private static final float FRAME_TIME = 1.0f / 60.0f;
+
+    /*
+     * Counts updates and blends, and runs longer than the test.
+     */
+    private static final class CountingAnimation extends GVRAnimation {
+        int updates = 0;
+        final List<Float> fractions = new ArrayList<Float>();
+
+        CountingAnimation() {
+            super((GVRHybridObject) null, 100.0f);
+        }
+
+        @Override
+        protected void animate(GVRHybridObject target, float ratio) {
+            ++updates;
+        }
+
+        @Override
+        protected void animateBetweenUpdates(float fraction) {
+            fractions.add(fraction);
+        }
+    }
+
+    private static final class StubLOD extends GVRAnimationLOD {
+        private final Map<GVRAnimation, float[]> mSpheres = new HashMap<GVRAnimation, float[]>();
+
+        StubLOD() {
+            super(null);
+        }
+
+        CountingAnimation add(float x, float y, float z, float radius) {
+            CountingAnimation animation = new CountingAnimation();
+            mSpheres.put(animation, new float[] { x, y, z, radius });
+            return animation;
+        }
+
+        @Override
+        protected boolean getBoundingSphere(GVRAnimation animation, float[] sphere) {
+            float[] s = mSpheres.get(animation);
+            if (s == null) {
+                return false;
+            }
+            System.arraycopy(s, 0, sphere, 0, 4);
+            return true;
+        }
+
+        @Override
+        protected float[] getViewerMatrix() {
+            return new float[] {
+                1, 0, 0, 0,
+                0, 1, 0, 0,
+                0, 0, 1, 0,
+                0, 0, 0, 1
+            };
+        }
+    }
+
+    @Test
+    public void updatesLessOftenWithDistance() {
+        StubLOD lod = new StubLOD();
+        CountingAnimation at10 = lod.add(0, 0, -10, 1);
+        CountingAnimation at20 = lod.add(0, 0, -20, 1);
+        CountingAnimation at40 = lod.add(0, 0, -40, 1);
+        CountingAnimation at80 = lod.add(0, 0, -80, 1);
+        CountingAnimation at1000 = lod.add(0, 0, -1000, 1);
+
+        run(lod, at10, at20, at40, at80, at1000);
+
+        assertEquals(FRAMES, at10.updates);
+        assertEquals(FRAMES / 2, at20.updates);
+        assertEquals(FRAMES / 4, at40.updates);
+        assertEquals(FRAMES / 8, at80.updates);
+        // never less often than the max interval
+        assertEquals(FRAMES / 8, at1000.updates);
+    }
+
+    @Test
+    public void updatesHiddenObjectsRarely() {
+        StubLOD lod = new StubLOD();
+        CountingAnimation behind = lod.add(0, 0, 10, 1);
+        CountingAnimation beside = lod.add(10, 0, 0, 1);
+        // 50 degrees off the view direction, inside the 110 degree cone
+        CountingAnimation edge = lod.add(7.66f, 0, -6.43f, 1);
+
+        run(lod, behind, beside, edge);
+
+        assertEquals(FRAMES / 30, behind.updates);
+        assertEquals(FRAMES / 30, beside.updates);
+        assertEquals(FRAMES, edge.updates);
+    }
+
+    @Test
+    public void updatesEveryFrameWithoutAPlace() {
+        StubLOD lod = new StubLOD();
+        CountingAnimation inside = lod.add(0, 0, -1, 2);
+        CountingAnimation material = new CountingAnimation();
+
+        run(lod, inside, material);
+
+        assertEquals(FRAMES, inside.updates);
+        assertEquals(FRAMES, material.updates);
+    }
+
+    @Test
+    public void followsTheSettings() {
+        StubLOD lod = new StubLOD();
+        lod.setFullRateSize(0.05f).setMaxInterval(4).setHiddenInterval(60);
+        CountingAnimation at20 = lod.add(0, 0, -20, 1);
+        CountingAnimation at1000 = lod.add(0, 0, -1000, 1);
+        CountingAnimation behind = lod.add(0, 0, 10, 1);
+
+        run(lod, at20, at1000, behind);
+
+        assertEquals(FRAMES, at20.updates);
+        assertEquals(FRAMES / 4, at1000.updates);
+        assertEquals(FRAMES / 60, behind.updates);
+    }
+
+    @Test
+    public void blendsVisibleObjectsBetweenUpdates() {
+        StubLOD lod = new StubLOD();
+        CountingAnimation at40 = lod.add(0, 0, -40, 1);
+        CountingAnimation behind = lod.add(0, 0, 10, 1);
+
+        run(lod, at40, behind);
+
+        // each update is followed by blends of 1/4, 2/4, 3/4 and 4/4
+        assertEquals(FRAMES, at40.fractions.size());
+        for (int i = 0; i < at40.fractions.size(); ++i) {
+            assertEquals("frame " + i, ((i % 4) + 1) / 4.0f, at40.fractions.get(i), 1e-6f);
+        }
+        assertTrue(behind.fractions.isEmpty());
+
+        StubLOD holding = new StubLOD();
+        holding.setInterpolation(false);
+        CountingAnimation held = holding.add(0, 0, -40, 1);
+        run(holding, held);
+        assertEquals(FRAMES / 4, held.updates);
+        assertTrue(held.fractions.isEmpty());
+    }
+
+    @Test
+    public void throttlesACrowd() {
+        StubLOD lod = new StubLOD();
+        CountingAnimation[] crowd = new CountingAnimation[500];
+        for (int i = 0; i < crowd.length; ++i) {
+            // rings of 50, from 5 to 95 meters, all around the viewer
+            double angle = 2 * Math.PI * (i % 50) / 50;
+            float distance = 5 + 10 * (i / 50);
+            crowd[i] = lod.add(distance * (float) Math.sin(angle), 0,
+                    -distance * (float) Math.cos(angle), 1);
+        }
+
+        run(lod, crowd);
+
+        int updates = 0;
+        for (CountingAnimation animation : crowd) {
+            updates += animation.updates;
+        }
+        System.out.println(String.format("crowd of %d: %d updates, %d at full rate",
+                crowd.length, updates, crowd.length * FRAMES));
+        assertTrue(updates < crowd.length * FRAMES / 4);
+    }
+
+    private static void run(GVRAnimationLOD lod, CountingAnimation... animations) {
+        for (int frame = 0; frame < FRAMES; ++frame) {
+            lod.beginFrame();
+            for (CountingAnimation animation : animations) {
+                assertTrue(animation.onDrawFrame(FRAME_TIME, lod));
+            }
+        }
+    }
+}
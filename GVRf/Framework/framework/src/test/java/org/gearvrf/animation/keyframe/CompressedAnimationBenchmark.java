@@ -0,0 +1,316 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.animation.keyframe;
+
+import org.joml.Quaternionf;
+
+import java.util.Locale;
+
+/**
+ * Compares compressed keyframe animations with the uncompressed ones on a
+ * desktop JVM: the key data size of a clip, the cost of sampling it, and
+ * the cost of {@link GVRCompressedFloatAnimation#reduceKeys} against the
+ * same greedy pass without a bound on the run of dropped keys, which was
+ * quadratic in the length of the run.
+ * <p>
+ * Not a unit test: run {@code main} with the framework and test classes on
+ * the class path, with the optional arguments {@code [bones [keys]]}. The
+ * clip has a position, rotation and scale track per bone. Positions move
+ * along a straight line for the first half and wave for the second,
+ * rotations turn at a steady rate around a wobbling axis, and scales stay
+ * constant. Exits with status 1 if a compressed track strays from the
+ * source by more than its tolerance plus quantization.
+ */
+public final class CompressedAnimationBenchmark
+{
+    private static final float POSITION_TOLERANCE = GVRAnimationChannel.DEFAULT_POSITION_TOLERANCE;
+    private static final float ROTATION_TOLERANCE = GVRAnimationChannel.DEFAULT_ROTATION_TOLERANCE;
+    private static final float SCALE_TOLERANCE = GVRAnimationChannel.DEFAULT_SCALE_TOLERANCE;
+    // largest angle GVRCompressedQuatAnimation quantization adds
+    private static final float QUANTIZATION_ERROR = 0.00013f;
+    private static final float FRAME_TIME = 1.0f / 30.0f;
+    private static final int SAMPLE_PASSES = 5;
+
+    private CompressedAnimationBenchmark()
+    {
+    }
+
+    public static void main(String[] args)
+    {
+        int bones = (args.length > 0) ? Integer.parseInt(args[0]) : 60;
+        int keys = (args.length > 1) ? Integer.parseInt(args[1]) : 3000;
+        boolean ok = true;
+
+        System.out.println("reduceKeys, one position track, best of 3");
+        for (int n : new int[] { 1000, 4000, 16000, 64000 })
+        {
+            ok &= reduce(n);
+        }
+
+        GVRFloatAnimation[] source = new GVRFloatAnimation[bones * 3];
+        GVRFloatAnimation[] compressed = new GVRFloatAnimation[bones * 3];
+        for (int b = 0; b < bones; ++b)
+        {
+            source[b * 3] = new GVRFloatAnimation(positionKeys(keys, b), 4);
+            source[b * 3 + 1] = new GVRQuatAnimation(rotationKeys(keys, b));
+            source[b * 3 + 2] = new GVRFloatAnimation(scaleKeys(keys), 4);
+            compressed[b * 3] = new GVRCompressedFloatAnimation(source[b * 3], POSITION_TOLERANCE);
+            compressed[b * 3 + 1] = new GVRCompressedQuatAnimation(source[b * 3 + 1], ROTATION_TOLERANCE);
+            compressed[b * 3 + 2] = new GVRCompressedFloatAnimation(source[b * 3 + 2], SCALE_TOLERANCE);
+        }
+        ok &= checkError(source, compressed, keys);
+
+        System.out.printf(Locale.US, "clip of %d bones, %d keys per track%n", bones, keys);
+        // warm up the JIT
+        sample(source, keys);
+        sample(compressed, keys);
+        report("uncompressed", source, sample(source, keys), keys);
+        report("compressed", compressed, sample(compressed, keys), keys);
+        if (!ok)
+        {
+            System.out.println("FAILED");
+            System.exit(1);
+        }
+    }
+
+    private static boolean reduce(int n)
+    {
+        float[] keys = positionKeys(n, 0);
+        long bestGreedy = Long.MAX_VALUE;
+        long bestBounded = Long.MAX_VALUE;
+        int[] greedy = null;
+        int[] bounded = null;
+
+        for (int i = 0; i < 3; ++i)
+        {
+            long start = System.nanoTime();
+            greedy = reduceGreedy(keys, 4, POSITION_TOLERANCE);
+            bestGreedy = Math.min(bestGreedy, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            bounded = GVRCompressedFloatAnimation.reduceKeys(keys, 4, POSITION_TOLERANCE, false);
+            bestBounded = Math.min(bestBounded, System.nanoTime() - start);
+        }
+        System.out.printf(Locale.US, "  %6d keys: greedy %9.2f ms, %5d kept   bounded %7.2f ms, %5d kept%n",
+                n, bestGreedy / 1e6, greedy.length, bestBounded / 1e6, bounded.length);
+        return (bounded[0] == 0) && (bounded[bounded.length - 1] == n - 1);
+    }
+
+    /*
+     * Time per sample of every track at every frame of the clip, best of
+     * a few passes.
+     */
+    private static long sample(GVRFloatAnimation[] tracks, int keys)
+    {
+        float[] values = new float[4];
+        float duration = (keys - 1) * FRAME_TIME;
+        int frames = (int) (duration * 60);
+        long best = Long.MAX_VALUE;
+        float sink = 0;
+
+        for (int pass = 0; pass < SAMPLE_PASSES; ++pass)
+        {
+            long start = System.nanoTime();
+            for (int f = 0; f < frames; ++f)
+            {
+                float time = f / 60.0f;
+                for (GVRFloatAnimation track : tracks)
+                {
+                    track.animate(time, values);
+                    sink += values[0];
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        if (sink == Float.MIN_VALUE)
+        {
+            System.out.println(sink);
+        }
+        return best / ((long) frames * tracks.length);
+    }
+
+    private static void report(String name, GVRFloatAnimation[] tracks, long nanosPerSample, int keys)
+    {
+        long bytes = 0;
+        long kept = 0;
+        for (GVRFloatAnimation track : tracks)
+        {
+            bytes += track.getKeyDataSize();
+            kept += track.getNumKeys();
+        }
+        System.out.printf(Locale.US, "  %-12s %8.2f MB of keys, %7d keys, %4d ns per sample%n",
+                name, bytes / 1e6, kept, nanosPerSample);
+    }
+
+    /*
+     * Difference between the compressed and source tracks at every
+     * source key.
+     */
+    private static boolean checkError(GVRFloatAnimation[] source, GVRFloatAnimation[] compressed, int keys)
+    {
+        float[] expected = new float[4];
+        float[] actual = new float[4];
+        boolean ok = true;
+
+        for (int t = 0; t < source.length; ++t)
+        {
+            boolean rotation = (t % 3) == 1;
+            float tolerance = rotation ? ROTATION_TOLERANCE + QUANTIZATION_ERROR
+                : ((t % 3) == 0) ? POSITION_TOLERANCE : SCALE_TOLERANCE;
+            for (int k = 0; k < keys; ++k)
+            {
+                float time = source[t].getTime(k);
+                source[t].animate(time, expected);
+                compressed[t].animate(time, actual);
+                float error = rotation ? angle(expected, actual) : distance(expected, actual);
+                if (error > tolerance * 1.01f)
+                {
+                    System.out.printf(Locale.US, "track %d: error %f at key %d%n", t, error, k);
+                    ok = false;
+                    break;
+                }
+            }
+        }
+        return ok;
+    }
+
+    private static float distance(float[] a, float[] b)
+    {
+        float d = 0;
+        for (int i = 0; i < 3; ++i)
+        {
+            d = Math.max(d, Math.abs(a[i] - b[i]));
+        }
+        return d;
+    }
+
+    /*
+     * Angle between two rotations, from the chord between the unit
+     * quaternions, which keeps small angles that acos would lose.
+     */
+    private static float angle(float[] a, float[] b)
+    {
+        double la = Math.sqrt(a[0] * a[0] + a[1] * a[1] + a[2] * a[2] + a[3] * a[3]);
+        double lb = Math.sqrt(b[0] * b[0] + b[1] * b[1] + b[2] * b[2] + b[3] * b[3]);
+        double dot = 0;
+        for (int i = 0; i < 4; ++i)
+        {
+            dot += a[i] * b[i];
+        }
+        double sign = (dot < 0) ? -1 : 1;
+        double chord = 0;
+        for (int i = 0; i < 4; ++i)
+        {
+            double d = a[i] / la - sign * b[i] / lb;
+            chord += d * d;
+        }
+        return (float) (4 * Math.asin(Math.min(1.0, Math.sqrt(chord) * 0.5)));
+    }
+
+    /*
+     * What reduceKeys did before, for values which change.
+     */
+    private static int[] reduceGreedy(float[] keys, int keySize, float tolerance)
+    {
+        int n = keys.length / keySize;
+        int[] kept = new int[n];
+        int numKept = 0;
+        int anchor = 0;
+
+        kept[numKept++] = 0;
+        for (int candidate = 2; candidate < n; ++candidate)
+        {
+            for (int k = anchor + 1; k < candidate; ++k)
+            {
+                if (error(keys, keySize, anchor, candidate, k) > tolerance)
+                {
+                    anchor = candidate - 1;
+                    kept[numKept++] = anchor;
+                    break;
+                }
+            }
+        }
+        kept[numKept++] = n - 1;
+
+        int[] result = new int[numKept];
+        System.arraycopy(kept, 0, result, 0, numKept);
+        return result;
+    }
+
+    private static float error(float[] keys, int keySize, int first, int last, int key)
+    {
+        int firstOfs = first * keySize;
+        int lastOfs = last * keySize;
+        int keyOfs = key * keySize;
+        float span = keys[lastOfs] - keys[firstOfs];
+        float factor = (span > 0) ? (keys[keyOfs] - keys[firstOfs]) / span : 0;
+        float maxError = 0;
+        for (int i = 1; i < keySize; ++i)
+        {
+            float value = factor * keys[lastOfs + i] + (1.0f - factor) * keys[firstOfs + i];
+            maxError = Math.max(maxError, Math.abs(value - keys[keyOfs + i]));
+        }
+        return maxError;
+    }
+
+    private static float[] positionKeys(int n, int bone)
+    {
+        float[] keys = new float[n * 4];
+        for (int i = 0; i < n; ++i)
+        {
+            float t = i * FRAME_TIME;
+            float wave = (i < n / 2) ? 0 : (float) Math.sin(t * (1.0f + bone * 0.1f));
+            keys[i * 4] = t;
+            keys[i * 4 + 1] = t * 0.5f;
+            keys[i * 4 + 2] = bone + wave * 0.2f;
+            keys[i * 4 + 3] = wave * 0.05f;
+        }
+        return keys;
+    }
+
+    private static float[] rotationKeys(int n, int bone)
+    {
+        float[] keys = new float[n * 5];
+        Quaternionf q = new Quaternionf();
+        for (int i = 0; i < n; ++i)
+        {
+            float t = i * FRAME_TIME;
+            float ax = 0.3f * (float) Math.sin(t * 0.7f + bone);
+            float az = (0.2f * bone) % 1.0f;
+            float length = (float) Math.sqrt(ax * ax + 1.0f + az * az);
+            q.fromAxisAngleRad(ax / length, 1.0f / length, az / length, t * 0.8f);
+            keys[i * 5] = t;
+            keys[i * 5 + 1] = q.x;
+            keys[i * 5 + 2] = q.y;
+            keys[i * 5 + 3] = q.z;
+            keys[i * 5 + 4] = q.w;
+        }
+        return keys;
+    }
+
+    private static float[] scaleKeys(int n)
+    {
+        float[] keys = new float[n * 4];
+        for (int i = 0; i < n; ++i)
+        {
+            keys[i * 4] = i * FRAME_TIME;
+            keys[i * 4 + 1] = 1.0f;
+            keys[i * 4 + 2] = 1.0f;
+            keys[i * 4 + 3] = 1.0f;
+        }
+        return keys;
+    }
+}
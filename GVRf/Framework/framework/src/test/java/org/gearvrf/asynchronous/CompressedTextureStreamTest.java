@@ -0,0 +1,332 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.asynchronous;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Level layout and publish order of {@link CompressedTextureStream} against
+ * the reference files in {@code src/test/resources}.
+ * <p>
+ * {@code etc2_16x8_le.ktx} and {@code etc2_16x8_be.ktx} hold the same 16x8
+ * ETC2 RGB8 texture with five levels of 64, 16, 8, 8 and 8 bytes, and 12
+ * bytes of key/value data. Every byte of level {@code n} is {@code n + 1}
+ * and the padding after a level is zero, so a misplaced offset shows up in
+ * the data. {@code astc_10x10_4x4.astc} is a 10x10 texture in 4x4 blocks
+ * whose 144 data bytes are all 7.
+ */
+public class CompressedTextureStreamTest
+{
+    private static final int GL_COMPRESSED_RGB8_ETC2 = 0x9274;
+    private static final int GL_COMPRESSED_RGBA_ASTC_4x4_KHR = 0x93B0;
+
+    private static final String KTX_LE = "etc2_16x8_le.ktx";
+    private static final String KTX_BE = "etc2_16x8_be.ktx";
+    private static final String ASTC = "astc_10x10_4x4.astc";
+
+    private static final int[] KTX_OFFSETS = { 80, 148, 168, 180, 192 };
+    private static final int[] KTX_SIZES = { 64, 16, 8, 8, 8 };
+    private static final int[] KTX_WIDTHS = { 16, 8, 4, 2, 1 };
+    private static final int[] KTX_HEIGHTS = { 8, 4, 2, 1, 1 };
+
+    private static class Level
+    {
+        final int level;
+        final int width;
+        final int height;
+        final ByteBuffer data;
+
+        Level(int level, int width, int height, ByteBuffer data)
+        {
+            this.level = level;
+            this.width = width;
+            this.height = height;
+            this.data = data;
+        }
+    }
+
+    private static class Recorder implements CompressedTextureStream.LevelListener
+    {
+        final List<Level> levels = new ArrayList<Level>();
+
+        @Override
+        public void onLevel(int level, int width, int height, ByteBuffer data)
+        {
+            levels.add(new Level(level, width, height, data));
+        }
+    }
+
+    @Test
+    public void ktxLayoutLittleEndian() throws IOException
+    {
+        checkKtxLayout(CompressedTextureStream.open(ByteBuffer.wrap(load(KTX_LE))));
+    }
+
+    @Test
+    public void ktxLayoutBigEndian() throws IOException
+    {
+        checkKtxLayout(CompressedTextureStream.open(ByteBuffer.wrap(load(KTX_BE))));
+    }
+
+    @Test
+    public void ktxLayoutDirectBuffer() throws IOException
+    {
+        byte[] file = load(KTX_LE);
+        ByteBuffer direct = ByteBuffer.allocateDirect(file.length);
+        direct.put(file);
+        direct.position(7);
+        checkKtxLayout(CompressedTextureStream.open(direct));
+        assertEquals("position of the source buffer", 7, direct.position());
+    }
+
+    @Test
+    public void ktxPublishSmallestFirst() throws IOException
+    {
+        for (String name : new String[] { KTX_LE, KTX_BE })
+        {
+            CompressedTextureStream stream = CompressedTextureStream.open(ByteBuffer.wrap(load(name)));
+            Recorder recorder = new Recorder();
+
+            assertEquals(0, stream.publish(recorder, Long.MAX_VALUE));
+            assertEquals(0, stream.getPendingLevelCount());
+            checkKtxLevels(name, recorder.levels);
+        }
+    }
+
+    @Test
+    public void ktxPublishBudget() throws IOException
+    {
+        CompressedTextureStream stream = CompressedTextureStream.open(ByteBuffer.wrap(load(KTX_LE)));
+        Recorder recorder = new Recorder();
+
+        // at least one level, even with no budget
+        assertEquals(4, stream.publish(recorder, 0));
+        assertEquals(1, recorder.levels.size());
+        assertEquals(4, recorder.levels.get(0).level);
+
+        // 8 + 8 reaches the budget of 16, level 1 waits
+        assertEquals(2, stream.publish(recorder, 16));
+        assertEquals(3, recorder.levels.size());
+        assertEquals(3, recorder.levels.get(1).level);
+        assertEquals(2, recorder.levels.get(2).level);
+
+        // 16 is short of the budget of 17, so level 0 follows
+        assertEquals(0, stream.publish(recorder, 17));
+        assertEquals(0, stream.getPendingLevelCount());
+        checkKtxLevels(KTX_LE, recorder.levels);
+
+        // nothing left
+        assertEquals(0, stream.publish(recorder, Long.MAX_VALUE));
+        assertEquals(5, recorder.levels.size());
+    }
+
+    @Test
+    public void ktxFromStream() throws IOException
+    {
+        for (String name : new String[] { KTX_LE, KTX_BE })
+        {
+            CompressedTextureStream stream =
+                    CompressedTextureStream.open(new ByteArrayInputStream(load(name)));
+            checkKtxLayout(stream);
+
+            Recorder recorder = new Recorder();
+            stream.publish(recorder, Long.MAX_VALUE);
+            checkKtxLevels(name, recorder.levels);
+            for (Level level : recorder.levels)
+            {
+                assertTrue("level " + level.level + " is direct", level.data.isDirect());
+            }
+        }
+    }
+
+    @Test
+    public void ktxFromMappedFile() throws IOException
+    {
+        File file = File.createTempFile("gvrf", ".ktx");
+        try
+        {
+            FileOutputStream out = new FileOutputStream(file);
+            try
+            {
+                out.write(load(KTX_BE));
+            }
+            finally
+            {
+                out.close();
+            }
+
+            FileInputStream in = new FileInputStream(file);
+            try
+            {
+                CompressedTextureStream stream = CompressedTextureStream.open(in);
+                checkKtxLayout(stream);
+
+                Recorder recorder = new Recorder();
+                stream.publish(recorder, Long.MAX_VALUE);
+                checkKtxLevels(KTX_BE, recorder.levels);
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void astcLayout() throws IOException
+    {
+        byte[] file = load(ASTC);
+        CompressedTextureStream[] streams = {
+                CompressedTextureStream.open(ByteBuffer.wrap(file)),
+                CompressedTextureStream.open(new ByteArrayInputStream(file)) };
+
+        for (CompressedTextureStream stream : streams)
+        {
+            assertEquals(GL_COMPRESSED_RGBA_ASTC_4x4_KHR, stream.getFormat());
+            assertEquals(10, stream.getWidth());
+            assertEquals(10, stream.getHeight());
+            assertEquals(1, stream.getLevelCount());
+            assertEquals(16, stream.getLevelOffset(0));
+            assertEquals(144, stream.getLevelSize(0));
+
+            Recorder recorder = new Recorder();
+            assertEquals(0, stream.publish(recorder, 0));
+            assertEquals(1, recorder.levels.size());
+            Level level = recorder.levels.get(0);
+            assertEquals(0, level.level);
+            assertEquals(10, level.width);
+            assertEquals(10, level.height);
+            checkData(ASTC + " level 0", level.data, 144, (byte) 7);
+        }
+    }
+
+    @Test
+    public void rejectsOtherData()
+    {
+        byte[] png = new byte[128];
+        png[0] = (byte) 0x89;
+        png[1] = 'P';
+        png[2] = 'N';
+        png[3] = 'G';
+
+        try
+        {
+            CompressedTextureStream.open(ByteBuffer.wrap(png));
+            fail("opened a buffer which is not KTX or ASTC");
+        }
+        catch (IllegalArgumentException expected)
+        {
+        }
+        try
+        {
+            CompressedTextureStream.open(new ByteArrayInputStream(png));
+            fail("opened a stream which is not KTX or ASTC");
+        }
+        catch (IllegalArgumentException expected)
+        {
+        }
+        catch (IOException e)
+        {
+            fail(e.toString());
+        }
+    }
+
+    private static void checkKtxLayout(CompressedTextureStream stream)
+    {
+        assertEquals(GL_COMPRESSED_RGB8_ETC2, stream.getFormat());
+        assertEquals(16, stream.getWidth());
+        assertEquals(8, stream.getHeight());
+        assertEquals(KTX_OFFSETS.length, stream.getLevelCount());
+        assertEquals(KTX_OFFSETS.length, stream.getPendingLevelCount());
+        for (int level = 0; level < KTX_OFFSETS.length; ++level)
+        {
+            assertEquals("offset of level " + level, KTX_OFFSETS[level], stream.getLevelOffset(level));
+            assertEquals("size of level " + level, KTX_SIZES[level], stream.getLevelSize(level));
+            assertEquals("width of level " + level, KTX_WIDTHS[level], stream.getLevelWidth(level));
+            assertEquals("height of level " + level, KTX_HEIGHTS[level], stream.getLevelHeight(level));
+        }
+    }
+
+    private static void checkKtxLevels(String name, List<Level> levels)
+    {
+        assertEquals(KTX_OFFSETS.length, levels.size());
+        for (int i = 0; i < levels.size(); ++i)
+        {
+            Level level = levels.get(i);
+            int expected = KTX_OFFSETS.length - 1 - i;
+            assertEquals(name + " publish order", expected, level.level);
+            assertEquals(KTX_WIDTHS[expected], level.width);
+            assertEquals(KTX_HEIGHTS[expected], level.height);
+            checkData(name + " level " + expected, level.data, KTX_SIZES[expected],
+                    (byte) (expected + 1));
+        }
+    }
+
+    private static void checkData(String what, ByteBuffer data, int size, byte value)
+    {
+        assertNotNull(what, data);
+        assertEquals(what + " size", size, data.remaining());
+        for (int i = data.position(); i < data.limit(); ++i)
+        {
+            if (data.get(i) != value)
+            {
+                fail(what + ": byte " + (i - data.position()) + " is " + data.get(i)
+                        + ", expected " + value);
+            }
+        }
+    }
+
+    private static byte[] load(String name) throws IOException
+    {
+        InputStream in = CompressedTextureStreamTest.class.getResourceAsStream(name);
+        assertNotNull("missing test resource " + name, in);
+        try
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            int count;
+            while ((count = in.read(chunk)) > 0)
+            {
+                out.write(chunk, 0, count);
+            }
+            return out.toByteArray();
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.asynchronous;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Measures {@link TgaImage} decode throughput on a desktop JVM.
+ * <p>
+ * Not a unit test: run {@code main} with the framework and test classes on
+ * the class path, with the optional arguments {@code [size] [iterations]}.
+ * For each file type it builds a {@code size} x {@code size} image in
+ * memory, checks that the decoded pixels are right, then decodes it
+ * {@code iterations} times and prints the best and average rate in GB/s of
+ * RGBA output. Exits with status 1 if a check fails.
+ */
+public final class TgaImageBenchmark
+{
+    private static final int WARMUP = 3;
+
+    private TgaImageBenchmark()
+    {
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int size = (args.length > 0) ? Integer.parseInt(args[0]) : 4096;
+        int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+        boolean ok = true;
+
+        System.out.printf("TgaImage decode, %dx%d, %d threads%n", size, size,
+                Runtime.getRuntime().availableProcessors());
+        ok &= run("32 bit", encode(size, size, 32, false), iterations);
+        ok &= run("24 bit", encode(size, size, 24, false), iterations);
+        ok &= run("32 bit RLE", encode(size, size, 32, true), iterations);
+        ok &= run("24 bit RLE", encode(size, size, 24, true), iterations);
+        if (!ok)
+        {
+            System.out.println("FAILED");
+            System.exit(1);
+        }
+    }
+
+    private static boolean run(String name, byte[] file, int iterations) throws IOException
+    {
+        TgaImage image = TgaImage.decode(new ByteArrayInputStream(file));
+        if (!check(name, image, file[16]))
+        {
+            return false;
+        }
+        long bytes = (long) image.getWidth() * image.getHeight() * 4;
+
+        for (int i = 0; i < WARMUP; ++i)
+        {
+            TgaImage.decode(file, file.length);
+        }
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < iterations; ++i)
+        {
+            long start = System.nanoTime();
+            TgaImage.decode(file, file.length);
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        System.out.printf("  %-11s %7.2f ms best  %5.2f GB/s best  %5.2f GB/s average%n",
+                name, best / 1e6, (double) bytes / best,
+                (double) bytes * iterations / total);
+        return true;
+    }
+
+    /*
+     * Pixel (x, y) of the test image, counted from the top left, as RGBA.
+     * Every other block of 96 pixels is made of runs of 6 equal pixels, so
+     * an RLE file has both kinds of packet, and some runs cross the end of
+     * a row.
+     */
+    private static int pixel(int x, int y, int width)
+    {
+        int i = y * width + x;
+        int run = (((i / 96) & 1) == 0) ? (i / 6) : i;
+        int r = (run * 13) & 0xFF;
+        int g = (run >> 3) & 0xFF;
+        int b = (run >> 11) & 0xFF;
+        int a = (run * 7 + 1) & 0xFF;
+        return (r << 24) | (g << 16) | (b << 8) | a;
+    }
+
+    private static boolean check(String name, TgaImage image, int depth)
+    {
+        ByteBuffer pixels = image.getPixels();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        for (int y = 0; y < height; ++y)
+        {
+            for (int x = 0; x < width; ++x)
+            {
+                int expected = pixel(x, y, width);
+                if (depth != 32)
+                {
+                    expected |= 0xFF;
+                }
+                int actual = pixels.getInt((y * width + x) * 4);
+                if (actual != expected)
+                {
+                    System.out.printf("  %s: pixel %d,%d is %08x, expected %08x%n",
+                            name, x, y, actual, expected);
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /*
+     * A bottom-up BGR(A) file, the layout most tools write.
+     */
+    private static byte[] encode(int width, int height, int depth, boolean rle)
+    {
+        int pixelSize = depth / 8;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(width * height * pixelSize + 18);
+        byte[] header = new byte[18];
+        header[2] = (byte) (rle ? 10 : 2);
+        header[12] = (byte) width;
+        header[13] = (byte) (width >> 8);
+        header[14] = (byte) height;
+        header[15] = (byte) (height >> 8);
+        header[16] = (byte) depth;
+        header[17] = (byte) ((depth == 32) ? 8 : 0);
+        out.write(header, 0, header.length);
+
+        int count = width * height;
+        byte[] stored = new byte[count * pixelSize];
+        for (int i = 0; i < count; ++i)
+        {
+            int x = i % width;
+            int y = height - 1 - i / width;
+            int rgba = pixel(x, y, width);
+            int s = i * pixelSize;
+            stored[s] = (byte) (rgba >> 8);
+            stored[s + 1] = (byte) (rgba >> 16);
+            stored[s + 2] = (byte) (rgba >> 24);
+            if (pixelSize == 4)
+            {
+                stored[s + 3] = (byte) rgba;
+            }
+        }
+        if (!rle)
+        {
+            out.write(stored, 0, stored.length);
+            return out.toByteArray();
+        }
+
+        for (int i = 0; i < count; )
+        {
+            int same = 1;
+            while ((i + same < count) && (same < 128) && equal(stored, i, i + same, pixelSize))
+            {
+                ++same;
+            }
+            if (same > 1)
+            {
+                out.write(0x80 | (same - 1));
+                out.write(stored, i * pixelSize, pixelSize);
+                i += same;
+                continue;
+            }
+            int raw = 1;
+            while ((i + raw < count) && (raw < 128)
+                    && !((i + raw + 1 < count) && equal(stored, i + raw, i + raw + 1, pixelSize)))
+            {
+                ++raw;
+            }
+            out.write(raw - 1);
+            out.write(stored, i * pixelSize, raw * pixelSize);
+            i += raw;
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean equal(byte[] stored, int a, int b, int pixelSize)
+    {
+        for (int i = 0; i < pixelSize; ++i)
+        {
+            if (stored[a * pixelSize + i] != stored[b * pixelSize + i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,239 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.asynchronous;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Decoded pixels of {@link TgaImage} for small files built byte by byte,
+ * in each supported type and origin. Expected pixels are RGBA, top row
+ * first.
+ */
+public class TgaImageTest
+{
+    private static final int RED = 0xFF0000FF;
+    private static final int GREEN = 0x00FF00FF;
+    private static final int BLUE = 0x0000FFFF;
+    private static final int WHITE = 0xFFFFFFFF;
+    private static final int BLACK = 0x000000FF;
+    private static final int GRAY = 0x808080FF;
+
+    // origin bits of the image descriptor
+    private static final int TOP = 0x20;
+    private static final int RIGHT = 0x10;
+
+    @Test
+    public void decodesRawTrueColor() throws IOException
+    {
+        // bottom row first, BGR
+        TgaImage image = decode(file(2, 3, 2, 24, 0,
+                0xFF, 0xFF, 0xFF,   0x00, 0x00, 0x00,   0x80, 0x80, 0x80,
+                0x00, 0x00, 0xFF,   0x00, 0xFF, 0x00,   0xFF, 0x00, 0x00));
+
+        assertEquals(3, image.getWidth());
+        assertEquals(2, image.getHeight());
+        assertFalse(image.hasAlpha());
+        assertPixels(image, RED, GREEN, BLUE, WHITE, BLACK, GRAY);
+    }
+
+    @Test
+    public void decodesRawAlphaTopDown() throws IOException
+    {
+        TgaImage image = decode(file(2, 2, 1, 32, TOP | 8,
+                0x30, 0x20, 0x10, 0x40,   0x00, 0x00, 0xFF, 0x00));
+
+        assertTrue(image.hasAlpha());
+        assertPixels(image, 0x10203040, 0xFF000000);
+    }
+
+    @Test
+    public void decodes16BitPixels() throws IOException
+    {
+        // one alpha bit, then five bits of red, green and blue
+        TgaImage image = decode(file(2, 3, 1, 16, TOP | 1,
+                0x00, 0xFC,   0x1F, 0x00,   0xE0, 0x83));
+
+        assertTrue(image.hasAlpha());
+        assertPixels(image, 0xFF0000FF, 0x0000FF00, 0x00FF00FF);
+    }
+
+    @Test
+    public void decodesRleAcrossRows() throws IOException
+    {
+        // a run of 6 red fills the bottom row and starts the top one,
+        // a raw packet of green and blue ends it
+        TgaImage image = decode(file(10, 4, 2, 24, 0,
+                0x85, 0x00, 0x00, 0xFF,
+                0x01, 0x00, 0xFF, 0x00, 0xFF, 0x00, 0x00));
+
+        assertPixels(image,
+                RED, RED, GREEN, BLUE,
+                RED, RED, RED, RED);
+    }
+
+    @Test
+    public void decodesRleRawPacketAcrossRows() throws IOException
+    {
+        TgaImage image = decode(file(10, 2, 2, 32, TOP | 8,
+                0x02, 0x00, 0x00, 0xFF, 0xFF,   0x00, 0xFF, 0x00, 0xFF,   0xFF, 0x00, 0x00, 0xFF,
+                0x80, 0x80, 0x80, 0x80, 0xFF));
+
+        assertPixels(image,
+                RED, GREEN,
+                BLUE, GRAY);
+    }
+
+    @Test
+    public void decodesMirroredRleGrayscale() throws IOException
+    {
+        TgaImage image = decode(file(11, 3, 1, 8, TOP | RIGHT,
+                0x00, 0x00,   0x81, 0x80));
+
+        assertFalse(image.hasAlpha());
+        assertPixels(image, GRAY, GRAY, BLACK);
+    }
+
+    @Test
+    public void decodesTallImagesTheSameRawAndRle() throws IOException
+    {
+        // runs of 100 pixels, so most rows start inside a packet
+        final int width = 60;
+        final int height = 256;
+        final int count = width * height;
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        ByteArrayOutputStream rle = new ByteArrayOutputStream();
+        for (int i = 0; i < count; i += 100)
+        {
+            int run = Math.min(100, count - i);
+            byte[] bgr = { (byte) (i / 100), (byte) (i / 25), (byte) i };
+            rle.write(0x80 | (run - 1));
+            rle.write(bgr, 0, 3);
+            for (int p = 0; p < run; ++p)
+            {
+                raw.write(bgr, 0, 3);
+            }
+        }
+
+        ByteBuffer fromRaw = decode(file(2, width, height, 24, 0, raw.toByteArray())).getPixels();
+        ByteBuffer fromRle = decode(file(10, width, height, 24, 0, rle.toByteArray())).getPixels();
+        assertEquals(count * 4, fromRle.limit());
+        for (int y = 0; y < height; ++y)
+        {
+            for (int x = 0; x < width; ++x)
+            {
+                int i = (height - 1 - y) * width + x;
+                int start = i - i % 100;
+                int expected = ((start & 0xFF) << 24) | (((start / 25) & 0xFF) << 16)
+                        | (((start / 100) & 0xFF) << 8) | 0xFF;
+                assertEquals("pixel " + x + "," + y, expected, fromRle.getInt((y * width + x) * 4));
+            }
+        }
+        assertEquals(fromRaw, fromRle);
+    }
+
+    @Test
+    public void rejectsTruncatedFiles() throws IOException
+    {
+        byte[] raw = file(2, 2, 2, 24, 0, new byte[2 * 2 * 3]);
+        byte[] rle = file(10, 2, 2, 24, 0, 0x81, 0, 0, 0, 0x81, 0, 0, 0);
+
+        decode(raw);
+        decode(rle);
+        assertThrows(EOFException.class, raw, raw.length - 1);
+        assertThrows(EOFException.class, rle, rle.length - 1);
+        assertThrows(EOFException.class, rle, rle.length - 4);
+        assertThrows(EOFException.class, raw, 17);
+    }
+
+    @Test
+    public void rejectsUnsupportedFiles()
+    {
+        // color mapped
+        assertThrows(IOException.class, file(1, 1, 1, 8, 0, 0), -1);
+        assertThrows(IOException.class, file(2, 1, 1, 8, 0, 0), -1);
+        assertThrows(IOException.class, file(3, 1, 1, 16, 0, 0, 0), -1);
+    }
+
+    private static TgaImage decode(byte[] file) throws IOException
+    {
+        TgaImage fromArray = TgaImage.decode(file, file.length);
+        TgaImage fromStream = TgaImage.decode(new ByteArrayInputStream(file));
+
+        assertEquals(fromArray.getPixels(), fromStream.getPixels());
+        return fromArray;
+    }
+
+    private static void assertPixels(TgaImage image, int... expected)
+    {
+        ByteBuffer pixels = image.getPixels();
+        int[] actual = new int[pixels.limit() / 4];
+
+        for (int i = 0; i < actual.length; ++i)
+        {
+            actual[i] = pixels.getInt(i * 4);
+        }
+        assertArrayEquals(expected, actual);
+    }
+
+    private static void assertThrows(Class<? extends IOException> expected, byte[] file, int length)
+    {
+        try
+        {
+            TgaImage.decode(file, (length < 0) ? file.length : length);
+            fail("decoded a bad file");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.toString(), expected.isInstance(e));
+        }
+    }
+
+    private static byte[] file(int type, int width, int height, int depth, int descriptor, int... data)
+    {
+        byte[] bytes = new byte[data.length];
+        for (int i = 0; i < data.length; ++i)
+        {
+            bytes[i] = (byte) data[i];
+        }
+        return file(type, width, height, depth, descriptor, bytes);
+    }
+
+    private static byte[] file(int type, int width, int height, int depth, int descriptor, byte[] data)
+    {
+        byte[] file = new byte[18 + data.length];
+        file[2] = (byte) type;
+        file[12] = (byte) width;
+        file[13] = (byte) (width >> 8);
+        file[14] = (byte) height;
+        file[15] = (byte) (height >> 8);
+        file[16] = (byte) depth;
+        file[17] = (byte) descriptor;
+        System.arraycopy(data, 0, file, 18, data.length);
+        return file;
+    }
+}
@@ -0,0 +1,238 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.io;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Replays pose streams through {@link GVRPoseStreamReader} and measures how
+ * much of the cursor latency {@link GVRPosePredictor} removes.
+ * <p>
+ * The latency of a cursor which follows a turning controller is its angular
+ * error divided by the angular speed. The recordings here are sampled at
+ * 60 Hz with exact velocity and acceleration, so the measured error comes
+ * from the predictor alone.
+ */
+public class GVRPoseStreamReaderTest
+{
+    private static final float FRAME = 1.0f / 60.0f;
+    private static final float DISPLAY_LATENCY = 0.03f;
+    private static final float EPSILON = 1e-4f;
+
+    @Test
+    public void loadsRecording() throws IOException
+    {
+        GVRPoseStreamReader reader = GVRPoseStreamReader.load(new StringReader(
+                "# time rotation position velocity acceleration\n"
+                + "\n"
+                + "10.0  0 0 0 1  1 2 3  0 1 0  0 0 0\n"
+                + "10.5  0 0 0 1  3 4 5\n"
+                + "11.0  0 0.70710677 0 0.70710677  5 6 7  0 2 0  0 0 0\n"));
+
+        assertEquals(3, reader.getSampleCount());
+        assertEquals(1.0f, reader.getDuration(), EPSILON);
+        assertTrue(reader.isConnected(0));
+
+        Vector3f position = new Vector3f();
+        Vector3f velocity = new Vector3f();
+        reader.seek(0.25f);
+        reader.updatePosition(position, 0);
+        reader.updateAngularVelocity(velocity, 0);
+        assertVector(2, 3, 4, position);
+        // the second sample has no velocity, it reads as zero
+        assertVector(0, 0.5f, 0, velocity);
+    }
+
+    @Test
+    public void rejectsBadRecordings()
+    {
+        String[] bad = {
+                "0  0 0 0 1  1 2\n",
+                "0  0 0 0 1  1 2 x\n",
+                "1  0 0 0 1  0 0 0\n0.5  0 0 0 1  0 0 0\n" };
+
+        for (String text : bad)
+        {
+            try
+            {
+                GVRPoseStreamReader.load(new StringReader(text));
+                fail("loaded " + text);
+            }
+            catch (IOException expected)
+            {
+            }
+            catch (IllegalArgumentException expected)
+            {
+            }
+        }
+    }
+
+    @Test
+    public void interpolatesBetweenSamples()
+    {
+        GVRPoseStreamReader reader = yawRecording(0.5f, 0.0f, 1.0f);
+        Quaternionf rotation = new Quaternionf();
+        Vector3f position = new Vector3f();
+
+        reader.seek(0.5f + FRAME / 2);
+        reader.updateRotation(rotation, 0);
+        reader.updatePosition(position, 0);
+        assertEquals(0.5f * (0.5f + FRAME / 2), yaw(rotation), EPSILON);
+        assertEquals(0.5f + FRAME / 2, position.x, EPSILON);
+
+        reader.advance(10.0f);
+        assertEquals(reader.getDuration(), reader.getTime(), EPSILON);
+        reader.seek(0.0f);
+        reader.updateRotation(rotation, 0);
+        assertEquals(0.0f, yaw(rotation), EPSILON);
+    }
+
+    @Test
+    public void predictionFollowsSteadyTurn()
+    {
+        GVRPoseStreamReader reader = yawRecording(2.0f, 0.0f, 2.0f);
+
+        float sampled = reader.getPredictionError(DISPLAY_LATENCY, false);
+        float predicted = reader.getPredictionError(DISPLAY_LATENCY, true);
+
+        // a constant turn is predicted exactly, up to float precision
+        assertEquals(2.0f * DISPLAY_LATENCY, sampled, 1e-3f);
+        assertTrue("predicted error " + predicted, predicted < 1e-3f);
+    }
+
+    /*
+     * The controller sweeps back and forth, so the velocity keeps
+     * changing. Prediction must still remove most of the latency.
+     */
+    @Test
+    public void predictionReducesLatency()
+    {
+        final float amplitude = 1.0f;
+        final float frequency = 1.5f;
+        GVRPoseStreamReader reader = sweepRecording(amplitude, frequency, 4.0f);
+        // average of |d/dt a sin(wt)| over whole periods
+        final float meanSpeed = amplitude * 2.0f * (float) Math.PI * frequency * 2.0f / (float) Math.PI;
+
+        float sampledLatency = reader.getPredictionError(DISPLAY_LATENCY, false) / meanSpeed;
+        float predictedLatency = reader.getPredictionError(DISPLAY_LATENCY, true) / meanSpeed;
+
+        System.out.println(String.format(Locale.US,
+                "cursor latency over a %.0f ms display delay: %.2f ms sampled, %.2f ms predicted",
+                DISPLAY_LATENCY * 1000, sampledLatency * 1000, predictedLatency * 1000));
+        assertEquals(DISPLAY_LATENCY, sampledLatency, DISPLAY_LATENCY * 0.1f);
+        assertTrue("predicted latency " + predictedLatency, predictedLatency < DISPLAY_LATENCY / 10);
+    }
+
+    /*
+     * The controller reads poses through the ControllerReader interface
+     * and predicts them itself: do the same, frame by frame.
+     */
+    @Test
+    public void replaysLikeController()
+    {
+        GVRPoseStreamReader reader = sweepRecording(1.0f, 1.5f, 2.0f);
+        GVRPosePredictor predictor = new GVRPosePredictor(DISPLAY_LATENCY);
+        Quaternionf rotation = new Quaternionf();
+        Quaternionf displayed = new Quaternionf();
+        Vector3f velocity = new Vector3f();
+        Vector3f acceleration = new Vector3f();
+        float worstSampled = 0;
+        float worstPredicted = 0;
+
+        for (float t = 0; t + DISPLAY_LATENCY <= reader.getDuration(); t += FRAME)
+        {
+            reader.seek(t + DISPLAY_LATENCY);
+            reader.updateRotation(displayed, 0);
+
+            reader.seek(t);
+            reader.updateRotation(rotation, 0);
+            reader.updateAngularVelocity(velocity, 0);
+            reader.updateAngularAcceleration(acceleration, 0);
+            worstSampled = Math.max(worstSampled, GVRPosePredictor.angleBetween(rotation, displayed));
+            predictor.predict(rotation, velocity, acceleration, rotation);
+            worstPredicted = Math.max(worstPredicted, GVRPosePredictor.angleBetween(rotation, displayed));
+        }
+        assertTrue("worst predicted " + worstPredicted + ", sampled " + worstSampled,
+                   worstPredicted < worstSampled / 5);
+    }
+
+    /*
+     * Turn about Y at a constant speed, 60 samples per second.
+     */
+    private static GVRPoseStreamReader yawRecording(float speed, float acceleration, float duration)
+    {
+        GVRPoseStreamReader reader = new GVRPoseStreamReader();
+        Quaternionf rotation = new Quaternionf();
+        Vector3f position = new Vector3f();
+        Vector3f velocity = new Vector3f();
+        Vector3f accel = new Vector3f(0, acceleration, 0);
+
+        for (int i = 0; i * FRAME <= duration + EPSILON; ++i)
+        {
+            float t = i * FRAME;
+            rotation.rotationY(speed * t + 0.5f * acceleration * t * t);
+            position.set(t, 0, 0);
+            velocity.set(0, speed + acceleration * t, 0);
+            reader.addSample(100.0 + t, rotation, position, velocity, accel);
+        }
+        return reader;
+    }
+
+    /*
+     * Yaw of amplitude * sin(2 pi frequency t), 60 samples per second.
+     */
+    private static GVRPoseStreamReader sweepRecording(float amplitude, float frequency, float duration)
+    {
+        GVRPoseStreamReader reader = new GVRPoseStreamReader();
+        Quaternionf rotation = new Quaternionf();
+        Vector3f position = new Vector3f();
+        Vector3f velocity = new Vector3f();
+        Vector3f acceleration = new Vector3f();
+        final float w = 2.0f * (float) Math.PI * frequency;
+
+        for (int i = 0; i * FRAME <= duration + EPSILON; ++i)
+        {
+            float t = i * FRAME;
+            rotation.rotationY(amplitude * (float) Math.sin(w * t));
+            velocity.set(0, amplitude * w * (float) Math.cos(w * t), 0);
+            acceleration.set(0, -amplitude * w * w * (float) Math.sin(w * t), 0);
+            reader.addSample(t, rotation, position, velocity, acceleration);
+        }
+        return reader;
+    }
+
+    private static float yaw(Quaternionf rotation)
+    {
+        return 2.0f * (float) Math.atan2(rotation.y, rotation.w);
+    }
+
+    private static void assertVector(float x, float y, float z, Vector3f v)
+    {
+        assertEquals(x, v.x, EPSILON);
+        assertEquals(y, v.y, EPSILON);
+        assertEquals(z, v.z, EPSILON);
+    }
+}
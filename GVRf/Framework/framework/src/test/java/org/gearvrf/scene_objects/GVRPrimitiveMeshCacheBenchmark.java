@@ -0,0 +1,205 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.scene_objects;
+
+import org.gearvrf.GVRContext;
+import org.gearvrf.GVRMesh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Mass spawn benchmark of the {@link GVRPrimitiveMeshCache} on a desktop
+ * JVM. The owners are plain objects and the factories compute the vertex
+ * arrays of a sphere, as the primitive scene objects do, without making a
+ * native mesh.
+ * <p>
+ * Not a unit test: run {@code main} with the framework and test classes on
+ * the class path, with the optional argument {@code [count]}. It spawns
+ * {@code count} owners of each of three shapes with sharing off, then on,
+ * and releases them all, keeping the best time of a few runs. Then it
+ * measures how long cache hits wait while another thread generates
+ * meshes. Exits with status 1 if the cache is not empty after a release.
+ */
+public final class GVRPrimitiveMeshCacheBenchmark {
+    private static final String[] SHAPES = { "sphere", "cube", "cylinder" };
+    private static final int RUNS = 5;
+    private static final int SLOW_MESHES = 20;
+    private static final int SLOW_MILLIS = 10;
+    // keeps the generated arrays from being optimized away
+    private static volatile Object sSink;
+
+    private GVRPrimitiveMeshCacheBenchmark() {
+    }
+
+    /*
+     * Generates what an 18 x 36 sphere generates, and no native mesh.
+     */
+    private static final GVRPrimitiveMeshCache.MeshFactory SPHERE = new GVRPrimitiveMeshCache.MeshFactory() {
+        @Override
+        public GVRMesh create(GVRContext gvrContext) {
+            sSink = generateSphere(18, 36);
+            return null;
+        }
+    };
+
+    public static void main(String[] args) throws Exception {
+        final int count = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+        final GVRPrimitiveMeshCache cache = GVRPrimitiveMeshCache.getInstance(null);
+        boolean ok = true;
+
+        System.out.printf(Locale.US, "%d owners of each of %d shapes%n", count, SHAPES.length);
+        for (boolean share : new boolean[] { false, true }) {
+            long bestSpawn = Long.MAX_VALUE;
+            long bestRelease = Long.MAX_VALUE;
+            long misses = 0;
+
+            cache.setEnabled(share);
+            for (int run = 0; run < RUNS; ++run) {
+                cache.resetStatistics();
+                final List<Object> owners = new ArrayList<Object>(count * SHAPES.length);
+                long start = System.nanoTime();
+                for (int i = 0; i < count; ++i) {
+                    for (String shape : SHAPES) {
+                        final Object owner = new Object();
+                        cache.acquire(GVRPrimitiveMeshCache.makeKey(shape, 18, 36), null, owner, SPHERE);
+                        owners.add(owner);
+                    }
+                }
+                bestSpawn = Math.min(bestSpawn, System.nanoTime() - start);
+                misses = cache.getMissCount();
+
+                start = System.nanoTime();
+                for (Object owner : owners) {
+                    cache.releaseOwner(owner);
+                }
+                bestRelease = Math.min(bestRelease, System.nanoTime() - start);
+                ok &= (cache.getMeshCount() == 0) && (cache.getReferenceCount() == 0);
+            }
+            System.out.printf(Locale.US, "  %-8s spawn %8.2f ms, %5d meshes generated, release %8.2f ms%n",
+                    share ? "shared" : "unshared", bestSpawn / 1e6, misses, bestRelease / 1e6);
+        }
+
+        System.out.printf(Locale.US, "hits while another thread generates %d slow meshes%n", SLOW_MESHES);
+        final long[] waits = hitsDuringMisses(cache);
+        System.out.printf(Locale.US, "  %d hits, longest wait %.2f ms, total wait %.2f ms%n",
+                waits[0], waits[1] / 1e6, waits[2] / 1e6);
+        ok &= (cache.getMeshCount() == 0);
+
+        cache.setEnabled(false);
+        cache.resetStatistics();
+        if (!ok) {
+            System.out.println("FAILED: meshes left in the cache");
+            System.exit(1);
+        }
+    }
+
+    /*
+     * One thread acquires new keys from a factory which takes
+     * SLOW_MILLIS, as a mesh loaded from storage would, while this one
+     * acquires a cached key over and over. Returns the number of hits,
+     * the longest and the total time they took.
+     */
+    private static long[] hitsDuringMisses(final GVRPrimitiveMeshCache cache) throws Exception {
+        final GVRPrimitiveMeshCache.MeshFactory slow = new GVRPrimitiveMeshCache.MeshFactory() {
+            @Override
+            public GVRMesh create(GVRContext gvrContext) {
+                try {
+                    Thread.sleep(SLOW_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+        };
+        final Object cachedOwner = new Object();
+        final String cachedKey = GVRPrimitiveMeshCache.makeKey("sphere", 18, 36);
+        cache.acquire(cachedKey, null, cachedOwner, SPHERE);
+
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        final List<Object> slowOwners = new ArrayList<Object>();
+        final Future<?> misses = pool.submit(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < SLOW_MESHES; ++i) {
+                    final Object owner = new Object();
+                    cache.acquire(GVRPrimitiveMeshCache.makeKey("slow", i), null, owner, slow);
+                    slowOwners.add(owner);
+                }
+            }
+        });
+        final List<Object> hitOwners = new ArrayList<Object>();
+        long hits = 0;
+        long longest = 0;
+        long total = 0;
+        try {
+            while (!misses.isDone()) {
+                final Object owner = new Object();
+                final long start = System.nanoTime();
+                cache.acquire(cachedKey, null, owner, SPHERE);
+                final long wait = System.nanoTime() - start;
+                hitOwners.add(owner);
+                ++hits;
+                longest = Math.max(longest, wait);
+                total += wait;
+                Thread.yield();
+            }
+            misses.get();
+        } finally {
+            pool.shutdown();
+        }
+        for (Object owner : slowOwners) {
+            cache.releaseOwner(owner);
+        }
+        for (Object owner : hitOwners) {
+            cache.releaseOwner(owner);
+        }
+        cache.releaseOwner(cachedOwner);
+        return new long[] { hits, longest, total };
+    }
+
+    private static float[][] generateSphere(int stacks, int slices) {
+        final int vertexCount = (stacks + 1) * (slices + 1);
+        final float[] vertices = new float[vertexCount * 3];
+        final float[] normals = new float[vertexCount * 3];
+        final float[] texCoords = new float[vertexCount * 2];
+        int v = 0;
+        int t = 0;
+
+        for (int stack = 0; stack <= stacks; ++stack) {
+            final double theta = Math.PI * stack / stacks;
+            for (int slice = 0; slice <= slices; ++slice) {
+                final double phi = 2 * Math.PI * slice / slices;
+                final float x = (float) (Math.sin(theta) * Math.cos(phi));
+                final float y = (float) Math.cos(theta);
+                final float z = (float) (Math.sin(theta) * Math.sin(phi));
+                normals[v] = x;
+                normals[v + 1] = y;
+                normals[v + 2] = z;
+                vertices[v++] = x * 0.5f;
+                vertices[v++] = y * 0.5f;
+                vertices[v++] = z * 0.5f;
+                texCoords[t++] = (float) slice / slices;
+                texCoords[t++] = (float) stack / stacks;
+            }
+        }
+        return new float[][] { vertices, normals, texCoords };
+    }
+}
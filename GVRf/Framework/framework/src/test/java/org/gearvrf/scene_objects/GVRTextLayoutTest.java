@@ -0,0 +1,289 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.scene_objects;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Lays out texts with a made-up monospaced font: letters advance by half
+ * an em, spaces by a quarter, and a few pairs are kerned.
+ */
+public class GVRTextLayoutTest
+{
+    private static final float EPSILON = 1e-5f;
+    private static final float ADVANCE = 0.5f;
+    private static final float SPACE = 0.25f;
+    private static final float LEFT = 0.05f;
+    private static final float WIDTH = 0.4f;
+    private static final float TOP = 0.7f;
+    private static final float HEIGHT = 0.7f;
+    private static final float LINE_HEIGHT = 1.2f;
+    private static final float ASCENT = 0.9f;
+    private static final float KERNING = -0.1f;
+
+    private static final class StubFont implements GVRTextLayout.GlyphSource
+    {
+        private final Map<String, Float> mKerning = new HashMap<String, Float>();
+
+        StubFont()
+        {
+            mKerning.put("AV", KERNING);
+            mKerning.put("VA", KERNING);
+        }
+
+        @Override
+        public GVRTextLayout.Glyph getGlyph(int codePoint)
+        {
+            if (codePoint == ' ')
+            {
+                return new GVRTextLayout.Glyph(SPACE, 0, 0, 0, 0, 0, 0, 0, 0);
+            }
+            if (codePoint == '?')
+            {
+                return null;
+            }
+            // each letter has its own cell of the atlas
+            float u = (codePoint - 'A') / 64.0f;
+            return new GVRTextLayout.Glyph(ADVANCE, LEFT, TOP, WIDTH, HEIGHT,
+                                           u, 0.25f, u + 1 / 64.0f, 0.5f);
+        }
+
+        @Override
+        public float getKerning(int left, int right)
+        {
+            Float kerning = mKerning.get(new String(new int[] { left, right }, 0, 2));
+            return (kerning != null) ? kerning : 0.0f;
+        }
+
+        @Override
+        public float getLineHeight()
+        {
+            return LINE_HEIGHT;
+        }
+
+        @Override
+        public float getAscent()
+        {
+            return ASCENT;
+        }
+    }
+
+    private final GVRTextLayout mLayout = new GVRTextLayout(new StubFont());
+    private float[] mPositions;
+    private float[] mTexCoords;
+
+    @Test
+    public void laysOutQuadsOnTheBaseline()
+    {
+        mLayout.setTextSize(2.0f);
+
+        assertEquals(2, layout("AB", 1.0f, 3.0f));
+        float baseline = 3.0f - ASCENT * 2;
+        float top = baseline + TOP * 2;
+        float bottom = top - HEIGHT * 2;
+        assertArrayEquals(new float[] {
+                1.1f, bottom, 0,
+                1.9f, bottom, 0,
+                1.9f, top, 0,
+                1.1f, top, 0
+            }, quadPositions(0), EPSILON);
+        assertEquals(2.1f, left(1), EPSILON);
+
+        float u = 1 / 64.0f;
+        assertArrayEquals(new float[] {
+                u, 0.5f,
+                2 * u, 0.5f,
+                2 * u, 0.25f,
+                u, 0.25f
+            }, quadTexCoords(1), EPSILON);
+        assertEquals(1, mLayout.getLineCount());
+        assertEquals(2 * ADVANCE * 2, mLayout.getWidth(), EPSILON);
+        assertEquals(LINE_HEIGHT * 2, mLayout.getHeight(), EPSILON);
+    }
+
+    @Test
+    public void skipsSpacesAndMissingGlyphs()
+    {
+        assertEquals(3, layout("a b?c", 0, 0));
+        assertEquals(LEFT, left(0), EPSILON);
+        assertEquals(ADVANCE + SPACE + LEFT, left(1), EPSILON);
+        assertEquals(2 * ADVANCE + SPACE + LEFT, left(2), EPSILON);
+        assertEquals(3 * ADVANCE + SPACE, mLayout.getWidth(), EPSILON);
+    }
+
+    @Test
+    public void breaksLinesAtNewlines()
+    {
+        mLayout.setLineSpacing(1.5f);
+
+        assertEquals(5, layout("abc\nde", 0, 0));
+        assertEquals(2, mLayout.getLineCount());
+        assertEquals(LEFT, left(3), EPSILON);
+        assertEquals(-LINE_HEIGHT * 1.5f, bottom(3) - bottom(0), EPSILON);
+        assertEquals(3 * ADVANCE, mLayout.getWidth(), EPSILON);
+        assertEquals(2 * LINE_HEIGHT * 1.5f, mLayout.getHeight(), EPSILON);
+    }
+
+    @Test
+    public void wrapsAtTheLastSpace()
+    {
+        mLayout.setMaxWidth(2.0f);
+
+        // the second b would end at 2.2
+        assertEquals(6, layout("aa bb cc", 0, 0));
+        assertEquals(3, mLayout.getLineCount());
+        for (int line = 0; line < 3; ++line)
+        {
+            assertEquals(LEFT, left(line * 2), EPSILON);
+            assertEquals(LEFT + ADVANCE, left(line * 2 + 1), EPSILON);
+            assertEquals(-line * LINE_HEIGHT, bottom(line * 2) - bottom(0), EPSILON);
+        }
+        assertEquals(2 * ADVANCE, mLayout.getWidth(), EPSILON);
+
+        // the space at the break is on neither line
+        assertEquals(5, layout("aaa aa", 0, 0));
+        assertEquals(2, mLayout.getLineCount());
+        assertEquals(LEFT, left(3), EPSILON);
+    }
+
+    @Test
+    public void breaksWordsLongerThanALine()
+    {
+        mLayout.setMaxWidth(2.0f);
+
+        assertEquals(6, layout("aaaaaa", 0, 0));
+        assertEquals(2, mLayout.getLineCount());
+        assertEquals(LEFT + 3 * ADVANCE, left(3), EPSILON);
+        assertEquals(LEFT, left(4), EPSILON);
+        assertEquals(-LINE_HEIGHT, bottom(4) - bottom(0), EPSILON);
+        assertEquals(4 * ADVANCE, mLayout.getWidth(), EPSILON);
+    }
+
+    @Test
+    public void kernsPairs()
+    {
+        mLayout.setTextSize(2.0f);
+
+        assertEquals(3, layout("AVA", 0, 0));
+        assertEquals(LEFT * 2, left(0), EPSILON);
+        assertEquals((ADVANCE + KERNING + LEFT) * 2, left(1), EPSILON);
+        assertEquals((2 * (ADVANCE + KERNING) + LEFT) * 2, left(2), EPSILON);
+        assertEquals((3 * ADVANCE + 2 * KERNING) * 2, mLayout.getWidth(), EPSILON);
+
+        // only pairs of the same line, with nothing in between
+        assertEquals(4, layout("A\nVA V", 0, 0));
+        assertEquals(LEFT * 2, left(1), EPSILON);
+        assertEquals((ADVANCE + KERNING + LEFT) * 2, left(2), EPSILON);
+        assertEquals((2 * ADVANCE + KERNING + SPACE + LEFT) * 2, left(3), EPSILON);
+    }
+
+    @Test
+    public void wrapsKernedText()
+    {
+        // 1.95 wide without kerning, 1.65 with it
+        mLayout.setMaxWidth(1.75f);
+        assertEquals(4, layout("AVAV", 0, 0));
+        assertEquals(1, mLayout.getLineCount());
+        assertEquals(4 * ADVANCE + 3 * KERNING, mLayout.getWidth(), EPSILON);
+
+        // the glyphs moved after the space keep their kerning
+        mLayout.setMaxWidth(1.5f);
+        assertEquals(4, layout("a AVA", 0, 0));
+        assertEquals(2, mLayout.getLineCount());
+        assertEquals(3 * ADVANCE + 2 * KERNING, mLayout.getWidth(), EPSILON);
+        assertEquals(2 * (ADVANCE + KERNING) + LEFT, left(3), EPSILON);
+    }
+
+    @Test
+    public void alignsLines()
+    {
+        mLayout.setAlignment(GVRTextLayout.Alignment.CENTER);
+        assertEquals(6, layout("aaaa\naa", 1.0f, 0));
+        assertEquals(1.0f + LEFT, left(0), EPSILON);
+        assertEquals(1.0f + ADVANCE + LEFT, left(4), EPSILON);
+
+        mLayout.setAlignment(GVRTextLayout.Alignment.RIGHT);
+        assertEquals(6, layout("aaaa\naa", 1.0f, 0));
+        assertEquals(1.0f + LEFT, left(0), EPSILON);
+        assertEquals(1.0f + 2 * ADVANCE + LEFT, left(4), EPSILON);
+
+        // within the wrap width rather than the widest line
+        mLayout.setMaxWidth(3.0f);
+        mLayout.setAlignment(GVRTextLayout.Alignment.CENTER);
+        assertEquals(6, layout("aaaa\naa", 0, 0));
+        assertEquals(0.5f + LEFT, left(0), EPSILON);
+        assertEquals(1.0f + LEFT, left(4), EPSILON);
+
+        mLayout.setAlignment(GVRTextLayout.Alignment.RIGHT);
+        assertEquals(6, layout("aaaa\naa", 0, 0));
+        assertEquals(1.0f + LEFT, left(0), EPSILON);
+        assertEquals(2.0f + LEFT, left(4), EPSILON);
+    }
+
+    @Test
+    public void makesTwoTrianglesPerQuad()
+    {
+        int[] indices = new int[3 * GVRTextLayout.INDICES_PER_QUAD];
+
+        GVRTextLayout.setQuadIndices(indices, 1, 2);
+        assertArrayEquals(new int[] {
+                0, 0, 0, 0, 0, 0,
+                4, 5, 6, 4, 6, 7,
+                8, 9, 10, 8, 10, 11
+            }, indices);
+    }
+
+    private int layout(String text, float x, float y)
+    {
+        int maxQuads = GVRTextLayout.getMaxQuads(text);
+
+        mPositions = new float[maxQuads * GVRTextLayout.VERTICES_PER_QUAD * GVRTextLayout.POSITION_SIZE];
+        mTexCoords = new float[maxQuads * GVRTextLayout.VERTICES_PER_QUAD * GVRTextLayout.TEXCOORD_SIZE];
+        return mLayout.layout(text, x, y, mPositions, mTexCoords, 0);
+    }
+
+    private float[] quadPositions(int quad)
+    {
+        int size = GVRTextLayout.VERTICES_PER_QUAD * GVRTextLayout.POSITION_SIZE;
+        float[] positions = new float[size];
+        System.arraycopy(mPositions, quad * size, positions, 0, size);
+        return positions;
+    }
+
+    private float[] quadTexCoords(int quad)
+    {
+        int size = GVRTextLayout.VERTICES_PER_QUAD * GVRTextLayout.TEXCOORD_SIZE;
+        float[] texCoords = new float[size];
+        System.arraycopy(mTexCoords, quad * size, texCoords, 0, size);
+        return texCoords;
+    }
+
+    private float left(int quad)
+    {
+        return quadPositions(quad)[0];
+    }
+
+    private float bottom(int quad)
+    {
+        return quadPositions(quad)[1];
+    }
+}
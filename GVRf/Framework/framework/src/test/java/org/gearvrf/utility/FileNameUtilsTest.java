@@ -0,0 +1,150 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.utility;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link FileNameUtils#normalizeUrl(URL)} is the cache key of downloaded
+ * resources, so it must identify the same download in all its spellings
+ * without ever going to DNS.
+ * <p>
+ * The hosts are in the {@code .invalid} domain, which never resolves.
+ */
+public class FileNameUtilsTest {
+    private static final String HOST = "gvrf-test.invalid";
+
+    /*
+     * Fails the test if anything asks it to compare or hash a URL, which
+     * is where URL resolves the host.
+     */
+    private static final class NoResolverHandler extends URLStreamHandler {
+        private final int mDefaultPort;
+
+        NoResolverHandler(int defaultPort) {
+            mDefaultPort = defaultPort;
+        }
+
+        @Override
+        protected URLConnection openConnection(URL url) throws IOException {
+            throw new IOException("not connecting to " + url);
+        }
+
+        @Override
+        protected int getDefaultPort() {
+            return mDefaultPort;
+        }
+
+        @Override
+        protected synchronized InetAddress getHostAddress(URL url) {
+            fail("resolved the host of " + url.toExternalForm());
+            return null;
+        }
+
+        @Override
+        protected boolean hostsEqual(URL a, URL b) {
+            fail("compared the hosts of " + a.toExternalForm() + " and " + b.toExternalForm());
+            return false;
+        }
+
+        @Override
+        protected boolean equals(URL a, URL b) {
+            fail("compared " + a.toExternalForm() + " and " + b.toExternalForm());
+            return false;
+        }
+
+        @Override
+        protected int hashCode(URL url) {
+            fail("hashed " + url.toExternalForm());
+            return 0;
+        }
+    }
+
+    @Test
+    public void neverResolvesTheHost() throws MalformedURLException {
+        URLStreamHandler handler = new NoResolverHandler(80);
+        Map<String, String> cache = new HashMap<String, String>();
+
+        cache.put(FileNameUtils.normalizeUrl(
+                new URL(null, "http://" + HOST + "/textures/wood.png", handler)), "wood");
+        cache.put(FileNameUtils.normalizeUrl(
+                new URL(null, "http://" + HOST + "/textures/stone.png", handler)), "stone");
+
+        assertEquals("wood", cache.get(FileNameUtils.normalizeUrl(
+                new URL(null, "HTTP://GVRF-Test.invalid:80/textures/./wood.png#top", handler))));
+        assertEquals("stone", cache.get(FileNameUtils.normalizeUrl(
+                new URL(null, "http://" + HOST + "/models/../textures/stone.png", handler))));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void foldsCaseOfSchemeAndHostOnly() throws MalformedURLException {
+        assertEquals("http://" + HOST + "/Textures/Wood.PNG",
+                normalize("HTTP://GVRF-TEST.Invalid/Textures/Wood.PNG"));
+        assertNotEquals(normalize("http://" + HOST + "/a.png"),
+                normalize("http://" + HOST + "/A.png"));
+        assertEquals("http://User:Secret@" + HOST + "/",
+                normalize("http://User:Secret@" + HOST + "/"));
+    }
+
+    @Test
+    public void dropsTheDefaultPort() throws MalformedURLException {
+        assertEquals(normalize("http://" + HOST + "/a"), normalize("http://" + HOST + ":80/a"));
+        assertEquals(normalize("https://" + HOST + "/a"), normalize("https://" + HOST + ":443/a"));
+        assertEquals("http://" + HOST + ":8080/a", normalize("http://" + HOST + ":8080/a"));
+        assertEquals("https://" + HOST + ":80/a", normalize("https://" + HOST + ":80/a"));
+        assertNotEquals(normalize("http://" + HOST + "/a"), normalize("https://" + HOST + "/a"));
+    }
+
+    @Test
+    public void resolvesDotSegments() throws MalformedURLException {
+        assertEquals("http://" + HOST + "/a/c", normalize("http://" + HOST + "/a/./b/../c"));
+        assertEquals("http://" + HOST + "/a/", normalize("http://" + HOST + "/a/b/.."));
+        assertEquals("http://" + HOST + "/a/b/", normalize("http://" + HOST + "/a/b/."));
+        assertEquals("http://" + HOST + "/c", normalize("http://" + HOST + "/../../c"));
+        assertEquals("http://" + HOST + "/", normalize("http://" + HOST));
+        assertEquals(normalize("http://" + HOST + "/"), normalize("http://" + HOST));
+        // an empty segment is not a dot segment
+        assertEquals("http://" + HOST + "/a//b", normalize("http://" + HOST + "/a//b"));
+    }
+
+    @Test
+    public void dropsTheFragmentKeepsTheQuery() throws MalformedURLException {
+        assertEquals("http://" + HOST + "/a.png?size=2",
+                normalize("http://" + HOST + "/a.png?size=2#top"));
+        assertEquals(normalize("http://" + HOST + "/a.png"),
+                normalize("http://" + HOST + "/a.png#top"));
+        assertNotEquals(normalize("http://" + HOST + "/a.png?size=1"),
+                normalize("http://" + HOST + "/a.png?size=2"));
+    }
+
+    private static String normalize(String url) throws MalformedURLException {
+        return FileNameUtils.normalizeUrl(new URL(url));
+    }
+}
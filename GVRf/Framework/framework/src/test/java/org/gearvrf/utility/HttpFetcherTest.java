@@ -0,0 +1,432 @@
+/* Copyright 2015 Samsung Electronics Co., LTD
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gearvrf.utility;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs {@link HttpFetcher} against an HTTP server on the loopback
+ * interface.
+ * <p>
+ * The server serves byte arrays by path, with an ETag and range requests,
+ * and can be told to fail a path or to cut a response off half way.
+ */
+public class HttpFetcherTest {
+    private static final int FILE_SIZE = 1000;
+    private static final long OLD = 60 * 1000;
+
+    private HttpServer mServer;
+    private ExecutorService mServerThreads;
+    private File mCacheDir;
+
+    private final Map<String, byte[]> mContent = new ConcurrentHashMap<String, byte[]>();
+    private final Set<String> mFailing = Collections.newSetFromMap(
+            new ConcurrentHashMap<String, Boolean>());
+    private final Set<String> mTruncated = Collections.newSetFromMap(
+            new ConcurrentHashMap<String, Boolean>());
+    private final List<Request> mRequests = Collections.synchronizedList(new ArrayList<Request>());
+    private volatile long mDelayMillis;
+
+    private static final class Request {
+        final String path;
+        final String ifNoneMatch;
+        final String range;
+        final int status;
+
+        Request(String path, String ifNoneMatch, String range, int status) {
+            this.path = path;
+            this.ifNoneMatch = ifNoneMatch;
+            this.range = range;
+            this.status = status;
+        }
+    }
+
+    @Before
+    public void startServer() throws IOException {
+        mServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        mServer.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                serve(exchange);
+            }
+        });
+        mServerThreads = Executors.newCachedThreadPool();
+        mServer.setExecutor(mServerThreads);
+        mServer.start();
+
+        mCacheDir = File.createTempFile("gvrf", ".http");
+        mCacheDir.delete();
+    }
+
+    @After
+    public void stopServer() {
+        mServer.stop(0);
+        mServerThreads.shutdownNow();
+        delete(mCacheDir);
+    }
+
+    @Test
+    public void joinsDownloadsInFlight() throws Exception {
+        final HttpFetcher fetcher = new HttpFetcher(mCacheDir, 1 << 20, 4);
+        final URL url = put("/a", content(1));
+        final int callers = 16;
+        mDelayMillis = 200;
+
+        ExecutorService threads = Executors.newFixedThreadPool(callers);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Future<File>> files = new ArrayList<Future<File>>();
+            for (int i = 0; i < callers; ++i) {
+                files.add(threads.submit(new Callable<File>() {
+                    @Override
+                    public File call() throws Exception {
+                        start.await();
+                        return fetcher.fetchNow(url);
+                    }
+                }));
+            }
+            start.countDown();
+            File first = files.get(0).get();
+            for (Future<File> file : files) {
+                assertEquals(first, file.get());
+                fetcher.release(url);
+            }
+            assertArrayEquals(content(1), read(first));
+        } finally {
+            threads.shutdown();
+        }
+        assertEquals("requests", 1, mRequests.size());
+    }
+
+    @Test
+    public void storesSameContentOnce() throws Exception {
+        HttpFetcher fetcher = new HttpFetcher(mCacheDir, 1 << 20, 4);
+        File a = fetchNow(fetcher, put("/a", content(1)));
+        File b = fetchNow(fetcher, put("/b", content(1)));
+        File c = fetchNow(fetcher, put("/c", content(2)));
+
+        assertEquals(a, b);
+        assertFalse(a.equals(c));
+        assertEquals(2 * FILE_SIZE, fetcher.getCacheSize());
+    }
+
+    @Test
+    public void revalidatesWithETag() throws Exception {
+        HttpFetcher fetcher = new HttpFetcher(mCacheDir, 1 << 20, 4);
+        URL url = put("/a", content(1));
+        File first = fetchNow(fetcher, url);
+
+        // within the interval the cache answers
+        assertEquals(first, fetchNow(fetcher, url));
+        assertEquals(1, mRequests.size());
+
+        fetcher.setRevalidateInterval(0);
+        assertEquals(first, fetchNow(fetcher, url));
+        assertEquals(2, mRequests.size());
+        Request revalidate = mRequests.get(1);
+        assertEquals(etag(content(1)), revalidate.ifNoneMatch);
+        assertEquals(304, revalidate.status);
+
+        // changed on the server
+        put("/a", content(2));
+        File second = fetchNow(fetcher, url);
+        assertEquals(200, mRequests.get(2).status);
+        assertArrayEquals(content(2), read(second));
+    }
+
+    @Test
+    public void fallsBackToStaleCopy() throws Exception {
+        HttpFetcher fetcher = new HttpFetcher(mCacheDir, 1 << 20, 4);
+        URL url = put("/a", content(1));
+        File cached = fetchNow(fetcher, url);
+
+        fetcher.setRevalidateInterval(0);
+        mFailing.add("/a");
+        assertEquals(cached, fetchNow(fetcher, url));
+        assertEquals(500, mRequests.get(1).status);
+        assertArrayEquals(content(1), read(cached));
+
+        // nothing to fall back on
+        mFailing.add("/b");
+        try {
+            fetcher.fetchNow(put("/b", content(2)));
+            fail("fetched a URL the server fails");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void resumesInterruptedDownload() throws Exception {
+        HttpFetcher fetcher = new HttpFetcher(mCacheDir, 1 << 20, 4);
+        URL url = put("/a", content(1));
+
+        mTruncated.add("/a");
+        try {
+            fetcher.fetchNow(url);
+            fail("fetched a response which was cut off");
+        } catch (IOException expected) {
+        }
+
+        mTruncated.clear();
+        File file = fetchNow(fetcher, url);
+        assertArrayEquals(content(1), read(file));
+        assertEquals(2, mRequests.size());
+        assertEquals("bytes=" + (FILE_SIZE / 2) + "-", mRequests.get(1).range);
+        assertEquals(206, mRequests.get(1).status);
+    }
+
+    @Test
+    public void restartsDownloadOfChangedFile() throws Exception {
+        HttpFetcher fetcher = new HttpFetcher(mCacheDir, 1 << 20, 4);
+        URL url = put("/a", content(1));
+
+        mTruncated.add("/a");
+        try {
+            fetcher.fetchNow(url);
+            fail("fetched a response which was cut off");
+        } catch (IOException expected) {
+        }
+
+        // If-Range no longer matches, so the whole new version comes back
+        mTruncated.clear();
+        put("/a", content(2));
+        File file = fetchNow(fetcher, url);
+        assertArrayEquals(content(2), read(file));
+        assertNotNull(mRequests.get(1).range);
+        assertEquals(200, mRequests.get(1).status);
+    }
+
+    @Test
+    public void trimsLeastRecentlyUsed() throws Exception {
+        HttpFetcher fetcher = new HttpFetcher(mCacheDir, 3 * FILE_SIZE + FILE_SIZE / 2, 4);
+        File a = fetchNow(fetcher, put("/a", content(1)));
+        File b = fetchNow(fetcher, put("/b", content(2)));
+        File c = fetchNow(fetcher, put("/c", content(3)));
+        long now = System.currentTimeMillis();
+        b.setLastModified(now - OLD);
+        a.setLastModified(now - 2 * OLD);
+        c.setLastModified(now - OLD / 2);
+
+        // over the limit by one file: the oldest goes
+        File d = fetchNow(fetcher, put("/d", content(4)));
+        assertFalse(a.exists());
+        assertTrue(b.exists());
+        assertTrue(c.exists());
+        assertTrue(d.exists());
+        assertEquals(3 * FILE_SIZE, fetcher.getCacheSize());
+
+        // and comes back when asked for
+        a = fetchNow(fetcher, put("/a", content(1)));
+        assertArrayEquals(content(1), read(a));
+        assertFalse(b.exists());
+    }
+
+    @Test
+    public void keepsPinnedFiles() throws Exception {
+        HttpFetcher fetcher = new HttpFetcher(mCacheDir, FILE_SIZE, 4);
+        URL url = put("/a", content(1));
+        File pinned = fetcher.fetchNow(url);
+        File other = fetchNow(fetcher, put("/b", content(2)));
+        pinned.setLastModified(System.currentTimeMillis() - 2 * OLD);
+        other.setLastModified(System.currentTimeMillis() - OLD);
+
+        // the older file is pinned, so the newer one goes
+        fetcher.trim();
+        assertTrue(pinned.exists());
+        assertFalse(other.exists());
+
+        fetcher.release(url);
+        fetchNow(fetcher, new URL(url, "/b"));
+        assertFalse(pinned.exists());
+    }
+
+    @Test
+    public void openNowReleasesThePin() throws Exception {
+        HttpFetcher fetcher = new HttpFetcher(mCacheDir, 0, 4);
+        URL url = put("/a", content(1));
+        InputStream in = fetcher.openNow(url);
+        try {
+            for (File file : new File(mCacheDir, "objects").listFiles()) {
+                file.setLastModified(System.currentTimeMillis() - OLD);
+            }
+            fetcher.trim();
+            assertEquals(0, fetcher.getCacheSize());
+            // deleted, but still readable through the open stream
+            assertArrayEquals(content(1), readAll(in));
+        } finally {
+            in.close();
+        }
+    }
+
+    /*
+     * Fetch a URL and release it right away, as the tests only look at
+     * the file when they expect it to be there.
+     */
+    private static File fetchNow(HttpFetcher fetcher, URL url) throws IOException {
+        File file = fetcher.fetchNow(url);
+        fetcher.release(url);
+        return file;
+    }
+
+    private URL put(String path, byte[] content) throws IOException {
+        mContent.put(path, content);
+        return new URL("http", "127.0.0.1", mServer.getAddress().getPort(), path);
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        byte[] content = mContent.get(path);
+        boolean truncated = mTruncated.contains(path);
+
+        try {
+            if (mDelayMillis > 0) {
+                Thread.sleep(mDelayMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (mFailing.contains(path)) {
+                respond(exchange, path, ifNoneMatch, range, 500, -1);
+                return;
+            }
+            if (content == null) {
+                respond(exchange, path, ifNoneMatch, range, 404, -1);
+                return;
+            }
+            String etag = etag(content);
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(ifNoneMatch)) {
+                respond(exchange, path, ifNoneMatch, range, 304, -1);
+                return;
+            }
+
+            int offset = 0;
+            int status = 200;
+            if ((range != null) && range.startsWith("bytes=") && range.endsWith("-")
+                    && etag.equals(ifRange)) {
+                offset = Integer.parseInt(range.substring(6, range.length() - 1));
+                exchange.getResponseHeaders().set("Content-Range",
+                        "bytes " + offset + "-" + (content.length - 1) + "/" + content.length);
+                status = 206;
+            }
+            respond(exchange, path, ifNoneMatch, range, status, content.length - offset);
+            OutputStream out = exchange.getResponseBody();
+            if (truncated) {
+                out.write(content, offset, (content.length - offset) / 2);
+                out.flush();
+                // the server drops the connection of a handler which throws
+                throw new IOException("response cut off");
+            }
+            out.write(content, offset, content.length - offset);
+        } finally {
+            if (!truncated) {
+                exchange.close();
+            }
+        }
+    }
+
+    /*
+     * Record a request before answering it, so that the test sees it as
+     * soon as the fetcher has its response.
+     */
+    private void respond(HttpExchange exchange, String path, String ifNoneMatch, String range,
+            int status, long length) throws IOException {
+        mRequests.add(new Request(path, ifNoneMatch, range, status));
+        exchange.sendResponseHeaders(status, length);
+    }
+
+    /*
+     * FILE_SIZE bytes which differ for each seed.
+     */
+    private static byte[] content(int seed) {
+        byte[] content = new byte[FILE_SIZE];
+        for (int i = 0; i < content.length; ++i) {
+            content[i] = (byte) (seed * 31 + i * 7);
+        }
+        return content;
+    }
+
+    private static String etag(byte[] content) {
+        return "\"" + Integer.toHexString(Arrays.hashCode(content)) + "\"";
+    }
+
+    private static byte[] read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return readAll(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}